@@ -61,4 +61,35 @@ CREATE TABLE sample
     value          INTEGER NOT NULL,
     PRIMARY KEY (id, channel_number, examination_id),
     FOREIGN KEY (channel_number, examination_id) REFERENCES channel (number, examination_id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- legacy samples of channel in order of index (conversion into chunks)
+CREATE INDEX sample_channel ON sample (examination_id, channel_number, id);
+
+CREATE TABLE sample_chunk
+(
+    start_index    INTEGER NOT NULL,
+    channel_number INTEGER NOT NULL,
+    examination_id INTEGER NOT NULL,
+    amount         INTEGER NOT NULL,
+    min_value      INTEGER NOT NULL,
+    max_value      INTEGER NOT NULL,
+    encoding       INTEGER NOT NULL,
+    data           BLOB    NOT NULL,
+    -- index of chunks of channel in order of start (SampleChunkID)
+    PRIMARY KEY (examination_id, channel_number, start_index),
+    FOREIGN KEY (channel_number, examination_id) REFERENCES channel (number, examination_id) ON DELETE CASCADE
+);
+
+CREATE TABLE sample_summary
+(
+    level          INTEGER NOT NULL,
+    start_index    INTEGER NOT NULL,
+    channel_number INTEGER NOT NULL,
+    examination_id INTEGER NOT NULL,
+    amount         INTEGER NOT NULL,
+    data           BLOB    NOT NULL,
+    -- index of blocks of level of channel in order of start (SampleSummaryID)
+    PRIMARY KEY (examination_id, channel_number, level, start_index),
+    FOREIGN KEY (channel_number, examination_id) REFERENCES channel (number, examination_id) ON DELETE CASCADE
+);
@@ -0,0 +1,68 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.gsa.biointerface.host.cash.IntRingBuffer;
+import ru.gsa.biointerface.host.cash.SampleCash;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Live path of samples: {@link SampleCash#add(int)} passes blocks to the listener
+ * which appends them to {@link IntRingBuffer} of channel window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CashBenchmark {
+    private static final int BATCH = 1024;
+    private final int[] samples = Frames.samples(BATCH);
+    private final int[] view = new int[4096];
+    private SampleCash cash;
+    private IntRingBuffer ringBuffer;
+
+    @Setup
+    public void setUp() {
+        ringBuffer = new IntRingBuffer(4096);
+        cash = new SampleCash();
+        cash.setListener(ringBuffer::add);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void add() {
+        for (int sample : samples) {
+            cash.add(sample);
+        }
+    }
+
+    /**
+     * Copy of the window for drawing (once per frame of UI).
+     */
+    @Benchmark
+    public int copyLast() {
+        return ringBuffer.copyLast(view, view.length);
+    }
+
+    /**
+     * Writer and reader of window at the same time (serial thread and UI thread).
+     */
+    @Benchmark
+    @Group("concurrent")
+    @OperationsPerInvocation(BATCH)
+    public void concurrentAdd() {
+        for (int sample : samples) {
+            cash.add(sample);
+        }
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    public void concurrentCopy(Blackhole blackhole) {
+        blackhole.consume(ringBuffer.copyLast(view, view.length));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.gsa.biointerface.host.serialport.PacketDecoder;
+import ru.gsa.biointerface.host.serialport.packets.ChannelPacket;
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Parsing of serial stream: {@link PacketDecoder} as used by SerialPortHost.serialEvent
+ * and access to {@link ChannelPacket} samples.
+ * One operation is one read of serial port ({@link #READ_SIZE} bytes).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+    private static final int READ_SIZE = 512;
+    @Param({"2", "8"})
+    private int amountChannels;
+    private byte[] stream;
+    private byte[][] frames;
+    private int position;
+    private PacketDecoder decoder;
+    private ChannelPacket packet;
+    private Handler handler;
+
+    @Setup
+    public void setUp() {
+        stream = Frames.stream(4096, amountChannels);
+        int frameSize = 4 + 2 * amountChannels;
+        frames = new byte[4096][];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new byte[2 * amountChannels];
+            System.arraycopy(stream, i * frameSize + 4, frames[i], 0, frames[i].length);
+        }
+        decoder = new PacketDecoder();
+        packet = new ChannelPacket(PacketDecoder.MAX_SAMPLES_IN_FRAME);
+        handler = new Handler();
+    }
+
+    /**
+     * Stateful decoder: bytes of read are fed to ring buffer, complete frames are decoded in place.
+     */
+    @Benchmark
+    public void decoder(Blackhole blackhole) {
+        if (position + READ_SIZE > stream.length) {
+            position = 0;
+        }
+        handler.blackhole = blackhole;
+        decoder.feed(stream, position, READ_SIZE);
+        position += READ_SIZE;
+        blackhole.consume(decoder.decode(handler));
+    }
+
+    /**
+     * Reused packet: decoded values are copied into pooled {@link ChannelPacket}
+     * and read back by {@link ChannelPacket#getSample(int)}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void pooledPacket(Blackhole blackhole) {
+        int[] scales = new int[amountChannels];
+
+        for (int i = 0; i < 64; i++) {
+            byte[] msg = frames[(position++) & (frames.length - 1)];
+            for (int j = 0; j < amountChannels; j++) {
+                handler.samples[j] = (msg[j * 2 + 1] << 4) | ((msg[j * 2] >> 4) & 0x0F);
+            }
+            packet.set(handler.samples, scales, amountChannels);
+            for (int j = 0; j < packet.getCountChannelInPacket(); j++) {
+                blackhole.consume(packet.getSample(j));
+            }
+        }
+    }
+
+    /**
+     * Baseline: one new {@link ChannelPacket} per frame (allocation per frame).
+     */
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void packetPerFrame(Blackhole blackhole) {
+        for (int i = 0; i < 64; i++) {
+            ChannelPacket packet = new ChannelPacket(frames[(position++) & (frames.length - 1)]);
+            for (int j = 0; j < packet.getCountChannelInPacket(); j++) {
+                blackhole.consume(packet.getSample(j));
+            }
+        }
+    }
+
+    private static final class Handler implements PacketDecoder.FrameHandler {
+        private final int[] samples = new int[PacketDecoder.MAX_SAMPLES_IN_FRAME];
+        private Blackhole blackhole;
+
+        @Override
+        public void dataFrame(int[] samples, int[] scales, int amount) {
+            for (int i = 0; i < amount; i++) {
+                blackhole.consume(samples[i]);
+            }
+        }
+
+        @Override
+        public void frame(PacketType type, byte[] msg) {
+            blackhole.consume(msg);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.gsa.biointerface.benchmark;
+
+import ru.gsa.biointerface.host.serialport.packets.ChannelPacket;
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+
+import java.util.Random;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Synthetic stream of DATA frames in the wire format of controller.
+ */
+final class Frames {
+    private Frames() {
+    }
+
+    /**
+     * @param frames         - amount of frames
+     * @param amountChannels - samples in frame
+     * @return - bytes of frames one after another
+     */
+    static byte[] stream(int frames, int amountChannels) {
+        Random random = new Random(42);
+        ChannelPacket packet = new ChannelPacket(amountChannels);
+        int[] samples = new int[amountChannels];
+        int[] scales = new int[amountChannels];
+        int frameSize = 4 + 2 * amountChannels;
+        byte[] stream = new byte[frames * frameSize];
+
+        for (int i = 0; i < frames; i++) {
+            for (int j = 0; j < amountChannels; j++) {
+                samples[j] = random.nextInt(4096) - 2048;
+            }
+            packet.set(samples, scales, amountChannels);
+            stream[i * frameSize] = (byte) 0xFF;
+            stream[i * frameSize + 1] = (byte) 0xFF;
+            stream[i * frameSize + 2] = PacketType.DATA.getId();
+            stream[i * frameSize + 3] = (byte) (2 * amountChannels);
+            System.arraycopy(packet.getMsg(), 0, stream, i * frameSize + 4, 2 * amountChannels);
+        }
+
+        return stream;
+    }
+
+    static int[] samples(int amount) {
+        Random random = new Random(42);
+        int[] samples = new int[amount];
+
+        for (int i = 0; i < amount; i++) {
+            samples[i] = random.nextInt(4096) - 2048;
+        }
+
+        return samples;
+    }
+}
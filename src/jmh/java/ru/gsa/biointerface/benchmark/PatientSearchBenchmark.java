@@ -0,0 +1,73 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.gsa.biointerface.repository.PatientFilter;
+import ru.gsa.biointerface.repository.PatientSearchKey;
+import ru.gsa.biointerface.service.PatientSearchIndex;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Search as you type in {@link PatientSearchIndex} of generated patients
+ * (names from syllables, so there are many similar names and long lists of prefix).
+ * Score is latency of one query with limit of {@link #LIMIT} results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientSearchBenchmark {
+    private static final int LIMIT = 500;
+    private static final String[] SYLLABLES = {
+            "ив", "ан", "пет", "ро", "сер", "ге", "ми", "ха", "ил", "ов", "ев", "ин", "ко", "ва", "ле", "на"
+    };
+    @Param({"100000"})
+    private int amount;
+    /**
+     * one letter, prefix, word, word with typo, two words, id
+     */
+    @Param({"п", "пет", "петров", "петорв", "петров ан", "12345"})
+    private String query;
+    private PatientSearchIndex index;
+    private PatientFilter filter;
+
+    private static String name(Random random, String ending) {
+        StringBuilder builder = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+
+        for (int i = 0; i < syllables; i++) {
+            builder.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        builder.setCharAt(0, Character.toUpperCase(builder.charAt(0)));
+
+        return builder + ending;
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        index = new PatientSearchIndex();
+
+        for (int i = 1; i <= amount; i++) {
+            index.put(new PatientSearchKey(i,
+                    name(random, "ов"),
+                    name(random, ""),
+                    name(random, "ович"),
+                    new GregorianCalendar(1930 + random.nextInt(90), random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextBoolean() ? null : random.nextInt(100)));
+        }
+        filter = PatientFilter.builder().name(query).build();
+    }
+
+    @Benchmark
+    public List<Integer> search() {
+        return index.search(filter, LIMIT);
+    }
+}
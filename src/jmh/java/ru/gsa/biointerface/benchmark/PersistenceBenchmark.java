@@ -0,0 +1,203 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.gsa.biointerface.domain.entity.*;
+import ru.gsa.biointerface.repository.SampleRepository;
+import ru.gsa.biointerface.repository.SampleTransaction;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+import ru.gsa.biointerface.repository.impl.ChannelRepositoryImpl;
+import ru.gsa.biointerface.repository.impl.DeviceRepositoryImpl;
+import ru.gsa.biointerface.repository.impl.PatientRepositoryImpl;
+import ru.gsa.biointerface.repository.impl.SampleRepositoryImpl;
+import ru.gsa.biointerface.service.ExaminationService;
+import ru.gsa.biointerface.service.SampleRange;
+import ru.gsa.biointerface.service.SampleService;
+import ru.gsa.biointerface.service.SampleWriter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Recording and reading of samples on SQLite (as in production) and H2 (as in tests).
+ * <p>
+ * Database is created once per fork, so backends are measured in separate forks.
+ * Writing benchmarks use a new examination for every iteration
+ * because indexes of samples start from zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final int AMOUNT_CHANNELS = 8;
+    private static final int RECORDED_SAMPLES = 1 << 16;
+    private static final int WINDOW = 4096;
+    @Param({"sqlite", "h2"})
+    private String backend;
+    private Path file;
+    private Patient patient;
+    private Device device;
+    private SampleService sampleService;
+    private ExaminationService examinationService;
+    private SampleRepository sampleRepository;
+    private Examination recorded;
+    private Channel recordedChannel;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("sqlite".equals(backend)) {
+            file = Files.createTempFile("benchmark", ".s3db");
+            System.setProperty("hibernate.connection.url", "jdbc:sqlite:" + file);
+            DatabaseHandler.getInstance();
+        } else {
+            DatabaseHandler.constructInstanceForTest();
+        }
+
+        sampleService = SampleService.getInstance();
+        examinationService = ExaminationService.getInstance();
+        sampleRepository = SampleRepositoryImpl.getInstance();
+        patient = new Patient(1, "second", "first", "middle",
+                new GregorianCalendar(2000, Calendar.JANUARY, 1), null, "benchmark");
+        PatientRepositoryImpl.getInstance().save(patient);
+        device = new Device(1, AMOUNT_CHANNELS);
+        DeviceRepositoryImpl.getInstance().save(device);
+
+        recorded = newExamination();
+        examinationService.recordingStart(recorded);
+        for (int i = 0; i < RECORDED_SAMPLES; i++) {
+            for (Channel channel : recorded.getChannels()) {
+                sampleService.setSampleInChannel(channel, (i + channel.getId().getNumber()) % 4096 - 2048);
+            }
+        }
+        examinationService.recordingStop(recorded);
+        recordedChannel = recorded.getChannels().get(0);
+        sampleService.prepareForViewing(recordedChannel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        examinationService.delete(recorded);
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Examination newExamination() throws Exception {
+        Examination examination = examinationService.save(new Examination(patient, device, "benchmark"));
+
+        for (int i = 0; i < AMOUNT_CHANNELS; i++) {
+            examination.getChannels().add(ChannelRepositoryImpl.getInstance().save(new Channel(i, examination, null)));
+        }
+
+        return examination;
+    }
+
+    private int nextWindow() {
+        position = (position + WINDOW) % (RECORDED_SAMPLES - WINDOW);
+        return position;
+    }
+
+    /**
+     * Reading of all samples of channel as entities.
+     */
+    @Benchmark
+    public void findAllByChannel(Blackhole blackhole) throws Exception {
+        blackhole.consume(sampleService.findAllByChannel(recordedChannel));
+    }
+
+    /**
+     * Reading of a window of samples into primitive array.
+     */
+    @Benchmark
+    public int[] findValuesByChannel() throws Exception {
+        int from = nextWindow();
+        return sampleService.findValuesByChannel(recordedChannel, from, from + WINDOW);
+    }
+
+    /**
+     * Reading of the whole recording for 1920 pixels from pyramid.
+     */
+    @Benchmark
+    public SampleRange findRange() throws Exception {
+        int level = SampleService.chooseLevel(RECORDED_SAMPLES, 1920);
+        return sampleService.findRange(recordedChannel, level, 0, RECORDED_SAMPLES);
+    }
+
+    /**
+     * Recording of one frame (a sample for every channel) through {@link SampleWriter}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(AMOUNT_CHANNELS)
+    public void recordFrame(Recording recording) throws Exception {
+        int value = recording.index++ % 4096 - 2048;
+
+        for (Channel channel : recording.examination.getChannels()) {
+            sampleService.setSampleInChannel(channel, value);
+        }
+    }
+
+    /**
+     * Baseline: a row per sample through session of Hibernate
+     * (as samples were recorded before {@link SampleWriter}).
+     */
+    @Benchmark
+    @OperationsPerInvocation(AMOUNT_CHANNELS)
+    public void insertEntities(Legacy legacy) throws Exception {
+        int index = legacy.index++;
+
+        for (Channel channel : legacy.examination.getChannels()) {
+            legacy.transaction.insert(new Sample(index, channel, index % 4096 - 2048));
+            channel.getSamples().clear();
+        }
+        if (index % SampleWriter.DEFAULT_BATCH_SIZE == 0) {
+            legacy.transaction.commit();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Recording {
+        private Examination examination;
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void setUp(PersistenceBenchmark benchmark) throws Exception {
+            examination = benchmark.newExamination();
+            index = 0;
+            benchmark.examinationService.recordingStart(examination);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(PersistenceBenchmark benchmark) throws Exception {
+            benchmark.examinationService.recordingStop(examination);
+            benchmark.examinationService.delete(examination);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Legacy {
+        private Examination examination;
+        private SampleTransaction transaction;
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void setUp(PersistenceBenchmark benchmark) throws Exception {
+            examination = benchmark.newExamination();
+            index = 0;
+            transaction = benchmark.sampleRepository.openTransaction();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(PersistenceBenchmark benchmark) throws Exception {
+            transaction.close();
+            benchmark.examinationService.delete(examination);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.gsa.biointerface.ui.window.channel.WaveformDecimator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Building of polyline for waveform canvas (without JavaFX toolkit).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+    private static final int WIDTH = 1920;
+    private static final double HEIGHT = 200;
+    @Param({"1024", "65536", "1048576"})
+    private int window;
+    private int[] samples;
+    private int[] min;
+    private int[] max;
+    private WaveformDecimator decimator;
+
+    @Setup
+    public void setUp() {
+        samples = Frames.samples(window);
+        min = new int[Math.max(window / 256, 1)];
+        max = new int[min.length];
+        for (int i = 0; i < min.length; i++) {
+            min[i] = Integer.MAX_VALUE;
+            max[i] = Integer.MIN_VALUE;
+            for (int j = i * 256; j < Math.min((i + 1) * 256, window); j++) {
+                min[i] = Math.min(min[i], samples[j]);
+                max[i] = Math.max(max[i], samples[j]);
+            }
+        }
+        decimator = new WaveformDecimator();
+    }
+
+    /**
+     * All samples of window are decimated to pixel columns.
+     */
+    @Benchmark
+    public int samples() {
+        return decimator.build(samples, samples, samples.length, 1, 0, 0, window, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Window is drawn from level 2 of pyramid (256 samples per point).
+     */
+    @Benchmark
+    public int envelope() {
+        return decimator.build(min, max, min.length, 256, 0, 0, window, WIDTH, HEIGHT);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.gsa.biointerface.host.capture.CaptureReader;
+import ru.gsa.biointerface.host.capture.CaptureWriter;
+import ru.gsa.biointerface.host.capture.ReplayHost;
+import ru.gsa.biointerface.host.serialport.PacketDecoder;
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Ingest of host (decoding, buffers, handler) on a capture of session played as fast as possible.
+ * {@link #capture} is a file of {@link CaptureWriter} (e.g. captured in clinic with
+ * -Dbiointerface.capture=dir), if it is empty a synthetic capture of {@link #FRAMES} frames is used.
+ * One operation is a replay of the whole capture, processed frames are reported as "frames".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+    private static final int FRAMES = 100_000;
+    private static final int AMOUNT_CHANNELS = 8;
+    private static final int FRAMES_IN_RECORD = 32;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+    @Param({""})
+    private String capture;
+    @Param({"blocking", "busySpin"})
+    private String waitStrategy;
+    private Path path;
+    private Path synthetic;
+    private volatile long received = 0;
+    private long expected;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (capture.isEmpty()) {
+            synthetic = Files.createTempFile("replay", CaptureWriter.EXTENSION);
+            write(synthetic);
+            path = synthetic;
+        } else {
+            path = Path.of(capture);
+        }
+
+        expected = countFrames(path);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (synthetic != null) {
+            Files.deleteIfExists(synthetic);
+        }
+    }
+
+    private static void write(Path path) throws Exception {
+        byte[] stream = Frames.stream(FRAMES, AMOUNT_CHANNELS);
+        int recordSize = FRAMES_IN_RECORD * (4 + 2 * AMOUNT_CHANNELS);
+        long nanos = System.nanoTime();
+
+        try (CaptureWriter writer = new CaptureWriter(path)) {
+            for (int offset = 0; offset < stream.length; offset += recordSize) {
+                writer.bytesReceived(stream, offset, Math.min(recordSize, stream.length - offset), nanos);
+                nanos += TimeUnit.MILLISECONDS.toNanos(FRAMES_IN_RECORD);
+            }
+        }
+    }
+
+    private static long countFrames(Path path) throws Exception {
+        PacketDecoder decoder = new PacketDecoder();
+        long[] frames = new long[1];
+        PacketDecoder.FrameHandler handler = new PacketDecoder.FrameHandler() {
+            @Override
+            public void dataFrame(int[] samples, int[] scales, int amount) {
+                frames[0]++;
+            }
+
+            @Override
+            public void frame(PacketType type, byte[] msg) {
+            }
+        };
+
+        try (CaptureReader reader = new CaptureReader(path)) {
+            while (reader.next()) {
+                for (int offset = 0; offset < reader.getLength(); offset += ReplayHost.SLICE_SIZE) {
+                    decoder.feed(reader.getBytes(), offset, Math.min(ReplayHost.SLICE_SIZE, reader.getLength() - offset));
+                    decoder.decode(handler);
+                }
+            }
+        }
+
+        return frames[0];
+    }
+
+    @Benchmark
+    public void replay(Counters counters) throws Exception {
+        counters.frames += replay();
+    }
+
+    private long replay() throws Exception {
+        ReplayHost host = new ReplayHost(path, ReplayHost.AS_FAST_AS_POSSIBLE, WaitStrategy.factory(waitStrategy));
+        host.handler((message, server, context) -> {
+            if (message.getPackageType() == PacketType.DATA) {
+                received++;
+            }
+        });
+
+        received = 0;
+        host.start();
+        long deadline = System.nanoTime() + TIMEOUT;
+        while (received < expected) {
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException("Capture is not replayed in time");
+
+            Thread.onSpinWait();
+        }
+        host.stop();
+
+        return received;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long frames;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            frames = 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.gsa.biointerface.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.gsa.biointerface.domain.entity.*;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+import ru.gsa.biointerface.repository.database.SQLiteConnectionProvider;
+import ru.gsa.biointerface.repository.impl.ChannelRepositoryImpl;
+import ru.gsa.biointerface.repository.impl.DeviceRepositoryImpl;
+import ru.gsa.biointerface.repository.impl.PatientRepositoryImpl;
+import ru.gsa.biointerface.service.ExaminationService;
+import ru.gsa.biointerface.service.SampleService;
+import ru.gsa.biointerface.service.SampleWriter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Recording and reading at the same time on SQLite with pragmas of driver (DEFAULT)
+ * and with WAL journal (TUNED), see {@link ru.gsa.biointerface.repository.database.SQLiteProfile}.
+ * <p>
+ * "alone" - recording of frames of 8 channels without readers.
+ * "recording" - one thread records frames, two threads read a window of a recorded channel
+ * and the list of examinations (as windows of examination and patient do).
+ * Score of "read" in SampleTime mode is latency of reading during recording.
+ * With DEFAULT (rollback journal) readers and commits of recording lock each other out,
+ * so the group is expected to fail with SQLITE_BUSY there.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SQLiteProfileBenchmark {
+    private static final int AMOUNT_CHANNELS = 8;
+    private static final int RECORDED_SAMPLES = 1 << 15;
+    private static final int WINDOW = 4096;
+    @Param({"DEFAULT", "TUNED"})
+    private String profile;
+    private Path file;
+    private Patient patient;
+    private Device device;
+    private SampleService sampleService;
+    private ExaminationService examinationService;
+    private Examination recorded;
+    private Channel recordedChannel;
+    private Examination examination;
+    private SampleWriter writer;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Files.createTempFile("benchmark", ".s3db");
+        System.setProperty("hibernate.connection.url", "jdbc:sqlite:" + file);
+        System.setProperty(SQLiteConnectionProvider.PROFILE_PROPERTY, profile);
+        DatabaseHandler.getInstance();
+
+        sampleService = SampleService.getInstance();
+        examinationService = ExaminationService.getInstance();
+        patient = new Patient(1, "second", "first", "middle",
+                new GregorianCalendar(2000, Calendar.JANUARY, 1), null, "benchmark");
+        PatientRepositoryImpl.getInstance().save(patient);
+        device = new Device(1, AMOUNT_CHANNELS);
+        DeviceRepositoryImpl.getInstance().save(device);
+
+        recorded = newExamination();
+        SampleWriter writer = examinationService.recordingStart(recorded);
+        for (int i = 0; i < RECORDED_SAMPLES; i++) {
+            for (int j = 0; j < AMOUNT_CHANNELS; j++) {
+                writer.add(j, (i + j) % 4096 - 2048);
+            }
+        }
+        examinationService.recordingStop(recorded);
+        recordedChannel = recorded.getChannels().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        examinationService.delete(recorded);
+        DatabaseHandler.getInstance().getSessionFactory().close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+    }
+
+    @Setup(Level.Iteration)
+    public void startRecording() throws Exception {
+        examination = newExamination();
+        index = 0;
+        writer = examinationService.recordingStart(examination);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopRecording() throws Exception {
+        examinationService.recordingStop(examination);
+        examinationService.delete(examination);
+    }
+
+    private Examination newExamination() throws Exception {
+        Examination examination = examinationService.save(new Examination(patient, device, "benchmark"));
+
+        for (int i = 0; i < AMOUNT_CHANNELS; i++) {
+            examination.getChannels().add(ChannelRepositoryImpl.getInstance().save(new Channel(i, examination, null)));
+        }
+
+        return examination;
+    }
+
+    /**
+     * Recording of one frame (a sample for every channel) without readers.
+     */
+    @Benchmark
+    @Group("alone")
+    @OperationsPerInvocation(AMOUNT_CHANNELS)
+    public void recordAlone() throws Exception {
+        record();
+    }
+
+    /**
+     * Recording of one frame (a sample for every channel).
+     */
+    @Benchmark
+    @Group("recording")
+    @GroupThreads(1)
+    @OperationsPerInvocation(AMOUNT_CHANNELS)
+    public void record() throws Exception {
+        int value = index++ % 4096 - 2048;
+
+        for (int i = 0; i < AMOUNT_CHANNELS; i++) {
+            writer.add(i, value);
+        }
+    }
+
+    /**
+     * Reading of a window of samples and of the list of examinations while recording.
+     */
+    @Benchmark
+    @Group("recording")
+    @GroupThreads(2)
+    public void read(Blackhole blackhole) throws Exception {
+        int from = (int) (System.nanoTime() & 0x7FFFFFFF) % (RECORDED_SAMPLES - WINDOW);
+        blackhole.consume(sampleService.findValuesByChannel(recordedChannel, from, from + WINDOW));
+        blackhole.consume(examinationService.findAll());
+    }
+}
@@ -0,0 +1,114 @@
+package ru.gsa.biointerface.benchmark;
+
+import com.fazecast.jSerialComm.SerialPort;
+import org.openjdk.jmh.annotations.*;
+import ru.gsa.biointerface.host.serialport.PacketHost;
+import ru.gsa.biointerface.host.serialport.SerialPortHost;
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+import ru.gsa.biointerface.metrics.Counter;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Ingest of {@link SerialPortHost} in callback and blocking read modes.
+ * Needs two connected serial ports: frames are written to {@link #loopbackPort}
+ * and read by host from {@link #port}, e.g. a null-modem cable or a pair of pseudo terminals
+ * (socat pty,raw,echo=0,link=/tmp/ttyIngestA pty,raw,echo=0,link=/tmp/ttyIngestB).
+ * <p>
+ * {@link #frame} is the latency from write of one DATA frame to its processing by host,
+ * {@link #burst} writes {@link #BURST} frames at once. Calls of serial port by host
+ * are reported as "portCalls" (per second in throughput mode).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialIngestBenchmark {
+    private static final int AMOUNT_CHANNELS = 8;
+    private static final int BURST = 64;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+    @Param({"callback", "blocking"})
+    private String readMode;
+    @Param({"/tmp/ttyIngestA"})
+    private String port;
+    @Param({"/tmp/ttyIngestB"})
+    private String loopbackPort;
+    private byte[] frames;
+    private int frameSize;
+    private SerialPort loopback;
+    private SerialPortHost host;
+    private Counter hostPortCalls;
+    private volatile long received = 0;
+    private long expected = 0;
+
+    @Setup
+    public void setUp() throws Exception {
+        frameSize = 4 + 2 * AMOUNT_CHANNELS;
+        frames = Frames.stream(BURST, AMOUNT_CHANNELS);
+        loopback = SerialPort.getCommPort(loopbackPort);
+        loopback.setBaudRate(512000);
+        if (!loopback.openPort())
+            throw new IllegalStateException("Serial port " + loopbackPort + " is not opened");
+
+        host = new SerialPortHost(SerialPort.getCommPort(port), WaitStrategy::blocking,
+                SerialPortHost.ReadMode.of(readMode));
+        host.handler((message, server, context) -> {
+            if (message.getPackageType() == PacketType.DATA) {
+                received++;
+            }
+        });
+        host.start();
+        if (!host.portIsOpen())
+            throw new IllegalStateException("Serial port " + port + " is not opened");
+
+        hostPortCalls = MetricsRegistry.getInstance().counter(PacketHost.METRICS_PREFIX + host.getName() + ".portCalls");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        host.stop();
+        loopback.closePort();
+    }
+
+    @Benchmark
+    public void frame(Calls calls) {
+        write(frameSize, 1, calls);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void burst(Calls calls) {
+        write(frames.length, BURST, calls);
+    }
+
+    private void write(int length, int amount, Calls calls) {
+        long portCalls = hostPortCalls.get();
+        expected += amount;
+        loopback.writeBytes(frames, length);
+
+        long deadline = System.nanoTime() + TIMEOUT;
+        while (received < expected) {
+            if (System.nanoTime() > deadline)
+                throw new IllegalStateException("Frames are not received in time");
+
+            Thread.onSpinWait();
+        }
+        calls.portCalls += hostPortCalls.get() - portCalls;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Calls {
+        public long portCalls;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            portCalls = 0;
+        }
+    }
+}
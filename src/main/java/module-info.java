@@ -33,7 +33,9 @@ module ru.gsa.biointerface {
     exports ru.gsa.biointerface.host;
     exports ru.gsa.biointerface.host.cash;
     exports ru.gsa.biointerface.host.exception;
+    exports ru.gsa.biointerface.metrics;
     exports ru.gsa.biointerface.repository;
+    exports ru.gsa.biointerface.repository.codec;
     exports ru.gsa.biointerface.repository.database;
     exports ru.gsa.biointerface.repository.exception;
     exports ru.gsa.biointerface.ui;
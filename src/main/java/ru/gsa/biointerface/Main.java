@@ -5,20 +5,37 @@ import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.metrics.MetricsReporter;
 import ru.gsa.biointerface.repository.database.DatabaseHandler;
 import ru.gsa.biointerface.repository.exception.NoConnectionException;
+import ru.gsa.biointerface.service.SampleService;
 import ru.gsa.biointerface.ui.ProxyGUI;
 import ru.gsa.biointerface.ui.window.metering.MeteringController;
 
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 07.11.2019.
  */
 public class Main extends Application implements ResourceSource {
 
+    private static final long STOP_TIMEOUT = 30;
+    private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+
     private static void handle(javafx.stage.WindowEvent event) {
         MeteringController.disconnect();
+        try {
+            // samples which are not written in time are recovered from journal on the next start
+            if (!SampleService.getInstance().awaitStopped(STOP_TIMEOUT, TimeUnit.SECONDS)) {
+                LOGGER.warn("Samples are not written in {} s, they are recovered on the next start", STOP_TIMEOUT);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error waiting for stop of recordings", e);
+        }
+        MetricsReporter.getInstance().stop();
         try {
             DatabaseHandler.getInstance().getSessionFactory().close();
         } catch (NoConnectionException e) {
@@ -41,6 +58,11 @@ public class Main extends Application implements ResourceSource {
             stage.setOnCloseRequest(Main::handle);
             ProxyGUI proxyGUI = fxmlLoader.getController();
             proxyGUI.uploadContent(this);
+            MetricsReporter.getInstance().start();
+            SampleService.getInstance().recoverJournalsAsync().exceptionally(e -> {
+                LOGGER.error("Error recovering journals", e);
+                return 0;
+            });
         } catch (Exception e) {
             e.printStackTrace();
         }
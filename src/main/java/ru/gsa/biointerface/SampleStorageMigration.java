@@ -0,0 +1,54 @@
+package ru.gsa.biointerface;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.domain.entity.Channel;
+import ru.gsa.biointerface.domain.entity.Examination;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+import ru.gsa.biointerface.service.ChannelService;
+import ru.gsa.biointerface.service.ExaminationService;
+import ru.gsa.biointerface.service.SampleService;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Converts samples of existing examinations to chunked storage and builds their min/max pyramids.
+ * Usage: SampleStorageMigration [examinationId...] (all examinations if no arguments).
+ */
+public class SampleStorageMigration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleStorageMigration.class);
+
+    public static void main(String[] args) throws Exception {
+        ExaminationService examinationService = ExaminationService.getInstance();
+        ChannelService channelService = ChannelService.getInstance();
+        SampleService sampleService = SampleService.getInstance();
+        long total = 0;
+
+        try {
+            if (args.length == 0) {
+                for (Examination examination : examinationService.findAll()) {
+                    total += convert(examination, channelService, sampleService);
+                }
+            } else {
+                for (String arg : args) {
+                    total += convert(examinationService.findById(Integer.parseInt(arg)), channelService, sampleService);
+                }
+            }
+            LOGGER.info("Migration is complete, converted samples={}", total);
+        } finally {
+            DatabaseHandler.getInstance().getSessionFactory().close();
+        }
+    }
+
+    private static long convert(Examination examination,
+                                ChannelService channelService,
+                                SampleService sampleService) throws Exception {
+        long amount = 0;
+
+        for (Channel channel : channelService.findAllByExamination(examination)) {
+            amount += sampleService.convertToChunks(channel);
+        }
+        LOGGER.info("Examination(id={}) is converted, samples={}", examination.getId(), amount);
+
+        return amount;
+    }
+}
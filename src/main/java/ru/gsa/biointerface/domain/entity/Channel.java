@@ -37,11 +37,21 @@ public class Channel implements Serializable, Comparable<Channel> {
     @OneToMany(mappedBy = "channel", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<Sample> samples;
 
+    @NotNull(message = "Chunks can't be null")
+    @OneToMany(mappedBy = "channel", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    private List<SampleChunk> chunks;
+
+    @NotNull(message = "Summaries can't be null")
+    @OneToMany(mappedBy = "channel", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    private List<SampleSummary> summaries;
+
     public Channel(Integer id, Examination examination, ChannelName channelName) {
-        this.id = new ChannelID(id, examination.getId());
+        this.id = new ChannelID(examination.getId(), id);
         this.examination = examination;
         this.channelName = channelName;
         this.samples = new LinkedList<>();
+        this.chunks = new LinkedList<>();
+        this.summaries = new LinkedList<>();
     }
 
     public void addSample(Sample sample) {
@@ -1,6 +1,8 @@
 package ru.gsa.biointerface.domain.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -21,6 +23,8 @@ import java.util.TreeSet;
 @NoArgsConstructor
 @Entity(name = "channel_name")
 @Table(name = "channel_name")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ChannelName implements Serializable, Comparable<ChannelName> {
     @NotNull(message = "Id can't be null")
     @Id
@@ -1,6 +1,8 @@
 package ru.gsa.biointerface.domain.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.Max;
@@ -22,6 +24,8 @@ import java.util.TreeSet;
 @NoArgsConstructor
 @Entity(name = "device")
 @Table(name = "device")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Device implements Serializable, Comparable<Device> {
     @NotNull(message = "Id can't be null")
     @Min(value = 1, message = "Id can't be lass then 1")
@@ -24,7 +24,10 @@ import java.util.Objects;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "examination")
-@Table(name = "examination")
+@Table(name = "examination", indexes = {
+        @Index(name = "examination_starttime_idx", columnList = "starttime"),
+        @Index(name = "examination_patient_idx", columnList = "patient_id, starttime")
+})
 public class Examination implements Serializable, Comparable<Examination> {
     @NotNull(message = "Id can't be null")
     @Id
@@ -1,6 +1,8 @@
 package ru.gsa.biointerface.domain.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -19,6 +21,8 @@ import java.util.TreeSet;
 @NoArgsConstructor
 @Entity(name = "icd")
 @Table(name = "icd")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Icd implements Serializable, Comparable<Icd> {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
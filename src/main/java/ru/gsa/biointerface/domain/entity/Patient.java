@@ -1,6 +1,8 @@
 package ru.gsa.biointerface.domain.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -20,7 +22,9 @@ import java.util.TreeSet;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "patient")
-@Table(name = "patient")
+@Table(name = "patient", indexes = @Index(name = "patient_second_name_idx", columnList = "second_name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Patient implements Serializable, Comparable<Patient> {
     @NotNull(message = "Id can't be null")
     @Min(value = 1, message = "Id can't be lass then 1")
@@ -0,0 +1,106 @@
+package ru.gsa.biointerface.domain.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Fixed-size block of consecutive samples of one channel.
+ * Values are stored encoded (see {@link ru.gsa.biointerface.repository.codec.SampleChunkCodec}).
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "sample_chunk")
+@Table(name = "sample_chunk")
+public class SampleChunk implements Serializable, Comparable<SampleChunk> {
+    public static final int CAPACITY = 4096;
+
+    @NotNull(message = "Id can't be null")
+    @EmbeddedId
+    private SampleChunkID id;
+
+    @NotNull(message = "Channel can't be null")
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.REFRESH)
+    @JoinColumns({
+            @JoinColumn(name = "examination_id", referencedColumnName = "examination_id", nullable = false),
+            @JoinColumn(name = "channel_number", referencedColumnName = "number", nullable = false)
+    })
+    @MapsId("channel_id")
+    private Channel channel;
+
+    @NotNull(message = "Amount can't be null")
+    @Min(value = 1, message = "Amount can't be lass then 1")
+    @Max(value = CAPACITY, message = "Amount can't be more than " + CAPACITY)
+    @Column(nullable = false)
+    private int amount;
+
+    @NotNull(message = "Min value can't be null")
+    @Column(name = "min_value", nullable = false)
+    private int minValue;
+
+    @NotNull(message = "Max value can't be null")
+    @Column(name = "max_value", nullable = false)
+    private int maxValue;
+
+    @NotNull(message = "Encoding can't be null")
+    @Column(nullable = false)
+    private int encoding;
+
+    @NotNull(message = "Data can't be null")
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] data;
+
+    public SampleChunk(SampleChunkID id, int amount, int minValue, int maxValue, int encoding, byte[] data) {
+        this.id = id;
+        this.amount = amount;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.encoding = encoding;
+        this.data = data;
+    }
+
+    public int getStart() {
+        return id.getStart();
+    }
+
+    public int getEnd() {
+        return id.getStart() + amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SampleChunk that = (SampleChunk) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public int compareTo(SampleChunk o) {
+        return id.compareTo(o.id);
+    }
+
+    @Override
+    public String toString() {
+        return "SampleChunk{" +
+                "id=" + id +
+                ", amount=" + amount +
+                ", min=" + minValue +
+                ", max=" + maxValue +
+                '}';
+    }
+}
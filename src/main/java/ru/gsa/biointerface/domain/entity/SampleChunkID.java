@@ -0,0 +1,72 @@
+package ru.gsa.biointerface.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.Embedded;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Embeddable
+public class SampleChunkID implements Serializable, Comparable<SampleChunkID> {
+    @Column(name = "start_index")
+    private int start;
+
+    @Embedded
+    private ChannelID channel_id;
+
+    public SampleChunkID(int start, ChannelID channel_id) {
+        this.start = start;
+        this.channel_id = channel_id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SampleChunkID that = (SampleChunkID) o;
+        return start == that.start && Objects.equals(channel_id, that.channel_id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, channel_id);
+    }
+
+    @Override
+    public int compareTo(SampleChunkID o) {
+        if (o == null || getClass() != o.getClass()) return -1;
+        int result = channel_id.compareTo(o.channel_id);
+
+        if (result == 0) {
+            result = Integer.compare(start, o.start);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        String channelId = "-";
+        String examinationId = "-";
+
+        if (channel_id != null) {
+            channelId = String.valueOf(channel_id.getNumber());
+            examinationId = String.valueOf(channel_id.getExamination_id());
+        }
+        return "SampleChunk{" +
+                "start=" + start +
+                ", channel_id=" + channelId +
+                ", examination_id=" + examinationId +
+                '}';
+    }
+}
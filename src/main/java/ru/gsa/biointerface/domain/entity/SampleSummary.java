@@ -0,0 +1,108 @@
+package ru.gsa.biointerface.domain.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Block of min/max/mean values of one level of the channel pyramid.
+ * A point of level N covers FACTOR^N samples, the block holds up to CAPACITY points.
+ * Values are stored encoded (see {@link ru.gsa.biointerface.repository.codec.SampleSummaryCodec}).
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "sample_summary")
+@Table(name = "sample_summary")
+public class SampleSummary implements Serializable, Comparable<SampleSummary> {
+    public static final int FACTOR_BITS = 4;
+    public static final int FACTOR = 1 << FACTOR_BITS;
+    public static final int MAX_LEVEL = 5;
+    public static final int CAPACITY = 4096;
+
+    @NotNull(message = "Id can't be null")
+    @EmbeddedId
+    private SampleSummaryID id;
+
+    @NotNull(message = "Channel can't be null")
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.REFRESH)
+    @JoinColumns({
+            @JoinColumn(name = "examination_id", referencedColumnName = "examination_id", nullable = false),
+            @JoinColumn(name = "channel_number", referencedColumnName = "number", nullable = false)
+    })
+    @MapsId("channel_id")
+    private Channel channel;
+
+    @NotNull(message = "Amount can't be null")
+    @Min(value = 1, message = "Amount can't be lass then 1")
+    @Max(value = CAPACITY, message = "Amount can't be more than " + CAPACITY)
+    @Column(nullable = false)
+    private int amount;
+
+    @NotNull(message = "Data can't be null")
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] data;
+
+    public SampleSummary(SampleSummaryID id, int amount, byte[] data) {
+        this.id = id;
+        this.amount = amount;
+        this.data = data;
+    }
+
+    /**
+     * @param level - level of pyramid
+     * @return - amount of samples in one point of level
+     */
+    public static int pointSize(int level) {
+        if (level < 0 || level > MAX_LEVEL)
+            throw new IllegalArgumentException("Level out of range");
+
+        return 1 << (FACTOR_BITS * level);
+    }
+
+    public int getLevel() {
+        return id.getLevel();
+    }
+
+    public int getStart() {
+        return id.getStart();
+    }
+
+    public int getEnd() {
+        return id.getStart() + amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SampleSummary that = (SampleSummary) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public int compareTo(SampleSummary o) {
+        return id.compareTo(o.id);
+    }
+
+    @Override
+    public String toString() {
+        return "SampleSummary{" +
+                "id=" + id +
+                ", amount=" + amount +
+                '}';
+    }
+}
@@ -4,23 +4,60 @@ import com.fazecast.jSerialComm.SerialPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Device;
+import ru.gsa.biointerface.host.capture.ReplayHost;
+import ru.gsa.biointerface.host.serialport.PacketHost;
+import ru.gsa.biointerface.host.simulator.SimulatedDevice;
+import ru.gsa.biointerface.host.simulator.SimulatorConfig;
+import ru.gsa.biointerface.host.simulator.SimulatorHost;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
+ * Found devices and connections in use.
+ * A connection taken by {@link #getConnection(Device)} stays active until {@link #release(HostHandler)},
+ * scanning does not touch active connections and their ports, so several devices
+ * can be used (and recorded) at the same time.
+ * <p>
+ * Ports are probed in parallel (see {@link #PROBE_TIMEOUT}) and the controller found on each port
+ * is remembered, so the next scanning does not open ports of known controllers again.
  */
 public class ConnectionToDeviceHandlerFactory {
+    /**
+     * Configuration of simulated devices (see {@link SimulatorConfig#parse(String)}).
+     * If the property is set, simulated devices are added to the devices on serial ports.
+     */
+    public static final String SIMULATOR_PROPERTY = "biointerface.simulator";
+    /**
+     * Captures of sessions separated by ';' (see {@link ReplayHost}).
+     * If the property is set, captures are added to the devices on serial ports and played in real time.
+     */
+    public static final String REPLAY_PROPERTY = "biointerface.replay";
+    /**
+     * Time of waiting for configuration of controller when port is probed, ms
+     */
+    public static final long PROBE_TIMEOUT = Long.getLong("biointerface.scanning.timeout", 2000);
+    private static final int MAX_PROBES = 16;
     private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionToDeviceHandlerFactory.class);
     private static ConnectionToDeviceHandlerFactory instance;
     private final List<SerialPortHostHandler> connections = new ArrayList<>();
-    private SerialPortHostHandler connection;
+    private final Set<SerialPortHostHandler> activeConnections = ConcurrentHashMap.newKeySet();
+    private final Map<String, Device> identities = new ConcurrentHashMap<>();
 
-    public static ConnectionToDeviceHandlerFactory getInstance() {
+    public static synchronized ConnectionToDeviceHandlerFactory getInstance() {
         if (instance == null) {
             instance = new ConnectionToDeviceHandlerFactory();
         }
@@ -28,22 +65,37 @@ public class ConnectionToDeviceHandlerFactory {
         return instance;
     }
 
+    /**
+     * Disconnects all devices (found and active).
+     */
     public static void disconnectScanningSerialPort() {
-        if (getInstance().connections.size() > 0) {
-            for (HostHandler hostHandler : getInstance().connections) {
+        ConnectionToDeviceHandlerFactory factory = getInstance();
+
+        synchronized (factory) {
+            List<SerialPortHostHandler> all = new ArrayList<>(factory.connections);
+            all.addAll(factory.activeConnections);
+
+            for (HostHandler hostHandler : all) {
                 try {
-                    hostHandler.disconnect();
+                    if (hostHandler.isConnected()) {
+                        hostHandler.disconnect();
+                    }
                 } catch (Exception e) {
                     LOGGER.error("Device disconnect error", e);
                 }
             }
-            getInstance().connections.clear();
+            factory.connections.clear();
+            factory.activeConnections.clear();
             LOGGER.info("disconnect all serial ports");
         }
     }
 
-    public void scanningSerialPort() {
-        if (connection != null) {
+    /**
+     * Looks for devices on serial ports which are not used by active connections.
+     * Ports with a known controller are not opened, the rest are probed in parallel.
+     */
+    public synchronized void scanningSerialPort() {
+        for (SerialPortHostHandler connection : connections) {
             if (connection.isConnected()) {
                 try {
                     connection.disconnect();
@@ -51,20 +103,138 @@ public class ConnectionToDeviceHandlerFactory {
                     LOGGER.error("Device disconnect error", e);
                 }
             }
-            connection = null;
         }
-
         connections.clear();
-        List<SerialPort> serialPorts = getSerialPortsWithDevises();
-        for (SerialPort serialPort : serialPorts) {
+
+        Set<String> busy = activeConnections.stream()
+                .map(o -> o.getHost().getName())
+                .collect(Collectors.toSet());
+        List<PacketHost<?>> hosts = new ArrayList<>();
+
+        for (SerialPort serialPort : getSerialPortsWithDevises()) {
+            hosts.add(SerialPortHostHandler.createHost(serialPort));
+        }
+
+        String simulator = System.getProperty(SIMULATOR_PROPERTY);
+        if (simulator != null) {
             try {
-                SerialPortHostHandler connection = new SerialPortHostHandler(serialPort);
-                connections.add(connection);
+                for (SimulatorConfig config : SimulatorConfig.parse(simulator)) {
+                    hosts.add(new SimulatorHost(new SimulatedDevice(config)));
+                }
             } catch (Exception e) {
-                LOGGER.error("Error connection to serialPort(SystemPortName={})", serialPort.getSystemPortName(), e);
+                LOGGER.error("Error connection to simulated devices", e);
+            }
+        }
+
+        String replay = System.getProperty(REPLAY_PROPERTY);
+        if (replay != null) {
+            for (String path : replay.split(";")) {
+                if (path.isBlank())
+                    continue;
+
+                try {
+                    hosts.add(new ReplayHost(Path.of(path.trim()), ReplayHost.REAL_TIME));
+                } catch (Exception e) {
+                    LOGGER.error("Error connection to replay of {}", path, e);
+                }
             }
         }
-        LOGGER.info("Scanning devices");
+
+        Set<String> present = hosts.stream()
+                .map(PacketHost::getName)
+                .collect(Collectors.toSet());
+        identities.keySet().removeIf(o -> !present.contains(o) && !busy.contains(o));
+
+        List<PacketHost<?>> unknown = new ArrayList<>();
+        for (PacketHost<?> host : hosts) {
+            if (busy.contains(host.getName()))
+                continue;
+
+            Device device = identities.get(host.getName());
+            if (device != null) {
+                try {
+                    connections.add(new SerialPortHostHandler(host, device));
+                } catch (Exception e) {
+                    LOGGER.error("Error connection to {}", host, e);
+                }
+            } else {
+                unknown.add(host);
+            }
+        }
+
+        connections.addAll(probe(unknown));
+        LOGGER.info("Scanning devices: found {}, probed {}", connections.size(), unknown.size());
+    }
+
+    /**
+     * Opens all hosts at once and waits for configuration of their controllers.
+     * Hosts are closed after probing, found controllers are remembered by name of host.
+     *
+     * @return - connections to found controllers (not connected)
+     */
+    private List<SerialPortHostHandler> probe(List<PacketHost<?>> hosts) {
+        List<SerialPortHostHandler> result = new ArrayList<>();
+
+        if (hosts.isEmpty())
+            return result;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(hosts.size(), MAX_PROBES), runnable -> {
+            Thread thread = new Thread(runnable, "Device probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<SerialPortHostHandler>> futures = new ArrayList<>();
+            for (PacketHost<?> host : hosts) {
+                futures.add(executor.submit(() -> probe(host)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    SerialPortHostHandler connection = futures.get(i).get();
+
+                    if (connection != null) {
+                        identities.put(hosts.get(i).getName(), new Device(
+                                connection.getDevice().getId(), connection.getDevice().getAmountChannels()));
+                        result.add(connection);
+                    }
+                } catch (ExecutionException e) {
+                    LOGGER.error("Error probe of {}", hosts.get(i), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Probe of devices is interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return result;
+    }
+
+    private SerialPortHostHandler probe(PacketHost<?> host) throws Exception {
+        SerialPortHostHandler connection = new SerialPortHostHandler(host);
+
+        try {
+            if (!connection.awaitDevice(PROBE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Controller of {} does not answer in {} ms", host, PROBE_TIMEOUT);
+                return null;
+            }
+        } finally {
+            if (connection.isConnected()) {
+                connection.disconnect();
+            }
+        }
+
+        return connection;
+    }
+
+    /**
+     * Forgets found controllers, the next scanning probes all ports.
+     */
+    public synchronized void clearIdentities() {
+        identities.clear();
     }
 
     private List<SerialPort> getSerialPortsWithDevises() {
@@ -73,30 +243,66 @@ public class ConnectionToDeviceHandlerFactory {
                 .collect(Collectors.toList());
     }
 
-    public List<Device> getDevices() {
+    /**
+     * @return - found devices which are not in use
+     */
+    public synchronized List<Device> getDevices() {
         return connections.stream()
-                .peek(o -> {
-                    if (o.isConnected()) {
-                        try {
-                            o.disconnect();
-                        } catch (Exception e) {
-                            LOGGER.error("Device disconnect error", e);
-                        }
-                    }
-                })
                 .filter(SerialPortHostHandler::isAvailableDevice)
                 .map(SerialPortHostHandler::getDevice)
                 .sorted()
                 .collect(Collectors.toList());
     }
 
-    public HostHandler getConnection(Device device) {
-        connection = connections.stream()
+    /**
+     * Takes connection to device for exclusive use.
+     *
+     * @param device - found device
+     * @return - connection (has to be returned by {@link #release(HostHandler)})
+     */
+    public synchronized HostHandler getConnection(Device device) {
+        SerialPortHostHandler connection = connections.stream()
                 .filter(o -> device.equals(o.getDevice()))
                 .findFirst()
                 .orElseThrow(NoSuchElementException::new);
+
+        connections.remove(connection);
+        activeConnections.add(connection);
         LOGGER.info("Get available devices");
 
         return connection;
     }
+
+    /**
+     * Disconnects device and returns its port to scanning.
+     *
+     * @param hostHandler - connection from {@link #getConnection(Device)} (may be null)
+     */
+    public void release(HostHandler hostHandler) {
+        if (hostHandler == null || !activeConnections.remove(hostHandler))
+            return;
+
+        Device device = hostHandler.getDevice();
+        if (device != null) {
+            // controller of port could be replaced while in use
+            identities.put(((SerialPortHostHandler) hostHandler).getHost().getName(),
+                    new Device(device.getId(), device.getAmountChannels()));
+        }
+
+        try {
+            if (hostHandler.isConnected()) {
+                hostHandler.disconnect();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Device disconnect error", e);
+        }
+        LOGGER.info("Connection {} is released", hostHandler);
+    }
+
+    /**
+     * @return - connections in use
+     */
+    public Set<HostHandler> getActiveConnections() {
+        return Set.copyOf(activeConnections);
+    }
 }
@@ -3,6 +3,8 @@ package ru.gsa.biointerface.host;
 import ru.gsa.biointerface.domain.entity.ChannelName;
 import ru.gsa.biointerface.domain.entity.Device;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.host.bus.SampleBus;
+import ru.gsa.biointerface.host.bus.SampleSubscriber;
 import ru.gsa.biointerface.host.cash.DataListener;
 
 /**
@@ -19,6 +21,18 @@ public interface HostHandler {
 
     void setListenerInChannel(int numberOfChannel, DataListener listener);
 
+    /**
+     * Subscribes to frames of controller, the subscriber is called on its own thread.
+     *
+     * @param name       - name of subscriber in metrics
+     * @param subscriber - subscriber
+     * @param policy     - behaviour when the subscriber is behind
+     *                   (e.g. {@link SampleBus.Policy#SAMPLE} for analytics)
+     */
+    void subscribe(String name, SampleSubscriber subscriber, SampleBus.Policy policy);
+
+    void unsubscribe(SampleSubscriber subscriber) throws Exception;
+
     void connect() throws Exception;
 
     void disconnect() throws Exception;
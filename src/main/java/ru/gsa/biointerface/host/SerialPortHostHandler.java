@@ -4,57 +4,132 @@ import com.fazecast.jSerialComm.SerialPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.*;
+import ru.gsa.biointerface.host.capture.CaptureWriter;
 import ru.gsa.biointerface.host.cash.Cash;
 import ru.gsa.biointerface.host.cash.DataListener;
 import ru.gsa.biointerface.host.cash.SampleCash;
+import ru.gsa.biointerface.host.bus.SampleBus;
+import ru.gsa.biointerface.host.bus.SampleSubscriber;
 import ru.gsa.biointerface.host.exception.HostNotRunningException;
 import ru.gsa.biointerface.host.exception.HostNotTransmissionException;
 import ru.gsa.biointerface.host.serialport.ControlMessages;
 import ru.gsa.biointerface.host.serialport.DataCollector;
+import ru.gsa.biointerface.host.serialport.PacketHost;
 import ru.gsa.biointerface.host.serialport.SerialPortHandler;
 import ru.gsa.biointerface.host.serialport.SerialPortHost;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+import ru.gsa.biointerface.metrics.Counter;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
 import ru.gsa.biointerface.service.ChannelService;
 import ru.gsa.biointerface.service.DeviceService;
 import ru.gsa.biointerface.service.ExaminationService;
-import ru.gsa.biointerface.service.SampleService;
+import ru.gsa.biointerface.service.SampleWriter;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
+ * Frames of controller are published to {@link SampleBus} by the read thread of host
+ * and consumed on threads of bus: display (caches of channels, drops the oldest frames),
+ * recording (never drops, slows down reading of host instead) and subscribers of {@link #subscribe}.
  */
 public class SerialPortHostHandler implements DataCollector, HostHandler {
+    public static final String WAIT_STRATEGY_PROPERTY = "biointerface.serialport.waitStrategy";
+    /**
+     * Read mode of all serial ports, for one port: property with suffix "." and system name of port
+     * (e.g. biointerface.serialport.readMode.ttyUSB0=blocking)
+     */
+    public static final String READ_MODE_PROPERTY = "biointerface.serialport.readMode";
+    /**
+     * Directory of captures: if the property is set, bytes received from controller
+     * are captured from connect to disconnect (see {@link CaptureWriter}), one file per connection
+     */
+    public static final String CAPTURE_PROPERTY = "biointerface.capture";
     private static final Logger LOGGER = LoggerFactory.getLogger(SerialPortHostHandler.class);
-    private final SerialPortHost serialPortHost;
+    private final PacketHost<?> serialPortHost;
     private final ExaminationService examinationService;
     private final DeviceService deviceService;
     private final ChannelService channelService;
-    private final SampleService sampleService;
-    private final List<Cash> cashList = new ArrayList<>();
     private final List<ChannelName> channelNames = new ArrayList<>();
-
+    private final SampleBus bus;
+    private final SampleSubscriber display = this::display;
+    private final SampleSubscriber recording = this::record;
+    private final AtomicBoolean recordingErrorLogged = new AtomicBoolean(false);
+    private final Counter recordingErrors = MetricsRegistry.getInstance().counter("recording.errors");
+    private final Object deviceLock = new Object();
+
+    private volatile List<Cash> cashList = List.of();
+    private volatile List<Counter> sampleCounters = List.of();
     private Device device;
     private Patient patient;
     private Examination examination;
+    private volatile SampleWriter writer;
+    private CaptureWriter capture;
     private String comment;
     private boolean flagTransmission = false;
 
     public SerialPortHostHandler(SerialPort serialPort) throws Exception {
-        if (serialPort == null)
-            throw new NullPointerException("SerialPort is null");
+        this(createHost(serialPort));
+    }
+
+    /**
+     * Starts host and requests configuration of controller
+     * (see {@link #awaitDevice(long, TimeUnit)}).
+     *
+     * @param host - host of controller (serial port or simulator)
+     */
+    public SerialPortHostHandler(PacketHost<?> host) throws Exception {
+        this(host, null);
+
+        bus.start();
+        serialPortHost.start();
+        serialPortHost.sendPackage(ControlMessages.GET_CONFIG);
+        LOGGER.info("Crate connection to {}", host);
+    }
+
+    /**
+     * Connection to controller which is already known. Host is not started until {@link #connect()},
+     * configuration of controller is requested again on connect.
+     *
+     * @param host   - host of controller (serial port or simulator)
+     * @param device - known controller of host (may be null)
+     */
+    public SerialPortHostHandler(PacketHost<?> host, Device device) throws Exception {
+        if (host == null)
+            throw new NullPointerException("Host is null");
 
         examinationService = ExaminationService.getInstance();
         channelService = ChannelService.getInstance();
-        sampleService = SampleService.getInstance();
         deviceService = DeviceService.getInstance();
-        serialPortHost = new SerialPortHost(serialPort);
-        serialPortHost.handler(new SerialPortHandler(this));
+        serialPortHost = host;
+        bus = new SampleBus(host.getName());
+        bus.subscribe("display", display, SampleBus.Policy.DROP_OLDEST);
+        bus.subscribe("recording", recording, SampleBus.Policy.BLOCK);
+        installHandler(host, this);
+
+        if (device != null) {
+            setDevice(device.getId(), device.getAmountChannels());
+        }
+    }
 
-        serialPortHost.start();
-        serialPortHost.sendPackage(ControlMessages.GET_CONFIG);
-        LOGGER.info("Crate connection to serialPort(SystemPortName={})", serialPort.getSystemPortName());
+    static SerialPortHost createHost(SerialPort serialPort) {
+        if (serialPort == null)
+            throw new NullPointerException("SerialPort is null");
+
+        String readMode = System.getProperty(READ_MODE_PROPERTY + "." + serialPort.getSystemPortName(),
+                System.getProperty(READ_MODE_PROPERTY, "callback"));
+
+        return new SerialPortHost(serialPort, WaitStrategy.factory(
+                System.getProperty(WAIT_STRATEGY_PROPERTY, "blocking")), SerialPortHost.ReadMode.of(readMode));
+    }
+
+    private static <Interface> void installHandler(PacketHost<Interface> host, DataCollector dataCollector) {
+        host.handler(new SerialPortHandler<>(dataCollector));
     }
 
 
@@ -82,8 +157,28 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
         return device != null;
     }
 
+    /**
+     * Waits for configuration of controller.
+     *
+     * @return - controller is known
+     */
+    public boolean awaitDevice(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        synchronized (deviceLock) {
+            long remaining;
+            while (device == null && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(deviceLock, remaining);
+            }
+
+            return device != null;
+        }
+    }
+
     @Override
     public void setListenerInChannel(int number, DataListener listener) {
+        List<Cash> cashList = this.cashList;
+
         if (listener == null)
             throw new NullPointerException("Listener null");
         if (number >= cashList.size() || number < 0)
@@ -137,10 +232,22 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
         }
     }
 
+    @Override
+    public void subscribe(String name, SampleSubscriber subscriber, SampleBus.Policy policy) {
+        bus.subscribe(name, subscriber, policy);
+    }
+
+    @Override
+    public void unsubscribe(SampleSubscriber subscriber) throws InterruptedException {
+        bus.unsubscribe(subscriber);
+    }
+
     @Override
     public void connect() {
         if (!isConnected()) {
             try {
+                startCapture();
+                bus.start();
                 serialPortHost.start();
                 serialPortHost.sendPackage(ControlMessages.GET_CONFIG);
                 LOGGER.info("Connecting to device");
@@ -162,12 +269,41 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
                 transmissionStop();
             }
             serialPortHost.stop();
+            bus.stop();
+            stopCapture();
             LOGGER.info("Disconnecting from device");
         } else {
             LOGGER.warn("Device is already disconnected");
         }
     }
 
+    private void startCapture() {
+        String directory = System.getProperty(CAPTURE_PROPERTY);
+
+        if (directory == null || capture != null)
+            return;
+
+        try {
+            capture = new CaptureWriter(CaptureWriter.file(Path.of(directory), serialPortHost.getName()));
+            serialPortHost.addByteListener(capture);
+        } catch (Exception e) {
+            LOGGER.error("Capture of {} is not started", serialPortHost, e);
+        }
+    }
+
+    private void stopCapture() {
+        if (capture == null)
+            return;
+
+        serialPortHost.removeByteListener(capture);
+        try {
+            capture.close();
+        } catch (Exception e) {
+            LOGGER.error("Error closing capture {}", capture.getPath(), e);
+        }
+        capture = null;
+    }
+
     @Override
     public boolean isConnected() {
         boolean result = false;
@@ -235,7 +371,8 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
                 examination.getChannels().add(channel);
             }
 
-            examinationService.recordingStart(examination);
+            recordingErrorLogged.set(false);
+            writer = examinationService.recordingStart(examination);
             LOGGER.info("Start recording");
         } else {
             LOGGER.warn("Recording is already in progress");
@@ -247,20 +384,21 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
         if (!isRecording())
             throw new HostNotRunningException();
 
-        examinationService.recordingStop();
-        examination = null;
+        Examination examination = this.examination;
+        // frames received before the stop are still in the queue of recording
+        bus.await(recording);
+        // recording is a no-op for the next frames, the frame which is recorded now is awaited
+        writer = null;
+        bus.await(recording);
+        this.examination = null;
+        // the writer consolidates samples into database in background, the journal keeps them until then
+        examinationService.recordingStopAsync(examination);
         LOGGER.info("Stop recording");
     }
 
     @Override
     public boolean isRecording() {
-        boolean result = false;
-
-        if (examination != null) {
-            result = examinationService.isRecording();
-        }
-
-        return result;
+        return writer != null;
     }
 
     @Override
@@ -286,31 +424,64 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
             device = new Device(serialNumber, amountChannels);
             examination = null;
             patient = null;
+            channelNames.clear();
 
+            List<Cash> cashList = new ArrayList<>();
+            List<Counter> sampleCounters = new ArrayList<>();
             for (int i = 0; i < device.getAmountChannels(); i++) {
                 cashList.add(new SampleCash());
                 channelNames.add(null);
+                sampleCounters.add(MetricsRegistry.getInstance()
+                        .counter("device." + serialNumber + ".channel." + i + ".samples"));
+            }
+            // replaced at once, threads of bus see either old or new channels
+            this.cashList = cashList;
+            this.sampleCounters = sampleCounters;
+
+            synchronized (deviceLock) {
+                deviceLock.notifyAll();
             }
         }
     }
 
     @Override
-    public void setSampleInChannel(int number, int value) {
-        if (number >= cashList.size() || number < 0)
-            throw new IllegalArgumentException("Number > amount cashList");
+    public void setSamples(int[] samples, int amount) {
         if (device == null)
             throw new NullPointerException("Device is null");
 
-        cashList.get(number).add(value);
+        try {
+            bus.publish(samples, amount);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        if (isRecording()) {
+    private void display(int[] samples, int amount) {
+        List<Cash> cashList = this.cashList;
+        List<Counter> sampleCounters = this.sampleCounters;
+        int count = Math.min(amount, cashList.size());
+
+        for (int i = 0; i < count; i++) {
+            cashList.get(i).add(samples[i]);
+            sampleCounters.get(i).inc();
+        }
+    }
+
+    private void record(int[] samples, int amount) {
+        SampleWriter writer = this.writer;
+
+        if (writer == null)
+            return;
+
+        for (int i = 0; i < amount; i++) {
             try {
-                sampleService.setSampleInChannel(
-                        examination.getChannels().get(number),
-                        value
-                );
+                writer.add(i, samples[i]);
             } catch (Exception e) {
-                e.printStackTrace();
+                // one sample per channel per frame fails while the writer is broken, log only the first
+                recordingErrors.inc();
+                if (recordingErrorLogged.compareAndSet(false, true)) {
+                    LOGGER.error("Error recording sample in channel(number={})", i, e);
+                }
             }
         }
     }
@@ -320,6 +491,10 @@ public class SerialPortHostHandler implements DataCollector, HostHandler {
         flagTransmission = true;
     }
 
+    PacketHost<?> getHost() {
+        return serialPortHost;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
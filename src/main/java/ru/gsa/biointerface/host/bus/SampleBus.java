@@ -0,0 +1,369 @@
+package ru.gsa.biointerface.host.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.metrics.Counter;
+import ru.gsa.biointerface.metrics.Histogram;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Fan-out of frames of samples from the read thread of host to independent subscribers.
+ * A frame is published once and copied into the bounded queue of every subscriber,
+ * every subscriber has its own thread and its own {@link Policy} for a full queue,
+ * so a slow subscriber (e.g. writing to database) does not stall the display or the host.
+ * <p>
+ * Metrics of subscriber are registered in {@link MetricsRegistry} with prefix
+ * {@link #METRICS_PREFIX}, name of bus and name of subscriber: dropped frames,
+ * waits of publisher and, while the bus is running, size of queue.
+ */
+public final class SampleBus {
+    public static final int MAX_CHANNELS = 8;
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    public static final int DEFAULT_INTERVAL = 16;
+    public static final int BATCH_SIZE = 64;
+    public static final String METRICS_PREFIX = "bus.";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleBus.class);
+    private final String name;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean running = false;
+
+    /**
+     * @param name - name of bus in metrics and names of threads (e.g. name of serial port)
+     */
+    public SampleBus(String name) {
+        if (name == null)
+            throw new NullPointerException("Name is null");
+
+        this.name = name;
+    }
+
+    /**
+     * Subscribes with {@link #DEFAULT_CAPACITY} and {@link #DEFAULT_INTERVAL}.
+     */
+    public void subscribe(String name, SampleSubscriber subscriber, Policy policy) {
+        subscribe(name, subscriber, policy, DEFAULT_CAPACITY, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Thread of subscriber works while the bus is running.
+     *
+     * @param name       - name of subscriber in metrics and name of thread
+     * @param subscriber - subscriber
+     * @param policy     - behaviour on a full queue
+     * @param capacity   - size of queue in frames
+     * @param interval   - every interval-th frame is delivered ({@link Policy#SAMPLE} only)
+     */
+    public synchronized void subscribe(String name, SampleSubscriber subscriber, Policy policy,
+                                       int capacity, int interval) {
+        if (name == null)
+            throw new NullPointerException("Name is null");
+        if (subscriber == null)
+            throw new NullPointerException("Subscriber is null");
+        if (policy == null)
+            throw new NullPointerException("Policy is null");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity <= 0");
+        if (interval <= 0)
+            throw new IllegalArgumentException("Interval <= 0");
+        if (subscriptions.stream().anyMatch(o -> o.subscriber == subscriber))
+            throw new IllegalArgumentException("Subscriber is already subscribed");
+
+        Subscription subscription = new Subscription(name, subscriber, policy, capacity, interval);
+        subscriptions.add(subscription);
+
+        if (running) {
+            subscription.start();
+        }
+        LOGGER.info("Subscriber {} of bus {} is added, policy={}", name, this.name, policy);
+    }
+
+    /**
+     * Stops thread of subscriber after delivery of queued frames.
+     */
+    public synchronized void unsubscribe(SampleSubscriber subscriber) throws InterruptedException {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.subscriber == subscriber) {
+                subscriptions.remove(subscription);
+                subscription.stop();
+                LOGGER.info("Subscriber {} of bus {} is removed", subscription.name, name);
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (running)
+            return;
+
+        running = true;
+        for (Subscription subscription : subscriptions) {
+            subscription.start();
+        }
+    }
+
+    /**
+     * Stops threads of subscribers after delivery of queued frames.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running)
+            return;
+
+        running = false;
+        for (Subscription subscription : subscriptions) {
+            subscription.stop();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Publishes a frame (only from one thread). Frames are not accepted while the bus is stopped.
+     *
+     * @param samples - samples indexed by number of channel (copied)
+     * @param amount  - amount of channels
+     */
+    public void publish(int[] samples, int amount) throws InterruptedException {
+        if (samples == null)
+            throw new NullPointerException("Samples is null");
+        if (amount < 0 || amount > MAX_CHANNELS || amount > samples.length)
+            throw new IllegalArgumentException("Amount out of range");
+
+        if (!running)
+            return;
+
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(samples, amount);
+        }
+    }
+
+    /**
+     * Waits until frames published before the call are delivered to subscriber.
+     */
+    public void await(SampleSubscriber subscriber) throws InterruptedException {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.subscriber == subscriber) {
+                subscription.await();
+            }
+        }
+    }
+
+    /**
+     * @return - frames dropped by queue of subscriber
+     */
+    public long getDroppedCount(SampleSubscriber subscriber) {
+        return subscriptions.stream()
+                .filter(o -> o.subscriber == subscriber)
+                .mapToLong(o -> o.dropped.get())
+                .sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Behaviour of queue of subscriber when it is full
+     */
+    public enum Policy {
+        /**
+         * The oldest frame is dropped (display: only the newest samples are needed)
+         */
+        DROP_OLDEST,
+        /**
+         * Publisher waits for space (recording: frames are never dropped)
+         */
+        BLOCK,
+        /**
+         * Only every interval-th frame is queued, the frame is dropped if the queue is full (analytics)
+         */
+        SAMPLE
+    }
+
+    private final class Subscription {
+        private final String name;
+        private final SampleSubscriber subscriber;
+        private final Policy policy;
+        private final int interval;
+        private final String metricsPrefix;
+        private final Counter dropped;
+        private final Histogram backpressure;
+        private final int[] values;
+        private final int[] amounts;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private long head = 0;
+        private long tail = 0;
+        // frames delivered to subscriber or dropped
+        private long done = 0;
+        private long published = 0;
+        private boolean active = false;
+        private volatile Thread thread;
+
+        private Subscription(String name, SampleSubscriber subscriber, Policy policy, int capacity, int interval) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.interval = policy == Policy.SAMPLE ? interval : 1;
+            metricsPrefix = METRICS_PREFIX + SampleBus.this.name + "." + name + ".";
+            dropped = MetricsRegistry.getInstance().counter(metricsPrefix + "dropped");
+            backpressure = MetricsRegistry.getInstance().histogram(metricsPrefix + "backpressure");
+            values = new int[capacity * MAX_CHANNELS];
+            amounts = new int[capacity];
+        }
+
+        private void start() {
+            lock.lock();
+            try {
+                active = true;
+            } finally {
+                lock.unlock();
+            }
+
+            MetricsRegistry.getInstance().gauge(metricsPrefix + "queue", this::size);
+            thread = new Thread(this::run, "Sample bus thread (" + SampleBus.this.name + ", " + name + ")");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void stop() throws InterruptedException {
+            lock.lock();
+            try {
+                active = false;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.join();
+            }
+            thread = null;
+            MetricsRegistry.getInstance().removeGauges(metricsPrefix);
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return (int) (tail - head);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void offer(int[] samples, int amount) throws InterruptedException {
+            if (published++ % interval != 0)
+                return;
+
+            lock.lock();
+            try {
+                if (tail - head == amounts.length) {
+                    switch (policy) {
+                        case DROP_OLDEST -> {
+                            head++;
+                            done++;
+                            dropped.inc();
+                        }
+                        case BLOCK -> {
+                            long start = System.nanoTime();
+                            while (tail - head == amounts.length && active) {
+                                notFull.await();
+                            }
+                            backpressure.record(System.nanoTime() - start);
+                            if (!active)
+                                return;
+                        }
+                        case SAMPLE -> {
+                            dropped.inc();
+                            return;
+                        }
+                    }
+                }
+
+                int index = (int) (tail % amounts.length);
+                System.arraycopy(samples, 0, values, index * MAX_CHANNELS, amount);
+                amounts[index] = amount;
+                tail++;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void await() throws InterruptedException {
+            lock.lock();
+            try {
+                long target = tail;
+                while (done < target && thread != null) {
+                    notFull.await(100, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Takes frames by batches, so the lock is not held while subscriber works
+         * and the publisher can fill the queue meanwhile. After stop of bus the rest of queue is delivered.
+         */
+        private void run() {
+            int[] batchValues = new int[BATCH_SIZE * MAX_CHANNELS];
+            int[] batchAmounts = new int[BATCH_SIZE];
+            int[] frame = new int[MAX_CHANNELS];
+            boolean errorLogged = false;
+
+            while (true) {
+                int count;
+
+                lock.lock();
+                try {
+                    while (tail == head && active) {
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    if (tail == head)
+                        break;
+
+                    count = (int) Math.min(tail - head, BATCH_SIZE);
+                    for (int i = 0; i < count; i++) {
+                        int index = (int) ((head + i) % amounts.length);
+                        System.arraycopy(values, index * MAX_CHANNELS, batchValues, i * MAX_CHANNELS, MAX_CHANNELS);
+                        batchAmounts[i] = amounts[index];
+                    }
+                    head += count;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                for (int i = 0; i < count; i++) {
+                    System.arraycopy(batchValues, i * MAX_CHANNELS, frame, 0, MAX_CHANNELS);
+                    try {
+                        subscriber.onFrame(frame, batchAmounts[i]);
+                    } catch (Exception e) {
+                        // a broken subscriber fails on every frame, log only the first error
+                        if (!errorLogged) {
+                            errorLogged = true;
+                            LOGGER.error("Error of subscriber {} of bus {}", name, SampleBus.this.name, e);
+                        }
+                    }
+                }
+
+                lock.lock();
+                try {
+                    done += count;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
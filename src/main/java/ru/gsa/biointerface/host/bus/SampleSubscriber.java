@@ -0,0 +1,16 @@
+package ru.gsa.biointerface.host.bus;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Consumer of frames of {@link SampleBus}, called from its own thread.
+ */
+public interface SampleSubscriber {
+    /**
+     * Receives a frame: one sample of every channel. The array is reused by the bus,
+     * so the samples must be copied before return.
+     *
+     * @param samples - samples indexed by number of channel
+     * @param amount  - amount of channels
+     */
+    void onFrame(int[] samples, int amount) throws Exception;
+}
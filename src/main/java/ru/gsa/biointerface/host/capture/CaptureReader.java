@@ -0,0 +1,145 @@
+package ru.gsa.biointerface.host.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Sequential reading of records of file written by {@link CaptureWriter}.
+ * A record cut off at the end of file (capture is not closed) is ignored.
+ */
+public final class CaptureReader implements Closeable {
+    /**
+     * Maximum size of record, a greater size means a broken file
+     */
+    public static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaptureReader.class);
+    private final Path path;
+    private final FileChannel channel;
+    private final long startMillis;
+    private ByteBuffer buffer = ByteBuffer.allocate(CaptureWriter.BUFFER_SIZE);
+    private byte[] bytes = new byte[4096];
+    private int length = 0;
+    private long nanos = 0;
+
+    public CaptureReader(Path path) throws IOException {
+        if (path == null)
+            throw new NullPointerException("Path is null");
+
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.limit(0);
+
+        try {
+            if (!fill(CaptureWriter.HEADER_SIZE) || buffer.getInt() != CaptureWriter.MAGIC)
+                throw new IOException("File " + path + " is not a capture");
+
+            int version = buffer.getInt();
+            if (version != CaptureWriter.VERSION)
+                throw new IOException("Version " + version + " of capture " + path + " is not supported");
+
+            startMillis = buffer.getLong();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return - false at the end of capture
+     */
+    public boolean next() throws IOException {
+        if (!fill(CaptureWriter.RECORD_HEADER_SIZE))
+            return false;
+
+        long nanos = buffer.getLong();
+        int length = buffer.getInt();
+
+        if (length < 0 || length > MAX_RECORD_SIZE)
+            throw new IOException("Capture " + path + " is broken: record of " + length + " bytes");
+        if (!fill(length)) {
+            LOGGER.warn("The last record of capture {} is not complete", path);
+            return false;
+        }
+
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, 2 * bytes.length)];
+        }
+        buffer.get(bytes, 0, length);
+        this.nanos = nanos;
+        this.length = length;
+
+        return true;
+    }
+
+    /**
+     * Makes amount of bytes available in buffer.
+     *
+     * @return - false if the file ends before
+     */
+    private boolean fill(int amount) throws IOException {
+        if (buffer.remaining() >= amount)
+            return true;
+
+        if (buffer.capacity() < amount) {
+            ByteBuffer larger = ByteBuffer.allocate(amount);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+
+        while (buffer.position() < amount) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+
+        return true;
+    }
+
+    /**
+     * @return - start of capture, epoch millis
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return - time of receipt of the current record since start of capture, ns
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return - bytes of the current record (reused by reader), see {@link #getLength()}
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
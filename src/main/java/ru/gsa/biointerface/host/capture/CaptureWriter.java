@@ -0,0 +1,142 @@
+package ru.gsa.biointerface.host.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.host.serialport.PacketHost;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Capture of bytes received by host, for replay by {@link ReplayHost}.
+ * <p>
+ * File: header (magic {@link #MAGIC}, version {@link #VERSION}, start of capture in epoch millis)
+ * and records (time of receipt in nanoseconds since start of capture, amount of bytes, bytes).
+ * Records are collected in a buffer and written to file by one call when the buffer is full,
+ * so the receiver thread of host only copies bytes.
+ */
+public final class CaptureWriter implements PacketHost.ByteListener, Closeable {
+    public static final int MAGIC = 0x42494341;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_HEADER_SIZE = 12;
+    public static final String EXTENSION = ".bicap";
+    public static final int BUFFER_SIZE = 1 << 16;
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaptureWriter.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final long startNanos;
+    private long records = 0;
+    private long bytes = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates file of capture (an existing file is replaced).
+     *
+     * @param path - file of capture
+     */
+    public CaptureWriter(Path path) throws IOException {
+        if (path == null)
+            throw new NullPointerException("Path is null");
+
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        startNanos = System.nanoTime();
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(System.currentTimeMillis());
+        LOGGER.info("Capture to {} is started", path);
+    }
+
+    /**
+     * @param directory - directory of captures
+     * @param name      - name of host
+     * @return - file of capture named by host and the current time
+     */
+    public static Path file(Path directory, String name) {
+        if (directory == null)
+            throw new NullPointerException("Directory is null");
+        if (name == null)
+            throw new NullPointerException("Name is null");
+
+        return directory.resolve(name.replaceAll("[^\\w.-]", "_")
+                + "-" + LocalDateTime.now().format(FILE_TIME) + EXTENSION);
+    }
+
+    @Override
+    public synchronized void bytesReceived(byte[] src, int offset, int length, long nanos) {
+        if (closed)
+            return;
+
+        try {
+            if (buffer.remaining() < RECORD_HEADER_SIZE + length) {
+                flush();
+            }
+            buffer.putLong(nanos - startNanos)
+                    .putInt(length);
+            if (buffer.remaining() >= length) {
+                buffer.put(src, offset, length);
+            } else {
+                flush();
+                write(ByteBuffer.wrap(src, offset, length));
+            }
+            records++;
+            bytes += length;
+        } catch (IOException e) {
+            closed = true;
+            LOGGER.error("Error capture to {}, capture is stopped", path, e);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+        LOGGER.info("Capture to {} is finished: records={}, bytes={}", path, records, bytes);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,166 @@
+package ru.gsa.biointerface.host.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.host.serialport.PacketHost;
+import ru.gsa.biointerface.host.serialport.SerialPortNotOpenException;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Host which plays a capture of {@link CaptureWriter} instead of serial port.
+ * Bytes go through the same decoder, buffers and handler as bytes of serial port,
+ * in real time (with speed factor) or as fast as possible. Commands to device are ignored,
+ * the capture is played from the beginning on every start of host.
+ * <p>
+ * Bytes are passed by slices of {@link #SLICE_SIZE} and only when the read buffer of host has room,
+ * so frames of capture are not dropped even if the handler is slower than the capture.
+ */
+public class ReplayHost extends PacketHost<Path> {
+    public static final double REAL_TIME = 1;
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+    public static final int SLICE_SIZE = 1024;
+    /**
+     * Pool of packets has room for frames of a slice (not less than 6 bytes per frame)
+     * besides the read buffer and the batch in processing
+     */
+    private static final int READ_BUFFER_LIMIT = PACKET_POOL_SIZE - BATCH_SIZE - SLICE_SIZE / 6 - 1;
+    private static final long PAUSE = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplayHost.class);
+    private final Path path;
+    private final double speed;
+    private volatile Thread thread;
+    private volatile boolean finished = false;
+    private volatile long bytesReplayed = 0;
+
+    public ReplayHost(Path path, double speed) {
+        this(path, speed, WaitStrategy::blocking);
+    }
+
+    /**
+     * @param path         - file of capture
+     * @param speed        - speed factor of time of capture ({@link #REAL_TIME}, {@link #AS_FAST_AS_POSSIBLE})
+     * @param waitStrategy - factory of wait strategies of read and write threads
+     */
+    public ReplayHost(Path path, double speed, Supplier<WaitStrategy> waitStrategy) {
+        super(name(path), waitStrategy);
+
+        if (speed < 0)
+            throw new IllegalArgumentException("Speed < 0");
+
+        this.path = path;
+        this.speed = speed;
+    }
+
+    private static String name(Path path) {
+        if (path == null)
+            throw new NullPointerException("Path is null");
+
+        String name = path.getFileName().toString();
+        if (name.endsWith(CaptureWriter.EXTENSION)) {
+            name = name.substring(0, name.length() - CaptureWriter.EXTENSION.length());
+        }
+
+        return "replay-" + name;
+    }
+
+    @Override
+    public boolean portIsOpen() {
+        return thread != null;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        CaptureReader reader = new CaptureReader(path);
+        super.doStart();
+        finished = false;
+        bytesReplayed = 0;
+        Thread thread = new Thread(() -> run(reader), "Replay " + path.getFileName());
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+        LOGGER.info("ReplayHost of {} started, speed={}", path, speed);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        Thread thread = this.thread;
+        this.thread = null;
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+        super.doStop();
+        LOGGER.info("ReplayHost of {} come to stop", path);
+    }
+
+    private void run(CaptureReader reader) {
+        Thread current = Thread.currentThread();
+        long start = System.nanoTime();
+
+        try (reader) {
+            while (thread == current && reader.next()) {
+                if (speed > 0) {
+                    long due = start + (long) (reader.getNanos() / speed);
+                    long wait;
+                    while (thread == current && (wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                for (int offset = 0; offset < reader.getLength() && thread == current; offset += SLICE_SIZE) {
+                    while (thread == current && getReadBufferSize() > READ_BUFFER_LIMIT) {
+                        LockSupport.parkNanos(PAUSE);
+                    }
+                    int length = Math.min(SLICE_SIZE, reader.getLength() - offset);
+                    bytesReceived(reader.getBytes(), offset, length);
+                    bytesReplayed += length;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error replay of {}", path, e);
+        }
+
+        if (thread == current) {
+            finished = true;
+            LOGGER.info("Replay of {} is finished: bytes={}", path, bytesReplayed);
+        }
+    }
+
+    /**
+     * @return - the capture is played to the end
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getBytesReplayed() {
+        return bytesReplayed;
+    }
+
+    @Override
+    protected Path getInterface() {
+        return path;
+    }
+
+    @Override
+    protected void write(byte[] bytes, int length) throws SerialPortNotOpenException {
+        if (thread == null)
+            throw new SerialPortNotOpenException();
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayHost{" +
+                "path=" + path +
+                ", speed=" + speed +
+                '}';
+    }
+}
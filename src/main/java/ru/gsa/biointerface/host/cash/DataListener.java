@@ -1,12 +1,17 @@
 package ru.gsa.biointerface.host.cash;
 
-import java.util.Deque;
-
 /**
  * Created  by Gavrilov Stepan on 07.11.2019.
  * Class for caching input data before output.
  */
 public interface DataListener {
-    void addSamples(Deque<Integer> data);
+    /**
+     * Receives a block of samples. The array is reused by the caller,
+     * so the samples must be copied before return.
+     *
+     * @param buf    - samples
+     * @param offset - position of the first sample
+     * @param len    - amount of samples
+     */
+    void addSamples(int[] buf, int offset, int len);
 }
-
@@ -0,0 +1,99 @@
+package ru.gsa.biointerface.host.cash;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Bounded buffer of the last samples. When it is full the oldest samples are overwritten.
+ * Thread safe.
+ */
+public final class IntRingBuffer {
+    private final int[] data;
+    private int head = 0;
+    private int size = 0;
+    private long total = 0;
+    private long lastAddNanos = 0;
+
+    public IntRingBuffer(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity <= 0");
+
+        data = new int[capacity];
+    }
+
+    public synchronized void add(int value) {
+        data[(head + size) % data.length] = value;
+
+        if (size < data.length) {
+            size++;
+        } else {
+            head = (head + 1) % data.length;
+        }
+        total++;
+    }
+
+    public synchronized void add(int[] values, int offset, int length) {
+        if (values == null)
+            throw new NullPointerException("Values is null");
+        if (offset < 0 || length < 0 || offset + length > values.length)
+            throw new IllegalArgumentException("Offset or length out of range");
+
+        if (length > data.length) {
+            total += length - data.length;
+            offset += length - data.length;
+            length = data.length;
+        }
+
+        for (int i = 0; i < length; i++) {
+            add(values[offset + i]);
+        }
+        lastAddNanos = System.nanoTime();
+    }
+
+    /**
+     * Copies the last samples.
+     *
+     * @param destination - array for samples
+     * @param length      - amount of last samples
+     * @return - amount of copied samples (less than length if buffer has fewer samples)
+     */
+    public synchronized int copyLast(int[] destination, int length) {
+        if (destination == null)
+            throw new NullPointerException("Destination is null");
+        if (length < 0 || length > destination.length)
+            throw new IllegalArgumentException("Length out of range");
+
+        int amount = Math.min(length, size);
+        int start = (head + size - amount) % data.length;
+        int first = Math.min(amount, data.length - start);
+        System.arraycopy(data, start, destination, 0, first);
+        System.arraycopy(data, 0, destination, first, amount - first);
+
+        return amount;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int getCapacity() {
+        return data.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return - amount of samples added since creation
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return - System.nanoTime() of the last added block of samples (0 - nothing was added by blocks)
+     */
+    public synchronized long getLastAddNanos() {
+        return lastAddNanos;
+    }
+}
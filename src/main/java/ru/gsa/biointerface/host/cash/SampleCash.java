@@ -1,15 +1,14 @@
 package ru.gsa.biointerface.host.cash;
 
-import java.util.Deque;
-import java.util.LinkedList;
-
 /**
  * Created  by Gavrilov Stepan on 07.11.2019.
  * Class for caching input data before output.
  */
 public final class SampleCash implements Cash {
-    private final Deque<Integer> data = new LinkedList<>();
-    private DataListener listener;
+    public static final int BLOCK_SIZE = 16;
+    private final int[] data = new int[BLOCK_SIZE];
+    private int size = 0;
+    private volatile DataListener listener;
 
     public void setListener(DataListener listener) {
         if (listener == null)
@@ -20,12 +19,15 @@ public final class SampleCash implements Cash {
 
     @Override
     public void add(int val) {
-        data.add(val);
-        if (data.size() > 15) {
+        data[size++] = val;
+
+        if (size == data.length) {
+            DataListener listener = this.listener;
+
             if (listener != null) {
-                listener.addSamples(data);
+                listener.addSamples(data, 0, size);
             }
-            data.clear();
+            size = 0;
         }
     }
 }
@@ -4,16 +4,26 @@ import ru.gsa.biointerface.host.serialport.packets.ControlPacket;
 import ru.gsa.biointerface.host.serialport.packets.Packet;
 import ru.gsa.biointerface.host.serialport.packets.PacketType;
 
+/**
+ * Commands to controller. Urgent commands are sent before other queued packets
+ * (see {@link PacketHost#isUrgent}).
+ */
 public enum ControlMessages implements Packet {
-    GET_CONFIG((byte) 0x00),
-    START_TRANSMISSION((byte) 0x01),
-    STOP_TRANSMISSION((byte) 0x02),
-    REBOOT((byte) 0x03);
+    GET_CONFIG((byte) 0x00, false),
+    START_TRANSMISSION((byte) 0x01, false),
+    STOP_TRANSMISSION((byte) 0x02, true),
+    REBOOT((byte) 0x03, true);
 
     private final Packet data;
+    private final boolean urgent;
 
-    ControlMessages(byte data) {
+    ControlMessages(byte data, boolean urgent) {
         this.data = new ControlPacket(new byte[]{data});
+        this.urgent = urgent;
+    }
+
+    public boolean isUrgent() {
+        return urgent;
     }
 
     @Override
@@ -5,7 +5,13 @@ public interface DataCollector {
 
     void setDevice(int serialNumber, int amountChannels);
 
-    void setSampleInChannel(int i, int value);
+    /**
+     * Frame of samples, one sample of every channel. The array is reused by the caller.
+     *
+     * @param samples - samples indexed by number of channel
+     * @param amount  - amount of channels
+     */
+    void setSamples(int[] samples, int amount);
 
     void setFlagTransmission();
 }
@@ -0,0 +1,223 @@
+package ru.gsa.biointerface.host.serialport;
+
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Stateful decoder of the byte stream from controller.
+ * Frame format: 0xFF 0xFF type length payload[length].
+ * <p>
+ * Bytes are accumulated in a ring buffer, so a frame split between two reads
+ * is decoded when the rest of it arrives. DATA frames are decoded into reusable
+ * primitive arrays, the decoder does not allocate memory for them.
+ * Not thread safe: {@link #feed} and {@link #decode} must be called from one thread.
+ */
+public class PacketDecoder {
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+    public static final int MAX_SAMPLES_IN_FRAME = 0xFF / 2;
+    private static final int HEADER_SIZE = 4;
+    private static final int START = 0xFF;
+    private static final int CONFIG_SIZE = 3;
+    private final byte[] ring;
+    private final int mask;
+    private final int[] samples = new int[MAX_SAMPLES_IN_FRAME];
+    private final int[] scales = new int[MAX_SAMPLES_IN_FRAME];
+    private int head = 0;
+    private int size = 0;
+    private boolean synchronised = true;
+
+    private volatile long frameCount = 0;
+    private volatile long resyncCount = 0;
+    private volatile long droppedBytes = 0;
+    private volatile long truncatedCount = 0;
+
+    public PacketDecoder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - size of ring buffer in bytes (power of two, not less than the maximum frame)
+     */
+    public PacketDecoder(int capacity) {
+        if (capacity < HEADER_SIZE + 0xFF || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity is not power of two or less then maximum frame");
+
+        ring = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Appends bytes to the ring buffer.
+     * If there is no space left, the oldest bytes are dropped.
+     *
+     * @param src    - bytes from serial port
+     * @param offset - position of the first byte
+     * @param length - amount of bytes
+     */
+    public void feed(byte[] src, int offset, int length) {
+        if (src == null)
+            throw new NullPointerException("Src is null");
+        if (offset < 0 || length < 0 || offset + length > src.length)
+            throw new IllegalArgumentException("Offset or length out of range");
+
+        if (length > ring.length) {
+            droppedBytes += length - ring.length;
+            offset += length - ring.length;
+            length = ring.length;
+        }
+        if (size + length > ring.length) {
+            drop(size + length - ring.length);
+        }
+
+        int tail = (head + size) & mask;
+        int first = Math.min(length, ring.length - tail);
+        System.arraycopy(src, offset, ring, tail, first);
+        System.arraycopy(src, offset + first, ring, 0, length - first);
+        size += length;
+    }
+
+    /**
+     * Decodes all complete frames from the ring buffer.
+     * Incomplete frame stays in the buffer until the next call.
+     *
+     * @param handler - receiver of frames
+     * @return - amount of decoded frames
+     */
+    public int decode(FrameHandler handler) {
+        if (handler == null)
+            throw new NullPointerException("Handler is null");
+
+        int count = 0;
+
+        while (size >= HEADER_SIZE) {
+            if (get(0) != START || get(1) != START) {
+                skip(1);
+                continue;
+            }
+
+            int type = get(2);
+            int length = get(3);
+
+            if (!isValid(type, length)) {
+                truncatedCount++;
+                skip(1);
+                continue;
+            }
+            if (size < HEADER_SIZE + length)
+                break;
+
+            if (type == PacketType.DATA.getId()) {
+                int amount = length / 2;
+
+                for (int i = 0; i < amount; i++) {
+                    int low = get(HEADER_SIZE + i * 2);
+                    int high = (byte) get(HEADER_SIZE + i * 2 + 1);
+                    scales[i] = low & 0x0F;
+                    samples[i] = (high << 4) | (low >> 4);
+                }
+                handler.dataFrame(samples, scales, amount);
+            } else {
+                byte[] msg = new byte[length];
+
+                for (int i = 0; i < length; i++) {
+                    msg[i] = (byte) get(HEADER_SIZE + i);
+                }
+                handler.frame(PacketType.findById((byte) type), msg);
+            }
+
+            advance(HEADER_SIZE + length);
+            synchronised = true;
+            frameCount++;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Drops buffered bytes (e.g. on reconnect).
+     */
+    public void reset() {
+        if (size > 0) {
+            truncatedCount++;
+            droppedBytes += size;
+        }
+        head = 0;
+        size = 0;
+        synchronised = true;
+    }
+
+    public int getBufferedCount() {
+        return size;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getResyncCount() {
+        return resyncCount;
+    }
+
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    public long getTruncatedCount() {
+        return truncatedCount;
+    }
+
+    private boolean isValid(int type, int length) {
+        if (type == PacketType.DATA.getId())
+            return length > 0 && length % 2 == 0;
+        if (type == PacketType.CONFIG.getId())
+            return length >= CONFIG_SIZE;
+        if (type == PacketType.CONTROL.getId())
+            return length > 0;
+
+        return false;
+    }
+
+    private int get(int index) {
+        return ring[(head + index) & mask] & 0xFF;
+    }
+
+    private void advance(int length) {
+        head = (head + length) & mask;
+        size -= length;
+    }
+
+    private void skip(int length) {
+        if (synchronised) {
+            resyncCount++;
+            synchronised = false;
+        }
+        droppedBytes += length;
+        advance(length);
+    }
+
+    private void drop(int length) {
+        truncatedCount++;
+        droppedBytes += length;
+        advance(length);
+    }
+
+    public interface FrameHandler {
+        /**
+         * DATA frame. Arrays are reused by decoder and valid only during the call.
+         *
+         * @param samples - values of samples by channels
+         * @param scales  - scales of samples by channels
+         * @param amount  - amount of channels in frame
+         */
+        void dataFrame(int[] samples, int[] scales, int amount);
+
+        /**
+         * CONFIG or CONTROL frame.
+         *
+         * @param type - type of frame
+         * @param msg  - payload
+         */
+        void frame(PacketType type, byte[] msg);
+    }
+}
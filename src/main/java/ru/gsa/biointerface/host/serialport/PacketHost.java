@@ -0,0 +1,366 @@
+package ru.gsa.biointerface.host.serialport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.metrics.Counter;
+import ru.gsa.biointerface.metrics.Histogram;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+import ru.gsa.biointerface.host.serialport.packets.*;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.AbstractServer;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.EventListener;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Server of controller packets over a byte stream.
+ * Received bytes are decoded by {@link PacketDecoder}, DATA packets are taken from a pool
+ * and returned to it after processing.
+ * <p>
+ * Every host has its own threads, buffers and decoder, so hosts of several devices work in parallel.
+ * Metrics of host are registered in {@link MetricsRegistry} with prefix {@link #METRICS_PREFIX} and name of host:
+ * received bytes, frames by type, waits of receiver for a free packet or space in the read buffer,
+ * DATA packets dropped after {@link #RECEIVE_TIMEOUT} of waiting (overruns), packets dropped on stop of host, latency from receipt of bytes to the end
+ * of processing of DATA packet, latency of urgent commands from queuing to writing
+ * and, while host is running, gauges of decoder and queues.
+ * Packets queued together are written by one call of transport ({@link #write}).
+ * Received bytes are passed as is to {@link ByteListener}s (e.g. capture of session) before decoding.
+ *
+ * @param <Interface> - transport of bytes
+ */
+public abstract class PacketHost<Interface> extends AbstractServer<Packet, Packet, Interface>
+        implements PacketDecoder.FrameHandler {
+    public static final int PACKET_POOL_SIZE = 1024;
+    public static final String METRICS_PREFIX = "host.";
+    /**
+     * Longest wait of receiver for processing of DATA packet, ms. The receiver is the callback thread
+     * of transport, which does not read while it waits, and flow control of serial port is disabled:
+     * a longer wait would lose bytes in the buffer of operating system unseen, so the frame is dropped
+     * and counted as overrun instead.
+     */
+    public static final long RECEIVE_TIMEOUT = Long.getLong("biointerface.host.receiveTimeout", 100);
+    private static final long POOL_TIMEOUT = 10;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PacketHost.class);
+    private final PacketDecoder decoder = new PacketDecoder();
+    private final ArrayBlockingQueue<ChannelPacket> packetPool = new ArrayBlockingQueue<>(PACKET_POOL_SIZE);
+    private final CopyOnWriteArrayList<ByteListener> byteListeners = new CopyOnWriteArrayList<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final String name;
+    private final String metricsPrefix;
+    private final Counter bytesCounter;
+    private final Counter[] frameCounters = new Counter[PacketType.values().length];
+    private final Counter droppedCounter;
+    private final Counter waitsCounter;
+    private final Counter overrunsCounter;
+    private final Histogram latency;
+    private final Histogram controlLatency;
+    private byte[] writeArray = new byte[256];
+    private volatile long droppedPackets = 0;
+    private volatile long receiveWaits = 0;
+    private volatile long overruns = 0;
+    private long receivedNanos;
+
+    /**
+     * @param name         - name of host in metrics (e.g. name of serial port)
+     * @param waitStrategy - factory of wait strategies of read and write threads
+     */
+    protected PacketHost(String name, Supplier<WaitStrategy> waitStrategy) {
+        super(DEFAULT_CAPACITY, waitStrategy);
+
+        if (name == null)
+            throw new NullPointerException("Name is null");
+
+        this.name = name;
+        metricsPrefix = METRICS_PREFIX + name + ".";
+        bytesCounter = metrics.counter(metricsPrefix + "bytes");
+        droppedCounter = metrics.counter(metricsPrefix + "droppedPackets");
+        waitsCounter = metrics.counter(metricsPrefix + "receiveWaits");
+        overrunsCounter = metrics.counter(metricsPrefix + "overruns");
+        latency = metrics.histogram(metricsPrefix + "packetLatency");
+        controlLatency = metrics.histogram(metricsPrefix + "controlLatency");
+
+        for (int i = 0; i < PACKET_POOL_SIZE; i++) {
+            packetPool.add(new ChannelPacket(PacketDecoder.MAX_SAMPLES_IN_FRAME));
+        }
+        for (PacketType type : PacketType.values()) {
+            frameCounters[type.ordinal()] = metrics.counter(metricsPrefix + "frames." + type);
+        }
+    }
+
+    /**
+     * @return - transport is open
+     */
+    public abstract boolean portIsOpen();
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        decoder.reset();
+        metrics.gauge(metricsPrefix + "resyncs", decoder::getResyncCount);
+        metrics.gauge(metricsPrefix + "truncatedFrames", decoder::getTruncatedCount);
+        metrics.gauge(metricsPrefix + "droppedBytes", decoder::getDroppedBytes);
+        metrics.gauge(metricsPrefix + "readQueue", this::getReadBufferSize);
+        metrics.gauge(metricsPrefix + "sendQueue", this::getSendBufferSize);
+        metrics.gauge(metricsPrefix + "droppedOutput", this::getDroppedOutput);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        metrics.removeGauges(metricsPrefix);
+        super.doStop();
+    }
+
+    /**
+     * Writes bytes to transport (only from write thread).
+     *
+     * @param bytes  - bytes of packets
+     * @param length - amount of bytes
+     */
+    protected abstract void write(byte[] bytes, int length) throws SerialPortNotOpenException;
+
+    @Override
+    protected void send(Packet packet) throws SerialPortNotOpenException {
+        if (packet == null)
+            throw new NullPointerException("Packet is null");
+
+        byte[] bytes = packet.getBytes();
+        write(bytes, bytes.length);
+    }
+
+    @Override
+    protected void send(List<Packet> packets) throws SerialPortNotOpenException {
+        if (packets.size() == 1) {
+            send(packets.get(0));
+            return;
+        }
+
+        int length = 0;
+        for (Packet packet : packets) {
+            byte[] bytes = packet.getBytes();
+
+            if (length + bytes.length > writeArray.length) {
+                writeArray = Arrays.copyOf(writeArray, Math.max(2 * writeArray.length, length + bytes.length));
+            }
+            System.arraycopy(bytes, 0, writeArray, length, bytes.length);
+            length += bytes.length;
+        }
+
+        write(writeArray, length);
+    }
+
+    @Override
+    protected boolean isUrgent(Packet message) {
+        return message instanceof ControlMessages control && control.isUrgent();
+    }
+
+    @Override
+    protected void urgentSent(Packet message, long nanos) {
+        controlLatency.record(nanos);
+    }
+
+    /**
+     * Passes received bytes to decoder (only from one receiver thread).
+     *
+     * @param src    - bytes
+     * @param offset - position of the first byte
+     * @param length - amount of bytes
+     */
+    protected void bytesReceived(byte[] src, int offset, int length) {
+        receivedNanos = System.nanoTime();
+        bytesCounter.add(length);
+        if (!byteListeners.isEmpty()) {
+            for (ByteListener listener : byteListeners) {
+                listener.bytesReceived(src, offset, length, receivedNanos);
+            }
+        }
+        decoder.feed(src, offset, length);
+        decoder.decode(this);
+    }
+
+    /**
+     * Packets are not dropped when they are not processed in time (e.g. recording waits for the database):
+     * the receiver waits for a free packet of pool and for space in the read buffer,
+     * so the pressure goes down to reading of transport. The wait is bounded by {@link #RECEIVE_TIMEOUT},
+     * after it the frame is dropped as overrun; a stop of host drops the frame at once.
+     */
+    @Override
+    public void dataFrame(int[] samples, int[] scales, int amount) {
+        frameCounters[PacketType.DATA.ordinal()].inc();
+        long start = 0;
+        ChannelPacket packet = packetPool.poll();
+
+        if (packet == null) {
+            receiveWait();
+            start = System.nanoTime();
+            packet = takePacket(start);
+
+            if (packet == null) {
+                dropped();
+                return;
+            }
+        }
+
+        packet.set(samples, scales, amount);
+        packet.setReceivedNanos(receivedNanos);
+
+        if (!receive(packet)) {
+            receiveWait();
+            if (start == 0) {
+                start = System.nanoTime();
+            }
+
+            long timeout = TimeUnit.MILLISECONDS.toNanos(RECEIVE_TIMEOUT) - (System.nanoTime() - start);
+            if (!put(packet, timeout)) {
+                packetPool.offer(packet);
+                dropped();
+            }
+        }
+    }
+
+    /**
+     * Counts dropped DATA packet: overrun while host is running, otherwise drop on stop
+     */
+    private void dropped() {
+        if (isRunning() && !Thread.currentThread().isInterrupted()) {
+            if (overruns++ == 0) {
+                LOGGER.warn("Packets from {} are not processed in {} ms, frames are dropped", this, RECEIVE_TIMEOUT);
+            }
+            overrunsCounter.inc();
+        } else {
+            droppedPackets++;
+            droppedCounter.inc();
+        }
+    }
+
+    private void receiveWait() {
+        if (receiveWaits++ == 0) {
+            LOGGER.warn("Packets from {} are not processed in time, receiving is slowed down", this);
+        }
+        waitsCounter.inc();
+    }
+
+    /**
+     * @param start - start of wait, ns
+     * @return - packet returned to pool after processing,
+     * null if {@link #RECEIVE_TIMEOUT} is expired, host is stopped or receiver is interrupted
+     */
+    private ChannelPacket takePacket(long start) {
+        long timeout = TimeUnit.MILLISECONDS.toNanos(RECEIVE_TIMEOUT);
+
+        try {
+            while (isRunning() && System.nanoTime() - start < timeout) {
+                ChannelPacket packet = packetPool.poll(POOL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+                if (packet != null)
+                    return packet;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return null;
+    }
+
+    @Override
+    public void frame(PacketType type, byte[] msg) {
+        frameCounters[type.ordinal()].inc();
+        Packet packet;
+
+        switch (type) {
+            case CONFIG -> packet = new ConfigPacket(msg);
+            case CONTROL -> packet = new ControlPacket(msg);
+            default -> throw new IllegalStateException("Unexpected value: " + type);
+        }
+
+        // configuration and answers of controller are never dropped, the receiver waits for space
+        if (!put(packet)) {
+            droppedPackets++;
+            droppedCounter.inc();
+        }
+    }
+
+    @Override
+    protected void release(Packet message) {
+        if (message instanceof ChannelPacket packet) {
+            latency.record(System.nanoTime() - packet.getReceivedNanos());
+            packetPool.offer(packet);
+        }
+    }
+
+    /**
+     * Adds listener of received bytes
+     *
+     * @param listener - listener
+     */
+    public void addByteListener(ByteListener listener) {
+        if (listener == null)
+            throw new NullPointerException("Listener is null");
+
+        byteListeners.add(listener);
+    }
+
+    /**
+     * Removes listener of received bytes
+     *
+     * @param listener - listener
+     */
+    public void removeByteListener(ByteListener listener) {
+        byteListeners.remove(listener);
+    }
+
+    /**
+     * @param name - name of counter without prefix of host
+     * @return - counter of host in {@link MetricsRegistry}
+     */
+    protected Counter counter(String name) {
+        return metrics.counter(metricsPrefix + name);
+    }
+
+    /**
+     * @return - name of transport (serial port or simulated device)
+     */
+    public String getName() {
+        return name;
+    }
+
+    public PacketDecoder getDecoder() {
+        return decoder;
+    }
+
+    public long getDroppedPackets() {
+        return droppedPackets;
+    }
+
+    /**
+     * @return - times the receiver waited for processing of packets
+     */
+    public long getReceiveWaits() {
+        return receiveWaits;
+    }
+
+    /**
+     * @return - DATA packets dropped after {@link #RECEIVE_TIMEOUT} of waiting for processing
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Listener of bytes received by host, called from the receiver thread before decoding
+     */
+    public interface ByteListener extends EventListener {
+        /**
+         * @param src    - bytes (reused by host, valid only during the call)
+         * @param offset - position of the first byte
+         * @param length - amount of bytes
+         * @param nanos  - time of receipt (System.nanoTime())
+         */
+        void bytesReceived(byte[] src, int offset, int length, long nanos);
+    }
+}
@@ -1,20 +1,19 @@
 package ru.gsa.biointerface.host.serialport;
 
-import com.fazecast.jSerialComm.SerialPort;
 import ru.gsa.biointerface.host.serialport.packets.ChannelPacket;
 import ru.gsa.biointerface.host.serialport.packets.ConfigPacket;
 import ru.gsa.biointerface.host.serialport.packets.Packet;
 import ru.gsa.biointerface.host.serialport.serverByPuchkov.ChannelHandler;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.Server;
 
 
 /**
  * Created by Пучков Константин on 12.03.2019.
  * Modified by Gavrilov Stepan on 16.08.2021.
  */
-public class SerialPortHandler implements ChannelHandler<Packet, Packet, SerialPort> {
+public class SerialPortHandler<Interface> implements ChannelHandler<Packet, Packet, Interface> {
     private final DataCollector dataCollector;
+    private final int[] samples = new int[8];
 
     public SerialPortHandler(DataCollector dataCollector) {
         if (dataCollector == null)
@@ -24,7 +23,7 @@ public class SerialPortHandler implements ChannelHandler<Packet, Packet, SerialP
     }
 
     @Override
-    public void channelRead(Packet message, LinkedBlockingQueue<Packet> sendBuffer, SerialPort context) {
+    public void channelRead(Packet message, Server<Packet, Packet, Interface> server, Interface context) {
         switch (message.getPackageType()) {
             case CONFIG -> {
                 ConfigPacket msg = (ConfigPacket) message;
@@ -37,11 +36,11 @@ public class SerialPortHandler implements ChannelHandler<Packet, Packet, SerialP
                 ChannelPacket msg = (ChannelPacket) message;
                 dataCollector.setFlagTransmission();
 
-                for (char i = 0; i < msg.getCountChannelInPacket(); i++) {
-                    int scale = msg.getScale(i);
-                    int simple = msg.getSample(i);
-                    dataCollector.setSampleInChannel(i, simple);
+                int amount = Math.min(msg.getCountChannelInPacket(), samples.length);
+                for (int i = 0; i < amount; i++) {
+                    samples[i] = msg.getSample(i);
                 }
+                dataCollector.setSamples(samples, amount);
             }
             default -> throw new IllegalStateException("Unexpected packageType value: " + message.getPackageType());
         }
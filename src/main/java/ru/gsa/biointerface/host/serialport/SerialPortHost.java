@@ -5,24 +5,53 @@ import com.fazecast.jSerialComm.SerialPortDataListener;
 import com.fazecast.jSerialComm.SerialPortEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import ru.gsa.biointerface.host.serialport.packets.*;
-import ru.gsa.biointerface.host.serialport.serverByPuchkov.AbstractServer;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+import ru.gsa.biointerface.metrics.Counter;
 
-import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 /**
  * Created by Пучков Константин on 12.03.2019.
  * Modified by Gavrilov Stepan on 16.08.2021.
+ * Bytes of serial port are read in one of {@link ReadMode}:
+ * by events of jSerialComm (DATA_AVAILABLE callback with bytesAvailable() before every read)
+ * or by a dedicated reader thread with semi-blocking reads into one reusable array.
+ * Calls of serial port for reading are counted in metric "portCalls" of host.
  */
-public class SerialPortHost extends AbstractServer<Packet, Packet, SerialPort> implements SerialPortDataListener {
+public class SerialPortHost extends PacketHost<SerialPort> implements SerialPortDataListener {
+    public static final int READ_TIMEOUT = Integer.getInteger("biointerface.serialport.readTimeout", 100);
     private static final Logger LOGGER = LoggerFactory.getLogger(SerialPortHost.class);
     private final SerialPort serialPort;
+    private final ReadMode readMode;
+    private final Counter portCalls;
+    private final byte[] readArray = new byte[PacketDecoder.DEFAULT_CAPACITY / 2];
+    private volatile Thread reader;
 
     public SerialPortHost(SerialPort serialPort) {
-        super();
+        this(serialPort, WaitStrategy::blocking);
+    }
+
+    public SerialPortHost(SerialPort serialPort, Supplier<WaitStrategy> waitStrategy) {
+        this(serialPort, waitStrategy, ReadMode.CALLBACK);
+    }
+
+    public SerialPortHost(SerialPort serialPort, Supplier<WaitStrategy> waitStrategy, ReadMode readMode) {
+        super(serialPort.getSystemPortName(), waitStrategy);
+
+        if (readMode == null)
+            throw new NullPointerException("ReadMode is null");
+
         this.serialPort = serialPort;
+        this.readMode = readMode;
+        portCalls = counter("portCalls");
+    }
+
+    public ReadMode getReadMode() {
+        return readMode;
     }
 
+    @Override
     public boolean portIsOpen() {
         return serialPort.isOpen();
     }
@@ -37,8 +66,17 @@ public class SerialPortHost extends AbstractServer<Packet, Packet, SerialPort> i
             serialPort.setBaudRate(512000);
             serialPort.setFlowControl(SerialPort.FLOW_CONTROL_DISABLED);
             serialPort.openPort();
-            serialPort.addDataListener(this);
-            LOGGER.info("SerialPortHost with serialPort(SystemPortName={}) started", serialPort.getSystemPortName());
+            if (readMode == ReadMode.BLOCKING) {
+                serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, READ_TIMEOUT, 0);
+                Thread reader = new Thread(this::readLoop, "Serial reader " + serialPort.getSystemPortName());
+                reader.setDaemon(true);
+                this.reader = reader;
+                reader.start();
+            } else {
+                serialPort.addDataListener(this);
+            }
+            LOGGER.info("SerialPortHost with serialPort(SystemPortName={}, readMode={}) started",
+                    serialPort.getSystemPortName(), readMode);
         } catch (Exception e) {
             LOGGER.error("Error started serialPortHost with serialPort(SystemPortName={})", serialPort.getSystemPortName(), e);
         }
@@ -47,10 +85,13 @@ public class SerialPortHost extends AbstractServer<Packet, Packet, SerialPort> i
     @Override
     protected void doStop() {
         try {
+            stopReader();
             super.doStop();
             if (serialPort.isOpen()) {
                 serialPort.closePort();
-                serialPort.removeDataListener();
+                if (readMode == ReadMode.CALLBACK) {
+                    serialPort.removeDataListener();
+                }
                 LOGGER.info("SerialPortHost with serialPort(SystemPortName={}) come to stop", serialPort.getSystemPortName());
             } else {
                 LOGGER.warn("SerialPort(SystemPortName={}) is not open", serialPort.getSystemPortName());
@@ -60,19 +101,56 @@ public class SerialPortHost extends AbstractServer<Packet, Packet, SerialPort> i
         }
     }
 
+    /**
+     * Waits for exit of reader thread, so decoding is finished before buffers of server are stopped.
+     * A reader which is still waiting for processing of packets after the current read
+     * (not more than {@link #READ_TIMEOUT}) is interrupted.
+     */
+    private void stopReader() throws InterruptedException {
+        Thread reader = this.reader;
+        this.reader = null;
+
+        if (reader != null) {
+            reader.join(2L * READ_TIMEOUT);
+            if (reader.isAlive()) {
+                reader.interrupt();
+                reader.join();
+            }
+        }
+    }
+
+    /**
+     * Loop of reader thread: a read returns as soon as any bytes are available
+     * (up to the size of array) or after {@link #READ_TIMEOUT} without data.
+     */
+    private void readLoop() {
+        Thread current = Thread.currentThread();
+
+        while (reader == current && serialPort.isOpen()) {
+            int length = serialPort.readBytes(readArray, readArray.length);
+            portCalls.inc();
+
+            if (length < 0) {
+                LOGGER.error("Error reading serialPort(SystemPortName={})", serialPort.getSystemPortName());
+                break;
+            }
+            if (length > 0) {
+                bytesReceived(readArray, 0, length);
+            }
+        }
+    }
+
     @Override
     protected SerialPort getInterface() {
         return serialPort;
     }
 
     @Override
-    protected void send(Packet packet) throws SerialPortNotOpenException {
-        if (packet == null)
-            throw new NullPointerException("Packet is null");
+    protected void write(byte[] bytes, int length) throws SerialPortNotOpenException {
         if (!serialPort.isOpen())
             throw new SerialPortNotOpenException();
 
-        serialPort.writeBytes(packet.getBytes(), packet.getBytes().length);
+        serialPort.writeBytes(bytes, length);
     }
 
     @Override
@@ -88,39 +166,20 @@ public class SerialPortHost extends AbstractServer<Packet, Packet, SerialPort> i
         if (event.getEventType() != SerialPort.LISTENING_EVENT_DATA_AVAILABLE)
             return;
 
-        if (serialPort.isOpen() && serialPort.bytesAvailable() > 0) {
-            byte[] bytesFromSerialPort = new byte[serialPort.bytesAvailable()];
-            int indexByteArray = 0;
-
-            serialPort.readBytes(bytesFromSerialPort, serialPort.bytesAvailable());
-
-            while (indexByteArray < bytesFromSerialPort.length - 4) {
-                if (bytesFromSerialPort[indexByteArray] == -1 && bytesFromSerialPort[indexByteArray + 1] == -1) {
-                    PacketType packetType = PacketType.findById(bytesFromSerialPort[indexByteArray + 2]);
-                    int msgSize = bytesFromSerialPort[indexByteArray + 3];
-                    int startOfPackage = indexByteArray + 4;
-                    indexByteArray = startOfPackage + msgSize;
-
-                    if (indexByteArray <= bytesFromSerialPort.length) {
-                        byte[] msg = Arrays.copyOfRange(bytesFromSerialPort, startOfPackage, indexByteArray);
-                        Packet packet;
-
-                        switch (packetType) {
-                            case CONFIG -> packet = new ConfigPacket(msg);
-                            case CONTROL -> packet = new ControlPacket(msg);
-                            case DATA -> packet = new ChannelPacket(msg);
-                            default -> throw new IllegalStateException("Unexpected value: " + packetType);
-                        }
-
-                        try {
-                            readBuffer.put(packet);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                } else
-                    indexByteArray++;
-            }
+        while (serialPort.isOpen()) {
+            int available = serialPort.bytesAvailable();
+            portCalls.inc();
+
+            if (available <= 0)
+                break;
+
+            int length = serialPort.readBytes(readArray, Math.min(available, readArray.length));
+            portCalls.inc();
+
+            if (length <= 0)
+                break;
+
+            bytesReceived(readArray, 0, length);
         }
     }
 
@@ -143,6 +202,35 @@ public class SerialPortHost extends AbstractServer<Packet, Packet, SerialPort> i
                 "serialPort=" + serialPort.getSystemPortName() +
                 '}';
     }
+
+    /**
+     * Way of reading bytes from serial port
+     */
+    public enum ReadMode {
+        /**
+         * Reading in callback of jSerialComm on event DATA_AVAILABLE
+         */
+        CALLBACK,
+        /**
+         * Semi-blocking reads in a dedicated reader thread of host
+         */
+        BLOCKING;
+
+        /**
+         * @param name - name of mode in any case: callback, blocking
+         * @return - mode
+         */
+        public static ReadMode of(String name) {
+            if (name == null)
+                throw new NullPointerException("Name is null");
+
+            return switch (name.toLowerCase(Locale.ROOT)) {
+                case "callback" -> CALLBACK;
+                case "blocking" -> BLOCKING;
+                default -> throw new IllegalArgumentException("Unknown read mode: " + name);
+            };
+        }
+    }
 }
 
 
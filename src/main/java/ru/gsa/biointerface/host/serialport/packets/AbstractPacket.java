@@ -25,6 +25,7 @@ public abstract class AbstractPacket implements Packet {
     }
 
     public byte[] getBytes() {
+        byte[] msg = getMsg();
         byte[] data = new byte[msg.length + 4];
 
         data[0] = start1;
@@ -32,7 +33,7 @@ public abstract class AbstractPacket implements Packet {
         data[2] = packetType.getId();
         data[3] = (byte) msg.length;
 
-        System.arraycopy(this.msg, 0, data, 4, msg.length);
+        System.arraycopy(msg, 0, data, 4, msg.length);
 
         return data;
     }
@@ -1,12 +1,61 @@
 package ru.gsa.biointerface.host.serialport.packets;
 
 public class ChannelPacket extends AbstractPacket {
+    private final int[] samples;
+    private final int[] scales;
+    private int amount;
+    private long receivedNanos;
+
     public ChannelPacket(byte[] msg) {
-        super(PacketType.DATA, msg);
+        this(msg.length / 2);
+        amount = msg.length / 2;
+
+        for (int i = 0; i < amount; i++) {
+            scales[i] = msg[i * 2] & 0xF;
+            samples[i] = (msg[i * 2 + 1] << 4) | ((msg[i * 2] >> 4) & 0x0F);
+        }
+    }
+
+    /**
+     * Empty packet for reuse (see {@link #set(int[], int[], int)}).
+     *
+     * @param capacity - maximum amount of channels
+     */
+    public ChannelPacket(int capacity) {
+        super(PacketType.DATA, new byte[0]);
+        samples = new int[capacity];
+        scales = new int[capacity];
+    }
+
+    /**
+     * Fills packet by decoded values.
+     *
+     * @param samples - values of samples by channels
+     * @param scales  - scales of samples by channels
+     * @param amount  - amount of channels
+     */
+    public void set(int[] samples, int[] scales, int amount) {
+        if (amount < 0 || amount > this.samples.length)
+            throw new IllegalArgumentException("Amount out of range");
+
+        System.arraycopy(samples, 0, this.samples, 0, amount);
+        System.arraycopy(scales, 0, this.scales, 0, amount);
+        this.amount = amount;
+    }
+
+    /**
+     * @param receivedNanos - System.nanoTime() of receipt of bytes of packet
+     */
+    public void setReceivedNanos(long receivedNanos) {
+        this.receivedNanos = receivedNanos;
+    }
+
+    public long getReceivedNanos() {
+        return receivedNanos;
     }
 
     public int getCountChannelInPacket() {
-        return msg.length / 2;
+        return amount;
     }
 
     // 	0 - 12 bit
@@ -22,11 +71,23 @@ public class ChannelPacket extends AbstractPacket {
     // 10 - 32 bit >> 20
     // 11 - 34 bit >> 22
     // 12 - 36 bit >> 24
-    public char getScale(char indexInPacket) {
-        return (char) (msg[indexInPacket * 2] & 0xF);
+    public int getScale(int indexInPacket) {
+        return scales[indexInPacket];
     }
 
-    public int getSample(char indexInPacket) {
-        return (msg[indexInPacket * 2 + 1] << 4) | ((msg[indexInPacket * 2] >> 4) & 0x0F);
+    public int getSample(int indexInPacket) {
+        return samples[indexInPacket];
+    }
+
+    @Override
+    public byte[] getMsg() {
+        byte[] msg = new byte[amount * 2];
+
+        for (int i = 0; i < amount; i++) {
+            msg[i * 2] = (byte) (((samples[i] & 0x0F) << 4) | (scales[i] & 0x0F));
+            msg[i * 2 + 1] = (byte) (samples[i] >> 4);
+        }
+
+        return msg;
     }
 }
@@ -1,23 +1,71 @@
 package ru.gsa.biointerface.host.serialport.serverByPuchkov;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.host.serialport.SerialPortNotOpenException;
 import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.AbstractLifeCycle;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.RingBuffer;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.TokenBucket;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
  * Created by Пучков Константин on 12.03.2019.
  * Modified by Gavrilov Stepan on 16.08.2021.
+ * Запись в два уровня: срочные пакеты ({@link #isUrgent}) передаются раньше всей очереди
+ * и без ограничения скорости, остальные - пачками до {@link #BATCH_SIZE} пакетов
+ * одной записью ({@link #send(List)}) со скоростью не больше заданной ({@link #setWriteRate}).
  */
 public abstract class AbstractServer<Input, Output, Interface> extends AbstractLifeCycle implements Server<Input, Output, Interface> {
-    protected final LinkedBlockingQueue<Input> readBuffer = new LinkedBlockingQueue<>();
-    private final LinkedBlockingQueue<Output> sendBuffer = new LinkedBlockingQueue<>();
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int BATCH_SIZE = 64;
+    public static final int URGENT_CAPACITY = 64;
+    private static final long RECEIVE_PAUSE = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractServer.class);
+    private final RingBuffer<Input> readBuffer;
+    private final RingBuffer<Output> sendBuffer;
+    private final RingBuffer<Urgent<Output>> urgentBuffer = new RingBuffer<>(URGENT_CAPACITY);
+    private final WaitStrategy readWaitStrategy;
+    private final WaitStrategy sendWaitStrategy;
+    private final BooleanSupplier readAvailable;
+    private final BooleanSupplier sendAvailable;
+    private final BooleanSupplier running = this::isRunning;
+    private final Object sendLock = new Object();
     private final CopyOnWriteArrayList<Server.Listener<Input>> listeners = new CopyOnWriteArrayList<>();
     protected volatile ChannelHandler<Input, Output, Interface> handler;
-    private volatile int writeDelay = 0; //миллисекунды
+    private volatile TokenBucket pacer = new TokenBucket(0, 1);
+    private volatile long droppedOutput = 0;
+    private volatile Thread writeThread;
+    private Thread readThread;
+
+    protected AbstractServer() {
+        this(DEFAULT_CAPACITY, WaitStrategy::blocking);
+    }
+
+    /**
+     * @param capacity     - размер буферов чтения и записи (степень двойки)
+     * @param waitStrategy - фабрика стратегий ожидания потоков чтения и записи
+     */
+    protected AbstractServer(int capacity, Supplier<WaitStrategy> waitStrategy) {
+        if (waitStrategy == null)
+            throw new NullPointerException("WaitStrategy is null");
+
+        readBuffer = new RingBuffer<>(capacity);
+        sendBuffer = new RingBuffer<>(capacity);
+        readWaitStrategy = waitStrategy.get();
+        sendWaitStrategy = waitStrategy.get();
+        readAvailable = () -> !readBuffer.isEmpty();
+        sendAvailable = () -> !urgentBuffer.isEmpty() || !sendBuffer.isEmpty();
+    }
 
     @Override
     public Server<Input, Output, Interface> handler(ChannelHandler<Input, Output, Interface> handler) {
@@ -30,7 +78,12 @@ public abstract class AbstractServer<Input, Output, Interface> extends AbstractL
 
     @Override
     public Server<Input, Output, Interface> setWriteDelay(int delay) {
-        this.writeDelay = Math.max(delay, 0);
+        return setWriteRate(delay > 0 ? 1000.0 / delay : 0, 1);
+    }
+
+    @Override
+    public Server<Input, Output, Interface> setWriteRate(double rate, int burst) {
+        pacer = new TokenBucket(rate, burst);
         return this;
     }
 
@@ -47,37 +100,176 @@ public abstract class AbstractServer<Input, Output, Interface> extends AbstractL
     @Override
     public void sendPackage(Output message) {
         if (isRunning()) {
-            sendBuffer.add(message);
+            //писателей может быть несколько, буфер рассчитан на одного
+            synchronized (sendLock) {
+                if (!offer(message))
+                    droppedOutput++;
+            }
+            signalWriter();
         }
     }
 
     @Override
     public void sendPackages(Collection<Output> messages) {
         if (isRunning()) {
-            sendBuffer.addAll(messages);
+            synchronized (sendLock) {
+                for (Output message : messages) {
+                    if (!offer(message))
+                        droppedOutput++;
+                }
+            }
+            signalWriter();
+        }
+    }
+
+    private boolean offer(Output message) {
+        if (isUrgent(message))
+            return urgentBuffer.offer(new Urgent<>(message, System.nanoTime()));
+
+        return sendBuffer.offer(message);
+    }
+
+    /**
+     * Пробуждение потока записи, в том числе из ожидания токенов
+     */
+    private void signalWriter() {
+        sendWaitStrategy.signal();
+        Thread writeThread = this.writeThread;
+        if (writeThread != null) {
+            LockSupport.unpark(writeThread);
+        }
+    }
+
+    /**
+     * Передача принятого пакета потоку чтения (только из одного потока-приемника)
+     *
+     * @param message - пакет
+     * @return false - буфер чтения заполнен, пакет не принят
+     */
+    protected boolean receive(Input message) {
+        if (!readBuffer.offer(message))
+            return false;
+
+        readWaitStrategy.signal();
+        return true;
+    }
+
+    /**
+     * Передача принятого пакета потоку чтения с ожиданием места в буфере (только из одного потока-приемника):
+     * при заполненном буфере поток-приемник замедляется, пакет не теряется
+     *
+     * @param message - пакет
+     * @return false - сервер остановлен или поток-приемник прерван, пакет не принят
+     */
+    protected boolean put(Input message) {
+        return put(message, Long.MAX_VALUE);
+    }
+
+    /**
+     * Передача принятого пакета потоку чтения с ожиданием места в буфере не дольше timeout
+     * (только из одного потока-приемника)
+     *
+     * @param message - пакет
+     * @param timeout - наибольшее время ожидания, нс
+     * @return false - время ожидания истекло, сервер остановлен или поток-приемник прерван, пакет не принят
+     */
+    protected boolean put(Input message, long timeout) {
+        long start = System.nanoTime();
+
+        while (!receive(message)) {
+            if (!isRunning() || Thread.currentThread().isInterrupted() || System.nanoTime() - start >= timeout)
+                return false;
+
+            LockSupport.parkNanos(this, RECEIVE_PAUSE);
         }
+
+        return true;
+    }
+
+    public int getReadBufferSize() {
+        return readBuffer.size();
+    }
+
+    public int getSendBufferSize() {
+        return sendBuffer.size() + urgentBuffer.size();
+    }
+
+    public long getDroppedOutput() {
+        return droppedOutput;
     }
 
     @Override
     protected void doStart() throws Exception {
         super.doStart();
         //Запуск потоков чтения и записи
-        Thread writeThread = new WriteThread();
+        writeThread = new WriteThread();
         writeThread.setDaemon(true);
-        writeThread.setName("Server write thread");
+        writeThread.setName("Server write thread (" + this + ")");
         writeThread.start();
 
-        Thread readThread = new ReadThread();
+        readThread = new ReadThread();
         readThread.setDaemon(true);
-        readThread.setName("Server read thread");
+        readThread.setName("Server read thread (" + this + ")");
         readThread.start();
     }
 
     @Override
     protected void doStop() throws Exception {
         super.doStop();
-        sendBuffer.clear();
-        readBuffer.clear();
+        //пробуждение и завершение потоков, после этого буферы можно очищать из текущего потока
+        readWaitStrategy.signal();
+        sendWaitStrategy.signal();
+        boolean writeStopped = join(writeThread);
+        boolean readStopped = join(readThread);
+
+        //буфер очищается только после завершения его потока: у кольцевого буфера один потребитель
+        if (writeStopped) {
+            //noinspection StatementWithEmptyBody
+            while (sendBuffer.poll() != null) ;
+            //noinspection StatementWithEmptyBody
+            while (urgentBuffer.poll() != null) ;
+        }
+
+        if (readStopped) {
+            Input message;
+            while ((message = readBuffer.poll()) != null) {
+                release(message);
+            }
+        }
+    }
+
+    /**
+     * Ожидание завершения потока, не завершенный за {@link #getStopTimeout()} поток прерывается
+     *
+     * @param thread - поток
+     * @return - поток завершен
+     */
+    private boolean join(Thread thread) throws InterruptedException {
+        if (thread == null || thread == Thread.currentThread())
+            return true;
+
+        thread.join(getStopTimeout());
+        if (!thread.isAlive())
+            return true;
+
+        thread.interrupt();
+        thread.join(getStopTimeout());
+        if (thread.isAlive()) {
+            LOGGER.error("{} is not stopped after interrupt, its buffer is not cleared", thread.getName());
+            return false;
+        }
+
+        LOGGER.warn("{} is stopped by interrupt", thread.getName());
+        return true;
+    }
+
+    /**
+     * Возврат пакета после обработки слушателями и хендлером
+     * (пакеты могут переиспользоваться, ссылки на них нельзя хранить)
+     *
+     * @param message - пакет
+     */
+    protected void release(Input message) {
     }
 
     /**
@@ -95,30 +287,92 @@ public abstract class AbstractServer<Input, Output, Interface> extends AbstractL
      */
     protected abstract void send(Output message) throws IOException, SerialPortNotOpenException;
 
+    /**
+     * Передача пачки пакетов (по умолчанию по одному), переопределяется для передачи одной записью
+     *
+     * @param messages - пакеты в порядке передачи
+     * @throws IOException - ошибка ввода
+     */
+    protected void send(List<Output> messages) throws IOException, SerialPortNotOpenException {
+        for (Output message : messages) {
+            send(message);
+        }
+    }
+
+    /**
+     * Срочный пакет: передается раньше пакетов очереди и не ждет токенов
+     *
+     * @param message - пакет
+     * @return - пакет срочный
+     */
+    protected boolean isUrgent(Output message) {
+        return false;
+    }
+
+    /**
+     * Срочный пакет передан
+     *
+     * @param message - пакет
+     * @param nanos   - время от постановки в очередь до окончания передачи
+     */
+    protected void urgentSent(Output message, long nanos) {
+    }
+
     /**
      * Поток зписи
      */
     private class WriteThread extends Thread {
         @Override
         public void run() {
+            List<Output> batch = new ArrayList<>(BATCH_SIZE);
+            List<Urgent<Output>> urgent = new ArrayList<>(BATCH_SIZE);
+
             try {
                 while (isRunning()) {
-                    //отправка всех пакетов из буфера в CAN
-                    while (!sendBuffer.isEmpty()) {
-                        try {
-                            //блокирующее чтение из очереди и отправка
-                            send(sendBuffer.take());
-                            //если не сделать паузу, то буфер CAN переполняется или устройства не успевают обрабатывать пакеты
-                            //noinspection BusyWait
-                            sleep(writeDelay);
-                        } catch (InterruptedException e) {
+                    //ожидание пакетов без нагрузки на CPU (зависит от стратегии)
+                    sendWaitStrategy.waitFor(sendAvailable, running);
+
+                    //отправка всех пакетов из буферов, срочные - первыми
+                    while (isRunning() && !isInterrupted()) {
+                        TokenBucket pacer = AbstractServer.this.pacer;
+
+                        if (urgentBuffer.drainTo(urgent, BATCH_SIZE) > 0) {
+                            for (Urgent<Output> message : urgent) {
+                                batch.add(message.message());
+                            }
+                            //срочные пакеты не ждут токенов, следующие пакеты ждут дольше
+                            pacer.take(batch.size(), System.nanoTime());
+                            send(batch);
+
+                            long now = System.nanoTime();
+                            for (Urgent<Output> message : urgent) {
+                                urgentSent(message.message(), now - message.queuedNanos());
+                            }
+                            urgent.clear();
+                            batch.clear();
+                            continue;
+                        }
+
+                        if (sendBuffer.isEmpty())
                             break;
+
+                        //если не ограничить скорость, то буфер CAN переполняется или устройства не успевают обрабатывать пакеты
+                        long now = System.nanoTime();
+                        long wait = pacer.nanosToWait(1, now);
+                        if (wait > 0) {
+                            //срочный пакет прерывает ожидание (signalWriter)
+                            LockSupport.parkNanos(this, wait);
+                            continue;
                         }
-                    }
 
-                    //снижаем нагрузку
-                    //sleep(500);
+                        sendBuffer.drainTo(batch, Math.min(BATCH_SIZE, pacer.available(now)));
+                        pacer.take(batch.size(), now);
+                        send(batch);
+                        batch.clear();
+                    }
                 }
+            } catch (InterruptedException e) {
+                interrupt();
             } catch (Exception e) {
                 e.printStackTrace();
 
@@ -137,30 +391,37 @@ public abstract class AbstractServer<Input, Output, Interface> extends AbstractL
     private class ReadThread extends Thread {
         @Override
         public void run() {
+            List<Input> batch = new ArrayList<>(BATCH_SIZE);
+
             while (isRunning()) {
                 try {
-                    while (!readBuffer.isEmpty()) {
-                        Input message = readBuffer.take();
-                        //передача пакета слушателям
+                    readWaitStrategy.waitFor(readAvailable, running);
+
+                    while (readBuffer.drainTo(batch, BATCH_SIZE) > 0) {
+                        //передача пакетов слушателям
                         for (Server.Listener<Input> listener : listeners) {
-                            listener.sendPackage(message);
+                            for (Input message : batch) {
+                                listener.sendPackage(message);
+                            }
                         }
 
-                        //TODO можно сделать обработку пакетов в Executor, можно будет разом обрабатывать по 10 пакетов
-                        //передача пакета в хендлер
+                        //передача пачки пакетов в хендлер
                         if (handler != null) {
                             try {
-
-                                handler.channelRead(message, sendBuffer, getInterface());
-
+                                handler.channelRead(batch, AbstractServer.this, getInterface());
                             } catch (Exception e) {
                                 e.printStackTrace();
                             }
                         }
-                    }
 
-                    //если recv() без блокировки, это поможет сбить нагрузку
-                    //sleep(500);
+                        for (Input message : batch) {
+                            release(message);
+                        }
+                        batch.clear();
+                    }
+                } catch (InterruptedException e) {
+                    interrupt();
+                    break;
                 } catch (Exception e) {
                     e.printStackTrace();
 
@@ -173,4 +434,10 @@ public abstract class AbstractServer<Input, Output, Interface> extends AbstractL
             }
         }
     }
+
+    /**
+     * Срочный пакет и время его постановки в очередь
+     */
+    private record Urgent<Output>(Output message, long queuedNanos) {
+    }
 }
@@ -1,6 +1,6 @@
 package ru.gsa.biointerface.host.serialport.serverByPuchkov;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
 
 /**
  * Created by Пучков Константин on 12.03.2019.
@@ -10,10 +10,25 @@ public interface ChannelHandler<Input, Output, Interface> {
     /**
      * Опишите логику запрос-ответ
      *
-     * @param sendBuffer - буфер для отправки пакетов
-     * @param message    - входящий пакет
-     * @param context    - контекст для записи
+     * @param server  - сервер для отправки пакетов
+     * @param message - входящий пакет
+     * @param context - контекст для записи
      * @throws Exception -
      */
-    void channelRead(final Input message, final LinkedBlockingQueue<Output> sendBuffer, final Interface context) throws Exception;
+    void channelRead(final Input message, final Server<Input, Output, Interface> server, final Interface context) throws Exception;
+
+    /**
+     * Обработка пачки пакетов.
+     * Пакеты могут переиспользоваться сервером, ссылки на них нельзя хранить после возврата.
+     *
+     * @param messages - входящие пакеты
+     * @param server   - сервер для отправки пакетов
+     * @param context  - контекст для записи
+     * @throws Exception -
+     */
+    default void channelRead(final List<Input> messages, final Server<Input, Output, Interface> server, final Interface context) throws Exception {
+        for (Input message : messages) {
+            channelRead(message, server, context);
+        }
+    }
 }
@@ -34,6 +34,15 @@ public interface Server<Input, Output, Interface> {
      */
     Server<Input, Output, Interface> setWriteDelay(int delay);
 
+    /**
+     * Ограничивает скорость передачи пакетов ("ведро токенов")
+     *
+     * @param rate  - пакетов в секунду (0 - без ограничения)
+     * @param burst - количество пакетов, которые можно передать подряд после паузы
+     * @return - объект сервера
+     */
+    Server<Input, Output, Interface> setWriteRate(double rate, int burst);
+
     /**
      * Добавляет слушателя
      * {@link Listener} используется для уведомления слушателя.
@@ -0,0 +1,123 @@
+package ru.gsa.biointerface.host.serialport.serverByPuchkov.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Кольцевой буфер фиксированного размера без блокировок
+ * для одного писателя и одного читателя (SPSC).
+ * Память выделяется один раз при создании.
+ *
+ * @param <E> - тип элементов
+ */
+public class RingBuffer<E> {
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // позиция читателя
+    private final AtomicLong tail = new AtomicLong(); // позиция писателя
+    private long cachedHead = 0; // используется только писателем
+    private long cachedTail = 0; // используется только читателем
+
+    /**
+     * @param capacity - размер буфера (степень двойки)
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity is not power of two");
+
+        buffer = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Добавление элемента (только из потока писателя)
+     *
+     * @param element - элемент
+     * @return false - буфер заполнен
+     */
+    public boolean offer(E element) {
+        if (element == null)
+            throw new NullPointerException("Element is null");
+
+        long position = tail.get();
+
+        if (position - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (position - cachedHead >= buffer.length)
+                return false;
+        }
+
+        buffer[(int) position & mask] = element;
+        tail.lazySet(position + 1);
+
+        return true;
+    }
+
+    /**
+     * Извлечение элемента (только из потока читателя)
+     *
+     * @return элемент или null, если буфер пуст
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head.get();
+
+        if (position >= cachedTail) {
+            cachedTail = tail.get();
+            if (position >= cachedTail)
+                return null;
+        }
+
+        int index = (int) position & mask;
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(position + 1);
+
+        return element;
+    }
+
+    /**
+     * Извлечение пачки элементов (только из потока читателя)
+     *
+     * @param destination - коллекция для элементов
+     * @param max         - максимальное количество элементов
+     * @return количество извлеченных элементов
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> destination, int max) {
+        long position = head.get();
+        long available = cachedTail - position;
+
+        if (available < max) {
+            cachedTail = tail.get();
+            available = cachedTail - position;
+        }
+
+        int count = (int) Math.min(available, max);
+
+        for (int i = 0; i < count; i++) {
+            int index = (int) (position + i) & mask;
+            destination.add((E) buffer[index]);
+            buffer[index] = null;
+        }
+
+        if (count > 0) {
+            head.lazySet(position + count);
+        }
+
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    public int size() {
+        return (int) Math.max(tail.get() - head.get(), 0);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
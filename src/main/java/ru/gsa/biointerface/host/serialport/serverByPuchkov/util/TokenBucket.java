@@ -0,0 +1,73 @@
+package ru.gsa.biointerface.host.serialport.serverByPuchkov.util;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Ограничение скорости "ведро токенов": токены прибывают со скоростью rate в секунду,
+ * накапливается не больше burst. Токены можно взять в долг (срочные пакеты),
+ * тогда следующие пакеты ждут дольше.
+ * Не потокобезопасно: используется только потоком записи.
+ */
+public final class TokenBucket {
+    private final long nanosPerToken;
+    private final int burst;
+    private long emptyAt;
+
+    /**
+     * @param rate  - токенов в секунду (0 - без ограничения)
+     * @param burst - максимальное количество накопленных токенов
+     */
+    public TokenBucket(double rate, int burst) {
+        if (rate < 0)
+            throw new IllegalArgumentException("Rate < 0");
+        if (burst <= 0)
+            throw new IllegalArgumentException("Burst <= 0");
+
+        nanosPerToken = rate > 0 ? Math.max((long) (1e9 / rate), 1) : 0;
+        this.burst = burst;
+        emptyAt = System.nanoTime() - (long) burst * nanosPerToken;
+    }
+
+    public boolean isUnlimited() {
+        return nanosPerToken == 0;
+    }
+
+    /**
+     * @param now - текущее время (System.nanoTime())
+     * @return - количество доступных токенов
+     */
+    public int available(long now) {
+        if (isUnlimited())
+            return Integer.MAX_VALUE;
+
+        long elapsed = now - emptyAt;
+
+        return elapsed <= 0 ? 0 : (int) Math.min(elapsed / nanosPerToken, burst);
+    }
+
+    /**
+     * @param amount - количество токенов
+     * @param now    - текущее время (System.nanoTime())
+     * @return - время ожидания токенов в наносекундах (0 - токены доступны)
+     */
+    public long nanosToWait(int amount, long now) {
+        if (isUnlimited())
+            return 0;
+
+        long start = Math.max(emptyAt, now - (long) burst * nanosPerToken);
+
+        return Math.max(start + amount * nanosPerToken - now, 0);
+    }
+
+    /**
+     * Забирает токены, в том числе в долг.
+     *
+     * @param amount - количество токенов
+     * @param now    - текущее время (System.nanoTime())
+     */
+    public void take(int amount, long now) {
+        if (isUnlimited())
+            return;
+
+        emptyAt = Math.max(emptyAt, now - (long) burst * nanosPerToken) + amount * nanosPerToken;
+    }
+}
@@ -0,0 +1,149 @@
+package ru.gsa.biointerface.host.serialport.serverByPuchkov.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Стратегия ожидания данных потоком-читателем {@link RingBuffer}.
+ */
+public interface WaitStrategy {
+    /**
+     * Ожидание, пока не выполнится одно из условий
+     *
+     * @param available - в буфере есть данные
+     * @param running   - сервер запущен
+     * @throws InterruptedException - поток прерван
+     */
+    void waitFor(BooleanSupplier available, BooleanSupplier running) throws InterruptedException;
+
+    /**
+     * Уведомление читателя о новых данных или остановке
+     */
+    void signal();
+
+    /**
+     * Фабрика стратегии по имени: blocking, backoff, busySpin
+     *
+     * @param name - имя стратегии
+     * @return фабрика стратегии
+     */
+    static Supplier<WaitStrategy> factory(String name) {
+        if (name == null)
+            throw new NullPointerException("Name is null");
+
+        return switch (name) {
+            case "blocking" -> WaitStrategy::blocking;
+            case "backoff" -> WaitStrategy::backoff;
+            case "busySpin" -> WaitStrategy::busySpin;
+            default -> throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        };
+    }
+
+    static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    static WaitStrategy backoff() {
+        return new Backoff();
+    }
+
+    static WaitStrategy busySpin() {
+        return new BusySpin();
+    }
+
+    /**
+     * Ожидание на условной переменной. Минимальная нагрузка на CPU, наибольшая задержка.
+     */
+    final class Blocking implements WaitStrategy {
+        private static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(100);
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition condition = lock.newCondition();
+        private volatile boolean waiting = false;
+
+        @Override
+        public void waitFor(BooleanSupplier available, BooleanSupplier running) throws InterruptedException {
+            if (available.getAsBoolean())
+                return;
+
+            lock.lock();
+            try {
+                waiting = true;
+                while (!available.getAsBoolean() && running.getAsBoolean()) {
+                    condition.awaitNanos(TIMEOUT);
+                }
+            } finally {
+                waiting = false;
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signal() {
+            // запись в буфер должна стать видимой до проверки флага ожидания
+            VarHandle.fullFence();
+            if (waiting) {
+                lock.lock();
+                try {
+                    condition.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Активное ожидание, затем уступка процессора, затем парковка с растущим интервалом.
+     */
+    final class Backoff implements WaitStrategy {
+        private static final int SPINS = 100;
+        private static final int YIELDS = 100;
+        private static final long MIN_PARK = TimeUnit.MICROSECONDS.toNanos(10);
+        private static final long MAX_PARK = TimeUnit.MILLISECONDS.toNanos(1);
+
+        @Override
+        public void waitFor(BooleanSupplier available, BooleanSupplier running) {
+            int counter = 0;
+            long park = MIN_PARK;
+
+            while (!available.getAsBoolean() && running.getAsBoolean()) {
+                if (counter < SPINS) {
+                    Thread.onSpinWait();
+                    counter++;
+                } else if (counter < SPINS + YIELDS) {
+                    Thread.yield();
+                    counter++;
+                } else {
+                    LockSupport.parkNanos(park);
+                    park = Math.min(park * 2, MAX_PARK);
+                }
+            }
+        }
+
+        @Override
+        public void signal() {
+        }
+    }
+
+    /**
+     * Активное ожидание. Минимальная задержка, занимает ядро процессора.
+     */
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public void waitFor(BooleanSupplier available, BooleanSupplier running) {
+            while (!available.getAsBoolean() && running.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        @Override
+        public void signal() {
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package ru.gsa.biointerface.host.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.host.serialport.ControlMessages;
+import ru.gsa.biointerface.host.serialport.PacketDecoder;
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Software model of "BiointerfaceController".
+ * <p>
+ * Answers {@link ControlMessages} like the firmware: GET_CONFIG - CONFIG frame,
+ * START_TRANSMISSION/STOP_TRANSMISSION - start/stop of DATA frames, REBOOT - stop and CONFIG frame.
+ * DATA frames are generated by a separate thread at {@link SimulatorConfig#getRate()}
+ * (sine of 1 Hz * (number + 1) with gaussian noise), the stream is limited by speed of line
+ * and corrupted according to the probabilities of config.
+ */
+public class SimulatedDevice {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulatedDevice.class);
+    private static final int START = 0xFF;
+    private static final int HEADER_SIZE = 4;
+    private static final int AMPLITUDE = 1500;
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_CHUNK = 4096;
+    private final SimulatorConfig config;
+    private final PacketDecoder controlDecoder = new PacketDecoder(512);
+    private final Random random;
+    private final byte[] frame;
+    private final byte[] chunk = new byte[2 * MAX_CHUNK];
+    private final double[] phases;
+    private volatile ByteSink sink;
+    private volatile boolean transmission = false;
+    private volatile boolean configRequested = false;
+    private volatile Thread thread;
+
+    private volatile long framesSent = 0;
+    private volatile long framesOverrun = 0;
+    private volatile long bytesSent = 0;
+    private volatile long bytesCorrupted = 0;
+
+    public SimulatedDevice(SimulatorConfig config) {
+        if (config == null)
+            throw new NullPointerException("Config is null");
+
+        config.validate();
+        this.config = config;
+        random = new Random(config.getSeed());
+        frame = new byte[HEADER_SIZE + 2 * config.getAmountChannels()];
+        frame[0] = (byte) START;
+        frame[1] = (byte) START;
+        frame[2] = PacketType.DATA.getId();
+        frame[3] = (byte) (2 * config.getAmountChannels());
+        phases = new double[config.getAmountChannels()];
+
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = 2 * Math.PI * random.nextDouble();
+        }
+    }
+
+    /**
+     * Connects line and starts the device thread.
+     *
+     * @param sink - receiver of bytes from device
+     */
+    public synchronized void connect(ByteSink sink) {
+        if (sink == null)
+            throw new NullPointerException("Sink is null");
+        if (thread != null)
+            throw new IllegalStateException("Device is already connected");
+
+        this.sink = sink;
+        transmission = false;
+        configRequested = false;
+        thread = new Thread(this::run);
+        thread.setDaemon(true);
+        thread.setName("Simulated device " + config.getSerialNumber());
+        thread.start();
+        LOGGER.info("Simulated device(serialNumber={}) is connected", config.getSerialNumber());
+    }
+
+    public synchronized void disconnect() throws InterruptedException {
+        Thread thread = this.thread;
+        this.thread = null;
+
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+            sink = null;
+            LOGGER.info("Simulated device(serialNumber={}) is disconnected", config.getSerialNumber());
+        }
+    }
+
+    public boolean isConnected() {
+        return thread != null;
+    }
+
+    /**
+     * Bytes from host to device (only CONTROL frames are interpreted).
+     */
+    public synchronized void receive(byte[] bytes) {
+        if (bytes == null)
+            throw new NullPointerException("Bytes is null");
+
+        controlDecoder.feed(bytes, 0, bytes.length);
+        controlDecoder.decode(new PacketDecoder.FrameHandler() {
+            @Override
+            public void dataFrame(int[] samples, int[] scales, int amount) {
+            }
+
+            @Override
+            public void frame(PacketType type, byte[] msg) {
+                if (type == PacketType.CONTROL && msg.length > 0) {
+                    control(msg[0]);
+                }
+            }
+        });
+    }
+
+    private void control(byte command) {
+        if (command == ControlMessages.GET_CONFIG.getMsg()[0]) {
+            configRequested = true;
+        } else if (command == ControlMessages.START_TRANSMISSION.getMsg()[0]) {
+            transmission = true;
+        } else if (command == ControlMessages.STOP_TRANSMISSION.getMsg()[0]) {
+            transmission = false;
+        } else if (command == ControlMessages.REBOOT.getMsg()[0]) {
+            transmission = false;
+            configRequested = true;
+        }
+
+        Thread thread = this.thread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        Thread current = Thread.currentThread();
+        long start = System.nanoTime();
+        long last = start;
+        long generated = 0;
+        double lineBudget = 0;
+        boolean transmitted = false;
+
+        while (thread == current) {
+            long now = System.nanoTime();
+            int length = 0;
+
+            if (configRequested) {
+                configRequested = false;
+                byte[] config = new byte[]{
+                        (byte) START, (byte) START, PacketType.CONFIG.getId(), 3,
+                        (byte) this.config.getSerialNumber(),
+                        (byte) (this.config.getSerialNumber() >> 8),
+                        (byte) this.config.getAmountChannels()};
+                length = put(config, config.length, length);
+            }
+
+            if (transmission) {
+                if (!transmitted) {
+                    transmitted = true;
+                    start = now;
+                    generated = 0;
+                    lineBudget = 0;
+                    last = now;
+                }
+
+                long due = (now - start) * config.getRate() / TimeUnit.SECONDS.toNanos(1);
+                if (config.getBaudRate() > 0) {
+                    // bytes which the line can pass since the previous tick (8N1 - 10 bits per byte)
+                    lineBudget = Math.min(lineBudget + (double) (now - last)
+                            * config.getBaudRate() / 10 / TimeUnit.SECONDS.toNanos(1), MAX_CHUNK);
+                }
+                last = now;
+
+                while (generated < due && length + frame.length <= MAX_CHUNK) {
+                    generated++;
+                    fillFrame(generated);
+
+                    if (config.getBaudRate() > 0) {
+                        if (lineBudget < frame.length) {
+                            framesOverrun++;
+                            continue;
+                        }
+                        lineBudget -= frame.length;
+                    }
+                    length = put(frame, frame.length, length);
+                    framesSent++;
+                }
+            } else {
+                transmitted = false;
+            }
+
+            if (length > 0) {
+                ByteSink sink = this.sink;
+                if (sink != null) {
+                    sink.write(chunk, 0, length);
+                }
+                bytesSent += length;
+            }
+
+            LockSupport.parkNanos(TICK);
+        }
+    }
+
+    /**
+     * Puts bytes to the output chunk with corruption.
+     */
+    private int put(byte[] bytes, int amount, int position) {
+        for (int i = 0; i < amount; i++) {
+            byte value = bytes[i];
+
+            if (config.getJunkProbability() > 0 && random.nextDouble() < config.getJunkProbability()) {
+                chunk[position++] = (byte) random.nextInt(256);
+                bytesCorrupted++;
+            }
+            if (config.getDropProbability() > 0 && random.nextDouble() < config.getDropProbability()) {
+                bytesCorrupted++;
+                continue;
+            }
+            if (config.getFlipProbability() > 0 && random.nextDouble() < config.getFlipProbability()) {
+                value ^= (byte) (1 << random.nextInt(8));
+                bytesCorrupted++;
+            }
+            chunk[position++] = value;
+        }
+
+        return position;
+    }
+
+    private void fillFrame(long index) {
+        double time = (double) index / config.getRate();
+
+        for (int i = 0; i < phases.length; i++) {
+            double signal = AMPLITUDE * Math.sin(2 * Math.PI * (i + 1) * time + phases[i]);
+            int value = (int) Math.round(signal + random.nextGaussian() * config.getNoise());
+            value = Math.max(-2048, Math.min(2047, value));
+            frame[HEADER_SIZE + 2 * i] = (byte) ((value & 0x0F) << 4);
+            frame[HEADER_SIZE + 2 * i + 1] = (byte) (value >> 4);
+        }
+    }
+
+    public SimulatorConfig getConfig() {
+        return config;
+    }
+
+    public boolean isTransmission() {
+        return transmission;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public long getFramesOverrun() {
+        return framesOverrun;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesCorrupted() {
+        return bytesCorrupted;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedDevice{" +
+                "serialNumber=" + config.getSerialNumber() +
+                ", amountChannels=" + config.getAmountChannels() +
+                ", rate=" + config.getRate() +
+                '}';
+    }
+
+    /**
+     * Receiver of bytes from device (called from the device thread only)
+     */
+    public interface ByteSink {
+        void write(byte[] src, int offset, int length);
+    }
+}
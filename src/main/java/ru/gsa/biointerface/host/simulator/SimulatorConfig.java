@@ -0,0 +1,127 @@
+package ru.gsa.biointerface.host.simulator;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Parameters of {@link SimulatedDevice}.
+ * <p>
+ * Text form (see {@link #parse(String)}): devices are separated by ';',
+ * parameters of device are "key=value" separated by ',', e.g.
+ * "serial=1001,channels=8,rate=1000,noise=20,baud=512000,drop=0.0001;serial=1002,channels=2".
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class SimulatorConfig {
+    /**
+     * Serial number of device (1..65535)
+     */
+    @Builder.Default
+    private final int serialNumber = 1;
+    /**
+     * Amount of channels (1..8)
+     */
+    @Builder.Default
+    private final int amountChannels = 8;
+    /**
+     * DATA frames per second (one sample of every channel in frame)
+     */
+    @Builder.Default
+    private final int rate = 1000;
+    /**
+     * Standard deviation of gaussian noise added to signal
+     */
+    @Builder.Default
+    private final double noise = 20;
+    /**
+     * Speed of line in bits per second (10 bits per byte), 0 - unlimited.
+     * Frames which do not fit into the line are dropped by device.
+     */
+    @Builder.Default
+    private final int baudRate = 512000;
+    /**
+     * Probability of losing a byte
+     */
+    @Builder.Default
+    private final double dropProbability = 0;
+    /**
+     * Probability of flipping a bit in a byte
+     */
+    @Builder.Default
+    private final double flipProbability = 0;
+    /**
+     * Probability of inserting a random byte
+     */
+    @Builder.Default
+    private final double junkProbability = 0;
+    /**
+     * Seed of random generator
+     */
+    @Builder.Default
+    private final long seed = 0;
+
+    /**
+     * @param text - configuration of devices (empty - one device with default parameters)
+     * @return - configurations of devices
+     */
+    public static List<SimulatorConfig> parse(String text) {
+        if (text == null)
+            throw new NullPointerException("Text is null");
+
+        List<SimulatorConfig> configs = new ArrayList<>();
+        int serialNumber = 1;
+
+        for (String device : text.split(";", -1)) {
+            SimulatorConfigBuilder builder = builder().serialNumber(serialNumber).seed(serialNumber);
+
+            for (String parameter : device.split(",")) {
+                if (parameter.isBlank())
+                    continue;
+
+                String[] pair = parameter.split("=", 2);
+                if (pair.length != 2)
+                    throw new IllegalArgumentException("Wrong parameter of simulator: " + parameter);
+
+                String value = pair[1].trim();
+                switch (pair[0].trim()) {
+                    case "serial" -> builder.serialNumber(Integer.parseInt(value));
+                    case "channels" -> builder.amountChannels(Integer.parseInt(value));
+                    case "rate" -> builder.rate(Integer.parseInt(value));
+                    case "noise" -> builder.noise(Double.parseDouble(value));
+                    case "baud" -> builder.baudRate(Integer.parseInt(value));
+                    case "drop" -> builder.dropProbability(Double.parseDouble(value));
+                    case "flip" -> builder.flipProbability(Double.parseDouble(value));
+                    case "junk" -> builder.junkProbability(Double.parseDouble(value));
+                    case "seed" -> builder.seed(Long.parseLong(value));
+                    default -> throw new IllegalArgumentException("Unknown parameter of simulator: " + pair[0]);
+                }
+            }
+
+            SimulatorConfig config = builder.build();
+            config.validate();
+            configs.add(config);
+            serialNumber = config.getSerialNumber() + 1;
+        }
+
+        return configs;
+    }
+
+    public void validate() {
+        if (serialNumber <= 0 || serialNumber > 0xFFFF)
+            throw new IllegalArgumentException("SerialNumber <= 0 or > 65535");
+        if (amountChannels <= 0 || amountChannels > 8)
+            throw new IllegalArgumentException("AmountChannels <= 0 or > 8");
+        if (rate <= 0)
+            throw new IllegalArgumentException("Rate <= 0");
+        if (noise < 0)
+            throw new IllegalArgumentException("Noise < 0");
+        if (baudRate < 0)
+            throw new IllegalArgumentException("BaudRate < 0");
+        if (dropProbability < 0 || flipProbability < 0 || junkProbability < 0)
+            throw new IllegalArgumentException("Probability < 0");
+    }
+}
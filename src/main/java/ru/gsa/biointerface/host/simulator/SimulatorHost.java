@@ -0,0 +1,75 @@
+package ru.gsa.biointerface.host.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.host.serialport.PacketHost;
+import ru.gsa.biointerface.host.serialport.SerialPortNotOpenException;
+import ru.gsa.biointerface.host.serialport.serverByPuchkov.util.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Host connected to {@link SimulatedDevice} instead of serial port.
+ * Bytes of device go through the same decoder and buffers as bytes of serial port.
+ */
+public class SimulatorHost extends PacketHost<SimulatedDevice> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulatorHost.class);
+    private final SimulatedDevice device;
+
+    public SimulatorHost(SimulatedDevice device) {
+        this(device, WaitStrategy::blocking);
+    }
+
+    public SimulatorHost(SimulatedDevice device, Supplier<WaitStrategy> waitStrategy) {
+        super(name(device), waitStrategy);
+        this.device = device;
+    }
+
+    private static String name(SimulatedDevice device) {
+        if (device == null)
+            throw new NullPointerException("Device is null");
+
+        return "simulator" + device.getConfig().getSerialNumber();
+    }
+
+    @Override
+    public boolean portIsOpen() {
+        return device.isConnected();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        device.connect(this::bytesReceived);
+        LOGGER.info("SimulatorHost with {} started", device);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        device.disconnect();
+        super.doStop();
+        LOGGER.info("SimulatorHost with {} come to stop", device);
+    }
+
+    @Override
+    protected SimulatedDevice getInterface() {
+        return device;
+    }
+
+    @Override
+    protected void write(byte[] bytes, int length) throws SerialPortNotOpenException {
+        if (!device.isConnected())
+            throw new SerialPortNotOpenException();
+
+        device.receive(Arrays.copyOf(bytes, length));
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatorHost{" +
+                "device=" + device +
+                '}';
+    }
+}
@@ -0,0 +1,24 @@
+package ru.gsa.biointerface.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Monotonic counter of events. Cheap for concurrent writers, rate is computed by
+ * difference of two {@link MetricsSnapshot}.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
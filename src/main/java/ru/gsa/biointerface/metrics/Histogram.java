@@ -0,0 +1,105 @@
+package ru.gsa.biointerface.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Histogram of durations in nanoseconds with power of two buckets:
+ * bucket i holds values in [2^(i-1), 2^i). Percentiles are reported by the upper bound of bucket,
+ * so the error is less than two times, which is enough to see tails of latency.
+ * Values are cumulative, histogram for an interval is a difference of two snapshots.
+ */
+public final class Histogram {
+    public static final int BUCKETS = 64;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param nanos - duration (negative is counted as zero)
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value));
+        sum.add(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+
+        return new Snapshot(counts, sum.sum());
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long sum;
+        private final long count;
+
+        private Snapshot(long[] counts, long sum) {
+            long count = 0;
+
+            for (long value : counts) {
+                count += value;
+            }
+            this.counts = counts;
+            this.sum = sum;
+            this.count = count;
+        }
+
+        /**
+         * @param previous - earlier snapshot of the same histogram (may be null)
+         * @return - values recorded after previous
+         */
+        public Snapshot since(Snapshot previous) {
+            if (previous == null)
+                return this;
+
+            long[] counts = new long[BUCKETS];
+
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.counts[i] - previous.counts[i];
+            }
+
+            return new Snapshot(counts, sum - previous.sum);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMean() {
+            return count > 0 ? sum / count : 0;
+        }
+
+        /**
+         * @param quantile - from 0 to 1
+         * @return - upper bound of the bucket with the quantile (nanoseconds)
+         */
+        public long getPercentile(double quantile) {
+            if (quantile < 0 || quantile > 1)
+                throw new IllegalArgumentException("Quantile out of range");
+            if (count == 0)
+                return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long accumulated = 0;
+
+            for (int i = 0; i < BUCKETS; i++) {
+                accumulated += counts[i];
+                if (accumulated >= rank)
+                    return i == 0 ? 0 : (i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+
+            return Long.MAX_VALUE;
+        }
+
+        public long getMax() {
+            return getPercentile(1);
+        }
+    }
+}
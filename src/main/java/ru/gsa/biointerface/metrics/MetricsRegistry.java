@@ -0,0 +1,84 @@
+package ru.gsa.biointerface.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Named metrics of live ingest: counters, histograms and gauges.
+ * <p>
+ * Names are dot separated, the first part is a stage: host, channel, recording, ui.
+ * Counters and histograms are created on first request and live until the end of application,
+ * so components take them once and keep references. Gauges are read only on snapshot
+ * and have to be removed by owner (see {@link #removeGauges}).
+ */
+public final class MetricsRegistry {
+    private static MetricsRegistry instance = null;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+
+        return instance;
+    }
+
+    public Counter counter(String name) {
+        if (name == null)
+            throw new NullPointerException("Name is null");
+
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        if (name == null)
+            throw new NullPointerException("Name is null");
+
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Registers (or replaces) gauge.
+     *
+     * @param name  - name
+     * @param value - current value, called from the thread of snapshot
+     */
+    public void gauge(String name, LongSupplier value) {
+        if (name == null)
+            throw new NullPointerException("Name is null");
+        if (value == null)
+            throw new NullPointerException("Value is null");
+
+        gauges.put(name, value);
+    }
+
+    /**
+     * @param prefix - prefix of names of removed gauges
+     */
+    public void removeGauges(String prefix) {
+        if (prefix == null)
+            throw new NullPointerException("Prefix is null");
+
+        gauges.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<>();
+        Map<String, Long> gauges = new TreeMap<>();
+        Map<String, Histogram.Snapshot> histograms = new TreeMap<>();
+
+        this.counters.forEach((name, counter) -> counters.put(name, counter.get()));
+        this.gauges.forEach((name, gauge) -> gauges.put(name, gauge.getAsLong()));
+        this.histograms.forEach((name, histogram) -> histograms.put(name, histogram.snapshot()));
+
+        return new MetricsSnapshot(System.nanoTime(), counters, gauges, histograms);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.gsa.biointerface.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Periodic dump of {@link MetricsRegistry} to the log (rolling file of log4j2).
+ * Interval is set by property {@link #INTERVAL_PROPERTY} in seconds, 0 disables the dump.
+ * Nothing is written while counters do not change (no device is connected).
+ */
+public final class MetricsReporter {
+    public static final String INTERVAL_PROPERTY = "biointerface.metrics.interval";
+    public static final int DEFAULT_INTERVAL = 60;
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsReporter.class);
+    private static MetricsReporter instance = null;
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+    private ScheduledExecutorService executor;
+    private MetricsSnapshot previous;
+
+    private MetricsReporter() {
+    }
+
+    public static synchronized MetricsReporter getInstance() {
+        if (instance == null) {
+            instance = new MetricsReporter();
+        }
+
+        return instance;
+    }
+
+    /**
+     * Starts dump with interval from system property.
+     */
+    public synchronized void start() {
+        start(Integer.getInteger(INTERVAL_PROPERTY, DEFAULT_INTERVAL));
+    }
+
+    /**
+     * @param interval - interval of dump in seconds (0 - disabled)
+     */
+    public synchronized void start(int interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("Interval < 0");
+        if (executor != null || interval == 0)
+            return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Metrics reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        previous = registry.snapshot();
+        executor.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.SECONDS);
+        LOGGER.info("Metrics are written to log every {} s", interval);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            report();
+        }
+    }
+
+    private synchronized void report() {
+        try {
+            MetricsSnapshot snapshot = registry.snapshot();
+
+            if (!snapshot.getCounters().equals(previous.getCounters())) {
+                LOGGER.info("Metrics:\n{}", snapshot.format(previous));
+            }
+            previous = snapshot;
+        } catch (Exception e) {
+            LOGGER.error("Metrics report error", e);
+        }
+    }
+}
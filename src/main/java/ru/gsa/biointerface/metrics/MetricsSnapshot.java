@@ -0,0 +1,93 @@
+package ru.gsa.biointerface.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Values of all metrics at one moment.
+ */
+public final class MetricsSnapshot {
+    private final long time;
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, Histogram.Snapshot> histograms;
+
+    MetricsSnapshot(long time,
+                    Map<String, Long> counters,
+                    Map<String, Long> gauges,
+                    Map<String, Histogram.Snapshot> histograms) {
+        this.time = time;
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    private static String duration(long nanos) {
+        if (nanos == Long.MAX_VALUE)
+            return "inf";
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(1))
+            return String.format("%.1fus", nanos / 1e3);
+
+        return String.format("%.1fms", nanos / 1e6);
+    }
+
+    /**
+     * Text for log and diagnostics panel: counters with total and rate,
+     * gauges with value, histograms with count, mean and percentiles for the interval.
+     *
+     * @param previous - earlier snapshot (may be null, then rates are not shown
+     *                 and histograms are cumulative)
+     * @return - one metric per line
+     */
+    public String format(MetricsSnapshot previous) {
+        StringBuilder text = new StringBuilder();
+        double seconds = previous != null ? (time - previous.time) / 1e9 : 0;
+
+        counters.forEach((name, value) -> {
+            text.append(name).append(": ").append(value);
+            if (seconds > 0) {
+                long delta = value - previous.counters.getOrDefault(name, 0L);
+                text.append(String.format(" (%.1f/s)", delta / seconds));
+            }
+            text.append('\n');
+        });
+        gauges.forEach((name, value) -> text.append(name).append(": ").append(value).append('\n'));
+        histograms.forEach((name, histogram) -> {
+            Histogram.Snapshot interval = previous != null
+                    ? histogram.since(previous.histograms.get(name))
+                    : histogram;
+            text.append(name)
+                    .append(": n=").append(interval.getCount());
+            if (interval.getCount() > 0) {
+                text.append(" mean=").append(duration(interval.getMean()))
+                        .append(" p50<").append(duration(interval.getPercentile(0.5)))
+                        .append(" p99<").append(duration(interval.getPercentile(0.99)))
+                        .append(" max<").append(duration(interval.getMax()));
+            }
+            text.append('\n');
+        });
+
+        return text.toString();
+    }
+
+    /**
+     * @return - value of System.nanoTime() at snapshot
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+}
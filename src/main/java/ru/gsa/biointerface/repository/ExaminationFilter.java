@@ -0,0 +1,30 @@
+package ru.gsa.biointerface.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Conditions of selection of examinations, null fields are not checked.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class ExaminationFilter {
+    public static final ExaminationFilter ALL = ExaminationFilter.builder().build();
+    private final Integer patientId;
+    /**
+     * Beginning of second, first name or patronymic of patient (case-insensitive)
+     */
+    private final String patientName;
+    /**
+     * Start of examination is not earlier than
+     */
+    private final Date from;
+    /**
+     * Start of examination is earlier than
+     */
+    private final Date to;
+    private final Integer deviceId;
+}
@@ -14,6 +14,10 @@ public interface ExaminationRepository {
 
     List<Examination> findAllByPatient(Patient patient) throws Exception;
 
+    List<Examination> findPage(ExaminationFilter filter, PageRequest page) throws Exception;
+
+    long count(ExaminationFilter filter) throws Exception;
+
     Optional<Examination> findById(Integer id) throws Exception;
 
     Examination save(Examination examination) throws Exception;
@@ -0,0 +1,41 @@
+package ru.gsa.biointerface.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Part of sorted list of entities: rows [offset, offset + limit).
+ * Rows with equal values of sort property are ordered by id, so pages do not overlap.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class PageRequest {
+    /**
+     * Index of the first row
+     */
+    @Builder.Default
+    private final int offset = 0;
+    /**
+     * Max amount of rows
+     */
+    @Builder.Default
+    private final int limit = 100;
+    /**
+     * Property of entity to sort by (null - by id)
+     */
+    private final String sort;
+    @Builder.Default
+    private final boolean ascending = true;
+
+    public static PageRequest of(int offset, int limit) {
+        return PageRequest.builder().offset(offset).limit(limit).build();
+    }
+
+    public void validate() {
+        if (offset < 0)
+            throw new IllegalArgumentException("Offset < 0");
+        if (limit <= 0)
+            throw new IllegalArgumentException("Limit <= 0");
+    }
+}
@@ -0,0 +1,29 @@
+package ru.gsa.biointerface.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Calendar;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Conditions of selection of patients, null fields are not checked.
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class PatientFilter {
+    public static final PatientFilter ALL = PatientFilter.builder().build();
+    /**
+     * Beginning of second, first name or patronymic (case-insensitive)
+     */
+    private final String name;
+    /**
+     * Birthday is not earlier than
+     */
+    private final Calendar birthdayFrom;
+    /**
+     * Birthday is not later than
+     */
+    private final Calendar birthdayTo;
+    private final Integer icdId;
+}
@@ -11,6 +11,14 @@ import java.util.Optional;
 public interface PatientRepository {
     List<Patient> findAll() throws Exception;
 
+    List<Patient> findPage(PatientFilter filter, PageRequest page) throws Exception;
+
+    long count(PatientFilter filter) throws Exception;
+
+    List<Patient> findAllById(List<Integer> ids) throws Exception;
+
+    List<PatientSearchKey> findSearchKeys() throws Exception;
+
     Optional<Patient> findById(Integer id) throws Exception;
 
     Patient save(Patient patient) throws Exception;
@@ -0,0 +1,43 @@
+package ru.gsa.biointerface.repository;
+
+import lombok.Getter;
+import ru.gsa.biointerface.domain.entity.Patient;
+
+import java.util.Calendar;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Fields of patient used by search (read without loading of entities).
+ */
+@Getter
+public final class PatientSearchKey {
+    private final int id;
+    private final String secondName;
+    private final String firstName;
+    private final String patronymic;
+    private final Calendar birthday;
+    private final Integer icdId;
+
+    public PatientSearchKey(int id, String secondName, String firstName, String patronymic,
+                            Calendar birthday, Integer icdId) {
+        this.id = id;
+        this.secondName = secondName;
+        this.firstName = firstName;
+        this.patronymic = patronymic;
+        this.birthday = birthday;
+        this.icdId = icdId;
+    }
+
+    public static PatientSearchKey of(Patient patient) {
+        if (patient == null)
+            throw new NullPointerException("Patient is null");
+
+        return new PatientSearchKey(
+                patient.getId(),
+                patient.getSecondName(),
+                patient.getFirstName(),
+                patient.getPatronymic(),
+                patient.getBirthday(),
+                patient.getIcd() == null ? null : patient.getIcd().getId());
+    }
+}
@@ -0,0 +1,28 @@
+package ru.gsa.biointerface.repository;
+
+import ru.gsa.biointerface.repository.exception.ReadException;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Forward-only reader of a range of samples of one channel.
+ * Holds an open database cursor, so it must be closed after reading.
+ */
+public interface SampleCursor extends AutoCloseable {
+    /**
+     * Reads the next samples.
+     *
+     * @param destination - array for samples
+     * @param offset      - position of the first sample in array
+     * @param length      - maximum amount of samples
+     * @return - amount of read samples or -1 if the range is over
+     */
+    int read(int[] destination, int offset, int length) throws Exception;
+
+    /**
+     * @return - index of the next sample
+     */
+    int getPosition();
+
+    @Override
+    void close() throws ReadException;
+}
@@ -1,8 +1,11 @@
 package ru.gsa.biointerface.repository;
 
 import ru.gsa.biointerface.domain.entity.Channel;
+import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Sample;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
 import ru.gsa.biointerface.domain.entity.SampleID;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,15 +16,27 @@ import java.util.Optional;
 public interface SampleRepository {
     List<Sample> findAllByChannel(Channel channel) throws Exception;
 
-    Optional<Sample> findById(SampleID id) throws Exception;
+    List<SampleChunk> findChunksByChannel(Channel channel, int fromIndex, int toIndex) throws Exception;
+
+    int[] findValuesByChannel(Channel channel, int fromIndex, int toIndex) throws Exception;
+
+    int[][] findValuesByExamination(Examination examination, int fromIndex, int toIndex) throws Exception;
+
+    SampleCursor openCursor(Channel channel, int fromIndex, int toIndex) throws Exception;
 
-    Sample insert(Sample sample) throws Exception;
+    List<SampleSummary> findSummariesByChannel(Channel channel, int level, int fromIndex, int toIndex) throws Exception;
+
+    int countByChannel(Channel channel) throws Exception;
+
+    boolean existsLegacyByChannel(Channel channel) throws Exception;
+
+    Optional<Sample> findById(SampleID id) throws Exception;
 
-    void transactionOpen() throws Exception;
+    int convertToChunks(Channel channel, boolean compress) throws Exception;
 
-    void transactionClose() throws Exception;
+    int buildSummaries(Channel channel, boolean compress) throws Exception;
 
-    boolean transactionIsOpen();
+    SampleTransaction openTransaction() throws Exception;
 
     boolean existsById(SampleID id) throws Exception;
 }
@@ -0,0 +1,45 @@
+package ru.gsa.biointerface.repository;
+
+import ru.gsa.biointerface.domain.entity.Sample;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+import ru.gsa.biointerface.repository.exception.RepositoryException;
+
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Write transaction of samples with its own database session.
+ * Every recording opens its own transaction, so recordings of several devices do not share state.
+ * Not thread safe: it is used by one writer thread.
+ */
+public interface SampleTransaction extends AutoCloseable {
+    Sample insert(Sample sample) throws Exception;
+
+    void insertChunks(List<SampleChunk> chunks) throws Exception;
+
+    void insertSummaries(List<SampleSummary> summaries) throws Exception;
+
+    /**
+     * Deletes samples, chunks and summaries of examination (e.g. before import of the whole recording again).
+     *
+     * @param examinationId - id of examination
+     * @return - amount of deleted rows
+     */
+    int deleteByExamination(int examinationId) throws Exception;
+
+    /**
+     * Commits written data and begins the next transaction in the same session.
+     */
+    void commit() throws Exception;
+
+    boolean isOpen();
+
+    /**
+     * Commits written data and closes session.
+     *
+     * @throws RepositoryException - transaction is not open or is not committed
+     */
+    @Override
+    void close() throws RepositoryException;
+}
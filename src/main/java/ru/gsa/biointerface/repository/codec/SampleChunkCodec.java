@@ -0,0 +1,223 @@
+package ru.gsa.biointerface.repository.codec;
+
+import ru.gsa.biointerface.domain.entity.ChannelID;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
+import ru.gsa.biointerface.domain.entity.SampleChunkID;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Encoder/decoder of {@link SampleChunk} data.
+ * <p>
+ * Samples of the controller are 12-bit signed values, so they are stored as deltas
+ * modulo 2^12 packed two per three bytes ({@link #DELTA_12}). Chunks with values
+ * out of 12-bit range are stored as 32-bit big-endian values ({@link #RAW_32}).
+ * The packed data is deflated if it becomes smaller ({@link #DEFLATED} flag).
+ */
+public final class SampleChunkCodec {
+    public static final int DELTA_12 = 0x01;
+    public static final int RAW_32 = 0x02;
+    public static final int DEFLATED = 0x10;
+    private static final int FORMAT_MASK = 0x0F;
+    private static final int MIN_12 = -2048;
+    private static final int MAX_12 = 2047;
+
+    private SampleChunkCodec() {
+    }
+
+    public static SampleChunk encode(ChannelID channelId, int start, int[] values, int offset, int length, boolean compress) {
+        if (channelId == null)
+            throw new NullPointerException("ChannelId is null");
+        if (values == null)
+            throw new NullPointerException("Values is null");
+        if (length <= 0 || length > SampleChunk.CAPACITY)
+            throw new IllegalArgumentException("Length <= 0 or > " + SampleChunk.CAPACITY);
+        if (offset < 0 || offset + length > values.length)
+            throw new IllegalArgumentException("Offset out of range");
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        for (int i = offset; i < offset + length; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+
+        int encoding;
+        byte[] data;
+
+        if (min >= MIN_12 && max <= MAX_12) {
+            encoding = DELTA_12;
+            data = packDelta12(values, offset, length);
+        } else {
+            encoding = RAW_32;
+            data = packRaw32(values, offset, length);
+        }
+
+        if (compress) {
+            byte[] deflated = deflate(data);
+            if (deflated.length < data.length) {
+                encoding |= DEFLATED;
+                data = deflated;
+            }
+        }
+
+        return new SampleChunk(new SampleChunkID(start, channelId), length, min, max, encoding, data);
+    }
+
+    /**
+     * Decodes samples of chunk.
+     *
+     * @param chunk       - chunk
+     * @param destination - array for samples
+     * @param offset      - position of the first sample in destination
+     * @return - amount of decoded samples
+     */
+    public static int decode(SampleChunk chunk, int[] destination, int offset) {
+        if (chunk == null)
+            throw new NullPointerException("Chunk is null");
+        if (destination == null)
+            throw new NullPointerException("Destination is null");
+        if (offset < 0 || offset + chunk.getAmount() > destination.length)
+            throw new IllegalArgumentException("Destination is too small");
+
+        int encoding = chunk.getEncoding();
+        int length = chunk.getAmount();
+        byte[] data = chunk.getData();
+
+        if ((encoding & DEFLATED) != 0) {
+            data = inflate(data, packedSize(encoding & FORMAT_MASK, length));
+        }
+
+        switch (encoding & FORMAT_MASK) {
+            case DELTA_12 -> unpackDelta12(data, length, destination, offset);
+            case RAW_32 -> unpackRaw32(data, length, destination, offset);
+            default -> throw new IllegalStateException("Unexpected encoding: " + encoding);
+        }
+
+        return length;
+    }
+
+    public static int[] decode(SampleChunk chunk) {
+        int[] values = new int[chunk.getAmount()];
+        decode(chunk, values, 0);
+
+        return values;
+    }
+
+    private static int packedSize(int format, int length) {
+        return switch (format) {
+            case DELTA_12 -> (length * 3 + 1) / 2;
+            case RAW_32 -> length * 4;
+            default -> throw new IllegalStateException("Unexpected format: " + format);
+        };
+    }
+
+    private static byte[] packDelta12(int[] values, int offset, int length) {
+        byte[] data = new byte[packedSize(DELTA_12, length)];
+        int previous = 0;
+
+        for (int i = 0, j = 0; i < length; i += 2, j += 3) {
+            int first = (values[offset + i] - previous) & 0xFFF;
+            previous = values[offset + i];
+            data[j] = (byte) first;
+
+            if (i + 1 < length) {
+                int second = (values[offset + i + 1] - previous) & 0xFFF;
+                previous = values[offset + i + 1];
+                data[j + 1] = (byte) ((first >> 8) | (second << 4));
+                data[j + 2] = (byte) (second >> 4);
+            } else {
+                data[j + 1] = (byte) (first >> 8);
+            }
+        }
+
+        return data;
+    }
+
+    private static void unpackDelta12(byte[] data, int length, int[] destination, int offset) {
+        int previous = 0;
+
+        for (int i = 0, j = 0; i < length; i += 2, j += 3) {
+            int first = (data[j] & 0xFF) | ((data[j + 1] & 0x0F) << 8);
+            previous = ((previous + first) << 20) >> 20;
+            destination[offset + i] = previous;
+
+            if (i + 1 < length) {
+                int second = ((data[j + 1] & 0xF0) >> 4) | ((data[j + 2] & 0xFF) << 4);
+                previous = ((previous + second) << 20) >> 20;
+                destination[offset + i + 1] = previous;
+            }
+        }
+    }
+
+    private static byte[] packRaw32(int[] values, int offset, int length) {
+        byte[] data = new byte[packedSize(RAW_32, length)];
+
+        for (int i = 0, j = 0; i < length; i++, j += 4) {
+            int value = values[offset + i];
+            data[j] = (byte) (value >> 24);
+            data[j + 1] = (byte) (value >> 16);
+            data[j + 2] = (byte) (value >> 8);
+            data[j + 3] = (byte) value;
+        }
+
+        return data;
+    }
+
+    private static void unpackRaw32(byte[] data, int length, int[] destination, int offset) {
+        for (int i = 0, j = 0; i < length; i++, j += 4) {
+            destination[offset + i] = (data[j] << 24)
+                    | ((data[j + 1] & 0xFF) << 16)
+                    | ((data[j + 2] & 0xFF) << 8)
+                    | (data[j + 3] & 0xFF);
+        }
+    }
+
+    static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[data.length + 64];
+            int length = 0;
+
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+
+            return deflater.finished() ? Arrays.copyOf(buffer, length) : data;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] data, int size) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[size];
+            int length = 0;
+
+            while (!inflater.finished() && length < size) {
+                int count = inflater.inflate(result, length, size - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                length += count;
+            }
+
+            if (length != size)
+                throw new IllegalStateException("Corrupted chunk data");
+
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted chunk data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
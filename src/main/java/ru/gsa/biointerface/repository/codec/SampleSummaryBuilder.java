@@ -0,0 +1,132 @@
+package ru.gsa.biointerface.repository.codec;
+
+import ru.gsa.biointerface.domain.entity.ChannelID;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Incremental builder of min/max/mean pyramid of one channel.
+ * A point of level N is built from FACTOR points of level N-1 (level 0 is samples).
+ * Complete blocks of points are put to the output list.
+ */
+public class SampleSummaryBuilder {
+    private static final int LEVELS = SampleSummary.MAX_LEVEL + 1;
+    private final ChannelID channelId;
+    private final boolean compress;
+    private final List<SampleSummary> output;
+    private final int[] min = new int[LEVELS];
+    private final int[] max = new int[LEVELS];
+    private final long[] sum = new long[LEVELS];
+    private final long[] samples = new long[LEVELS];
+    private final int[] children = new int[LEVELS];
+    private final int[][] blockMin = new int[LEVELS][];
+    private final int[][] blockMax = new int[LEVELS][];
+    private final int[][] blockMean = new int[LEVELS][];
+    private final int[] blockLength = new int[LEVELS];
+    private final int[] blockStart = new int[LEVELS];
+
+    /**
+     * @param channelId - channel
+     * @param compress  - deflate blocks
+     * @param output    - list for complete blocks
+     */
+    public SampleSummaryBuilder(ChannelID channelId, boolean compress, List<SampleSummary> output) {
+        if (channelId == null)
+            throw new NullPointerException("ChannelId is null");
+        if (output == null)
+            throw new NullPointerException("Output is null");
+
+        this.channelId = channelId;
+        this.compress = compress;
+        this.output = output;
+
+        for (int level = 1; level < LEVELS; level++) {
+            blockMin[level] = new int[SampleSummary.CAPACITY];
+            blockMax[level] = new int[SampleSummary.CAPACITY];
+            blockMean[level] = new int[SampleSummary.CAPACITY];
+        }
+    }
+
+    public void add(int value) {
+        merge(1, value, value, value, 1);
+    }
+
+    public void add(int[] values, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            merge(1, values[i], values[i], values[i], 1);
+        }
+    }
+
+    /**
+     * Puts incomplete points and blocks to the output list.
+     */
+    public void finish() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (children[level] > 0) {
+                complete(level);
+            }
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            flushBlock(level);
+        }
+    }
+
+    private void merge(int level, int min, int max, long sum, long samples) {
+        if (children[level] == 0) {
+            this.min[level] = min;
+            this.max[level] = max;
+        } else {
+            this.min[level] = Math.min(this.min[level], min);
+            this.max[level] = Math.max(this.max[level], max);
+        }
+        this.sum[level] += sum;
+        this.samples[level] += samples;
+
+        if (++children[level] == SampleSummary.FACTOR) {
+            complete(level);
+        }
+    }
+
+    private void complete(int level) {
+        int index = blockLength[level]++;
+        blockMin[level][index] = min[level];
+        blockMax[level][index] = max[level];
+        blockMean[level][index] = (int) (sum[level] / samples[level]);
+
+        if (blockLength[level] == SampleSummary.CAPACITY) {
+            flushBlock(level);
+        }
+
+        int min = this.min[level];
+        int max = this.max[level];
+        long sum = this.sum[level];
+        long samples = this.samples[level];
+        this.sum[level] = 0;
+        this.samples[level] = 0;
+        children[level] = 0;
+
+        if (level < SampleSummary.MAX_LEVEL) {
+            merge(level + 1, min, max, sum, samples);
+        }
+    }
+
+    private void flushBlock(int level) {
+        int length = blockLength[level];
+
+        if (length > 0) {
+            output.add(SampleSummaryCodec.encode(
+                    channelId,
+                    level,
+                    blockStart[level],
+                    blockMin[level],
+                    blockMax[level],
+                    blockMean[level],
+                    length,
+                    compress));
+            blockStart[level] += length;
+            blockLength[level] = 0;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.gsa.biointerface.repository.codec;
+
+import ru.gsa.biointerface.domain.entity.ChannelID;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+import ru.gsa.biointerface.domain.entity.SampleSummaryID;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Encoder/decoder of {@link SampleSummary} data.
+ * <p>
+ * Every point is stored as min, max and mean 16-bit big-endian values
+ * (values of controller are 12-bit, wider values are clamped).
+ * The first byte is a flag of deflated data.
+ */
+public final class SampleSummaryCodec {
+    private static final int POINT_SIZE = 6;
+    private static final int PLAIN = 0;
+    private static final int DEFLATED = 1;
+
+    private SampleSummaryCodec() {
+    }
+
+    public static SampleSummary encode(ChannelID channelId,
+                                       int level,
+                                       int start,
+                                       int[] min,
+                                       int[] max,
+                                       int[] mean,
+                                       int length,
+                                       boolean compress) {
+        if (channelId == null)
+            throw new NullPointerException("ChannelId is null");
+        if (min == null || max == null || mean == null)
+            throw new NullPointerException("Values is null");
+        if (length <= 0 || length > SampleSummary.CAPACITY)
+            throw new IllegalArgumentException("Length <= 0 or > " + SampleSummary.CAPACITY);
+
+        byte[] packed = new byte[length * POINT_SIZE];
+
+        for (int i = 0, j = 0; i < length; i++, j += POINT_SIZE) {
+            putShort(packed, j, min[i]);
+            putShort(packed, j + 2, max[i]);
+            putShort(packed, j + 4, mean[i]);
+        }
+
+        int flag = PLAIN;
+
+        if (compress) {
+            byte[] deflated = SampleChunkCodec.deflate(packed);
+            if (deflated.length < packed.length) {
+                flag = DEFLATED;
+                packed = deflated;
+            }
+        }
+
+        byte[] data = new byte[packed.length + 1];
+        data[0] = (byte) flag;
+        System.arraycopy(packed, 0, data, 1, packed.length);
+
+        return new SampleSummary(new SampleSummaryID(level, start, channelId), length, data);
+    }
+
+    /**
+     * Decodes points of summary block.
+     *
+     * @param summary - block
+     * @param min     - array for minimums
+     * @param max     - array for maximums
+     * @param mean    - array for means
+     * @param offset  - position of the first point in arrays
+     * @return - amount of decoded points
+     */
+    public static int decode(SampleSummary summary, int[] min, int[] max, int[] mean, int offset) {
+        if (summary == null)
+            throw new NullPointerException("Summary is null");
+        if (min == null || max == null || mean == null)
+            throw new NullPointerException("Destination is null");
+
+        int length = summary.getAmount();
+
+        if (offset < 0 || offset + length > min.length || offset + length > max.length || offset + length > mean.length)
+            throw new IllegalArgumentException("Destination is too small");
+
+        byte[] data = summary.getData();
+        byte[] packed;
+
+        switch (data[0]) {
+            case PLAIN -> {
+                packed = new byte[data.length - 1];
+                System.arraycopy(data, 1, packed, 0, packed.length);
+            }
+            case DEFLATED -> {
+                byte[] deflated = new byte[data.length - 1];
+                System.arraycopy(data, 1, deflated, 0, deflated.length);
+                packed = SampleChunkCodec.inflate(deflated, length * POINT_SIZE);
+            }
+            default -> throw new IllegalStateException("Unexpected encoding: " + data[0]);
+        }
+
+        for (int i = 0, j = 0; i < length; i++, j += POINT_SIZE) {
+            min[offset + i] = getShort(packed, j);
+            max[offset + i] = getShort(packed, j + 2);
+            mean[offset + i] = getShort(packed, j + 4);
+        }
+
+        return length;
+    }
+
+    private static void putShort(byte[] data, int index, int value) {
+        value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+        data[index] = (byte) (value >> 8);
+        data[index + 1] = (byte) value;
+    }
+
+    private static int getShort(byte[] data, int index) {
+        return (short) ((data[index] << 8) | (data[index + 1] & 0xFF));
+    }
+}
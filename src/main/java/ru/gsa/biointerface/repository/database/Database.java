@@ -9,4 +9,17 @@ import javax.persistence.PersistenceException;
  */
 public interface Database {
     SessionFactory getSessionFactory() throws PersistenceException;
+
+    /**
+     * Removes entity and cached queries from second-level cache.
+     *
+     * @param entityClass - class of entity
+     * @param id          - id of entity
+     */
+    void evict(Class<?> entityClass, Object id);
+
+    /**
+     * @return - size of pool of connections ({@link SQLiteConnectionProvider}), 0 if pool is not limited by application
+     */
+    int getConnectionPoolSize();
 }
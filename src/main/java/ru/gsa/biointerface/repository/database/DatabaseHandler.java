@@ -2,23 +2,46 @@ package ru.gsa.biointerface.repository.database;
 
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.*;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
 import ru.gsa.biointerface.repository.exception.NoConnectionException;
 
 import javax.persistence.PersistenceException;
+import java.io.Serializable;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
+ * If statistics of Hibernate are enabled (hibernate.generate_statistics), amount of SQL statements
+ * and hits/misses of second-level and query caches are published in {@link MetricsRegistry} ("database.*").
  */
 public class DatabaseHandler implements Database {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseHandler.class);
     private static DatabaseHandler instance = null;
     private final SessionFactory sessionFactory;
+    private final int connectionPoolSize;
 
     private DatabaseHandler(SessionFactory sessionFactory) {
         this.sessionFactory = sessionFactory;
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        connectionPoolSize = provider != null && provider.isUnwrappableAs(SQLiteConnectionProvider.class)
+                ? provider.unwrap(SQLiteConnectionProvider.class).getPoolSize() : 0;
+        Statistics statistics = sessionFactory.getStatistics();
+
+        if (statistics.isStatisticsEnabled()) {
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.gauge("database.statements", statistics::getPrepareStatementCount);
+            metrics.gauge("database.cache.hits", statistics::getSecondLevelCacheHitCount);
+            metrics.gauge("database.cache.misses", statistics::getSecondLevelCacheMissCount);
+            metrics.gauge("database.cache.puts", statistics::getSecondLevelCachePutCount);
+            metrics.gauge("database.queryCache.hits", statistics::getQueryCacheHitCount);
+            metrics.gauge("database.queryCache.misses", statistics::getQueryCacheMissCount);
+        }
     }
 
     public static Database getInstance() throws NoConnectionException {
@@ -26,6 +49,8 @@ public class DatabaseHandler implements Database {
             try {
                 Configuration cfg = new Configuration()
                         .addAnnotatedClass(Sample.class)
+                        .addAnnotatedClass(SampleChunk.class)
+                        .addAnnotatedClass(SampleSummary.class)
                         .addAnnotatedClass(Channel.class)
                         .addAnnotatedClass(Examination.class)
                         .addAnnotatedClass(Device.class)
@@ -51,6 +76,8 @@ public class DatabaseHandler implements Database {
                         .setProperty("hibernate.connection.url", "jdbc:h2:mem:test")
                         .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
                         .addAnnotatedClass(Sample.class)
+                        .addAnnotatedClass(SampleChunk.class)
+                        .addAnnotatedClass(SampleSummary.class)
                         .addAnnotatedClass(Channel.class)
                         .addAnnotatedClass(Examination.class)
                         .addAnnotatedClass(Device.class)
@@ -71,4 +98,20 @@ public class DatabaseHandler implements Database {
     public SessionFactory getSessionFactory() {
         return sessionFactory;
     }
+
+    @Override
+    public void evict(Class<?> entityClass, Object id) {
+        if (entityClass == null)
+            throw new NullPointerException("EntityClass is null");
+        if (id == null)
+            throw new NullPointerException("Id is null");
+
+        sessionFactory.getCache().evictEntityData(entityClass, (Serializable) id);
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    @Override
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
 }
@@ -0,0 +1,86 @@
+package ru.gsa.biointerface.repository.database;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Second-level cache of Hibernate in memory of the application
+ * (hibernate.cache.region.factory_class=ru.gsa.biointerface.repository.database.InMemoryRegionFactory).
+ * <p>
+ * Every region is a map without expiration and size limit, it is meant for small reference data
+ * (entities marked by {@link javax.persistence.Cacheable}) and query results of them.
+ * Consistency with the database is kept by the access strategy of entity (READ_WRITE)
+ * and by timestamps region for queries.
+ */
+public class InMemoryRegionFactory extends RegionFactoryTemplate {
+    @SuppressWarnings("rawtypes")
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+    }
+
+    @Override
+    protected void releaseFromUse() {
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new MapStorageAccess();
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new MapStorageAccess();
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new MapStorageAccess();
+    }
+
+    private static final class MapStorageAccess implements DomainDataStorageAccess {
+        private final Map<Object, Object> data = new ConcurrentHashMap<>();
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return data.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            data.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return data.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            data.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            data.remove(key);
+        }
+
+        @Override
+        public void release() {
+            data.clear();
+        }
+    }
+}
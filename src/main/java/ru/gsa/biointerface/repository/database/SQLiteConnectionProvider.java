@@ -0,0 +1,234 @@
+package ru.gsa.biointerface.repository.database;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Small pool of JDBC connections for Hibernate
+ * (hibernate.connection.provider_class=ru.gsa.biointerface.repository.database.SQLiteConnectionProvider).
+ * <p>
+ * Connections are opened on demand up to {@link #POOL_SIZE_PROPERTY} and kept open.
+ * For SQLite pragmas of {@link #PROFILE_PROPERTY} ({@link SQLiteProfile}) are applied on opening,
+ * a single pragma is set or overridden by "biointerface.sqlite.pragma.&lt;name&gt;".
+ * Other databases (H2 in tests) get connections without pragmas.
+ */
+public class SQLiteConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    public static final String PROFILE_PROPERTY = "biointerface.sqlite.profile";
+    public static final String PRAGMA_PROPERTY_PREFIX = "biointerface.sqlite.pragma.";
+    public static final String POOL_SIZE_PROPERTY = "biointerface.sqlite.poolSize";
+    public static final String TIMEOUT_PROPERTY = "biointerface.sqlite.poolTimeout";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SQLiteConnectionProvider.class);
+    private static final Pattern PRAGMA_NAME = Pattern.compile("[a-z_]+");
+    private static final Pattern PRAGMA_VALUE = Pattern.compile("-?[A-Za-z0-9_]+");
+    private final Map<String, String> pragmas = new LinkedHashMap<>();
+    private final AtomicInteger opened = new AtomicInteger();
+    private BlockingQueue<Connection> idle;
+    private String url;
+    private Properties connectionProperties;
+    private boolean autocommit;
+    private int poolSize;
+    private long timeout;
+    private volatile boolean stopped = false;
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void configure(Map configurationValues) {
+        url = ConfigurationHelper.getString(AvailableSettings.URL, configurationValues);
+        if (url == null)
+            throw new HibernateException(AvailableSettings.URL + " is not set");
+
+        String driver = ConfigurationHelper.getString(AvailableSettings.DRIVER, configurationValues);
+        if (driver != null) {
+            try {
+                Class.forName(driver);
+            } catch (ClassNotFoundException e) {
+                throw new HibernateException("JDBC driver " + driver + " is not found", e);
+            }
+        }
+
+        connectionProperties = new Properties();
+        String user = ConfigurationHelper.getString(AvailableSettings.USER, configurationValues);
+        String password = ConfigurationHelper.getString(AvailableSettings.PASS, configurationValues);
+        if (user != null) connectionProperties.setProperty("user", user);
+        if (password != null) connectionProperties.setProperty("password", password);
+
+        autocommit = ConfigurationHelper.getBoolean(AvailableSettings.AUTOCOMMIT, configurationValues, false);
+        poolSize = ConfigurationHelper.getInt(POOL_SIZE_PROPERTY, configurationValues, 12);
+        timeout = ConfigurationHelper.getLong(TIMEOUT_PROPERTY, configurationValues, 30000);
+        if (poolSize <= 0)
+            throw new HibernateException(POOL_SIZE_PROPERTY + " <= 0");
+
+        idle = new ArrayBlockingQueue<>(poolSize);
+
+        if (url.startsWith("jdbc:sqlite:")) {
+            SQLiteProfile profile = SQLiteProfile.valueOf(ConfigurationHelper.getString(
+                    PROFILE_PROPERTY, configurationValues, SQLiteProfile.DEFAULT.name()).toUpperCase());
+            pragmas.putAll(profile.getPragmas());
+
+            for (Object key : configurationValues.keySet()) {
+                String name = key.toString();
+                if (name.startsWith(PRAGMA_PROPERTY_PREFIX)) {
+                    pragmas.put(name.substring(PRAGMA_PROPERTY_PREFIX.length()),
+                            ConfigurationHelper.getString(name, configurationValues));
+                }
+            }
+
+            pragmas.forEach((name, value) -> {
+                if (!PRAGMA_NAME.matcher(name).matches() || !PRAGMA_VALUE.matcher(value).matches())
+                    throw new HibernateException("Illegal pragma " + name + "=" + value);
+            });
+            LOGGER.info("SQLite profile {}, pragmas {}, pool size {}", profile, pragmas, poolSize);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (stopped)
+            throw new SQLException("Connection provider is stopped");
+
+        Connection connection = idle.poll();
+
+        while (connection == null) {
+            int amount = opened.get();
+
+            if (amount < poolSize) {
+                if (opened.compareAndSet(amount, amount + 1)) {
+                    try {
+                        connection = open();
+                    } catch (SQLException | RuntimeException e) {
+                        opened.decrementAndGet();
+                        throw e;
+                    }
+                }
+            } else {
+                try {
+                    connection = idle.poll(timeout, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Waiting for connection is interrupted", e);
+                }
+                if (connection == null)
+                    throw new SQLException("All " + poolSize + " connections are in use for " + timeout + " ms");
+            }
+        }
+
+        return connection;
+    }
+
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, connectionProperties);
+
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+                statement.execute("PRAGMA " + pragma.getKey() + "=" + pragma.getValue());
+            }
+            connection.setAutoCommit(autocommit);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        LOGGER.debug("Connection {} of {} is opened", opened.get(), poolSize);
+
+        return connection;
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        if (connection == null)
+            return;
+
+        try {
+            if (!connection.isClosed() && !connection.getAutoCommit()) {
+                // reading outside of Hibernate transaction leaves SQLite transaction open,
+                // its snapshot would block (DEFAULT) or break (TUNED, SQLITE_BUSY_SNAPSHOT) writing
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            // a connection which is not rolled back is not returned to pool, its slot is freed
+            opened.decrementAndGet();
+            try {
+                connection.close();
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        if (stopped || connection.isClosed() || !idle.offer(connection)) {
+            opened.decrementAndGet();
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        Connection connection;
+
+        while ((connection = idle.poll()) != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.warn("Error closing connection", e);
+            }
+            opened.decrementAndGet();
+        }
+        LOGGER.info("Connection provider is stopped");
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || SQLiteConnectionProvider.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (isUnwrappableAs(unwrapType))
+            return (T) this;
+
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    public Map<String, String> getPragmas() {
+        return Map.copyOf(pragmas);
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getOpened() {
+        return opened.get();
+    }
+}
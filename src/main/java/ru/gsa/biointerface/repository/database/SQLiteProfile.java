@@ -0,0 +1,46 @@
+package ru.gsa.biointerface.repository.database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Pragmas of SQLite applied to every connection when it is opened (in the given order).
+ * <p>
+ * DEFAULT - settings of driver (rollback journal, synchronous=FULL), only waiting for locks is longer.
+ * TUNED - WAL journal (reading does not wait for writing and commit does not fsync the database file),
+ * synchronous=NORMAL (a commit can be lost on power failure, the database stays consistent),
+ * 16 MB page cache, 256 MB of memory mapped I/O and temporary tables in memory.
+ * page_size affects only a new database (a database in WAL mode keeps its page size).
+ */
+public enum SQLiteProfile {
+    DEFAULT(Map.of("busy_timeout", "10000")),
+    TUNED(tuned());
+
+    private final Map<String, String> pragmas;
+
+    SQLiteProfile(Map<String, String> pragmas) {
+        this.pragmas = pragmas;
+    }
+
+    private static Map<String, String> tuned() {
+        Map<String, String> pragmas = new LinkedHashMap<>();
+        pragmas.put("page_size", "4096");
+        pragmas.put("journal_mode", "WAL");
+        pragmas.put("synchronous", "NORMAL");
+        pragmas.put("cache_size", "-16384");
+        pragmas.put("mmap_size", "268435456");
+        pragmas.put("temp_store", "MEMORY");
+        pragmas.put("busy_timeout", "10000");
+
+        return Collections.unmodifiableMap(pragmas);
+    }
+
+    /**
+     * @return - name of pragma - value
+     */
+    public Map<String, String> getPragmas() {
+        return pragmas;
+    }
+}
@@ -1,10 +1,15 @@
 package ru.gsa.biointerface.repository.impl;
 
 import org.hibernate.Session;
+import ru.gsa.biointerface.repository.PageRequest;
 import ru.gsa.biointerface.repository.exception.ReadException;
 
+import javax.persistence.Cacheable;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import java.util.List;
 
 /**
@@ -21,7 +26,9 @@ public abstract class AbstractRepository<Entity, Key> extends AbstractDAO<Entity
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Entity> cq = cb.createQuery(genericType);
             cq.from(genericType);
-            List<Entity> entities = session.createQuery(cq).getResultList();
+            List<Entity> entities = session.createQuery(cq)
+                    .setCacheable(genericType.isAnnotationPresent(Cacheable.class))
+                    .getResultList();
             session.getTransaction().commit();
             LOGGER.info("Reading all entities is successful");
 
@@ -35,4 +42,89 @@ public abstract class AbstractRepository<Entity, Key> extends AbstractDAO<Entity
     public boolean existsById(Key key) throws Exception {
         return findById(key).isPresent();
     }
+
+    /**
+     * Reads sorted page of entities satisfying conditions.
+     *
+     * @throws IllegalArgumentException - unknown sort property
+     */
+    protected List<Entity> findPage(Conditions<Entity> conditions, PageRequest page) throws Exception {
+        if (page == null)
+            throw new NullPointerException("Page is null");
+        page.validate();
+
+        try (final Session session = sessionFactory.openSession()) {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<Entity> cq = cb.createQuery(genericType);
+            Root<Entity> root = cq.from(genericType);
+            fetchForPage(root);
+            cq.select(root).where(conditions.build(cb, root).toArray(new Predicate[0]));
+
+            Expression<?> id = root.get("id");
+            Expression<?> sort = page.getSort() != null ? sortExpression(root, page.getSort()) : id;
+            cq.orderBy(page.isAscending()
+                    ? List.of(cb.asc(sort), cb.asc(id))
+                    : List.of(cb.desc(sort), cb.desc(id)));
+
+            List<Entity> entities = session.createQuery(cq)
+                    .setFirstResult(page.getOffset())
+                    .setMaxResults(page.getLimit())
+                    .getResultList();
+            LOGGER.info("Reading page of entities is successful");
+
+            return entities;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("Error reading page of entities", e);
+            throw new ReadException(e);
+        }
+    }
+
+    protected long count(Conditions<Entity> conditions) throws Exception {
+        try (final Session session = sessionFactory.openSession()) {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+            Root<Entity> root = cq.from(genericType);
+            cq.select(cb.count(root)).where(conditions.build(cb, root).toArray(new Predicate[0]));
+
+            return session.createQuery(cq).getSingleResult();
+        } catch (Exception e) {
+            LOGGER.error("Error counting entities", e);
+            throw new ReadException(e);
+        }
+    }
+
+    /**
+     * Joins which are fetched together with page (e.g. many-to-one shown in table).
+     */
+    protected void fetchForPage(Root<Entity> root) {
+    }
+
+    /**
+     * @param sort - name of property
+     * @return - expression to sort by
+     * @throws IllegalArgumentException - unknown property
+     */
+    protected Expression<?> sortExpression(Root<Entity> root, String sort) {
+        return root.get(sort);
+    }
+
+    /**
+     * @return - pattern of LIKE (escaped by backslash) for values starting with text in lower case
+     */
+    protected static String startsWith(String text) {
+        return text.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Conditions of WHERE for query of page or amount
+     */
+    @FunctionalInterface
+    protected interface Conditions<Entity> {
+        List<Predicate> build(CriteriaBuilder cb, Root<Entity> root);
+    }
 }
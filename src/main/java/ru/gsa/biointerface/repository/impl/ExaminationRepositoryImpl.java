@@ -4,9 +4,15 @@ import org.hibernate.Session;
 import org.hibernate.query.Query;
 import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.ExaminationFilter;
 import ru.gsa.biointerface.repository.ExaminationRepository;
+import ru.gsa.biointerface.repository.PageRequest;
 import ru.gsa.biointerface.repository.exception.ReadException;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import java.util.List;
 
 /**
@@ -57,4 +63,55 @@ public class ExaminationRepositoryImpl extends AbstractRepository<Examination, I
 
         return entity;
     }
+
+    @Override
+    public List<Examination> findPage(ExaminationFilter filter, PageRequest page) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+
+        return findPage((cb, root) -> conditions(cb, root, filter), page);
+    }
+
+    @Override
+    public long count(ExaminationFilter filter) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+
+        return count((cb, root) -> conditions(cb, root, filter));
+    }
+
+    private static List<Predicate> conditions(CriteriaBuilder cb, Root<Examination> root, ExaminationFilter filter) {
+        List<Predicate> predicates = PatientRepositoryImpl.nameConditions(cb, root, "patient", filter.getPatientName());
+
+        if (filter.getPatientId() != null) {
+            predicates.add(cb.equal(root.get("patient").get("id"), filter.getPatientId()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("starttime"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(root.get("starttime"), filter.getTo()));
+        }
+        if (filter.getDeviceId() != null) {
+            predicates.add(cb.equal(root.get("device").get("id"), filter.getDeviceId()));
+        }
+
+        return predicates;
+    }
+
+    @Override
+    protected void fetchForPage(Root<Examination> root) {
+        root.fetch("patient");
+        root.fetch("device");
+    }
+
+    @Override
+    protected Expression<?> sortExpression(Root<Examination> root, String sort) {
+        if ("patient".equals(sort))
+            return root.get("patient").get("secondName");
+        if ("device".equals(sort))
+            return root.get("device").get("id");
+
+        return super.sortExpression(root, sort);
+    }
 }
@@ -1,7 +1,21 @@
 package ru.gsa.biointerface.repository.impl;
 
+import org.hibernate.Session;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.PageRequest;
+import ru.gsa.biointerface.repository.PatientFilter;
 import ru.gsa.biointerface.repository.PatientRepository;
+import ru.gsa.biointerface.repository.PatientSearchKey;
+import ru.gsa.biointerface.repository.exception.ReadException;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
@@ -34,4 +48,100 @@ public class PatientRepositoryImpl extends AbstractRepository<Patient, Integer>
 
         return entity;
     }
+
+    @Override
+    public List<Patient> findPage(PatientFilter filter, PageRequest page) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+
+        return findPage((cb, root) -> conditions(cb, root, filter), page);
+    }
+
+    @Override
+    public long count(PatientFilter filter) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+
+        return count((cb, root) -> conditions(cb, root, filter));
+    }
+
+    @Override
+    public List<Patient> findAllById(List<Integer> ids) throws Exception {
+        if (ids == null)
+            throw new NullPointerException("Ids is null");
+        if (ids.isEmpty())
+            return new ArrayList<>();
+
+        try (final Session session = sessionFactory.openSession()) {
+            List<Patient> entities = session
+                    .createQuery("select p from patient p left join fetch p.icd where p.id in (:ids)", Patient.class)
+                    .setParameterList("ids", ids)
+                    .getResultList();
+            LOGGER.info("Reading entities by ids is successful");
+
+            return entities;
+        } catch (Exception e) {
+            LOGGER.error("Error reading entities by ids", e);
+            throw new ReadException(e);
+        }
+    }
+
+    @Override
+    public List<PatientSearchKey> findSearchKeys() throws Exception {
+        try (final Session session = sessionFactory.openSession()) {
+            List<PatientSearchKey> keys = session
+                    .createQuery("select new ru.gsa.biointerface.repository.PatientSearchKey(" +
+                            "p.id, p.secondName, p.firstName, p.patronymic, p.birthday, i.id) " +
+                            "from patient p left join p.icd i", PatientSearchKey.class)
+                    .getResultList();
+            LOGGER.info("Reading search keys is successful");
+
+            return keys;
+        } catch (Exception e) {
+            LOGGER.error("Error reading search keys", e);
+            throw new ReadException(e);
+        }
+    }
+
+    static List<Predicate> nameConditions(CriteriaBuilder cb, Root<?> root, String path, String name) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (name != null && !name.isBlank()) {
+            String pattern = startsWith(name);
+            Path<?> patient = path == null ? root : root.get(path);
+            Expression<String> secondName = cb.lower(patient.get("secondName"));
+            Expression<String> firstName = cb.lower(patient.get("firstName"));
+            Expression<String> patronymic = cb.lower(patient.get("patronymic"));
+            predicates.add(cb.or(
+                    cb.like(secondName, pattern, '\\'),
+                    cb.like(firstName, pattern, '\\'),
+                    cb.like(patronymic, pattern, '\\')));
+        }
+
+        return predicates;
+    }
+
+    private static List<Predicate> conditions(CriteriaBuilder cb, Root<Patient> root, PatientFilter filter) {
+        List<Predicate> predicates = nameConditions(cb, root, null, filter.getName());
+
+        if (filter.getBirthdayFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("birthday"), filter.getBirthdayFrom()));
+        }
+        if (filter.getBirthdayTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("birthday"), filter.getBirthdayTo()));
+        }
+        if (filter.getIcdId() != null) {
+            predicates.add(cb.equal(root.get("icd").get("id"), filter.getIcdId()));
+        }
+
+        return predicates;
+    }
+
+    @Override
+    protected Expression<?> sortExpression(Root<Patient> root, String sort) {
+        if ("icd".equals(sort))
+            return root.join("icd", JoinType.LEFT).get("name");
+
+        return super.sortExpression(root, sort);
+    }
 }
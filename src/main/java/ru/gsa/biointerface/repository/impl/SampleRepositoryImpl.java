@@ -3,23 +3,69 @@ package ru.gsa.biointerface.repository.impl;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
 import ru.gsa.biointerface.domain.entity.Channel;
+import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Sample;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
 import ru.gsa.biointerface.domain.entity.SampleID;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+import ru.gsa.biointerface.repository.SampleCursor;
 import ru.gsa.biointerface.repository.SampleRepository;
+import ru.gsa.biointerface.repository.SampleTransaction;
+import ru.gsa.biointerface.repository.codec.SampleChunkCodec;
+import ru.gsa.biointerface.repository.codec.SampleSummaryBuilder;
+import ru.gsa.biointerface.repository.exception.DeleteException;
 import ru.gsa.biointerface.repository.exception.InsertException;
 import ru.gsa.biointerface.repository.exception.ReadException;
+import ru.gsa.biointerface.repository.exception.RepositoryException;
 import ru.gsa.biointerface.repository.exception.TransactionNotOpenException;
 import ru.gsa.biointerface.repository.exception.TransactionStopException;
+import ru.gsa.biointerface.repository.exception.UpdateException;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
  */
 public class SampleRepositoryImpl extends AbstractRepository<Sample, SampleID> implements SampleRepository {
+    private static final String INSERT_CHUNK_SQL = "INSERT INTO sample_chunk " +
+            "(start_index, channel_number, examination_id, amount, min_value, max_value, encoding, data) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_LEGACY_SQL = "SELECT value FROM sample " +
+            "WHERE examination_id = ? AND channel_number = ? ORDER BY id";
+    private static final String COUNT_CHUNKS_SQL = "SELECT COUNT(*) FROM sample_chunk " +
+            "WHERE examination_id = ? AND channel_number = ?";
+    private static final String DELETE_LEGACY_SQL = "DELETE FROM sample " +
+            "WHERE examination_id = ? AND channel_number = ?";
+    private static final String[] DELETE_EXAMINATION_SQL = {
+            "DELETE FROM sample_summary WHERE examination_id = ?",
+            "DELETE FROM sample_chunk WHERE examination_id = ?",
+            "DELETE FROM sample WHERE examination_id = ?"};
+    private static final String INSERT_SUMMARY_SQL = "INSERT INTO sample_summary " +
+            "(level, start_index, channel_number, examination_id, amount, data) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COUNT_SUMMARIES_SQL = "SELECT COUNT(*) FROM sample_summary " +
+            "WHERE examination_id = ? AND channel_number = ?";
+    private static final String SELECT_CHUNKS_SQL = "SELECT amount, encoding, data FROM sample_chunk " +
+            "WHERE examination_id = ? AND channel_number = ? ORDER BY start_index";
+    // chunk is not longer than CAPACITY, so the lower bound of start_index keeps the queries on the key
+    private static final String SELECT_RANGE_SQL = "SELECT start_index, amount, encoding, data FROM sample_chunk " +
+            "WHERE examination_id = ? AND channel_number = ? AND start_index > ? AND start_index < ? " +
+            "ORDER BY start_index";
+    private static final String SELECT_EXAMINATION_RANGE_SQL = "SELECT c.channel_number, c.start_index, " +
+            "c.amount, c.encoding, c.data FROM channel ch JOIN sample_chunk c " +
+            "ON c.examination_id = ch.examination_id AND c.channel_number = ch.number " +
+            "WHERE ch.examination_id = ? AND c.start_index > ? AND c.start_index < ? " +
+            "ORDER BY ch.number, c.start_index";
+    private static final int CHUNK_BATCH_SIZE = 64;
+    private static final int INITIAL_RANGE_SIZE = 1 << 16;
     private static SampleRepository repository;
-    private static Session session;
-    private boolean transactionIsOpen;
 
     private SampleRepositoryImpl() throws Exception {
         super();
@@ -50,62 +96,660 @@ public class SampleRepositoryImpl extends AbstractRepository<Sample, SampleID> i
             throw new ReadException(e);
         }
 
+        List<SampleChunk> chunks = findChunksByChannel(entity, 0, Integer.MAX_VALUE);
+
+        if (!chunks.isEmpty()) {
+            int[] values = new int[SampleChunk.CAPACITY];
+            entities = new ArrayList<>(entities);
+
+            for (SampleChunk chunk : chunks) {
+                int length = SampleChunkCodec.decode(chunk, values, 0);
+
+                for (int i = 0; i < length; i++) {
+                    entities.add(Sample.builder()
+                            .id(new SampleID(chunk.getStart() + i, entity.getId()))
+                            .channel(entity)
+                            .value(values[i])
+                            .build());
+                }
+            }
+            Collections.sort(entities);
+        }
+
         return entities;
     }
 
     @Override
-    public Sample insert(Sample entity) throws Exception {
+    public List<SampleChunk> findChunksByChannel(Channel entity, int fromIndex, int toIndex) throws Exception {
         if (entity == null)
-            throw new NullPointerException("Entity is null");
-        if (!transactionIsOpen())
-            throw new TransactionNotOpenException("Transaction is not active");
+            throw new NullPointerException("Channel is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Wrong range");
 
-        try {
-            session.save(entity);
-            return entity;
+        try (final Session session = sessionFactory.openSession()) {
+            // chunk is not longer than CAPACITY, so the lower bound of start_index keeps the query on the key
+            String hql = "FROM sample_chunk " +
+                    "where examination_id = :examination_id and channel_number = :channel_number " +
+                    "and start_index > :lower_index and start_index < :to_index " +
+                    "and start_index + amount > :from_index " +
+                    "order by start_index";
+            Query<SampleChunk> query = session.createQuery(hql, SampleChunk.class);
+            query.setParameter("examination_id", entity.getId().getExamination_id());
+            query.setParameter("channel_number", entity.getId().getNumber());
+            query.setParameter("lower_index", fromIndex - SampleChunk.CAPACITY);
+            query.setParameter("to_index", toIndex);
+            query.setParameter("from_index", fromIndex);
+
+            return query.list();
+        } catch (Exception e) {
+            LOGGER.error("Error reading chunks by channel", e);
+            throw new ReadException(e);
+        }
+    }
+
+    @Override
+    public int[] findValuesByChannel(Channel entity, int fromIndex, int toIndex) throws Exception {
+        try (SampleCursor cursor = openCursor(entity, fromIndex, toIndex)) {
+            int[] values = new int[Math.min(toIndex - fromIndex, INITIAL_RANGE_SIZE)];
+            int length = 0;
+            int count;
+
+            while ((count = cursor.read(values, length, values.length - length)) >= 0) {
+                length += count;
+                if (length == values.length) {
+                    if (length == toIndex - fromIndex)
+                        break;
+                    values = Arrays.copyOf(values, grow(length, toIndex - fromIndex));
+                }
+            }
+
+            return length == values.length ? values : Arrays.copyOf(values, length);
+        }
+    }
+
+    @Override
+    public int[][] findValuesByExamination(Examination entity, int fromIndex, int toIndex) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Examination is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Wrong range");
+
+        List<int[]> channels = new ArrayList<>();
+        int[] lengths = new int[0];
+
+        try (final Session session = sessionFactory.openSession()) {
+            lengths = session.doReturningWork(connection -> {
+                int[] amounts = new int[0];
+                int[] values = new int[SampleChunk.CAPACITY];
+                SampleChunk chunk = new SampleChunk();
+
+                try (PreparedStatement select = connection.prepareStatement(SELECT_EXAMINATION_RANGE_SQL)) {
+                    select.setInt(1, entity.getId());
+                    select.setInt(2, fromIndex - SampleChunk.CAPACITY);
+                    select.setInt(3, toIndex);
+                    select.setFetchSize(CHUNK_BATCH_SIZE);
+
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        while (resultSet.next()) {
+                            int number = resultSet.getInt(1);
+                            while (channels.size() <= number) {
+                                channels.add(new int[0]);
+                            }
+                            if (amounts.length < channels.size()) {
+                                amounts = Arrays.copyOf(amounts, channels.size());
+                            }
+
+                            int start = resultSet.getInt(2);
+                            chunk.setAmount(resultSet.getInt(3));
+                            chunk.setEncoding(resultSet.getInt(4));
+                            chunk.setData(resultSet.getBytes(5));
+                            int length = SampleChunkCodec.decode(chunk, values, 0);
+                            int needed = Math.min(start + length, toIndex) - fromIndex;
+                            int[] destination = channels.get(number);
+                            if (destination.length < needed) {
+                                destination = Arrays.copyOf(destination, grow(needed, toIndex - fromIndex));
+                                channels.set(number, destination);
+                            }
+                            amounts[number] = Math.max(amounts[number],
+                                    copyRange(values, start, length, destination, fromIndex));
+                        }
+                    }
+                }
+
+                return amounts;
+            });
         } catch (Exception e) {
-            LOGGER.error("Insert entity error", e);
-            throw new InsertException(e);
+            LOGGER.error("Error reading samples by examination", e);
+            throw new ReadException(e);
+        }
+
+        int[][] result = new int[channels.size()][];
+        for (int i = 0; i < result.length; i++) {
+            int[] values = channels.get(i);
+            result[i] = lengths[i] == values.length ? values : Arrays.copyOf(values, lengths[i]);
         }
+
+        return result;
     }
 
     @Override
-    public void transactionOpen() throws Exception {
+    public SampleCursor openCursor(Channel entity, int fromIndex, int toIndex) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Channel is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Wrong range");
+
+        Session session = sessionFactory.openSession();
+
         try {
-            session = sessionFactory.openSession();
+            ResultSet resultSet = session.doReturningWork(connection -> {
+                PreparedStatement select = connection.prepareStatement(SELECT_RANGE_SQL);
+                select.setInt(1, entity.getId().getExamination_id());
+                select.setInt(2, entity.getId().getNumber());
+                select.setInt(3, fromIndex - SampleChunk.CAPACITY);
+                select.setInt(4, toIndex);
+                select.setFetchSize(CHUNK_BATCH_SIZE);
+
+                return select.executeQuery();
+            });
+
+            return new ChunkCursor(session, resultSet, fromIndex, toIndex);
+        } catch (Exception e) {
+            session.close();
+            LOGGER.error("Error opening cursor by channel", e);
+            throw new ReadException(e);
+        }
+    }
+
+    private static int grow(int needed, int limit) {
+        return (int) Math.min(needed + (long) needed / 2 + 1, limit);
+    }
+
+    /**
+     * Copies the part of source that falls into destination.
+     *
+     * @return - position after the last copied element in destination
+     */
+    private static int copyRange(int[] source, int sourceStart, int length, int[] destination, int destinationStart) {
+        int first = Math.max(sourceStart, destinationStart);
+        int last = Math.min(sourceStart + length, destinationStart + destination.length);
+
+        if (last <= first)
+            return 0;
+
+        System.arraycopy(source, first - sourceStart, destination, first - destinationStart, last - first);
+
+        return last - destinationStart;
+    }
+
+    @Override
+    public List<SampleSummary> findSummariesByChannel(Channel entity, int level, int fromIndex, int toIndex) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Channel is null");
+        if (level <= 0 || level > SampleSummary.MAX_LEVEL)
+            throw new IllegalArgumentException("Level out of range");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Wrong range");
+
+        try (final Session session = sessionFactory.openSession()) {
+            String hql = "FROM sample_summary " +
+                    "where examination_id = :examination_id and channel_number = :channel_number " +
+                    "and level = :level and start_index > :lower_index and start_index < :to_index " +
+                    "and start_index + amount > :from_index " +
+                    "order by start_index";
+            Query<SampleSummary> query = session.createQuery(hql, SampleSummary.class);
+            query.setParameter("examination_id", entity.getId().getExamination_id());
+            query.setParameter("channel_number", entity.getId().getNumber());
+            query.setParameter("level", level);
+            query.setParameter("lower_index", fromIndex - SampleSummary.CAPACITY);
+            query.setParameter("to_index", toIndex);
+            query.setParameter("from_index", fromIndex);
+
+            return query.list();
+        } catch (Exception e) {
+            LOGGER.error("Error reading summaries by channel", e);
+            throw new ReadException(e);
+        }
+    }
+
+    @Override
+    public int countByChannel(Channel entity) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Channel is null");
+
+        try (final Session session = sessionFactory.openSession()) {
+            String hql = "select coalesce(sum(amount), 0) FROM sample_chunk " +
+                    "where examination_id = :examination_id and channel_number = :channel_number";
+            Query<?> query = session.createQuery(hql);
+            query.setParameter("examination_id", entity.getId().getExamination_id());
+            query.setParameter("channel_number", entity.getId().getNumber());
+
+            return ((Number) query.uniqueResult()).intValue();
+        } catch (Exception e) {
+            LOGGER.error("Error counting samples by channel", e);
+            throw new ReadException(e);
+        }
+    }
+
+    @Override
+    public boolean existsLegacyByChannel(Channel entity) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Channel is null");
+
+        try (final Session session = sessionFactory.openSession()) {
+            String hql = "select 1 FROM sample " +
+                    "where examination_id = :examination_id and channel_number = :channel_number";
+            Query<?> query = session.createQuery(hql);
+            query.setParameter("examination_id", entity.getId().getExamination_id());
+            query.setParameter("channel_number", entity.getId().getNumber());
+            query.setMaxResults(1);
+
+            return !query.list().isEmpty();
+        } catch (Exception e) {
+            LOGGER.error("Error checking samples by channel", e);
+            throw new ReadException(e);
+        }
+    }
+
+    @Override
+    public int convertToChunks(Channel entity, boolean compress) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Channel is null");
+
+        int examinationId = entity.getId().getExamination_id();
+        int number = entity.getId().getNumber();
+        int[] result = new int[1];
+
+        try (final Session session = sessionFactory.openSession()) {
             session.beginTransaction();
-            LOGGER.info("Transaction open is successful");
-            transactionIsOpen = true;
+            session.doWork(connection -> result[0] = convertToChunks(connection, entity, compress));
+            session.getTransaction().commit();
+            LOGGER.info("Channel(number={}, examination_id={}) is converted to chunks, samples={}",
+                    number, examinationId, result[0]);
         } catch (Exception e) {
-            LOGGER.error("Transaction opening error", e);
-            throw new TransactionNotOpenException(e);
+            LOGGER.error("Error converting channel(number={}, examination_id={}) to chunks",
+                    number, examinationId, e);
+            throw new UpdateException(e);
         }
+
+        return result[0];
+    }
+
+    private int convertToChunks(Connection connection, Channel entity, boolean compress) throws SQLException {
+        int examinationId = entity.getId().getExamination_id();
+        int number = entity.getId().getNumber();
+
+        try (PreparedStatement count = connection.prepareStatement(COUNT_CHUNKS_SQL)) {
+            count.setInt(1, examinationId);
+            count.setInt(2, number);
+            try (ResultSet resultSet = count.executeQuery()) {
+                if (resultSet.next() && resultSet.getInt(1) > 0) {
+                    LOGGER.warn("Channel(number={}, examination_id={}) already has chunks", number, examinationId);
+                    return 0;
+                }
+            }
+        }
+
+        int[] values = new int[SampleChunk.CAPACITY];
+        int length = 0;
+        int start = 0;
+        int batch = 0;
+
+        try (PreparedStatement select = connection.prepareStatement(SELECT_LEGACY_SQL);
+             PreparedStatement insert = connection.prepareStatement(INSERT_CHUNK_SQL)) {
+            select.setInt(1, examinationId);
+            select.setInt(2, number);
+            select.setFetchSize(SampleChunk.CAPACITY);
+
+            // legacy ids can have gaps, the sample position in the recording becomes its index
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    values[length++] = resultSet.getInt(1);
+
+                    if (length == values.length) {
+                        addChunkToBatch(insert, SampleChunkCodec.encode(entity.getId(), start, values, 0, length, compress));
+                        start += length;
+                        length = 0;
+
+                        if (++batch == CHUNK_BATCH_SIZE) {
+                            insert.executeBatch();
+                            batch = 0;
+                        }
+                    }
+                }
+            }
+
+            if (length > 0) {
+                addChunkToBatch(insert, SampleChunkCodec.encode(entity.getId(), start, values, 0, length, compress));
+                start += length;
+                batch++;
+            }
+            if (batch > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_LEGACY_SQL)) {
+            delete.setInt(1, examinationId);
+            delete.setInt(2, number);
+            delete.executeUpdate();
+        }
+
+        return start;
     }
 
     @Override
-    public void transactionClose() throws Exception {
-        if (!transactionIsOpen())
-            throw new TransactionNotOpenException("Transaction is not active");
+    public int buildSummaries(Channel entity, boolean compress) throws Exception {
+        if (entity == null)
+            throw new NullPointerException("Channel is null");
 
-        transactionIsOpen = false;
+        int examinationId = entity.getId().getExamination_id();
+        int number = entity.getId().getNumber();
+        int[] result = new int[1];
 
-        try {
-            session.flush();
+        try (final Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.doWork(connection -> result[0] = buildSummaries(connection, entity, compress));
             session.getTransaction().commit();
-            session.close();
-            LOGGER.info("Transaction close is successful");
+            LOGGER.info("Summaries of channel(number={}, examination_id={}) are built, blocks={}",
+                    number, examinationId, result[0]);
         } catch (Exception e) {
-            LOGGER.error("Transaction closing error", e);
-            throw new TransactionStopException(e);
+            LOGGER.error("Error building summaries of channel(number={}, examination_id={})",
+                    number, examinationId, e);
+            throw new UpdateException(e);
+        }
+
+        return result[0];
+    }
+
+    private int buildSummaries(Connection connection, Channel entity, boolean compress) throws SQLException {
+        int examinationId = entity.getId().getExamination_id();
+        int number = entity.getId().getNumber();
+
+        try (PreparedStatement count = connection.prepareStatement(COUNT_SUMMARIES_SQL)) {
+            count.setInt(1, examinationId);
+            count.setInt(2, number);
+            try (ResultSet resultSet = count.executeQuery()) {
+                if (resultSet.next() && resultSet.getInt(1) > 0) {
+                    return 0;
+                }
+            }
+        }
+
+        List<SampleSummary> summaries = new ArrayList<>();
+        SampleSummaryBuilder builder = new SampleSummaryBuilder(entity.getId(), compress, summaries);
+        SampleChunk chunk = new SampleChunk();
+        int[] values = new int[SampleChunk.CAPACITY];
+
+        try (PreparedStatement select = connection.prepareStatement(SELECT_CHUNKS_SQL)) {
+            select.setInt(1, examinationId);
+            select.setInt(2, number);
+            select.setFetchSize(CHUNK_BATCH_SIZE);
+
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    chunk.setAmount(resultSet.getInt(1));
+                    chunk.setEncoding(resultSet.getInt(2));
+                    chunk.setData(resultSet.getBytes(3));
+                    builder.add(values, 0, SampleChunkCodec.decode(chunk, values, 0));
+                }
+            }
+        }
+        builder.finish();
+
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SUMMARY_SQL)) {
+            for (SampleSummary summary : summaries) {
+                addSummaryToBatch(insert, summary);
+            }
+            insert.executeBatch();
+        }
+
+        return summaries.size();
+    }
+
+    /**
+     * Cursor over chunks of one channel. Chunks are decoded one by one,
+     * so memory does not depend on the length of range.
+     */
+    private static final class ChunkCursor implements SampleCursor {
+        private final Session session;
+        private final ResultSet resultSet;
+        private final int toIndex;
+        private final int[] values = new int[SampleChunk.CAPACITY];
+        private final SampleChunk chunk = new SampleChunk();
+        private int position;
+        private int chunkStart = 0;
+        private int chunkLength = 0;
+        private boolean end = false;
+
+        private ChunkCursor(Session session, ResultSet resultSet, int fromIndex, int toIndex) {
+            this.session = session;
+            this.resultSet = resultSet;
+            this.position = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        public int read(int[] destination, int offset, int length) throws Exception {
+            if (destination == null)
+                throw new NullPointerException("Destination is null");
+            if (offset < 0 || length < 0 || offset + length > destination.length)
+                throw new IndexOutOfBoundsException("Wrong offset or length");
+
+            int count = 0;
+
+            try {
+                while (count < length && position < toIndex) {
+                    if (position >= chunkStart + chunkLength) {
+                        if (end || !resultSet.next()) {
+                            end = true;
+                            break;
+                        }
+                        chunkStart = resultSet.getInt(1);
+                        chunk.setAmount(resultSet.getInt(2));
+                        chunk.setEncoding(resultSet.getInt(3));
+                        chunk.setData(resultSet.getBytes(4));
+                        chunkLength = SampleChunkCodec.decode(chunk, values, 0);
+                        // gap in recording: skip to the next chunk
+                        position = Math.max(position, chunkStart);
+                        continue;
+                    }
+
+                    int amount = Math.min(Math.min(length - count, chunkStart + chunkLength - position), toIndex - position);
+                    System.arraycopy(values, position - chunkStart, destination, offset + count, amount);
+                    position += amount;
+                    count += amount;
+                }
+            } catch (SQLException e) {
+                throw new ReadException(e);
+            }
+
+            return count == 0 && length > 0 ? -1 : count;
+        }
+
+        @Override
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public void close() throws ReadException {
+            try {
+                resultSet.getStatement().close();
+            } catch (SQLException e) {
+                throw new ReadException(e);
+            } finally {
+                session.close();
+            }
         }
     }
 
+    private static void addSummaryToBatch(PreparedStatement statement, SampleSummary summary) throws SQLException {
+        statement.setInt(1, summary.getId().getLevel());
+        statement.setInt(2, summary.getId().getStart());
+        statement.setInt(3, summary.getId().getChannel_id().getNumber());
+        statement.setInt(4, summary.getId().getChannel_id().getExamination_id());
+        statement.setInt(5, summary.getAmount());
+        statement.setBytes(6, summary.getData());
+        statement.addBatch();
+    }
+
+    private static void addChunkToBatch(PreparedStatement statement, SampleChunk chunk) throws SQLException {
+        statement.setInt(1, chunk.getId().getStart());
+        statement.setInt(2, chunk.getId().getChannel_id().getNumber());
+        statement.setInt(3, chunk.getId().getChannel_id().getExamination_id());
+        statement.setInt(4, chunk.getAmount());
+        statement.setInt(5, chunk.getMinValue());
+        statement.setInt(6, chunk.getMaxValue());
+        statement.setInt(7, chunk.getEncoding());
+        statement.setBytes(8, chunk.getData());
+        statement.addBatch();
+    }
+
     @Override
-    public boolean transactionIsOpen() {
-        boolean result = session != null &&
-                session.isOpen() &&
-                session.getTransaction().isActive();
+    public SampleTransaction openTransaction() throws Exception {
+        try {
+            Session session = sessionFactory.openSession();
+            session.beginTransaction();
+            LOGGER.info("Transaction open is successful");
+
+            return new SessionTransaction(session);
+        } catch (Exception e) {
+            LOGGER.error("Transaction opening error", e);
+            throw new TransactionNotOpenException(e);
+        }
+    }
+
+    private final class SessionTransaction implements SampleTransaction {
+        private final Session session;
+        private boolean open = true;
+
+        private SessionTransaction(Session session) {
+            this.session = session;
+        }
 
-        return result && transactionIsOpen;
+        @Override
+        public Sample insert(Sample entity) throws Exception {
+            if (entity == null)
+                throw new NullPointerException("Entity is null");
+            if (!isOpen())
+                throw new TransactionNotOpenException("Transaction is not active");
+
+            try {
+                session.save(entity);
+                return entity;
+            } catch (Exception e) {
+                LOGGER.error("Insert entity error", e);
+                throw new InsertException(e);
+            }
+        }
+
+        @Override
+        public void insertChunks(List<SampleChunk> chunks) throws Exception {
+            if (chunks == null)
+                throw new NullPointerException("Chunks is null");
+            if (!isOpen())
+                throw new TransactionNotOpenException("Transaction is not active");
+
+            try {
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(INSERT_CHUNK_SQL)) {
+                        for (SampleChunk chunk : chunks) {
+                            addChunkToBatch(statement, chunk);
+                        }
+                        statement.executeBatch();
+                    }
+                });
+            } catch (Exception e) {
+                LOGGER.error("Chunks insert error", e);
+                throw new InsertException(e);
+            }
+        }
+
+        @Override
+        public void insertSummaries(List<SampleSummary> summaries) throws Exception {
+            if (summaries == null)
+                throw new NullPointerException("Summaries is null");
+            if (!isOpen())
+                throw new TransactionNotOpenException("Transaction is not active");
+
+            try {
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(INSERT_SUMMARY_SQL)) {
+                        for (SampleSummary summary : summaries) {
+                            addSummaryToBatch(statement, summary);
+                        }
+                        statement.executeBatch();
+                    }
+                });
+            } catch (Exception e) {
+                LOGGER.error("Summaries insert error", e);
+                throw new InsertException(e);
+            }
+        }
+
+        @Override
+        public int deleteByExamination(int examinationId) throws Exception {
+            if (!isOpen())
+                throw new TransactionNotOpenException("Transaction is not active");
+
+            int[] result = new int[1];
+
+            try {
+                session.doWork(connection -> {
+                    for (String sql : DELETE_EXAMINATION_SQL) {
+                        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                            statement.setInt(1, examinationId);
+                            result[0] += statement.executeUpdate();
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                LOGGER.error("Samples of examination(id={}) delete error", examinationId, e);
+                throw new DeleteException(e);
+            }
+
+            return result[0];
+        }
+
+        @Override
+        public void commit() throws Exception {
+            if (!isOpen())
+                throw new TransactionNotOpenException("Transaction is not active");
+
+            try {
+                session.flush();
+                session.getTransaction().commit();
+                session.clear();
+                session.beginTransaction();
+            } catch (Exception e) {
+                LOGGER.error("Transaction commit error", e);
+                throw new TransactionStopException(e);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open && session.isOpen();
+        }
+
+        @Override
+        public void close() throws RepositoryException {
+            if (!isOpen())
+                throw new TransactionNotOpenException("Transaction is not active");
+
+            open = false;
+
+            try {
+                session.flush();
+                session.getTransaction().commit();
+                LOGGER.info("Transaction close is successful");
+            } catch (Exception e) {
+                LOGGER.error("Transaction closing error", e);
+                throw new TransactionStopException(e);
+            } finally {
+                session.close();
+            }
+        }
     }
-}
\ No newline at end of file
+}
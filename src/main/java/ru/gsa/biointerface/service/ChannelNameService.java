@@ -4,11 +4,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.ChannelName;
 import ru.gsa.biointerface.repository.ChannelNameRepository;
+import ru.gsa.biointerface.repository.database.Database;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
 import ru.gsa.biointerface.repository.impl.ChannelNameRepositoryImpl;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
@@ -17,9 +20,11 @@ public class ChannelNameService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ChannelNameService.class);
     private static ChannelNameService instance = null;
     private final ChannelNameRepository repository;
+    private final Database database;
 
     private ChannelNameService() throws Exception {
         repository = ChannelNameRepositoryImpl.getInstance();
+        database = DatabaseHandler.getInstance();
     }
 
     public static ChannelNameService getInstance() throws Exception {
@@ -42,6 +47,13 @@ public class ChannelNameService {
         return entities;
     }
 
+    /**
+     * findAll() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<ChannelName>> findAllAsync() {
+        return ServiceExecutor.getInstance().submit(this::findAll);
+    }
+
     public ChannelName findById(Integer id) throws Exception {
         if (id == null)
             throw new NullPointerException("Id is null");
@@ -71,6 +83,7 @@ public class ChannelNameService {
             throw new NullPointerException("Channels is null");
 
         entity = repository.save(entity);
+        database.evict(ChannelName.class, entity.getId());
         LOGGER.info("ChannelName(id={})  is recorded in database", entity.getId());
 
         return entity;
@@ -86,6 +99,7 @@ public class ChannelNameService {
 
         if (optional.isPresent()) {
             repository.delete(optional.get());
+            database.evict(ChannelName.class, optional.get().getId());
             LOGGER.info("ChannelName(id={}) is deleted in database", optional.get().getId());
         } else {
             LOGGER.info("ChannelName(id={}) not found in database", entity.getId());
@@ -4,11 +4,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Device;
 import ru.gsa.biointerface.repository.DeviceRepository;
+import ru.gsa.biointerface.repository.database.Database;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
 import ru.gsa.biointerface.repository.impl.DeviceRepositoryImpl;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
@@ -17,9 +20,11 @@ public class DeviceService {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceService.class);
     private static DeviceService instance = null;
     private final DeviceRepository repository;
+    private final Database database;
 
     private DeviceService() throws Exception {
         repository = DeviceRepositoryImpl.getInstance();
+        database = DatabaseHandler.getInstance();
     }
 
     public static DeviceService getInstance() throws Exception {
@@ -42,6 +47,13 @@ public class DeviceService {
         return entities;
     }
 
+    /**
+     * findAll() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Device>> findAllAsync() {
+        return ServiceExecutor.getInstance().submit(this::findAll);
+    }
+
     public Device findById(Integer id) throws Exception {
         if (id == null)
             throw new NullPointerException("Id is null");
@@ -71,6 +83,7 @@ public class DeviceService {
             throw new NullPointerException("Examinations is null");
 
         entity = repository.save(entity);
+        database.evict(Device.class, entity.getId());
         LOGGER.info("Device(id={}) is recorded in database", entity.getId());
 
         return entity;
@@ -86,6 +99,7 @@ public class DeviceService {
 
         if (optional.isPresent()) {
             repository.delete(optional.get());
+            database.evict(Device.class, optional.get().getId());
             LOGGER.info("Device(id={}) is deleted in database", optional.get().getId());
         } else {
             LOGGER.info("Device(id={}) not found in database", entity.getId());
@@ -0,0 +1,296 @@
+package ru.gsa.biointerface.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.domain.entity.Channel;
+import ru.gsa.biointerface.domain.entity.Examination;
+import ru.gsa.biointerface.domain.entity.Patient;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Export of examination to EDF+ (continuous recording, one data record per second).
+ * <p>
+ * Samples are read by windows of {@link #WINDOW_RECORDS} data records for all channels at once,
+ * so memory does not depend on the length of recording.
+ * Values of controller are 12-bit, they are written as is (physical range = digital range).
+ * The last data record is padded with zeros.
+ */
+public class EdfExporter {
+    public static final int DEFAULT_SAMPLING_FREQUENCY =
+            Integer.getInteger("biointerface.samplingFrequency", 1000);
+    public static final int WINDOW_RECORDS = 10;
+    private static final Logger LOGGER = LoggerFactory.getLogger(EdfExporter.class);
+    private static final int DIGITAL_MIN = -2048;
+    private static final int DIGITAL_MAX = 2047;
+    private static final int ANNOTATION_SAMPLES = 30;
+    private static final String[] CYRILLIC = {
+            "a", "b", "v", "g", "d", "e", "zh", "z", "i", "y", "k", "l", "m", "n", "o", "p",
+            "r", "s", "t", "u", "f", "kh", "ts", "ch", "sh", "shch", "", "y", "", "e", "yu", "ya"
+    };
+    private final SampleService sampleService;
+    private final int samplingFrequency;
+    private volatile boolean cancelled = false;
+
+    public EdfExporter() throws Exception {
+        this(SampleService.getInstance(), DEFAULT_SAMPLING_FREQUENCY);
+    }
+
+    public EdfExporter(SampleService sampleService, int samplingFrequency) {
+        if (sampleService == null)
+            throw new NullPointerException("SampleService is null");
+        if (samplingFrequency <= 0)
+            throw new IllegalArgumentException("Sampling frequency <= 0");
+
+        this.sampleService = sampleService;
+        this.samplingFrequency = samplingFrequency;
+    }
+
+    /**
+     * Writes examination to file. The file is deleted if export is failed or cancelled.
+     *
+     * @param examination - examination with channels (see {@link ExaminationService#loadWithChannelsById})
+     * @param path        - file
+     * @param listener    - progress listener (may be null)
+     * @return - amount of written data records
+     * @throws ServiceException - export is cancelled
+     */
+    public long export(Examination examination, Path path, ProgressListener listener) throws Exception {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+        if (examination.getChannels() == null)
+            throw new NullPointerException("Channels is null");
+        if (path == null)
+            throw new NullPointerException("Path is null");
+
+        List<Channel> channels = new ArrayList<>(examination.getChannels());
+        channels.sort(Comparator.comparingInt(o -> o.getId().getNumber()));
+
+        int length = 0;
+        for (Channel channel : channels) {
+            length = Math.max(length, sampleService.countByChannel(channel));
+        }
+        long records = (length + samplingFrequency - 1) / samplingFrequency;
+
+        try (FileChannel file = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(file, header(examination, channels, records));
+
+            int recordSize = 2 * (channels.size() * samplingFrequency + ANNOTATION_SAMPLES);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(recordSize * WINDOW_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+            byte[] annotation = new byte[2 * ANNOTATION_SAMPLES];
+
+            for (long record = 0; record < records; record += WINDOW_RECORDS) {
+                if (cancelled)
+                    throw new ServiceException("Export is cancelled");
+
+                int amount = (int) Math.min(WINDOW_RECORDS, records - record);
+                int from = (int) (record * samplingFrequency);
+                int[][] values = sampleService.findValuesByExamination(
+                        examination, from, from + amount * samplingFrequency);
+
+                buffer.clear();
+                for (int i = 0; i < amount; i++) {
+                    for (Channel channel : channels) {
+                        int number = channel.getId().getNumber();
+                        int[] channelValues = number < values.length ? values[number] : new int[0];
+                        int offset = i * samplingFrequency;
+
+                        for (int j = 0; j < samplingFrequency; j++) {
+                            int index = offset + j;
+                            int value = index < channelValues.length ? channelValues[index] : 0;
+                            buffer.putShort((short) Math.max(DIGITAL_MIN, Math.min(DIGITAL_MAX, value)));
+                        }
+                    }
+                    putTimeKeeping(annotation, record + i);
+                    buffer.put(annotation);
+                }
+                buffer.flip();
+                writeFully(file, buffer);
+
+                if (listener != null) {
+                    listener.progress(record + amount, records);
+                }
+            }
+        } catch (Exception e) {
+            Files.deleteIfExists(path);
+            if (cancelled) {
+                LOGGER.info("Export of examination(id={}) is cancelled", examination.getId());
+            } else {
+                LOGGER.error("Export of examination(id={}) failed", examination.getId(), e);
+            }
+            throw e;
+        }
+
+        LOGGER.info("Examination(id={}) is exported to {}, records={}", examination.getId(), path, records);
+
+        return records;
+    }
+
+    /**
+     * Stops export before the next window of data records.
+     * Exporter can not be used after cancellation.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getSamplingFrequency() {
+        return samplingFrequency;
+    }
+
+    private ByteBuffer header(Examination examination, List<Channel> channels, long records) {
+        int signals = channels.size() + 1;
+        int size = 256 * (signals + 1);
+        StringBuilder header = new StringBuilder(size);
+        SimpleDateFormat edfDate = new SimpleDateFormat("dd-MMM-yyyy", Locale.ENGLISH);
+        Patient patient = examination.getPatient();
+
+        field(header, "0", 8);
+        if (patient != null) {
+            String birthday = patient.getBirthday() != null
+                    ? edfDate.format(patient.getBirthday().getTime()).toUpperCase(Locale.ENGLISH)
+                    : "X";
+            field(header, patient.getId() + " X " + birthday + " "
+                    + word(String.join("_", ascii(patient.getSecondName()),
+                    ascii(patient.getFirstName()), ascii(patient.getPatronymic()))), 80);
+        } else {
+            field(header, "X X X X", 80);
+        }
+
+        Calendar start = Calendar.getInstance();
+        start.setTime(examination.getStarttime());
+        String device = examination.getDevice() != null ? "biointerface_" + examination.getDevice().getId() : "X";
+        field(header, "Startdate " + edfDate.format(start.getTime()).toUpperCase(Locale.ENGLISH)
+                + " " + examination.getId() + " X " + device, 80);
+        field(header, new SimpleDateFormat("dd.MM.yy").format(start.getTime()), 8);
+        field(header, new SimpleDateFormat("HH.mm.ss").format(start.getTime()), 8);
+        field(header, String.valueOf(size), 8);
+        field(header, "EDF+C", 44);
+        field(header, String.valueOf(records), 8);
+        field(header, "1", 8);
+        field(header, String.valueOf(signals), 4);
+
+        for (Channel channel : channels) {
+            field(header, channel.getChannelName() != null
+                    ? word(channel.getChannelName().getName())
+                    : "Channel " + (channel.getId().getNumber() + 1), 16);
+        }
+        field(header, "EDF Annotations", 16);
+        for (int i = 0; i < signals; i++) field(header, "", 80);
+        for (int i = 0; i < signals - 1; i++) field(header, "", 8);
+        field(header, "", 8);
+        for (int i = 0; i < signals - 1; i++) field(header, String.valueOf(DIGITAL_MIN), 8);
+        field(header, "-1", 8);
+        for (int i = 0; i < signals - 1; i++) field(header, String.valueOf(DIGITAL_MAX), 8);
+        field(header, "1", 8);
+        for (int i = 0; i < signals - 1; i++) field(header, String.valueOf(DIGITAL_MIN), 8);
+        field(header, "-32768", 8);
+        for (int i = 0; i < signals - 1; i++) field(header, String.valueOf(DIGITAL_MAX), 8);
+        field(header, "32767", 8);
+        for (int i = 0; i < signals; i++) field(header, "", 80);
+        for (int i = 0; i < signals - 1; i++) field(header, String.valueOf(samplingFrequency), 8);
+        field(header, String.valueOf(ANNOTATION_SAMPLES), 8);
+        for (int i = 0; i < signals; i++) field(header, "", 32);
+
+        return ByteBuffer.wrap(header.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Time-keeping annotation of data record: "+onset" 0x14 0x14 0x00, the rest is zeros.
+     */
+    private static void putTimeKeeping(byte[] annotation, long record) {
+        byte[] onset = ("+" + record).getBytes(StandardCharsets.US_ASCII);
+
+        Arrays.fill(annotation, (byte) 0);
+        System.arraycopy(onset, 0, annotation, 0, onset.length);
+        annotation[onset.length] = 0x14;
+        annotation[onset.length + 1] = 0x14;
+    }
+
+    private static void field(StringBuilder header, String value, int length) {
+        String ascii = ascii(value);
+
+        if (ascii.length() > length) {
+            ascii = ascii.substring(0, length);
+        }
+        header.append(ascii);
+        for (int i = ascii.length(); i < length; i++) {
+            header.append(' ');
+        }
+    }
+
+    /**
+     * EDF+ subfields are separated by spaces, so spaces inside of value are replaced.
+     */
+    private static String word(String value) {
+        return ascii(value).trim().replace(' ', '_');
+    }
+
+    /**
+     * Header of EDF allows only printable US-ASCII, russian letters are transliterated.
+     */
+    private static String ascii(String value) {
+        if (value == null)
+            return "";
+
+        StringBuilder result = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char lower = Character.toLowerCase(c);
+
+            if (c >= 32 && c < 127) {
+                result.append(c);
+            } else if (lower >= 'а' && lower <= 'я') {
+                String latin = CYRILLIC[lower - 'а'];
+                if (c != lower && !latin.isEmpty()) {
+                    latin = Character.toUpperCase(latin.charAt(0)) + latin.substring(1);
+                }
+                result.append(latin);
+            } else if (lower == 'ё') {
+                result.append(c == lower ? "e" : "E");
+            } else {
+                result.append('_');
+            }
+        }
+
+        return result.toString();
+    }
+
+    private static void writeFully(FileChannel file, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+    }
+
+    /**
+     * Progress of export
+     */
+    public interface ProgressListener {
+        /**
+         * @param written - amount of written data records
+         * @param total   - amount of data records
+         */
+        void progress(long written, long total);
+    }
+}
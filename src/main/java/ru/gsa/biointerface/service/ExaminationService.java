@@ -5,12 +5,15 @@ import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Channel;
 import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.ExaminationFilter;
 import ru.gsa.biointerface.repository.ExaminationRepository;
+import ru.gsa.biointerface.repository.PageRequest;
 import ru.gsa.biointerface.repository.impl.ExaminationRepositoryImpl;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
@@ -63,6 +66,50 @@ public class ExaminationService {
         return entities;
     }
 
+    /**
+     * findAllByPatientRecord() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Examination>> findAllByPatientRecordAsync(Patient patient) {
+        return ServiceExecutor.getInstance().submit(() -> findAllByPatientRecord(patient));
+    }
+
+    /**
+     * @param filter - conditions of selection
+     * @param page   - sorted part of selection
+     */
+    public List<Examination> findPage(ExaminationFilter filter, PageRequest page) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+        if (page == null)
+            throw new NullPointerException("Page is null");
+
+        List<Examination> entities = repository.findPage(filter, page);
+        LOGGER.info("Get {} examinations from database (offset={})", entities.size(), page.getOffset());
+
+        return entities;
+    }
+
+    /**
+     * findPage() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Examination>> findPageAsync(ExaminationFilter filter, PageRequest page) {
+        return ServiceExecutor.getInstance().submit(() -> findPage(filter, page));
+    }
+
+    public long count(ExaminationFilter filter) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+
+        return repository.count(filter);
+    }
+
+    /**
+     * count() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<Long> countAsync(ExaminationFilter filter) {
+        return ServiceExecutor.getInstance().submit(() -> count(filter));
+    }
+
     public Examination findById(Integer id) throws Exception {
         if (id == null)
             throw new NullPointerException("Id is null");
@@ -131,7 +178,45 @@ public class ExaminationService {
         return entity;
     }
 
-    public void recordingStart(Examination entity) throws Exception {
+    /**
+     * Loads examination with channels without samples.
+     * Samples are read by ranges through {@link SampleService#findRange}.
+     */
+    public Examination loadWithChannelsById(Integer id) throws Exception {
+        Examination entity = findWithChannelsById(id);
+
+        for (Channel channel : entity.getChannels()) {
+            sampleService.prepareForViewing(channel);
+        }
+
+        return entity;
+    }
+
+    /**
+     * Loads examination with channels, channels are not prepared for viewing
+     * (each channel is opened separately by {@link SampleService#openForViewing}).
+     */
+    public Examination findWithChannelsById(Integer id) throws Exception {
+        Examination entity = findById(id);
+        entity.setChannels(channelService.findAllByExamination(entity));
+        LOGGER.info("Examination(id={}) load with channels from database", entity.getId());
+
+        return entity;
+    }
+
+    /**
+     * findWithChannelsById() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<Examination> findWithChannelsByIdAsync(Integer id) {
+        return ServiceExecutor.getInstance().submit(() -> findWithChannelsById(id));
+    }
+
+    /**
+     * Starts recording of examination (examinations of different devices are recorded in parallel).
+     *
+     * @return - writer of samples of the recording
+     */
+    public SampleWriter recordingStart(Examination entity) throws Exception {
         if (entity == null)
             throw new NullPointerException("Entity is null");
         if (entity.getPatient() == null)
@@ -146,8 +231,10 @@ public class ExaminationService {
         Optional<Examination> optional = repository.findById(entity.getId());
 
         if (optional.isPresent()) {
-            sampleService.transactionOpen();
-            LOGGER.info("Recording started");
+            SampleWriter writer = sampleService.recordingStart(entity);
+            LOGGER.info("Recording of examination(id={}) started", entity.getId());
+
+            return writer;
         } else {
             LOGGER.error(
                     "Examination(id={}) does not yet exist in database. Recording is not start",
@@ -158,12 +245,37 @@ public class ExaminationService {
         }
     }
 
+    public void recordingStop(Examination entity) throws Exception {
+        sampleService.recordingStop(entity);
+        LOGGER.info("Recording of examination(id={}) stopped", entity.getId());
+    }
+
+    /**
+     * Stops recording, the rest of samples is written in background.
+     */
+    public CompletableFuture<Void> recordingStopAsync(Examination entity) throws Exception {
+        CompletableFuture<Void> future = sampleService.recordingStopAsync(entity);
+        LOGGER.info("Recording of examination(id={}) stopped, samples are written in background", entity.getId());
+
+        return future;
+    }
+
+    /**
+     * Stops all recordings.
+     */
     public void recordingStop() throws Exception {
-        sampleService.transactionClose();
+        sampleService.recordingStop();
         LOGGER.info("Recording stopped");
     }
 
+    public boolean isRecording(Examination entity) {
+        return sampleService.isRecording(entity);
+    }
+
+    /**
+     * @return - any examination is recorded
+     */
     public boolean isRecording() {
-        return sampleService.transactionIsOpen();
+        return sampleService.isRecording();
     }
 }
@@ -4,12 +4,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Icd;
 import ru.gsa.biointerface.repository.IcdRepository;
+import ru.gsa.biointerface.repository.database.Database;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
 import ru.gsa.biointerface.repository.impl.IcdRepositoryImpl;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
@@ -18,9 +21,11 @@ public class IcdService {
     private static final Logger LOGGER = LoggerFactory.getLogger(IcdService.class);
     private static IcdService instance = null;
     private final IcdRepository repository;
+    private final Database database;
 
     private IcdService() throws Exception {
         repository = IcdRepositoryImpl.getInstance();
+        database = DatabaseHandler.getInstance();
     }
 
     public static IcdService getInstance() throws Exception {
@@ -43,6 +48,13 @@ public class IcdService {
         return entities;
     }
 
+    /**
+     * findAll() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Icd>> findAllAsync() {
+        return ServiceExecutor.getInstance().submit(this::findAll);
+    }
+
     public Icd findById(Integer id) throws Exception {
         if (id == null)
             throw new NullPointerException("Id is null");
@@ -75,6 +87,7 @@ public class IcdService {
 
 
         entity = repository.save(entity);
+        database.evict(Icd.class, entity.getId());
         LOGGER.info("Icd(id={}) is recorded in database", entity.getId());
 
         return entity;
@@ -90,6 +103,7 @@ public class IcdService {
 
         if (optional.isPresent()) {
             repository.delete(optional.get());
+            database.evict(Icd.class, optional.get().getId());
             LOGGER.info("Icd(id={}) is deleted in database", optional.get().getId());
         } else {
             LOGGER.info("Icd(id={}) not found in database", entity.getId());
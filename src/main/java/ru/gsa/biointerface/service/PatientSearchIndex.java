@@ -0,0 +1,416 @@
+package ru.gsa.biointerface.service;
+
+import ru.gsa.biointerface.repository.PatientFilter;
+import ru.gsa.biointerface.repository.PatientSearchKey;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * In-memory index of patients for search by id, names and birthday.
+ * <p>
+ * Every word of query has to match a word of patient:
+ * exactly, as a prefix, or (words of names from {@link #MIN_FUZZY_LENGTH} letters)
+ * with one typo - a missing, extra, replaced letter or two swapped letters.
+ * Typos are found by the index of words with one deleted letter, so search does not scan all patients.
+ * Words are compared in lower case, "ё" is equal to "е".
+ * Birthday is indexed as "dd.MM.yyyy" and as year.
+ * <p>
+ * Patients are numbered by slots, so scores of a query are kept in arrays instead of maps
+ * (a short prefix can match most of patients).
+ */
+public class PatientSearchIndex {
+    public static final int MIN_FUZZY_LENGTH = 4;
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+    private final SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Postings> words = new TreeMap<>();
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private Entry[] slots = new Entry[1024];
+    private int amountSlots = 0;
+    /**
+     * Order of patients by name (rank of slot and slot of rank), recalculated by search after changes
+     */
+    private int[] nameRanks = new int[0];
+    private int[] rankedSlots = new int[0];
+    private boolean ranksChanged = false;
+    private Scores scores = new Scores(0);
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase().replace('ё', 'е');
+    }
+
+    private static Set<String> deletionsOf(String word) {
+        Set<String> result = new HashSet<>();
+
+        for (int i = 0; i < word.length(); i++) {
+            result.add(word.substring(0, i) + word.substring(i + 1));
+        }
+
+        return result;
+    }
+
+    /**
+     * @return - true if optimal string alignment distance between words is not more than 1
+     */
+    private static boolean isOneTypo(String a, String b) {
+        int lengthA = a.length();
+        int lengthB = b.length();
+
+        if (Math.abs(lengthA - lengthB) > 1)
+            return false;
+
+        int i = 0;
+        while (i < lengthA && i < lengthB && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+
+        if (lengthA == lengthB) {
+            if (i == lengthA)
+                return true;
+            if (a.regionMatches(i + 1, b, i + 1, lengthA - i - 1))
+                return true;
+
+            return i + 1 < lengthA
+                    && a.charAt(i) == b.charAt(i + 1)
+                    && a.charAt(i + 1) == b.charAt(i)
+                    && a.regionMatches(i + 2, b, i + 2, lengthA - i - 2);
+        }
+
+        return lengthA > lengthB
+                ? a.regionMatches(i + 1, b, i, lengthB - i)
+                : b.regionMatches(i + 1, a, i, lengthA - i);
+    }
+
+    private static boolean isFuzzy(String word) {
+        return word.length() >= MIN_FUZZY_LENGTH && Character.isLetter(word.charAt(0));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        words.clear();
+        deletions.clear();
+        freeSlots.clear();
+        Arrays.fill(slots, null);
+        amountSlots = 0;
+        ranksChanged = true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds patient or replaces the previous version of him.
+     */
+    public synchronized void put(PatientSearchKey key) {
+        if (key == null)
+            throw new NullPointerException("Key is null");
+
+        remove(key.getId());
+
+        Set<String> patientWords = new HashSet<>();
+        patientWords.add(String.valueOf(key.getId()));
+        for (String name : new String[]{key.getSecondName(), key.getFirstName(), key.getPatronymic()}) {
+            if (name != null && !name.isBlank()) {
+                String normalized = normalize(name);
+                patientWords.add(normalized);
+                patientWords.addAll(Arrays.asList(normalized.split("[\\s-]+")));
+            }
+        }
+        if (key.getBirthday() != null) {
+            patientWords.add(dateFormatter.format(key.getBirthday().getTime()));
+            patientWords.add(String.valueOf(key.getBirthday().get(Calendar.YEAR)));
+        }
+        patientWords.remove("");
+
+        int slot;
+        if (freeSlots.isEmpty()) {
+            if (amountSlots == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slot = amountSlots++;
+        } else {
+            slot = freeSlots.pop();
+        }
+
+        Entry entry = new Entry(key, patientWords.toArray(new String[0]), slot);
+        entries.put(key.getId(), entry);
+        slots[slot] = entry;
+        ranksChanged = true;
+        for (String word : entry.words) {
+            Postings postings = words.computeIfAbsent(word, o -> new Postings());
+            if (postings.size == 0 && isFuzzy(word)) {
+                for (String deletion : deletionsOf(word)) {
+                    deletions.computeIfAbsent(deletion, o -> new HashSet<>()).add(word);
+                }
+            }
+            postings.add(slot);
+        }
+    }
+
+    public synchronized void remove(int id) {
+        Entry entry = entries.remove(id);
+
+        if (entry == null)
+            return;
+
+        slots[entry.slot] = null;
+        freeSlots.push(entry.slot);
+        ranksChanged = true;
+        for (String word : entry.words) {
+            Postings postings = words.get(word);
+            postings.remove(entry.slot);
+            if (postings.size == 0) {
+                words.remove(word);
+                if (isFuzzy(word)) {
+                    for (String deletion : deletionsOf(word)) {
+                        Set<String> similar = deletions.get(deletion);
+                        similar.remove(word);
+                        if (similar.isEmpty()) {
+                            deletions.remove(deletion);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param filter - name is query, birthday and icd are checked exactly
+     * @param limit  - max amount of results
+     * @return - ids of patients, the best matches first (then by names)
+     */
+    public synchronized List<Integer> search(PatientFilter filter, int limit) {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+        if (limit <= 0)
+            throw new IllegalArgumentException("Limit <= 0");
+        if (filter.getName() == null || filter.getName().isBlank())
+            return new ArrayList<>();
+
+        String[] terms = normalize(filter.getName()).split("\\s+");
+        if (scores.total.length < amountSlots) {
+            scores = new Scores(slots.length);
+        }
+        for (int i = 0; i < terms.length; i++) {
+            match(terms[i], i, scores);
+        }
+
+        if (ranksChanged) {
+            rank();
+        }
+
+        // the best first: higher score, then lower rank of name
+        LongHeap best = new LongHeap(Math.min(limit, entries.size()));
+        for (int i = 0; i < scores.amountTouched; i++) {
+            int slot = scores.touched[i];
+            if (scores.terms[slot] == terms.length && slots[slot].matches(filter)) {
+                best.offer((long) -scores.total[slot] << 32 | nameRanks[slot]);
+            }
+        }
+
+        scores.reset();
+
+        long[] keys = best.sorted();
+        List<Integer> ids = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            ids.add(slots[rankedSlots[(int) key]].key.getId());
+        }
+
+        return ids;
+    }
+
+    private void rank() {
+        Entry[] sorted = entries.values().toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator
+                .<Entry, String>comparing(o -> o.name)
+                .thenComparingInt(o -> o.key.getId()));
+
+        nameRanks = new int[slots.length];
+        rankedSlots = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            nameRanks[sorted[i].slot] = i;
+            rankedSlots[i] = sorted[i].slot;
+        }
+        ranksChanged = false;
+    }
+
+    /**
+     * Adds the best score of the word of query to patients who matched all previous words.
+     *
+     * @param index - index of the word in query
+     */
+    private void match(String term, int index, Scores scores) {
+        for (Map.Entry<String, Postings> word : words.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            scores.add(word.getValue(), index, word.getKey().equals(term) ? EXACT : PREFIX);
+        }
+
+        if (isFuzzy(term)) {
+            Set<String> similar = new HashSet<>();
+            Set<String> variants = deletionsOf(term);
+            variants.add(term);
+            for (String variant : variants) {
+                if (!variant.equals(term) && words.containsKey(variant)) {
+                    similar.add(variant);
+                }
+                similar.addAll(deletions.getOrDefault(variant, Set.of()));
+            }
+            for (String word : similar) {
+                if (!word.equals(term) && isOneTypo(term, word)) {
+                    scores.add(words.get(word), index, FUZZY);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final PatientSearchKey key;
+        private final String[] words;
+        private final String name;
+        private final int slot;
+
+        private Entry(PatientSearchKey key, String[] words, int slot) {
+            this.key = key;
+            this.words = words;
+            this.slot = slot;
+            name = normalize(key.getSecondName() + " " + key.getFirstName() + " " + key.getPatronymic());
+        }
+
+        private boolean matches(PatientFilter filter) {
+            if (filter.getIcdId() != null && !filter.getIcdId().equals(key.getIcdId()))
+                return false;
+            if (filter.getBirthdayFrom() != null && key.getBirthday().before(filter.getBirthdayFrom()))
+                return false;
+
+            return filter.getBirthdayTo() == null || !key.getBirthday().after(filter.getBirthdayTo());
+        }
+    }
+
+    /**
+     * Slots of patients having the word
+     */
+    private static final class Postings {
+        private int[] slots = new int[2];
+        private int size = 0;
+
+        private void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        private void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores of query by slots (reused by queries, only touched slots are cleared)
+     */
+    private static final class Scores {
+        private final int[] total;
+        /**
+         * Amount of matched words of query
+         */
+        private final int[] terms;
+        /**
+         * Score of the current word of query
+         */
+        private final int[] current;
+        private int[] touched = new int[256];
+        private int amountTouched = 0;
+
+        private Scores(int amountSlots) {
+            total = new int[amountSlots];
+            terms = new int[amountSlots];
+            current = new int[amountSlots];
+        }
+
+        private void reset() {
+            for (int i = 0; i < amountTouched; i++) {
+                int slot = touched[i];
+                total[slot] = 0;
+                terms[slot] = 0;
+                current[slot] = 0;
+            }
+            amountTouched = 0;
+        }
+
+        private void add(Postings postings, int index, int score) {
+            for (int i = 0; i < postings.size; i++) {
+                int slot = postings.slots[i];
+
+                if (terms[slot] == index) {
+                    terms[slot] = index + 1;
+                    current[slot] = score;
+                    total[slot] += score;
+                    if (index == 0) {
+                        if (amountTouched == touched.length) {
+                            touched = Arrays.copyOf(touched, amountTouched * 2);
+                        }
+                        touched[amountTouched++] = slot;
+                    }
+                } else if (terms[slot] == index + 1 && current[slot] < score) {
+                    total[slot] += score - current[slot];
+                    current[slot] = score;
+                }
+            }
+        }
+    }
+
+    /**
+     * The least keys (max-heap of fixed size)
+     */
+    private static final class LongHeap {
+        private final long[] heap;
+        private int size = 0;
+
+        private LongHeap(int capacity) {
+            heap = new long[capacity];
+        }
+
+        private void offer(long key) {
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0 && heap[(i - 1) / 2] < key) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = key;
+            } else if (key < heap[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size)
+                        break;
+                    if (child + 1 < size && heap[child + 1] > heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] <= key)
+                        break;
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = key;
+            }
+        }
+
+        private long[] sorted() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+
+            return result;
+        }
+    }
+}
@@ -3,12 +3,21 @@ package ru.gsa.biointerface.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.PageRequest;
+import ru.gsa.biointerface.repository.PatientFilter;
 import ru.gsa.biointerface.repository.PatientRepository;
+import ru.gsa.biointerface.repository.PatientSearchKey;
+import ru.gsa.biointerface.repository.database.Database;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
 import ru.gsa.biointerface.repository.impl.PatientRepositoryImpl;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
@@ -17,9 +26,15 @@ public class PatientService {
     private static final Logger LOGGER = LoggerFactory.getLogger(PatientService.class);
     private static PatientService instance = null;
     private final PatientRepository repository;
+    private final Database database;
+    private final PatientSearchIndex searchIndex = new PatientSearchIndex();
+    // building of index and writing of patients with update of index are not interleaved
+    private final Object indexLock = new Object();
+    private volatile boolean indexed = false;
 
     private PatientService() throws Exception {
         repository = PatientRepositoryImpl.getInstance();
+        database = DatabaseHandler.getInstance();
     }
 
     public static PatientService getInstance() throws Exception {
@@ -42,6 +57,104 @@ public class PatientService {
         return entities;
     }
 
+    /**
+     * findAll() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Patient>> findAllAsync() {
+        return ServiceExecutor.getInstance().submit(this::findAll);
+    }
+
+    /**
+     * @param filter - conditions of selection
+     * @param page   - sorted part of selection
+     */
+    public List<Patient> findPage(PatientFilter filter, PageRequest page) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+        if (page == null)
+            throw new NullPointerException("Page is null");
+
+        List<Patient> entities = repository.findPage(filter, page);
+        LOGGER.info("Get {} patientRecords from database (offset={})", entities.size(), page.getOffset());
+
+        return entities;
+    }
+
+    /**
+     * findPage() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Patient>> findPageAsync(PatientFilter filter, PageRequest page) {
+        return ServiceExecutor.getInstance().submit(() -> findPage(filter, page));
+    }
+
+    public long count(PatientFilter filter) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+
+        return repository.count(filter);
+    }
+
+    /**
+     * count() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<Long> countAsync(PatientFilter filter) {
+        return ServiceExecutor.getInstance().submit(() -> count(filter));
+    }
+
+    /**
+     * Search as you type: words of name are matched by prefix and with one typo,
+     * numbers by prefix of id or birthday (dd.MM.yyyy).
+     * The index is read from database at first search and then follows save() and delete()
+     * (they wait for the end of building, so the index does not miss or resurrect a patient).
+     *
+     * @param filter - name is query, birthday and icd are checked exactly
+     * @param limit  - max amount of patients
+     * @return - patients, the best matches first
+     */
+    public List<Patient> search(PatientFilter filter, int limit) throws Exception {
+        if (filter == null)
+            throw new NullPointerException("Filter is null");
+        if (limit <= 0)
+            throw new IllegalArgumentException("Limit <= 0");
+
+        if (!indexed) {
+            buildSearchIndex();
+        }
+
+        List<Integer> ids = searchIndex.search(filter, limit);
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<Patient> entities = repository.findAllById(ids);
+        entities.sort(Comparator.comparingInt(o -> positions.get(o.getId())));
+        // query is a name of patient, it is not logged
+        LOGGER.debug("Found {} patientRecords by search", entities.size());
+
+        return entities;
+    }
+
+    /**
+     * search() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<List<Patient>> searchAsync(PatientFilter filter, int limit) {
+        return ServiceExecutor.getInstance().submit(() -> search(filter, limit));
+    }
+
+    private void buildSearchIndex() throws Exception {
+        synchronized (indexLock) {
+            if (indexed)
+                return;
+
+            searchIndex.clear();
+            for (PatientSearchKey key : repository.findSearchKeys()) {
+                searchIndex.put(key);
+            }
+            indexed = true;
+        }
+        LOGGER.info("Search index of {} patientRecords is built", searchIndex.size());
+    }
+
     public Patient findById(Integer id) throws Exception {
         if (id == null)
             throw new NullPointerException("Id is null");
@@ -83,7 +196,11 @@ public class PatientService {
         if (entity.getExaminations() == null)
             throw new NullPointerException("Examinations is null");
 
-        repository.save(entity);
+        synchronized (indexLock) {
+            repository.save(entity);
+            database.evict(Patient.class, entity.getId());
+            searchIndex.put(PatientSearchKey.of(entity));
+        }
         LOGGER.info("PatientRecord(id={}) is recorded in database", entity.getId());
     }
 
@@ -96,7 +213,11 @@ public class PatientService {
         Optional<Patient> optional = repository.findById(entity.getId());
 
         if (optional.isPresent()) {
-            repository.delete(optional.get());
+            synchronized (indexLock) {
+                repository.delete(optional.get());
+                database.evict(Patient.class, optional.get().getId());
+                searchIndex.remove(optional.get().getId());
+            }
             LOGGER.info("PatientRecord(id={}) is deleted in database", optional.get().getId());
         } else {
             LOGGER.error("PatientRecord(id={}) not found in database", entity.getId());
@@ -0,0 +1,337 @@
+package ru.gsa.biointerface.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Append-only journal of samples of one recording in a memory-mapped file.
+ * Samples are in the page cache as soon as they are appended, so they survive a crash of application
+ * even if they are not committed to the database yet. {@link #sync()} writes them to disk
+ * (against loss of power), it is called by the writer thread every {@link #SYNC_INTERVAL} ms.
+ * <p>
+ * File: header (magic {@link #MAGIC}, version {@link #VERSION}, id of examination, amount of channels,
+ * state) and records of one int per sample: bit 31 is set, bits 24..30 are number of channel,
+ * bits 0..23 are value. The file grows by regions of {@link #REGION_SIZE} filled with zeros,
+ * so the first int without bit 31 is the end of journal.
+ * State {@link #STATE_CONSOLIDATED} means all samples are in the database: such a journal is only deleted.
+ */
+public final class SampleJournal implements Closeable {
+    /**
+     * Directory of journals ("journal" by default, empty - recording without journal)
+     */
+    public static final String DIRECTORY_PROPERTY = "biointerface.journal.dir";
+    /**
+     * Interval of sync of journal to disk, ms (0 - only by operating system)
+     */
+    public static final long SYNC_INTERVAL = Long.getLong("biointerface.journal.syncInterval", 1000);
+    public static final int MAGIC = 0x42494a4c;
+    public static final int VERSION = 1;
+    public static final int STATE_OPEN = 0;
+    public static final int STATE_CONSOLIDATED = 1;
+    public static final int HEADER_SIZE = 20;
+    public static final int REGION_SIZE = 1 << 20;
+    public static final String EXTENSION = ".journal";
+    public static final int MAX_CHANNELS = 128;
+    public static final int MIN_VALUE = -(1 << 23);
+    public static final int MAX_VALUE = (1 << 23) - 1;
+    private static final int STATE_POSITION = 16;
+    private static final int MARK = 1 << 31;
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleJournal.class);
+    private final Path path;
+    private final FileChannel channel;
+    private final int examinationId;
+    private final int amountChannels;
+    private final ConcurrentLinkedQueue<MappedByteBuffer> unsynced = new ConcurrentLinkedQueue<>();
+    private volatile MappedByteBuffer region;
+    private long regionStart;
+    private long appended = 0;
+    private volatile boolean closed = false;
+
+    private SampleJournal(Path path, int examinationId, int amountChannels) throws IOException {
+        this.path = path;
+        this.examinationId = examinationId;
+        this.amountChannels = amountChannels;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            map(0);
+            region.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(examinationId)
+                    .putInt(amountChannels)
+                    .putInt(STATE_OPEN);
+            region.force();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates journal of recording in a new file named by id of examination and the current time.
+     *
+     * @param directory      - directory of journals
+     * @param examinationId  - id of examination
+     * @param amountChannels - amount of channels
+     * @return - journal
+     */
+    public static SampleJournal create(Path directory, int examinationId, int amountChannels) throws IOException {
+        if (directory == null)
+            throw new NullPointerException("Directory is null");
+        if (amountChannels <= 0 || amountChannels > MAX_CHANNELS)
+            throw new IllegalArgumentException("Amount channels <= 0 or > " + MAX_CHANNELS);
+
+        Files.createDirectories(directory);
+        SampleJournal journal = new SampleJournal(file(directory, examinationId), examinationId, amountChannels);
+        LOGGER.info("Journal {} of examination(id={}) is created", journal.path, examinationId);
+
+        return journal;
+    }
+
+    /**
+     * @return - directory of journals ({@link #DIRECTORY_PROPERTY}), null if journal is off
+     */
+    public static Path directory() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY, "journal");
+
+        return directory.isBlank() ? null : Path.of(directory);
+    }
+
+    private static Path file(Path directory, int examinationId) {
+        return directory.resolve(examinationId + "-" + System.currentTimeMillis() + EXTENSION);
+    }
+
+    /**
+     * @return - journals in directory (an absent directory has no journals)
+     */
+    public static List<Path> find(Path directory) throws IOException {
+        List<Path> result = new ArrayList<>();
+
+        if (!Files.isDirectory(directory))
+            return result;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path path : stream) {
+                result.add(path);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads journal from the beginning.
+     *
+     * @param path   - file of journal
+     * @param reader - receiver of header and samples
+     * @return - amount of samples
+     */
+    public static long read(Path path, Reader reader) throws Exception {
+        if (path == null)
+            throw new NullPointerException("Path is null");
+        if (reader == null)
+            throw new NullPointerException("Reader is null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(REGION_SIZE);
+            long amount = 0;
+
+            int read = 0;
+            while (buffer.position() < HEADER_SIZE && read >= 0) {
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+                throw new IOException("File " + path + " is not a journal");
+
+            int version = buffer.getInt();
+            if (version != VERSION)
+                throw new IOException("Version " + version + " of journal " + path + " is not supported");
+
+            int examinationId = buffer.getInt();
+            int amountChannels = buffer.getInt();
+            int state = buffer.getInt();
+
+            if (!reader.header(examinationId, amountChannels, state == STATE_CONSOLIDATED))
+                return 0;
+
+            while (true) {
+                while (buffer.remaining() >= Integer.BYTES) {
+                    int record = buffer.getInt();
+
+                    if ((record & MARK) == 0)
+                        return amount;
+
+                    int number = (record >>> 24) & 0x7F;
+                    if (number >= amountChannels)
+                        throw new IOException("Journal " + path + " is broken: channel " + number);
+
+                    reader.sample(number, (record << 8) >> 8);
+                    amount++;
+                }
+
+                buffer.compact();
+                if (channel.read(buffer) < 0)
+                    return amount;
+                buffer.flip();
+            }
+        }
+    }
+
+    private void map(long position) throws IOException {
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION_SIZE);
+        regionStart = position;
+        unsynced.add(region);
+        this.region = region;
+    }
+
+    /**
+     * Appends sample (only from one thread).
+     *
+     * @param channelNumber - number of channel
+     * @param value         - value of sample ({@link #MIN_VALUE}..{@link #MAX_VALUE})
+     */
+    public void append(int channelNumber, int value) throws IOException {
+        if (channelNumber < 0 || channelNumber >= amountChannels)
+            throw new IllegalArgumentException("Channel number out of range");
+        if (value < MIN_VALUE || value > MAX_VALUE)
+            throw new IllegalArgumentException("Value out of range of journal");
+        if (closed)
+            throw new IOException("Journal " + path + " is closed");
+
+        MappedByteBuffer region = this.region;
+
+        if (!region.hasRemaining()) {
+            map(regionStart + REGION_SIZE);
+            region = this.region;
+        }
+        region.putInt(MARK | channelNumber << 24 | value & 0xFFFFFF);
+        appended++;
+    }
+
+    /**
+     * Writes appended samples to disk (from any thread).
+     * Regions filled since the previous sync are written completely, the current one up to its end.
+     */
+    public void sync() {
+        if (closed)
+            return;
+
+        MappedByteBuffer current = region;
+        MappedByteBuffer region;
+
+        while ((region = unsynced.peek()) != null && region != current) {
+            region.force();
+            unsynced.poll();
+        }
+        current.force();
+    }
+
+    /**
+     * Marks journal as consolidated into the database and deletes it.
+     */
+    public void complete() throws IOException {
+        close();
+        complete(path);
+    }
+
+    /**
+     * Marks journal as consolidated into the database and deletes it.
+     * A journal which is not deleted (e.g. it is still mapped on Windows) is deleted on the next start.
+     *
+     * @param path - file of journal (not opened)
+     */
+    public static void complete(Path path) throws IOException {
+        if (path == null)
+            throw new NullPointerException("Path is null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, STATE_CONSOLIDATED), STATE_POSITION);
+            channel.force(false);
+        }
+
+        try {
+            Files.delete(path);
+            LOGGER.info("Journal {} is consolidated and deleted", path);
+        } catch (IOException e) {
+            LOGGER.warn("Journal {} is consolidated, but not deleted", path, e);
+        }
+    }
+
+    /**
+     * Closes and deletes journal which is not complete (e.g. appending failed), so it is never recovered
+     * over samples committed to the database. A journal which is not deleted is marked as consolidated.
+     */
+    public void discard() {
+        try {
+            close();
+        } catch (IOException e) {
+            LOGGER.warn("Error closing journal {}", path, e);
+        }
+
+        try {
+            complete(path);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+                LOGGER.error("Journal {} is not discarded", path, e);
+            }
+        }
+    }
+
+    /**
+     * Syncs and closes journal, the file stays for recovery.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        sync();
+        unsynced.clear();
+        channel.close();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getExaminationId() {
+        return examinationId;
+    }
+
+    public long getAppended() {
+        return appended;
+    }
+
+    /**
+     * Receiver of content of journal
+     */
+    public interface Reader {
+        /**
+         * @param consolidated - samples of journal are already in the database
+         * @return - read samples
+         */
+        boolean header(int examinationId, int amountChannels, boolean consolidated) throws Exception;
+
+        void sample(int channelNumber, int value) throws Exception;
+    }
+}
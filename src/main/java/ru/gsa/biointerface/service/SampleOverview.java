@@ -0,0 +1,35 @@
+package ru.gsa.biointerface.service;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Whole channel on a coarse level of pyramid: shown at once on opening of examination,
+ * while ranges of full resolution are read for the visible window.
+ */
+public final class SampleOverview {
+    private final int length;
+    private final SampleRange range;
+
+    public SampleOverview(int length, SampleRange range) {
+        if (range == null)
+            throw new NullPointerException("Range is null");
+        if (length < 0)
+            throw new IllegalArgumentException("Length < 0");
+
+        this.length = length;
+        this.range = range;
+    }
+
+    /**
+     * @return - amount of samples of channel
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return - points covering all samples of channel
+     */
+    public SampleRange getRange() {
+        return range;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.gsa.biointerface.service;
+
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Points of one level of min/max/mean pyramid.
+ * Point i covers samples [getFirstSample() + i * getPointSize(), + getPointSize()).
+ * On level 0 min, max and mean are the same array of samples.
+ */
+public final class SampleRange {
+    private final int level;
+    private final int start;
+    private final int amount;
+    private final int[] min;
+    private final int[] max;
+    private final int[] mean;
+
+    public SampleRange(int level, int start, int amount, int[] min, int[] max, int[] mean) {
+        if (min == null || max == null || mean == null)
+            throw new NullPointerException("Values is null");
+        if (level < 0 || level > SampleSummary.MAX_LEVEL)
+            throw new IllegalArgumentException("Level out of range");
+        if (amount < 0 || amount > min.length || amount > max.length || amount > mean.length)
+            throw new IllegalArgumentException("Amount out of range");
+
+        this.level = level;
+        this.start = start;
+        this.amount = amount;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return - index of the first point on its level
+     */
+    public int getStart() {
+        return start;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public int getPointSize() {
+        return SampleSummary.pointSize(level);
+    }
+
+    public int getFirstSample() {
+        return start * getPointSize();
+    }
+
+    public int[] getMin() {
+        return min;
+    }
+
+    public int[] getMax() {
+        return max;
+    }
+
+    public int[] getMean() {
+        return mean;
+    }
+}
@@ -3,22 +3,45 @@ package ru.gsa.biointerface.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Channel;
+import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Sample;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+import ru.gsa.biointerface.repository.ExaminationRepository;
+import ru.gsa.biointerface.repository.SampleCursor;
 import ru.gsa.biointerface.repository.SampleRepository;
+import ru.gsa.biointerface.repository.SampleTransaction;
+import ru.gsa.biointerface.repository.exception.TransactionNotOpenException;
+import ru.gsa.biointerface.repository.codec.SampleSummaryCodec;
+import ru.gsa.biointerface.repository.impl.ExaminationRepositoryImpl;
 import ru.gsa.biointerface.repository.impl.SampleRepositoryImpl;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 03/11/2021
+ * Samples of a recording are also appended to {@link SampleJournal} (if it is on),
+ * journals left by a crash are imported by {@link #recoverJournals()}.
  */
 public class SampleService {
     private static final Logger LOGGER = LoggerFactory.getLogger(SampleService.class);
     private static SampleService instance = null;
     private final SampleRepository repository;
+    private final ExaminationRepository examinationRepository;
+    private final Map<Integer, SampleWriter> writers = new ConcurrentHashMap<>();
+    // stopped recordings which are still writing the rest of samples
+    private final Map<Integer, CompletableFuture<Void>> stopping = new ConcurrentHashMap<>();
 
     private SampleService() throws Exception {
         this.repository = SampleRepositoryImpl.getInstance();
+        this.examinationRepository = ExaminationRepositoryImpl.getInstance();
     }
 
     public static SampleService getInstance() throws Exception {
@@ -41,34 +64,498 @@ public class SampleService {
         return entities;
     }
 
-    public void transactionOpen() throws Exception {
-        repository.transactionOpen();
-        LOGGER.info("Transaction is open");
+    public List<SampleChunk> findChunksByChannel(Channel channel, int fromIndex, int toIndex) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Incorrect range of samples");
+
+        return repository.findChunksByChannel(channel, fromIndex, toIndex);
+    }
+
+    /**
+     * Reads samples of channel in range [fromIndex, toIndex).
+     * The result is shorter than the range if the recording ends earlier.
+     */
+    public int[] findValuesByChannel(Channel channel, int fromIndex, int toIndex) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Incorrect range of samples");
+
+        return repository.findValuesByChannel(channel, fromIndex, toIndex);
+    }
+
+    /**
+     * Reads samples of all channels of examination in range [fromIndex, toIndex) by one query.
+     *
+     * @return - samples indexed by number of channel
+     */
+    public int[][] findValuesByExamination(Examination examination, int fromIndex, int toIndex) throws Exception {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Incorrect range of samples");
+
+        return repository.findValuesByExamination(examination, fromIndex, toIndex);
+    }
+
+    /**
+     * Opens cursor over samples of channel in range [fromIndex, toIndex).
+     * The cursor must be closed after reading.
+     */
+    public SampleCursor openCursor(Channel channel, int fromIndex, int toIndex) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Incorrect range of samples");
+
+        return repository.openCursor(channel, fromIndex, toIndex);
+    }
+
+    public int countByChannel(Channel channel) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+
+        return repository.countByChannel(channel);
+    }
+
+    /**
+     * countByChannel() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<Integer> countByChannelAsync(Channel channel) {
+        return ServiceExecutor.getInstance().submit(() -> countByChannel(channel));
+    }
+
+    /**
+     * Reads a range of samples from the level of pyramid.
+     * Level 0 is read from chunks, other levels from summaries.
+     *
+     * @param channel   - channel
+     * @param level     - level of pyramid (0..{@link SampleSummary#MAX_LEVEL})
+     * @param fromIndex - index of the first sample
+     * @param toIndex   - index after the last sample
+     * @return - points covering the range (the first point may start before fromIndex)
+     */
+    public SampleRange findRange(Channel channel, int level, int fromIndex, int toIndex) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (level < 0 || level > SampleSummary.MAX_LEVEL)
+            throw new IllegalArgumentException("Level out of range");
+        if (fromIndex < 0 || toIndex < fromIndex)
+            throw new IllegalArgumentException("Incorrect range of samples");
+
+        int pointSize = SampleSummary.pointSize(level);
+        int from = fromIndex / pointSize;
+        int to = (int) (((long) toIndex + pointSize - 1) / pointSize);
+
+        if (level == 0) {
+            int[] values = repository.findValuesByChannel(channel, from, to);
+
+            return new SampleRange(level, from, values.length, values, values, values);
+        }
+
+        int[] min = new int[to - from];
+        int amount = 0;
+
+        int[] max = new int[min.length];
+        int[] mean = new int[min.length];
+        int[] blockMin = new int[SampleSummary.CAPACITY];
+        int[] blockMax = new int[SampleSummary.CAPACITY];
+        int[] blockMean = new int[SampleSummary.CAPACITY];
+
+        for (SampleSummary summary : repository.findSummariesByChannel(channel, level, from, to)) {
+            int length = SampleSummaryCodec.decode(summary, blockMin, blockMax, blockMean, 0);
+            copy(blockMax, summary.getStart(), length, max, from);
+            copy(blockMean, summary.getStart(), length, mean, from);
+            amount = Math.max(amount, copy(blockMin, summary.getStart(), length, min, from));
+        }
+
+        return new SampleRange(level, from, amount, min, max, mean);
+    }
+
+    /**
+     * findRange() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<SampleRange> findRangeAsync(Channel channel, int level, int fromIndex, int toIndex) {
+        return ServiceExecutor.getInstance().submit(() -> findRange(channel, level, fromIndex, toIndex));
     }
 
-    public void transactionClose() throws Exception {
-        repository.transactionClose();
-        LOGGER.info("Transaction is close");
+    /**
+     * Prepares channel for viewing and reads all its samples on the coarsest level
+     * which still has at least one point per pixel.
+     *
+     * @param channel - channel
+     * @param pixels  - width of view in pixels
+     * @return - amount of samples and points of the whole channel
+     */
+    public SampleOverview openForViewing(Channel channel, int pixels) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (pixels <= 0)
+            throw new IllegalArgumentException("Pixels <= 0");
+
+        prepareForViewing(channel);
+        int length = countByChannel(channel);
+
+        return new SampleOverview(length, findRange(channel, chooseLevel(length, pixels), 0, length));
     }
 
-    public boolean transactionIsOpen() {
-        return repository.transactionIsOpen();
+    /**
+     * openForViewing() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<SampleOverview> openForViewingAsync(Channel channel, int pixels) {
+        return ServiceExecutor.getInstance().submit(() -> openForViewing(channel, pixels));
+    }
+
+    private static int copy(int[] source, int sourceStart, int length, int[] destination, int destinationStart) {
+        int first = Math.max(sourceStart, destinationStart);
+        int last = Math.min(sourceStart + length, destinationStart + destination.length);
+
+        if (last <= first)
+            return 0;
+
+        System.arraycopy(source, first - sourceStart, destination, first - destinationStart, last - first);
+
+        return last - destinationStart;
+    }
+
+    /**
+     * Chooses the coarsest level of pyramid at which the window still has
+     * at least one point per pixel.
+     *
+     * @param length - amount of samples in window
+     * @param pixels - width of view in pixels
+     * @return - level of pyramid
+     */
+    public static int chooseLevel(int length, int pixels) {
+        if (pixels <= 0)
+            throw new IllegalArgumentException("Pixels <= 0");
+
+        int level = 0;
+
+        while (level < SampleSummary.MAX_LEVEL && length / SampleSummary.pointSize(level + 1) >= pixels) {
+            level++;
+        }
+
+        return level;
+    }
+
+    /**
+     * Moves samples of channel from table "sample" (one row per sample) to table "sample_chunk"
+     * and builds min/max/mean pyramid of channel.
+     *
+     * @param channel - channel
+     * @return - amount of converted samples
+     */
+    public int convertToChunks(Channel channel) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (isWriting(channel.getId().getExamination_id()))
+            throw new ServiceException("Recording is started");
+
+        int amount = repository.convertToChunks(channel, true);
+        repository.buildSummaries(channel, true);
+
+        return amount;
+    }
+
+    /**
+     * Prepares recorded channel for viewing: converts legacy samples
+     * and builds pyramid if the channel was recorded without it.
+     *
+     * @param channel - channel
+     */
+    public void prepareForViewing(Channel channel) throws Exception {
+        if (channel == null)
+            throw new NullPointerException("Channel is null");
+        if (isWriting(channel.getId().getExamination_id()))
+            return;
+
+        if (repository.existsLegacyByChannel(channel)) {
+            convertToChunks(channel);
+        } else {
+            repository.buildSummaries(channel, true);
+        }
+    }
+
+    /**
+     * Starts recording of examination. Every recording has its own writer and transaction,
+     * so examinations of several devices are recorded in parallel.
+     *
+     * @param examination - examination with channels
+     * @return - writer of recording (samples can be added directly by number of channel)
+     * @throws ServiceException - recording of the examination is already started
+     */
+    public SampleWriter recordingStart(Examination examination) throws Exception {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+        if (examination.getChannels() == null)
+            throw new NullPointerException("Channels is null");
+        if (isWriting(examination.getId()))
+            throw new ServiceException("Recording is already started");
+
+        int amountChannels = examination.getChannels().size();
+        SampleJournal journal = null;
+        Path directory = SampleJournal.directory();
+        if (directory != null) {
+            try {
+                journal = SampleJournal.create(directory, examination.getId(), amountChannels);
+            } catch (Exception e) {
+                LOGGER.error("Journal of examination(id={}) is not created, recording without journal",
+                        examination.getId(), e);
+            }
+        }
+
+        SampleTransaction transaction;
+        try {
+            transaction = repository.openTransaction();
+        } catch (Exception e) {
+            if (journal != null) {
+                journal.complete();
+            }
+            throw e;
+        }
+        SampleWriter writer = new SampleWriter(transaction, examination.getId(), amountChannels, journal);
+
+        if (writers.putIfAbsent(examination.getId(), writer) != null) {
+            writer.close();
+            throw new ServiceException("Recording is already started");
+        }
+        LOGGER.info("Recording samples for examination(id={}) started", examination.getId());
+
+        return writer;
+    }
+
+    /**
+     * Stops recording of examination and commits all samples.
+     *
+     * @param examination - examination
+     * @throws TransactionNotOpenException - recording of the examination is not started
+     */
+    public void recordingStop(Examination examination) throws Exception {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+
+        SampleWriter writer = writers.remove(examination.getId());
+
+        if (writer == null)
+            throw new TransactionNotOpenException(
+                    "Recording of examination(id=" + examination.getId() + ") is not started");
+
+        writer.close();
+        LOGGER.info("Recording samples for examination(id={}) stopped", examination.getId());
+    }
+
+    /**
+     * Stops recording of examination, the rest of samples is written in {@link ServiceExecutor}
+     * (the examination is not prepared for viewing until then).
+     *
+     * @param examination - examination
+     * @return - future completed when all samples are committed and the journal is deleted
+     * @throws TransactionNotOpenException - recording of the examination is not started
+     */
+    public CompletableFuture<Void> recordingStopAsync(Examination examination) throws Exception {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+
+        int id = examination.getId();
+        SampleWriter writer = writers.get(id);
+        CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+        // the future is put before the writer is removed, so isWriting() is true until the writer is closed
+        if (writer == null || stopping.putIfAbsent(id, stopped) != null)
+            throw new TransactionNotOpenException("Recording of examination(id=" + id + ") is not started");
+        if (!writers.remove(id, writer)) {
+            stopping.remove(id, stopped);
+            throw new TransactionNotOpenException("Recording of examination(id=" + id + ") is not started");
+        }
+
+        ServiceExecutor.getInstance().submit(() -> {
+            try {
+                writer.close();
+                LOGGER.info("Recording samples for examination(id={}) stopped", id);
+                stopped.complete(null);
+            } catch (Exception e) {
+                LOGGER.error("Samples of examination(id={}) are not written, the journal stays for recovery", id, e);
+                stopped.completeExceptionally(e);
+            } finally {
+                stopping.remove(id, stopped);
+            }
+            return null;
+        });
+
+        return stopped;
+    }
+
+    /**
+     * Waits for recordings stopped by {@link #recordingStopAsync(Examination)} (e.g. on exit).
+     *
+     * @return - all samples are written
+     */
+    public boolean awaitStopped(long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<?> all = CompletableFuture.allOf(stopping.values().toArray(new CompletableFuture<?>[0]));
+
+        try {
+            all.get(timeout, unit);
+        } catch (ExecutionException e) {
+            // failure is logged by recordingStopAsync, the journal stays for recovery
+        } catch (TimeoutException e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Imports journals of recordings which are not stopped (e.g. the application crashed).
+     * Samples of examination in the database are replaced by the whole journal, so an interrupted
+     * import is repeated on the next call. Journals of deleted examinations and consolidated journals are deleted.
+     *
+     * @return - amount of imported journals
+     */
+    public int recoverJournals() throws Exception {
+        Path directory = SampleJournal.directory();
+
+        if (directory == null)
+            return 0;
+
+        int recovered = 0;
+        for (Path path : SampleJournal.find(directory)) {
+            try {
+                if (recoverJournal(path)) {
+                    recovered++;
+                }
+            } catch (Exception e) {
+                LOGGER.error("Journal {} is not recovered", path, e);
+            }
+        }
+
+        return recovered;
+    }
+
+    /**
+     * recoverJournals() in {@link ServiceExecutor}
+     */
+    public CompletableFuture<Integer> recoverJournalsAsync() {
+        return ServiceExecutor.getInstance().submit(this::recoverJournals);
+    }
+
+    private boolean recoverJournal(Path path) throws Exception {
+        SampleWriter[] writer = new SampleWriter[1];
+        boolean[] active = new boolean[1];
+        long amount;
+
+        try {
+            amount = SampleJournal.read(path, new SampleJournal.Reader() {
+                @Override
+                public boolean header(int examinationId, int amountChannels, boolean consolidated) throws Exception {
+                    if (isWriting(examinationId)) {
+                        active[0] = true;
+                        return false;
+                    }
+
+                    if (!consolidated && examinationRepository.findById(examinationId).isPresent()) {
+                        SampleTransaction transaction = repository.openTransaction();
+                        transaction.deleteByExamination(examinationId);
+                        writer[0] = new SampleWriter(transaction, examinationId, amountChannels, null);
+                        LOGGER.info("Journal {} of examination(id={}) is imported", path, examinationId);
+                    } else if (!consolidated) {
+                        LOGGER.warn("Examination(id={}) of journal {} does not exist", examinationId, path);
+                    }
+                    return writer[0] != null;
+                }
+
+                @Override
+                public void sample(int channelNumber, int value) throws Exception {
+                    writer[0].add(channelNumber, value);
+                }
+            });
+        } finally {
+            if (writer[0] != null) {
+                writer[0].close();
+            }
+        }
+
+        if (active[0])
+            return false;
+        if (writer[0] == null) {
+            SampleJournal.complete(path);
+            return false;
+        }
+
+        SampleJournal.complete(path);
+        LOGGER.info("Journal {} is recovered, samples={}", path, amount);
+
+        return true;
+    }
+
+    /**
+     * Stops all recordings (e.g. on exit).
+     *
+     * @throws TransactionNotOpenException - no recording is started
+     */
+    public void recordingStop() throws Exception {
+        if (writers.isEmpty())
+            throw new TransactionNotOpenException("Recording is not started");
+
+        Exception failure = null;
+
+        for (Integer id : List.copyOf(writers.keySet())) {
+            SampleWriter writer = writers.remove(id);
+
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        LOGGER.info("Recording samples stopped");
+
+        if (failure != null)
+            throw failure;
+    }
+
+    public boolean isRecording(Examination examination) {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+
+        return writers.containsKey(examination.getId());
+    }
+
+    public boolean isRecording() {
+        return !writers.isEmpty();
+    }
+
+    /**
+     * @return - samples of examination are being written (recording or the rest after stop)
+     */
+    private boolean isWriting(int examinationId) {
+        return writers.containsKey(examinationId) || stopping.containsKey(examinationId);
+    }
+
+    public SampleWriter getWriter(Examination examination) {
+        if (examination == null)
+            throw new NullPointerException("Examination is null");
+
+        return writers.get(examination.getId());
     }
 
     public void setSampleInChannel(Channel channel, int value) throws Exception {
-        if (!transactionIsOpen())
-            throw new ServiceException("Recording not started");
         if (channel == null)
             throw new NullPointerException("Channel is null");
 
-        List<Sample> samples = channel.getSamples();
-        Sample sample =
-                new Sample(
-                        samples.size(),
-                        channel,
-                        value
-                );
-        sample = repository.insert(sample);
-        samples.add(samples.size(), sample);
+        SampleWriter writer = writers.get(channel.getId().getExamination_id());
+
+        if (writer == null)
+            throw new ServiceException("Recording not started");
+
+        writer.add(channel.getId().getNumber(), value);
     }
 }
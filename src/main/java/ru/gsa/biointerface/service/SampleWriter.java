@@ -0,0 +1,483 @@
+package ru.gsa.biointerface.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.domain.entity.ChannelID;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
+import ru.gsa.biointerface.domain.entity.SampleSummary;
+import ru.gsa.biointerface.metrics.Counter;
+import ru.gsa.biointerface.metrics.Histogram;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+import ru.gsa.biointerface.repository.SampleTransaction;
+import ru.gsa.biointerface.repository.codec.SampleChunkCodec;
+import ru.gsa.biointerface.repository.codec.SampleSummaryBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Write-behind stage for samples of one recording.
+ * Samples are put into a bounded buffer, a background thread packs them
+ * into {@link SampleChunk}s per channel, writes the chunks to the database
+ * in JDBC batches and commits periodically.
+ * Blocks of min/max/mean pyramid ({@link SampleSummary}) are built on the fly
+ * and written together with the chunks.
+ * When the buffer is full the producer waits (samples are never dropped).
+ * The writer owns its {@link SampleTransaction}, so writers of different recordings
+ * work in parallel and do not share a session.
+ * Durations of flushes, commits and waits of producer are recorded in {@link MetricsRegistry}
+ * with prefix {@link #METRICS_PREFIX}.
+ * <p>
+ * With a {@link SampleJournal} every added sample is appended to the journal before buffering
+ * and the journal is synced by the writer thread, so samples which are not committed yet
+ * can be recovered after a crash (see {@link SampleService#recoverJournals()}).
+ * The journal is deleted by {@link #close()} when all samples are committed.
+ */
+public class SampleWriter {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    public static final int DEFAULT_CHUNK_BATCH_SIZE = 16;
+    public static final long DEFAULT_COMMIT_INTERVAL = 1000; // milliseconds
+    public static final String METRICS_PREFIX = "recording.";
+    private static final Logger LOGGER = LoggerFactory.getLogger(SampleWriter.class);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final Histogram FLUSH_LATENCY = METRICS.histogram(METRICS_PREFIX + "flush");
+    private static final Histogram COMMIT_LATENCY = METRICS.histogram(METRICS_PREFIX + "commit");
+    private static final Histogram BACKPRESSURE = METRICS.histogram(METRICS_PREFIX + "backpressure");
+    private static final Counter WRITTEN = METRICS.counter(METRICS_PREFIX + "samples");
+    private final SampleTransaction transaction;
+    private final int examinationId;
+    private final int batchSize;
+    private final int chunkBatchSize;
+    private final long commitInterval;
+    private final boolean compress;
+    private final int[] channelBuffer;
+    private final int[] valueBuffer;
+    private final ChannelID[] channelIds;
+    private final int[][] chunkValues;
+    private final int[] chunkLengths;
+    private final int[] chunkStarts;
+    private final SampleSummaryBuilder[] summaryBuilders;
+    private final List<SampleChunk> pendingChunks = new ArrayList<>();
+    private final List<SampleSummary> pendingSummaries = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread thread;
+    private volatile SampleJournal journal;
+    private int head = 0;
+    private int size = 0;
+    private boolean closed = false;
+    private volatile Exception failure;
+
+    private volatile long addedCount = 0;
+    private volatile long writtenCount = 0;
+    private volatile long chunkCount = 0;
+    private volatile long summaryCount = 0;
+    private volatile long batchCount = 0;
+    private volatile long commitCount = 0;
+    private volatile long backpressureCount = 0;
+    private volatile long backpressureNanos = 0;
+    private volatile long lastFlushNanos = 0;
+    private volatile long maxFlushNanos = 0;
+
+    public SampleWriter(SampleTransaction transaction, int examinationId, int amountChannels) {
+        this(transaction, examinationId, amountChannels,
+                DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_CHUNK_BATCH_SIZE, DEFAULT_COMMIT_INTERVAL, true);
+    }
+
+    /**
+     * @param journal - journal of recording (may be null), it is closed by {@link #close()}
+     */
+    public SampleWriter(SampleTransaction transaction, int examinationId, int amountChannels, SampleJournal journal) {
+        this(transaction, examinationId, amountChannels,
+                DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_CHUNK_BATCH_SIZE, DEFAULT_COMMIT_INTERVAL, true, journal);
+    }
+
+    public SampleWriter(SampleTransaction transaction,
+                        int examinationId,
+                        int amountChannels,
+                        int capacity,
+                        int batchSize,
+                        int chunkBatchSize,
+                        long commitInterval,
+                        boolean compress) {
+        this(transaction, examinationId, amountChannels,
+                capacity, batchSize, chunkBatchSize, commitInterval, compress, null);
+    }
+
+    /**
+     * @param transaction - open transaction, it is closed by {@link #close()}
+     * @param journal     - journal of recording (may be null), it is closed by {@link #close()}
+     */
+    public SampleWriter(SampleTransaction transaction,
+                        int examinationId,
+                        int amountChannels,
+                        int capacity,
+                        int batchSize,
+                        int chunkBatchSize,
+                        long commitInterval,
+                        boolean compress,
+                        SampleJournal journal) {
+        if (transaction == null)
+            throw new NullPointerException("Transaction is null");
+        if (amountChannels <= 0)
+            throw new IllegalArgumentException("Amount channels <= 0");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity <= 0");
+        if (batchSize <= 0 || batchSize > capacity)
+            throw new IllegalArgumentException("Batch size <= 0 or > capacity");
+        if (chunkBatchSize <= 0)
+            throw new IllegalArgumentException("Chunk batch size <= 0");
+        if (commitInterval <= 0)
+            throw new IllegalArgumentException("Commit interval <= 0");
+
+        this.transaction = transaction;
+        this.examinationId = examinationId;
+        this.batchSize = batchSize;
+        this.chunkBatchSize = chunkBatchSize;
+        this.commitInterval = commitInterval;
+        this.compress = compress;
+        this.journal = journal;
+        channelBuffer = new int[capacity];
+        valueBuffer = new int[capacity];
+        channelIds = new ChannelID[amountChannels];
+        chunkValues = new int[amountChannels][SampleChunk.CAPACITY];
+        chunkLengths = new int[amountChannels];
+        chunkStarts = new int[amountChannels];
+        summaryBuilders = new SampleSummaryBuilder[amountChannels];
+
+        for (int i = 0; i < amountChannels; i++) {
+            channelIds[i] = new ChannelID(examinationId, i);
+            summaryBuilders[i] = new SampleSummaryBuilder(channelIds[i], compress, pendingSummaries);
+        }
+
+        thread = new Thread(this::run);
+        thread.setDaemon(true);
+        thread.setName("Sample writer thread (examination " + examinationId + ")");
+        thread.start();
+        METRICS.gauge(METRICS_PREFIX + "buffered." + examinationId, this::getBufferedCount);
+        LOGGER.info("Sample writer for examination(id={}) started", examinationId);
+    }
+
+    /**
+     * Puts a sample into the buffer. Waits while the buffer is full.
+     *
+     * @param channelNumber - number of channel
+     * @param value         - value of sample
+     * @throws ServiceException - writer is closed or failed
+     */
+    public void add(int channelNumber, int value) throws ServiceException, InterruptedException {
+        if (channelNumber < 0 || channelNumber >= channelIds.length)
+            throw new IllegalArgumentException("Channel number out of range");
+
+        lock.lock();
+        try {
+            if (size == valueBuffer.length && !closed && failure == null) {
+                long start = System.nanoTime();
+                backpressureCount++;
+                while (size == valueBuffer.length && !closed && failure == null) {
+                    notFull.await();
+                }
+                long duration = System.nanoTime() - start;
+                backpressureNanos += duration;
+                BACKPRESSURE.record(duration);
+            }
+            if (failure != null)
+                throw new ServiceException("Sample writer failed", failure);
+            if (closed)
+                throw new ServiceException("Sample writer is closed");
+
+            SampleJournal journal = this.journal;
+            if (journal != null) {
+                try {
+                    if (value < SampleJournal.MIN_VALUE || value > SampleJournal.MAX_VALUE)
+                        throw new IOException("Value " + value + " out of range of journal");
+
+                    journal.append(channelNumber, value);
+                } catch (IOException e) {
+                    // recording goes on without journal, the incomplete journal must not be recovered
+                    // over committed samples
+                    LOGGER.error("Journal of examination(id={}) failed and is discarded", examinationId, e);
+                    this.journal = null;
+                    journal.discard();
+                }
+            }
+
+            int tail = (head + size) % valueBuffer.length;
+            channelBuffer[tail] = channelNumber;
+            valueBuffer[tail] = value;
+            size++;
+            addedCount++;
+
+            if (size >= batchSize) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the rest of the buffer (including incomplete chunks), stops the writer thread
+     * and closes the transaction. After return all added samples are committed.
+     *
+     * @throws Exception - write error
+     */
+    public void close() throws Exception {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        thread.join();
+        METRICS.removeGauges(METRICS_PREFIX + "buffered." + examinationId);
+        LOGGER.info(
+                "Sample writer for examination(id={}) stopped: written={}, chunks={}, batches={}, commits={}, backpressure={}",
+                examinationId, writtenCount, chunkCount, batchCount, commitCount, backpressureCount);
+
+        try {
+            transaction.close();
+        } catch (Exception e) {
+            closeJournal(this.journal);
+            if (failure == null)
+                throw e;
+            failure.addSuppressed(e);
+        }
+        if (failure != null) {
+            closeJournal(this.journal);
+            throw new ServiceException("Sample writer failed", failure);
+        }
+
+        SampleJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.complete();
+            } catch (IOException e) {
+                // samples are committed, the journal is only imported again on the next start
+                LOGGER.error("Journal of examination(id={}) is not completed", examinationId, e);
+            }
+        }
+    }
+
+    /**
+     * Closes journal, it stays for recovery.
+     */
+    private void closeJournal(SampleJournal journal) {
+        if (journal == null)
+            return;
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.error("Error closing journal of examination(id={})", examinationId, e);
+        }
+    }
+
+    private void run() {
+        int[] channels = new int[batchSize];
+        int[] values = new int[batchSize];
+        boolean uncommitted = false;
+        long lastCommit = System.currentTimeMillis();
+        long lastSync = lastCommit;
+
+        try {
+            while (true) {
+                int length;
+                boolean last;
+
+                lock.lock();
+                try {
+                    long timeout = TimeUnit.MILLISECONDS.toNanos(commitInterval);
+                    while (size < batchSize && !closed && timeout > 0) {
+                        timeout = notEmpty.awaitNanos(timeout);
+                    }
+
+                    length = Math.min(size, batchSize);
+                    for (int i = 0; i < length; i++) {
+                        int index = (head + i) % valueBuffer.length;
+                        channels[i] = channelBuffer[index];
+                        values[i] = valueBuffer[index];
+                    }
+                    head = (head + length) % valueBuffer.length;
+                    size -= length;
+                    last = closed && size == 0;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                for (int i = 0; i < length; i++) {
+                    append(channels[i], values[i]);
+                }
+
+                long now = System.currentTimeMillis();
+                boolean commitTime = now - lastCommit >= commitInterval;
+
+                if (last) {
+                    for (int i = 0; i < channelIds.length; i++) {
+                        completeChunk(i);
+                        summaryBuilders[i].finish();
+                    }
+                }
+                if (pendingChunks.size() >= chunkBatchSize || (hasPending() && (commitTime || last))) {
+                    flush();
+                    uncommitted = true;
+                }
+                if (uncommitted && (commitTime || last)) {
+                    long start = System.nanoTime();
+                    transaction.commit();
+                    COMMIT_LATENCY.record(System.nanoTime() - start);
+                    commitCount++;
+                    uncommitted = false;
+                    lastCommit = now;
+                }
+                SampleJournal journal = this.journal;
+                if (journal != null && SampleJournal.SYNC_INTERVAL > 0
+                        && (now - lastSync >= SampleJournal.SYNC_INTERVAL || last)) {
+                    journal.sync();
+                    lastSync = now;
+                }
+                if (last)
+                    break;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Sample writer for examination(id={}) failed", examinationId, e);
+            lock.lock();
+            try {
+                failure = e;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void append(int channelNumber, int value) {
+        chunkValues[channelNumber][chunkLengths[channelNumber]++] = value;
+        summaryBuilders[channelNumber].add(value);
+
+        if (chunkLengths[channelNumber] == SampleChunk.CAPACITY) {
+            completeChunk(channelNumber);
+        }
+    }
+
+    private void completeChunk(int channelNumber) {
+        int length = chunkLengths[channelNumber];
+
+        if (length > 0) {
+            pendingChunks.add(SampleChunkCodec.encode(
+                    channelIds[channelNumber],
+                    chunkStarts[channelNumber],
+                    chunkValues[channelNumber],
+                    0,
+                    length,
+                    compress));
+            chunkStarts[channelNumber] += length;
+            chunkLengths[channelNumber] = 0;
+        }
+    }
+
+    private boolean hasPending() {
+        return !pendingChunks.isEmpty() || !pendingSummaries.isEmpty();
+    }
+
+    private void flush() throws Exception {
+        long start = System.nanoTime();
+        transaction.insertChunks(pendingChunks);
+        if (!pendingSummaries.isEmpty()) {
+            transaction.insertSummaries(pendingSummaries);
+        }
+        long duration = System.nanoTime() - start;
+        lastFlushNanos = duration;
+        maxFlushNanos = Math.max(maxFlushNanos, duration);
+        FLUSH_LATENCY.record(duration);
+
+        for (SampleChunk chunk : pendingChunks) {
+            writtenCount += chunk.getAmount();
+            WRITTEN.add(chunk.getAmount());
+        }
+        chunkCount += pendingChunks.size();
+        summaryCount += pendingSummaries.size();
+        batchCount++;
+        pendingChunks.clear();
+        pendingSummaries.clear();
+    }
+
+    public int getExaminationId() {
+        return examinationId;
+    }
+
+    /**
+     * @return - journal of recording (null - recording without journal or the journal failed)
+     */
+    public SampleJournal getJournal() {
+        return journal;
+    }
+
+    public int getCapacity() {
+        return valueBuffer.length;
+    }
+
+    public int getBufferedCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAddedCount() {
+        return addedCount;
+    }
+
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getSummaryCount() {
+        return summaryCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    public long getBackpressureCount() {
+        return backpressureCount;
+    }
+
+    public long getBackpressureNanos() {
+        return backpressureNanos;
+    }
+
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+}
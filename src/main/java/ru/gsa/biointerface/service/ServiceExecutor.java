@@ -0,0 +1,124 @@
+package ru.gsa.biointerface.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+import ru.gsa.biointerface.repository.exception.NoConnectionException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Threads for async variants of service methods (*Async), so windows do not read database
+ * in JavaFX Application Thread.
+ * <p>
+ * Amount of threads (biointerface.service.threads, 4 by default) is not more than connections of pool
+ * left by {@link #RESERVED_CONNECTIONS} (half of pool if the pool is not larger than the reservation),
+ * a queued task waits for a thread instead of a connection.
+ * Cancelled future is not started; a running task is not interrupted
+ * (JDBC driver of SQLite does not react to interruption), its result is dropped.
+ */
+public final class ServiceExecutor {
+    public static final int THREADS = Integer.getInteger("biointerface.service.threads", 4);
+    /**
+     * Connections of pool which are not for service threads: every recording and EDF export
+     * holds a connection for its whole duration, JavaFX Application Thread reads synchronously
+     */
+    public static final int RESERVED_CONNECTIONS = Integer.getInteger("biointerface.service.reservedConnections", 8);
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceExecutor.class);
+    private static ServiceExecutor instance = null;
+    private final ThreadPoolExecutor executor;
+
+    private ServiceExecutor() {
+        AtomicInteger number = new AtomicInteger();
+        int threads = threads(THREADS, connectionPoolSize());
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Service thread " + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        MetricsRegistry.getInstance().gauge("service.queue", () -> executor.getQueue().size());
+        MetricsRegistry.getInstance().gauge("service.active", executor::getActiveCount);
+    }
+
+    /**
+     * @param threads  - required amount of threads
+     * @param poolSize - size of pool of connections, 0 if it is not limited
+     * @return - amount of threads not more than connections of pool without reserved ones
+     */
+    static int threads(int threads, int poolSize) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Threads <= 0");
+
+        if (poolSize <= 0)
+            return threads;
+
+        int available = Math.max(poolSize - reserved(poolSize), 1);
+        if (threads > available) {
+            LOGGER.warn("Pool of {} connections has {} connections for service threads, threads {} -> {}",
+                    poolSize, available, threads, available);
+            return available;
+        }
+
+        return threads;
+    }
+
+    /**
+     * @param poolSize - size of pool of connections
+     * @return - {@link #RESERVED_CONNECTIONS}, half of pool if the reservation leaves no connections for service
+     */
+    static int reserved(int poolSize) {
+        if (RESERVED_CONNECTIONS < poolSize)
+            return RESERVED_CONNECTIONS;
+
+        int reserved = poolSize / 2;
+        LOGGER.warn("Reserved connections ({}, biointerface.service.reservedConnections) are not less than pool " +
+                        "of {} connections (biointerface.sqlite.poolSize), {} connections are reserved",
+                RESERVED_CONNECTIONS, poolSize, reserved);
+
+        return reserved;
+    }
+
+    private static int connectionPoolSize() {
+        try {
+            return DatabaseHandler.getInstance().getConnectionPoolSize();
+        } catch (NoConnectionException e) {
+            return 0;
+        }
+    }
+
+    public static synchronized ServiceExecutor getInstance() {
+        if (instance == null) {
+            instance = new ServiceExecutor();
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return - future completed by result of task or by its exception (the caller reports it)
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        if (task == null)
+            throw new NullPointerException("Task is null");
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone())
+                return;
+
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                // reported by caller of the future
+                LOGGER.debug("Error of async task", e);
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+}
@@ -126,6 +126,9 @@ public class ProxyGUI implements TransitionGUI {
 
         try {
             AnchorPane node = loader.load();
+            if (controller != null) {
+                controller.closeWindow();
+            }
             controller = loader.getController();
 
             stage.close();
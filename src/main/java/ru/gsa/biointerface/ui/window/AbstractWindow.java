@@ -1,18 +1,31 @@
 package ru.gsa.biointerface.ui.window;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableView;
 import javafx.scene.layout.AnchorPane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.ResourceSource;
 import ru.gsa.biointerface.ui.TransitionGUI;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
  */
 public abstract class AbstractWindow implements Window {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractWindow.class);
+    private final List<CompletableFuture<?>> loads = new ArrayList<>();
+    private boolean closed = false;
     protected ResourceSource resourceSource;
     protected TransitionGUI transitionGUI;
 
@@ -39,6 +52,59 @@ public abstract class AbstractWindow implements Window {
         return this;
     }
 
+    /**
+     * Applies result of async service method in JavaFX Application Thread,
+     * unless the window is closed before.
+     *
+     * @param future   - result of *Async method of service
+     * @param onLoaded - called with result
+     * @param error    - beginning of message of error
+     */
+    protected <T> void load(CompletableFuture<T> future, Consumer<T> onLoaded, String error) {
+        if (future == null)
+            throw new NullPointerException("Future is null");
+        if (onLoaded == null)
+            throw new NullPointerException("OnLoaded is null");
+
+        loads.add(future);
+        future.whenComplete((result, e) -> Platform.runLater(() -> {
+            loads.remove(future);
+            if (closed || future.isCancelled())
+                return;
+
+            if (e == null) {
+                onLoaded.accept(result);
+            } else {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                LOGGER.error(error, cause);
+                new AlertError(error + ": " + cause.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Shows "loading..." in the empty table until it is filled.
+     */
+    protected static void showLoading(TableView<?> tableView) {
+        tableView.setPlaceholder(new Label("loading..."));
+    }
+
+    /**
+     * Restores placeholder of empty table.
+     */
+    protected static void hideLoading(TableView<?> tableView) {
+        tableView.setPlaceholder(null);
+    }
+
+    @Override
+    public void closeWindow() {
+        closed = true;
+        for (CompletableFuture<?> future : new ArrayList<>(loads)) {
+            future.cancel(false);
+        }
+        loads.clear();
+    }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
 
@@ -51,8 +51,12 @@ public class ChannelNamesController extends AbstractWindow {
             );
 
         ObservableList<ChannelName> channelNames = FXCollections.observableArrayList();
-        channelNames.addAll(channelNameService.findAll());
+        showLoading(tableView);
         tableView.setItems(channelNames);
+        load(channelNameService.findAllAsync(), loaded -> {
+            channelNames.setAll(loaded);
+            hideLoading(tableView);
+        }, "Error load channel names");
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         transitionGUI.show();
     }
@@ -53,8 +53,12 @@ public class DevicesController extends AbstractWindow {
             );
 
         ObservableList<Device> devices = FXCollections.observableArrayList();
-        devices.addAll(deviceService.findAll());
+        showLoading(tableView);
         tableView.setItems(devices);
+        load(deviceService.findAllAsync(), loaded -> {
+            devices.setAll(loaded);
+            hideLoading(tableView);
+        }, "Error load devices");
         idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
         amountChannelsCol.setCellValueFactory(new PropertyValueFactory<>("amountChannels"));
         transitionGUI.show();
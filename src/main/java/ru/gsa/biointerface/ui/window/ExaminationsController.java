@@ -4,26 +4,47 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.control.Button;
-import javafx.scene.control.TableColumn;
-import javafx.scene.control.TableView;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
+import javafx.util.StringConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.gsa.biointerface.domain.entity.Device;
 import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.ExaminationFilter;
+import ru.gsa.biointerface.repository.PageRequest;
+import ru.gsa.biointerface.service.DeviceService;
 import ru.gsa.biointerface.service.ExaminationService;
 
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
  */
 public class ExaminationsController extends AbstractWindow {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExaminationsController.class);
     private final ExaminationService examinationService;
+    private final DeviceService deviceService;
     private final SimpleDateFormat dateTimeFormatter = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss");
+    private PagedList<Examination> examinations;
+    private volatile ExaminationFilter filter = ExaminationFilter.ALL;
+    private volatile String sort;
+    private volatile boolean ascending = true;
     private Examination examination;
     @FXML
+    private DatePicker fromFilter;
+    @FXML
+    private DatePicker toFilter;
+    @FXML
+    private ComboBox<Device> deviceFilter;
+    @FXML
     private TableView<Examination> tableView;
     @FXML
     private TableColumn<Examination, String> startTimeCol;
@@ -39,6 +60,7 @@ public class ExaminationsController extends AbstractWindow {
 
     public ExaminationsController() throws Exception {
         examinationService = ExaminationService.getInstance();
+        deviceService = DeviceService.getInstance();
     }
 
     @Override
@@ -56,13 +78,45 @@ public class ExaminationsController extends AbstractWindow {
         if (resourceSource == null || transitionGUI == null)
             throw new NullPointerException("resourceSource or transitionGUI is null. First call setResourceAndTransition()");
 
-        ObservableList<Examination> examinations = FXCollections.observableArrayList();
-        examinations.addAll(examinationService.findAll());
+        examinations = new PagedList<>(new PagedList.PageSource<>() {
+            @Override
+            public long count() throws Exception {
+                return examinationService.count(filter);
+            }
+
+            @Override
+            public List<Examination> load(int offset, int limit) throws Exception {
+                return examinationService.findPage(filter, PageRequest.builder()
+                        .offset(offset)
+                        .limit(limit)
+                        .sort(sort)
+                        .ascending(ascending)
+                        .build());
+            }
+        });
+        examinations.setOnError(e -> {
+            LOGGER.error("Error load examinations", e);
+            new AlertError("Error load examinations: " + e.getMessage());
+        });
+        examinations.setOnRefreshed(() -> hideLoading(tableView));
+        showLoading(tableView);
         tableView.setItems(examinations);
+        PagedList.bindSorting(tableView, Map.of(
+                startTimeCol, "starttime",
+                patientCol, "patient",
+                deviceIdCol, "device"
+        ), (property, ascending) -> {
+            sort = property;
+            this.ascending = ascending;
+            examinations.refresh();
+        });
         startTimeCol.setCellValueFactory(param -> new SimpleObjectProperty<>(
-                dateTimeFormatter.format(param.getValue().getStarttime())
+                param.getValue() == null ? null : dateTimeFormatter.format(param.getValue().getStarttime())
         ));
         patientCol.setCellValueFactory(param -> {
+            if (param.getValue() == null)
+                return new SimpleObjectProperty<>();
+
             Patient patient = param.getValue().getPatient();
             String initials = patient.getSecondName() + " " +
                     patient.getFirstName().charAt(0) + ".";
@@ -71,11 +125,70 @@ public class ExaminationsController extends AbstractWindow {
 
             return new SimpleObjectProperty<>(initials);
         });
-        deviceIdCol.setCellValueFactory(param -> new SimpleObjectProperty<>(param.getValue().getDevice().getId()));
+        deviceIdCol.setCellValueFactory(param -> new SimpleObjectProperty<>(
+                param.getValue() == null ? null : param.getValue().getDevice().getId()
+        ));
+        setDeviceComboBox();
+        examinations.refresh();
         transitionGUI.show();
     }
 
+    private void setDeviceComboBox() {
+        ObservableList<Device> devices = FXCollections.observableArrayList();
+        devices.add(null);
+        load(deviceService.findAllAsync(), devices::addAll, "Error load devices");
+        deviceFilter.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Device device) {
+                return device == null ? "" : String.valueOf(device.getId());
+            }
+
+            @Override
+            public Device fromString(String string) {
+                return null;
+            }
+        });
+        deviceFilter.setItems(devices);
+    }
+
+    public void onFilterChange() {
+        Device device = deviceFilter.getValue();
+        LocalDate from = fromFilter.getValue();
+        LocalDate to = toFilter.getValue();
+        filter = ExaminationFilter.builder()
+                .from(from == null ? null : toDate(from))
+                .to(to == null ? null : toDate(to.plusDays(1)))
+                .deviceId(device == null ? null : device.getId())
+                .build();
+        LOGGER.info("Set filter of examinations (from={}, to={}, device={})",
+                from, to, device == null ? null : device.getId());
+        resetSelection();
+        examinations.refresh();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Override
+    public void closeWindow() {
+        super.closeWindow();
+        if (examinations != null) {
+            examinations.cancel();
+        }
+    }
+
+    private void resetSelection() {
+        examination = null;
+        commentField.setText("");
+        deleteButton.setDisable(true);
+        commentField.setDisable(true);
+    }
+
     public void onMouseClickedTableView(MouseEvent mouseEvent) {
+        if (tableView.getFocusModel().getFocusedItem() == null)
+            return;
+
         if (examination != tableView.getFocusModel().getFocusedItem()) {
             examination = tableView.getFocusModel().getFocusedItem();
             commentField.setText(examination.getComment());
@@ -119,8 +232,8 @@ public class ExaminationsController extends AbstractWindow {
     public void onDeleteButtonPush() {
         try {
             examinationService.delete(examination);
-            tableView.getItems().remove(examination);
-            commentField.setText("");
+            resetSelection();
+            examinations.refresh();
         } catch (Exception e) {
             new AlertError("Error delete examination: " + e.getMessage());
         }
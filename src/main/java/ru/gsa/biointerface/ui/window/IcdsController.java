@@ -54,8 +54,12 @@ public class IcdsController extends AbstractWindow {
         }
 
         ObservableList<Icd> icds = FXCollections.observableArrayList();
-        icds.addAll(icdService.findAll());
+        showLoading(tableView);
         tableView.setItems(icds);
+        load(icdService.findAllAsync(), loaded -> {
+            icds.setAll(loaded);
+            hideLoading(tableView);
+        }, "Error load ICDs");
         icdCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         versionCol.setCellValueFactory(new PropertyValueFactory<>("version"));
         versionCol.setStyle("-fx-alignment: center;");
@@ -0,0 +1,224 @@
+package ru.gsa.biointerface.ui.window;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Read-only list for {@link TableView} which loads rows by pages when they are shown.
+ * <p>
+ * Amount of rows and pages are read by {@link PageSource} in a background thread,
+ * not loaded rows are null until their page arrives (cell factories have to accept null).
+ * Only the last {@link #MAX_PAGES} pages are kept, so memory does not depend on amount of rows.
+ * Must be used from JavaFX Application Thread.
+ *
+ * @param <T> - type of row
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+    public static final int PAGE_SIZE = 100;
+    public static final int MAX_PAGES = 20;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PagedList.class);
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Page loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PageSource<T> source;
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    private Consumer<Exception> onError = e -> LOGGER.error("Error loading rows", e);
+    private Runnable onRefreshed = () -> {
+    };
+    private int size = 0;
+    private int generation = 0;
+
+    public PagedList(PageSource<T> source) {
+        if (source == null)
+            throw new NullPointerException("Source is null");
+
+        this.source = source;
+    }
+
+    /**
+     * Server-side sorting: a click on a header of column calls listener
+     * with property of the first sorted column (null - not sorted) instead of sorting of items.
+     *
+     * @param properties - sortable columns and properties of entity, other columns are not sortable
+     */
+    public static <S> void bindSorting(TableView<S> tableView, Map<TableColumn<S, ?>, String> properties,
+                                       SortListener listener) {
+        for (TableColumn<S, ?> column : tableView.getColumns()) {
+            column.setSortable(properties.containsKey(column));
+        }
+        tableView.setSortPolicy(table -> {
+            if (table.getSortOrder().isEmpty()) {
+                listener.sort(null, true);
+            } else {
+                TableColumn<S, ?> column = table.getSortOrder().get(0);
+                listener.sort(properties.get(column), column.getSortType() == TableColumn.SortType.ASCENDING);
+            }
+
+            return true;
+        });
+    }
+
+    public void setOnError(Consumer<Exception> onError) {
+        if (onError == null)
+            throw new NullPointerException("OnError is null");
+
+        this.onError = onError;
+    }
+
+    /**
+     * @param onRefreshed - called when amount of rows is read after {@link #refresh()}
+     */
+    public void setOnRefreshed(Runnable onRefreshed) {
+        if (onRefreshed == null)
+            throw new NullPointerException("OnRefreshed is null");
+
+        this.onRefreshed = onRefreshed;
+    }
+
+    /**
+     * Results of loads in progress are dropped (window is closed).
+     */
+    public void cancel() {
+        generation++;
+        loading.clear();
+    }
+
+    /**
+     * Drops loaded rows and reads amount of rows again (after change of filter, sorting or data).
+     */
+    public void refresh() {
+        int generation = ++this.generation;
+        pages.clear();
+        loading.clear();
+
+        LOADER.execute(() -> {
+            try {
+                long count = source.count();
+                Platform.runLater(() -> {
+                    if (generation == this.generation) {
+                        resize((int) Math.min(count, Integer.MAX_VALUE));
+                        onRefreshed.run();
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (generation == this.generation) {
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    private void resize(int newSize) {
+        int oldSize = size;
+        size = newSize;
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.nCopies(oldSize, null));
+        }
+        if (newSize > 0) {
+            nextAdd(0, newSize);
+        }
+        endChange();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+
+        int page = index / PAGE_SIZE;
+        List<T> rows = pages.get(page);
+
+        if (rows == null) {
+            load(page);
+            return null;
+        }
+
+        int position = index - page * PAGE_SIZE;
+
+        return position < rows.size() ? rows.get(position) : null;
+    }
+
+    private void load(int page) {
+        if (!loading.add(page))
+            return;
+
+        int generation = this.generation;
+        LOADER.execute(() -> {
+            try {
+                List<T> rows = source.load(page * PAGE_SIZE, PAGE_SIZE);
+                Platform.runLater(() -> loaded(generation, page, rows));
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (generation == this.generation) {
+                        loading.remove(page);
+                        onError.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    private void loaded(int generation, int page, List<T> rows) {
+        if (generation != this.generation)
+            return;
+
+        loading.remove(page);
+        pages.put(page, rows);
+
+        int from = page * PAGE_SIZE;
+        int to = Math.min(from + rows.size(), size);
+        if (from < to) {
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextSet(i, null);
+            }
+            endChange();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Source of rows
+     */
+    public interface PageSource<T> {
+        long count() throws Exception;
+
+        List<T> load(int offset, int limit) throws Exception;
+    }
+
+    /**
+     * Change of sorting by user
+     */
+    public interface SortListener {
+        /**
+         * @param property  - property of entity (null - default order)
+         * @param ascending - direction
+         */
+        void sort(String property, boolean ascending);
+    }
+}
@@ -1,7 +1,5 @@
 package ru.gsa.biointerface.ui.window;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.util.StringConverter;
@@ -12,6 +10,7 @@ import ru.gsa.biointerface.service.PatientService;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
@@ -255,16 +254,12 @@ public class PatientAddController extends AbstractWindow {
     }
 
     private void setIcdComboBox() {
-        ObservableList<Icd> icds = FXCollections.observableArrayList();
-        try {
-            List<Icd> icdList = icdService.findAll();
+        load(icdService.findAllAsync(), icdList -> {
+            List<Icd> icds = new ArrayList<>();
             icds.add(null);
             icds.addAll(icdList);
-        } catch (Exception e) {
-            new AlertError("Error load list ICDs: " + e.getMessage());
-        }
-        icdComboBox.getItems().clear();
-        icdComboBox.getItems().addAll(icds);
+            icdComboBox.getItems().setAll(icds);
+        }, "Error load list ICDs");
     }
 
     public void commentFieldChange() {
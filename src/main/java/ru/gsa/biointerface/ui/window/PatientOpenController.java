@@ -1,8 +1,6 @@
 package ru.gsa.biointerface.ui.window;
 
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
@@ -14,10 +12,14 @@ import javafx.scene.text.Text;
 import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Icd;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.ExaminationFilter;
+import ru.gsa.biointerface.repository.PageRequest;
 import ru.gsa.biointerface.service.ExaminationService;
 import ru.gsa.biointerface.service.PatientService;
 
 import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -26,6 +28,9 @@ import java.util.Objects;
 public class PatientOpenController extends AbstractWindow implements WindowWithProperty<Patient> {
     private final SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
     private final SimpleDateFormat dateTimeFormatter = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss");
+    private PagedList<Examination> examinations;
+    private volatile String sort = "starttime";
+    private volatile boolean ascending = true;
     private Patient patient;
     private Examination examination;
     @FXML
@@ -88,18 +93,42 @@ public class PatientOpenController extends AbstractWindow implements WindowWithP
             icdText.setText("-");
         }
 
-        tableView.getItems().clear();
-        ObservableList<Examination> examinations = FXCollections.observableArrayList();
-        try {
-            examinations.addAll(ExaminationService.getInstance().findAllByPatientRecord(patient));
-        } catch (Exception e) {
-            new AlertError("Error load list examinations: " + e.getMessage());
-        }
+        ExaminationFilter filter = ExaminationFilter.builder()
+                .patientId(patient.getId())
+                .build();
+        examinations = new PagedList<>(new PagedList.PageSource<>() {
+            @Override
+            public long count() throws Exception {
+                return ExaminationService.getInstance().count(filter);
+            }
+
+            @Override
+            public List<Examination> load(int offset, int limit) throws Exception {
+                return ExaminationService.getInstance().findPage(filter, PageRequest.builder()
+                        .offset(offset)
+                        .limit(limit)
+                        .sort(sort)
+                        .ascending(ascending)
+                        .build());
+            }
+        });
+        examinations.setOnError(e -> new AlertError("Error load list examinations: " + e.getMessage()));
+        examinations.setOnRefreshed(() -> hideLoading(tableView));
+        showLoading(tableView);
         tableView.setItems(examinations);
+        PagedList.bindSorting(tableView, Map.of(
+                startTimeCol, "starttime",
+                deviceIdCol, "device"
+        ), (property, ascending) -> {
+            sort = property == null ? "starttime" : property;
+            this.ascending = ascending;
+            examinations.refresh();
+        });
         startTimeCol.setCellValueFactory(param -> new SimpleObjectProperty<>(
-                dateTimeFormatter.format(param.getValue().getStarttime())));
+                param.getValue() == null ? null : dateTimeFormatter.format(param.getValue().getStarttime())));
         deviceIdCol.setCellValueFactory(param -> new SimpleObjectProperty<>(
-                param.getValue().getDevice().getId()));
+                param.getValue() == null ? null : param.getValue().getDevice().getId()));
+        examinations.refresh();
         tableView.setOnMouseClicked(mouseEvent -> {
             if (mouseEvent.getButton().equals(MouseButton.PRIMARY)) {
                 onMouseClickedTableView(mouseEvent);
@@ -145,6 +174,9 @@ public class PatientOpenController extends AbstractWindow implements WindowWithP
     }
 
     public void onMouseClickedTableView(MouseEvent mouseEvent) {
+        if (tableView.getFocusModel().getFocusedItem() == null)
+            return;
+
         if (examination != tableView.getFocusModel().getFocusedItem()) {
             examination = tableView.getFocusModel().getFocusedItem();
             commentField.setText(examination.getComment());
@@ -168,13 +200,22 @@ public class PatientOpenController extends AbstractWindow implements WindowWithP
         try {
             ExaminationService.getInstance().delete(examination);
             commentField.setText("");
-            tableView.getItems().remove(examination);
             examination = null;
+            deleteButton.setDisable(true);
+            examinations.refresh();
         } catch (Exception e) {
             new AlertError("Error delete examination: " + e.getMessage());
         }
     }
 
+    @Override
+    public void closeWindow() {
+        super.closeWindow();
+        if (examinations != null) {
+            examinations.cancel();
+        }
+    }
+
     public void onBackButtonPush() {
         try {
             generateNewWindow("fxml/Patients.fxml")
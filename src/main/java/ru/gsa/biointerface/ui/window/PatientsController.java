@@ -1,27 +1,29 @@
 package ru.gsa.biointerface.ui.window;
 
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.control.Button;
-import javafx.scene.control.TableColumn;
-import javafx.scene.control.TableView;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.*;
 import javafx.scene.control.cell.ComboBoxTableCell;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.util.Duration;
 import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.gsa.biointerface.domain.entity.Icd;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.PageRequest;
+import ru.gsa.biointerface.repository.PatientFilter;
 import ru.gsa.biointerface.service.IcdService;
 import ru.gsa.biointerface.service.PatientService;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -29,6 +31,8 @@ import java.util.Objects;
  */
 public class PatientsController extends AbstractWindow {
     private static final Logger LOGGER = LoggerFactory.getLogger(PatientsController.class);
+    private static final int SEARCH_LIMIT = 500;
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
     private final PatientService patientService;
     private final IcdService icdService;
     private final SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
@@ -46,8 +50,18 @@ public class PatientsController extends AbstractWindow {
             return null;
         }
     };
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private PagedList<Patient> patients;
+    private volatile List<Patient> found = List.of();
+    private volatile PatientFilter filter = PatientFilter.ALL;
+    private volatile String sort;
+    private volatile boolean ascending = true;
     private Patient patient;
     @FXML
+    private TextField nameFilter;
+    @FXML
+    private ComboBox<Icd> icdFilter;
+    @FXML
     private TableView<Patient> tableView;
     @FXML
     private TableColumn<Patient, Integer> idCol;
@@ -80,9 +94,51 @@ public class PatientsController extends AbstractWindow {
                     "");
         }
 
-        ObservableList<Patient> patients = FXCollections.observableArrayList();
-        patients.addAll(patientService.findAll());
+        patients = new PagedList<>(new PagedList.PageSource<>() {
+            @Override
+            public long count() throws Exception {
+                if (filter.getName() != null) {
+                    found = patientService.search(filter, SEARCH_LIMIT);
+                    return found.size();
+                }
+
+                return patientService.count(filter);
+            }
+
+            @Override
+            public List<Patient> load(int offset, int limit) throws Exception {
+                if (filter.getName() != null) {
+                    List<Patient> found = PatientsController.this.found;
+                    return found.subList(Math.min(offset, found.size()), Math.min(offset + limit, found.size()));
+                }
+
+                return patientService.findPage(filter, PageRequest.builder()
+                        .offset(offset)
+                        .limit(limit)
+                        .sort(sort)
+                        .ascending(ascending)
+                        .build());
+            }
+        });
+        patients.setOnError(e -> {
+            LOGGER.error("Error load patients", e);
+            new AlertError("Error load patients: " + e.getMessage());
+        });
+        patients.setOnRefreshed(() -> hideLoading(tableView));
+        showLoading(tableView);
         tableView.setItems(patients);
+        PagedList.bindSorting(tableView, Map.of(
+                idCol, "id",
+                secondNameCol, "secondName",
+                firstNameCol, "firstName",
+                middleNameCol, "patronymic",
+                birthdayCol, "birthday",
+                icdCol, "icd"
+        ), (property, ascending) -> {
+            sort = property;
+            this.ascending = ascending;
+            patients.refresh();
+        });
         tableView.setOnMouseClicked(mouseEvent -> {
             if (mouseEvent.getButton().equals(MouseButton.PRIMARY)) {
                 onMouseClickedTableView(mouseEvent);
@@ -94,27 +150,25 @@ public class PatientsController extends AbstractWindow {
         middleNameCol.setCellValueFactory(new PropertyValueFactory<>("patronymic"));
         birthdayCol.setCellValueFactory(param -> {
             Patient patient = param.getValue();
-            return new SimpleObjectProperty<>(dateFormatter.format(patient.getBirthday().getTime()));
+            return new SimpleObjectProperty<>(patient == null ? null : dateFormatter.format(patient.getBirthday().getTime()));
         });
         setIcdComboBox();
+        patients.refresh();
         transitionGUI.show();
     }
 
     private void setIcdComboBox() {
         ObservableList<Icd> icds = FXCollections.observableArrayList();
-        try {
-            List<Icd> icdList = icdService.findAll();
-            icds.add(null);
-            icds.addAll(icdList);
-        } catch (Exception e) {
-            new AlertError("Error load icds: " + e.getMessage());
-        }
+        icds.add(null);
+        load(icdService.findAllAsync(), icds::addAll, "Error load icds");
         icdCol.setCellFactory(ComboBoxTableCell.forTableColumn(converter, icds));
         icdCol.setCellValueFactory(param -> {
             Patient patient = param.getValue();
-            Icd icd = patient.getIcd();
+            Icd icd = patient == null ? null : patient.getIcd();
             return new SimpleObjectProperty<>(icd);
         });
+        icdFilter.setConverter(converter);
+        icdFilter.setItems(icds);
         icdCol.setOnEditCommit((TableColumn.CellEditEvent<Patient, Icd> event) -> {
             Patient patient = event
                     .getTableView()
@@ -137,6 +191,51 @@ public class PatientsController extends AbstractWindow {
         });
     }
 
+    /**
+     * Search as you type: query is sent when typing pauses.
+     * Results are ordered by relevance.
+     */
+    public void onSearchChange() {
+        String name = nameFilter.getText().trim();
+
+        if (name.equals(filter.getName() == null ? "" : filter.getName())) {
+            searchDelay.stop();
+            return;
+        }
+
+        searchDelay.setOnFinished(event -> onFilterChange());
+        searchDelay.playFromStart();
+    }
+
+    public void onFilterChange() {
+        searchDelay.stop();
+        String name = nameFilter.getText().trim();
+        Icd icd = icdFilter.getValue();
+        filter = PatientFilter.builder()
+                .name(name.isEmpty() ? null : name)
+                .icdId(icd == null ? null : icd.getId())
+                .build();
+        LOGGER.info("Set filter of patients (name='{}', icd={})", name, icd == null ? null : icd.getId());
+        resetSelection();
+        patients.refresh();
+    }
+
+    @Override
+    public void closeWindow() {
+        super.closeWindow();
+        searchDelay.stop();
+        if (patients != null) {
+            patients.cancel();
+        }
+    }
+
+    private void resetSelection() {
+        patient = null;
+        commentField.setText("");
+        deleteButton.setDisable(true);
+        commentField.setDisable(true);
+    }
+
     @Override
     public String getTitleWindow() {
         return "";
@@ -147,6 +246,9 @@ public class PatientsController extends AbstractWindow {
     }
 
     public void onMouseClickedTableView(MouseEvent mouseEvent) {
+        if (tableView.getFocusModel().getFocusedItem() == null)
+            return;
+
         if (patient != tableView.getFocusModel().getFocusedItem()) {
             patient = tableView.getFocusModel().getFocusedItem();
             commentField.setText(patient.getComment());
@@ -193,8 +295,8 @@ public class PatientsController extends AbstractWindow {
         LOGGER.info("Delete button push");
         try {
             patientService.delete(patient);
-            tableView.getItems().remove(patient);
-            commentField.setText("");
+            resetSelection();
+            patients.refresh();
         } catch (Exception e) {
             LOGGER.error("Error delete patient(number={})", patient.getId(), e);
             new AlertError("Error delete patient record: " + e.getMessage());
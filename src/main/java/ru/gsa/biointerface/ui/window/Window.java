@@ -15,4 +15,10 @@ public interface Window extends Initializable {
     String getTitleWindow();
 
     void resizeWindow(double height, double width);
+
+    /**
+     * Called when the window is replaced by another one (loads in progress are cancelled).
+     */
+    default void closeWindow() {
+    }
 }
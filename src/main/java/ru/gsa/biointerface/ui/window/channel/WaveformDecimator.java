@@ -0,0 +1,115 @@
+package ru.gsa.biointerface.ui.window.channel;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Converts points of waveform to coordinates of polyline for {@link WaveformView}.
+ * If the window is wider than the canvas, every pixel column gets min and max of its points.
+ * Arrays of coordinates are reused between calls.
+ */
+public final class WaveformDecimator {
+    private double[] xPoints = new double[0];
+    private double[] yPoints = new double[0];
+    private int minValue = -2048;
+    private int maxValue = 2047;
+
+    public void setValueRange(int minValue, int maxValue) {
+        if (minValue >= maxValue)
+            throw new IllegalArgumentException("MinValue >= maxValue");
+
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Point i covers samples [first + i * pointSize, first + (i + 1) * pointSize).
+     *
+     * @param lo        - minimums of points
+     * @param hi        - maximums of points (the same array as lo for plain samples)
+     * @param amount    - amount of points
+     * @param pointSize - amount of samples in point
+     * @param first     - index of the first sample of the first point
+     * @param start     - index of the first sample of window
+     * @param length    - amount of samples in window
+     * @param width     - width of canvas in pixels
+     * @param height    - height of canvas in pixels
+     * @return - amount of coordinates in {@link #getXPoints()} and {@link #getYPoints()}
+     */
+    public int build(int[] lo, int[] hi, int amount, int pointSize, int first,
+                     int start, int length, int width, double height) {
+        if (width <= 0 || height <= 0 || length <= 0)
+            return 0;
+
+        // visible points
+        int from = Math.max((int) Math.floorDiv((long) start - first, pointSize), 0);
+        int to = Math.min((int) Math.floorDiv((long) start + length - first + pointSize - 1, pointSize), amount);
+
+        if (to <= from)
+            return 0;
+
+        int visible = to - from;
+        boolean single = lo == hi;
+        int points = visible <= width ? (single ? visible : 2 * visible) : 2 * width;
+        if (xPoints.length < points) {
+            xPoints = new double[points];
+            yPoints = new double[points];
+        }
+
+        int count = 0;
+        double scaleY = height / (maxValue - minValue);
+
+        if (visible <= width) {
+            double stepX = length > 1 ? (double) (width - 1) / (length - 1) : 0;
+            double center = (pointSize - 1) / 2.0;
+
+            for (int i = from; i < to; i++) {
+                double x = ((long) first + (long) i * pointSize + center - start) * stepX;
+                xPoints[count] = x;
+                yPoints[count++] = toY(hi[i], height, scaleY);
+                if (!single) {
+                    xPoints[count] = x;
+                    yPoints[count++] = toY(lo[i], height, scaleY);
+                }
+            }
+        } else {
+            // min/max decimation: every pixel column covers length/width samples
+            for (int x = 0; x < width; x++) {
+                long firstInColumn = start + (long) x * length / width - first;
+                long lastInColumn = start + (long) (x + 1) * length / width - first;
+                int firstPoint = (int) Math.max(Math.floorDiv(firstInColumn, pointSize), from);
+                int lastPoint = (int) Math.min(Math.floorDiv(lastInColumn + pointSize - 1, pointSize), to);
+
+                if (lastPoint <= from)
+                    continue;
+                if (firstPoint >= to)
+                    break;
+                lastPoint = Math.max(lastPoint, firstPoint + 1);
+
+                int min = lo[firstPoint];
+                int max = hi[firstPoint];
+                for (int i = firstPoint + 1; i < lastPoint; i++) {
+                    if (lo[i] < min) min = lo[i];
+                    if (hi[i] > max) max = hi[i];
+                }
+
+                xPoints[count] = x + 0.5;
+                yPoints[count++] = toY(max, height, scaleY);
+                xPoints[count] = x + 0.5;
+                yPoints[count++] = toY(min, height, scaleY);
+            }
+        }
+
+        return count;
+    }
+
+    public double[] getXPoints() {
+        return xPoints;
+    }
+
+    public double[] getYPoints() {
+        return yPoints;
+    }
+
+    private double toY(int value, double height, double scaleY) {
+        return height - (value - minValue) * scaleY;
+    }
+}
@@ -0,0 +1,256 @@
+package ru.gsa.biointerface.ui.window.channel;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import ru.gsa.biointerface.host.cash.IntRingBuffer;
+import ru.gsa.biointerface.metrics.Histogram;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ * Waveform of one channel drawn on a {@link Canvas}.
+ * <p>
+ * Source of samples is either an array (window is set by {@link #setWindow}),
+ * an envelope of min/max points covering several samples each (recorded examination,
+ * see {@link #setEnvelope}) or an {@link IntRingBuffer} (live data, the last samples are shown).
+ * If the window is wider than the canvas, every pixel column shows min and max
+ * of its samples (see {@link WaveformDecimator}).
+ * Redrawing is done at most once per pulse by {@link AnimationTimer}
+ * and only if something has changed.
+ * Duration of redraw and, for live data, time from arrival of the newest block of samples
+ * to its drawing are recorded in {@link MetricsRegistry} ("ui.render", "ui.renderLatency").
+ */
+public class WaveformView extends Pane {
+    private static final Color GRID_COLOR = Color.web("#e0e0e0");
+    private static final Color LINE_COLOR = Color.web("#f3622d");
+    private static final int GRID_COLUMNS = 8;
+    private static final int GRID_ROWS = 4;
+    private static final Histogram RENDER = MetricsRegistry.getInstance().histogram("ui.render");
+    private static final Histogram RENDER_LATENCY = MetricsRegistry.getInstance().histogram("ui.renderLatency");
+    private final Canvas canvas = new Canvas();
+    private final WaveformDecimator decimator = new WaveformDecimator();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            redraw();
+        }
+    };
+    private int[] minValues = new int[0];
+    private int[] maxValues = new int[0];
+    private int amount = 0;
+    private int pointSize = 1;
+    private int firstSample = 0;
+    private IntRingBuffer ringBuffer;
+    private int[] view = new int[0];
+    private int start = 0;
+    private int length = 512;
+    private long drawnTotal = -1;
+    private boolean dirty = true;
+
+    public WaveformView() {
+        getChildren().add(canvas);
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene != null) {
+                timer.start();
+            } else {
+                timer.stop();
+            }
+        });
+    }
+
+    /**
+     * Shows samples of array.
+     *
+     * @param samples - samples (not copied)
+     */
+    public void setSamples(int[] samples) {
+        if (samples == null)
+            throw new NullPointerException("Samples is null");
+
+        setPoints(samples, samples, samples.length, 1, 0);
+    }
+
+    /**
+     * Shows min/max envelope. Point i covers samples
+     * [firstSample + i * pointSize, firstSample + (i + 1) * pointSize).
+     *
+     * @param min         - minimums of points (not copied)
+     * @param max         - maximums of points (not copied)
+     * @param amount      - amount of points
+     * @param pointSize   - amount of samples in point
+     * @param firstSample - index of the first sample of the first point
+     */
+    public void setEnvelope(int[] min, int[] max, int amount, int pointSize, int firstSample) {
+        if (min == null || max == null)
+            throw new NullPointerException("Values is null");
+        if (amount < 0 || amount > min.length || amount > max.length)
+            throw new IllegalArgumentException("Amount out of range");
+        if (pointSize <= 0)
+            throw new IllegalArgumentException("PointSize <= 0");
+
+        setPoints(min, max, amount, pointSize, firstSample);
+    }
+
+    private void setPoints(int[] min, int[] max, int amount, int pointSize, int firstSample) {
+        this.minValues = min;
+        this.maxValues = max;
+        this.amount = amount;
+        this.pointSize = pointSize;
+        this.firstSample = firstSample;
+        this.ringBuffer = null;
+        dirty = true;
+    }
+
+    /**
+     * Shows the last samples of ring buffer.
+     *
+     * @param ringBuffer - live samples
+     */
+    public void setRingBuffer(IntRingBuffer ringBuffer) {
+        if (ringBuffer == null)
+            throw new NullPointerException("RingBuffer is null");
+
+        this.ringBuffer = ringBuffer;
+        this.minValues = new int[0];
+        this.maxValues = minValues;
+        this.amount = 0;
+        drawnTotal = -1;
+        dirty = true;
+    }
+
+    /**
+     * @param start  - index of the first shown sample (ignored for ring buffer)
+     * @param length - amount of shown samples
+     */
+    public void setWindow(int start, int length) {
+        if (start < 0)
+            throw new IllegalArgumentException("Start < 0");
+        if (length <= 0)
+            throw new IllegalArgumentException("Length <= 0");
+
+        if (this.start != start || this.length != length) {
+            this.start = start;
+            this.length = length;
+            dirty = true;
+        }
+    }
+
+    public void setValueRange(int minValue, int maxValue) {
+        if (minValue >= maxValue)
+            throw new IllegalArgumentException("MinValue >= maxValue");
+
+        decimator.setValueRange(minValue, maxValue);
+        dirty = true;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            dirty = true;
+        }
+    }
+
+    private void redraw() {
+        IntRingBuffer ringBuffer = this.ringBuffer;
+        long addNanos = 0;
+
+        if (ringBuffer != null) {
+            long total = ringBuffer.getTotal();
+            if (total != drawnTotal) {
+                drawnTotal = total;
+                addNanos = ringBuffer.getLastAddNanos();
+                dirty = true;
+            }
+        }
+
+        if (!dirty)
+            return;
+
+        dirty = false;
+        long start = System.nanoTime();
+        draw(ringBuffer);
+        long end = System.nanoTime();
+        RENDER.record(end - start);
+
+        if (addNanos != 0) {
+            RENDER_LATENCY.record(end - addNanos);
+        }
+    }
+
+    private void draw(IntRingBuffer ringBuffer) {
+        int width = (int) canvas.getWidth();
+        double height = canvas.getHeight();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), height);
+
+        if (width <= 0 || height <= 0)
+            return;
+
+        drawGrid(gc, width, height);
+
+        int[] lo;
+        int[] hi;
+        int amount;
+        int pointSize;
+        int first;
+        int start;
+
+        if (ringBuffer != null) {
+            if (view.length < length) {
+                view = new int[length];
+            }
+            amount = ringBuffer.copyLast(view, length);
+            lo = view;
+            hi = view;
+            pointSize = 1;
+            first = length - amount;
+            start = 0;
+        } else {
+            lo = minValues;
+            hi = maxValues;
+            amount = this.amount;
+            pointSize = this.pointSize;
+            first = firstSample;
+            start = this.start;
+        }
+
+        int count = decimator.build(lo, hi, amount, pointSize, first, start, length, width, height);
+
+        if (count == 0)
+            return;
+
+        gc.setStroke(LINE_COLOR);
+        gc.setLineWidth(1);
+        gc.strokePolyline(decimator.getXPoints(), decimator.getYPoints(), count);
+    }
+
+    private void drawGrid(GraphicsContext gc, int width, double height) {
+        gc.setStroke(GRID_COLOR);
+        gc.setLineWidth(1);
+
+        for (int i = 1; i < GRID_COLUMNS; i++) {
+            double x = Math.floor((double) width * i / GRID_COLUMNS) + 0.5;
+            gc.strokeLine(x, 0, x, height);
+        }
+        for (int i = 1; i < GRID_ROWS; i++) {
+            double y = Math.floor(height * i / GRID_ROWS) + 0.5;
+            gc.strokeLine(0, y, width, y);
+        }
+    }
+}
@@ -1,30 +1,37 @@
 package ru.gsa.biointerface.ui.window.examination;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.text.Text;
 import ru.gsa.biointerface.domain.entity.Channel;
 import ru.gsa.biointerface.domain.entity.ChannelName;
-import ru.gsa.biointerface.domain.entity.Sample;
+import ru.gsa.biointerface.service.SampleOverview;
+import ru.gsa.biointerface.service.SampleRange;
+import ru.gsa.biointerface.service.SampleService;
+import ru.gsa.biointerface.ui.window.AlertError;
 import ru.gsa.biointerface.ui.window.channel.ContentForWindow;
+import ru.gsa.biointerface.ui.window.channel.WaveformView;
 
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
  */
 public final class ChannelController implements ContentForWindow {
-    private final ArrayList<XYChart.Data<Integer, Integer>> samples = new ArrayList<>();
-    private final ObservableList<XYChart.Data<Integer, Integer>> dataLineGraphic = FXCollections.observableArrayList();
+    private static final int DEFAULT_WIDTH = 1024;
+    private SampleService sampleService;
+    private SampleOverview overview;
+    private SampleRange range;
+    private SampleRange shown;
+    private CompletableFuture<SampleRange> pending;
+    private int pendingLevel;
+    private int pendingFrom;
+    private int pendingTo;
+    private int lengthGraphic = 0;
     private Channel channel;
     private int start = 0;
     private int capacity = 0;
@@ -34,29 +41,19 @@ public final class ChannelController implements ContentForWindow {
     @FXML
     private Text nameText;
     @FXML
-    private NumberAxis axisX;
-    @FXML
-    private NumberAxis axisY;
-    @FXML
-    private LineChart<Integer, Integer> graphic;
+    private WaveformView graphic;
 
     public ChannelController() {
     }
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        int min = -2048,
-                max = 2047,
-                tickUnit = max / 4,
-                tickCount = (max - min) / tickUnit;
-
-        axisY.setTickUnit(tickUnit);
-        axisY.setMinorTickCount(tickCount);
-        axisY.setUpperBound(max);
-        axisY.setLowerBound(min);
-        graphic.getData().add(new XYChart.Series<>(dataLineGraphic));
+        graphic.setValueRange(-2048, 2047);
     }
 
+    /**
+     * Samples are shown after {@link #setOverview}.
+     */
     public void setGraph(Channel channel) {
         if (channel == null)
             throw new NullPointerException("channel is null");
@@ -68,15 +65,30 @@ public final class ChannelController implements ContentForWindow {
             nameText.setText("Channel " + (channel.getId().getNumber() + 1));
         }
 
-        for (Sample sample : channel.getSamples()) {
-            samples.add(new XYChart.Data<>(sample.getId().getId(), sample.getValue()));
+        cancel();
+        this.channel = channel;
+        lengthGraphic = 0;
+        overview = null;
+        range = null;
+
+        try {
+            sampleService = SampleService.getInstance();
+        } catch (Exception e) {
+            new AlertError("Error load samples of channel: " + e.getMessage());
         }
-        Platform.runLater(() -> {
-            dataLineGraphic.clear();
-            dataLineGraphic.addAll(samples);
-        });
+    }
 
-        this.channel = channel;
+    /**
+     * Shows the whole channel on a coarse level, the visible window
+     * is then read in full resolution in background.
+     */
+    public void setOverview(SampleOverview overview) {
+        if (overview == null)
+            throw new NullPointerException("overview is null");
+
+        this.overview = overview;
+        lengthGraphic = overview.getLength();
+        setAxisXSize();
     }
 
     public String getName() {
@@ -84,7 +96,16 @@ public final class ChannelController implements ContentForWindow {
     }
 
     public int getLengthGraphic() {
-        return samples.size();
+        return lengthGraphic;
+    }
+
+    /**
+     * @return - width of graphic in pixels (default width before layout)
+     */
+    public int getPixels() {
+        int width = (int) graphic.getWidth();
+
+        return width > 0 ? width : DEFAULT_WIDTH;
     }
 
     public void setStart(int start) {
@@ -102,9 +123,100 @@ public final class ChannelController implements ContentForWindow {
     }
 
     private void setAxisXSize() {
-        axisX.setTickUnit(capacity >> 3);
-        axisX.setLowerBound(start);
-        axisX.setUpperBound(start + capacity - 1);
+        if (capacity > 0) {
+            loadRange();
+            graphic.setWindow(start, capacity);
+        }
+    }
+
+    /**
+     * Drops the range which is being read (window is closed).
+     */
+    public void cancel() {
+        CompletableFuture<SampleRange> pending = this.pending;
+        this.pending = null;
+
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    /**
+     * Shows points of the level that covers the visible pixels.
+     * While the range is read in background, the overview is shown.
+     * The range is read with a margin of one window on each side,
+     * so scrolling nearby does not touch the database.
+     */
+    private void loadRange() {
+        if (sampleService == null || overview == null)
+            return;
+
+        SampleRange coarse = overview.getRange();
+        int level = SampleService.chooseLevel(capacity, getPixels());
+
+        if (level >= coarse.getLevel()) {
+            cancel();
+            show(coarse);
+            return;
+        }
+
+        int end = Math.min(start + capacity, lengthGraphic);
+
+        if (covers(range, level, Math.max(start - capacity / 2, 0), Math.min(end + capacity / 2, lengthGraphic))) {
+            show(range);
+            return;
+        }
+
+        if (range != null && covers(range, range.getLevel(), start, end)) {
+            show(range);
+        } else {
+            show(coarse);
+        }
+
+        int from = Math.max(start - capacity, 0);
+        int to = Math.max(Math.min(start + 2 * capacity, lengthGraphic), from);
+
+        if (pending != null && pendingLevel == level && pendingFrom <= start && pendingTo >= end)
+            return;
+
+        cancel();
+        CompletableFuture<SampleRange> future = sampleService.findRangeAsync(channel, level, from, to);
+        pending = future;
+        pendingLevel = level;
+        pendingFrom = from;
+        pendingTo = to;
+        future.whenComplete((result, e) -> Platform.runLater(() -> {
+            if (pending != future)
+                return;
+
+            pending = null;
+            if (e != null) {
+                new AlertError("Error load samples of channel: " + e.getMessage());
+                return;
+            }
+
+            range = result;
+            loadRange();
+        }));
+    }
+
+    private static boolean covers(SampleRange range, int level, int fromIndex, int toIndex) {
+        return range != null
+                && range.getLevel() == level
+                && range.getFirstSample() <= fromIndex
+                && range.getFirstSample() + range.getAmount() * range.getPointSize() >= toIndex;
+    }
+
+    private void show(SampleRange range) {
+        if (shown != range) {
+            shown = range;
+            graphic.setEnvelope(
+                    range.getMin(),
+                    range.getMax(),
+                    range.getAmount(),
+                    range.getPointSize(),
+                    range.getFirstSample());
+        }
     }
 
     @Override
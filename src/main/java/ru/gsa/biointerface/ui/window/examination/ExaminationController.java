@@ -1,25 +1,34 @@
 package ru.gsa.biointerface.ui.window.examination;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.ScrollBar;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import ru.gsa.biointerface.domain.entity.Channel;
 import ru.gsa.biointerface.domain.entity.Examination;
 import ru.gsa.biointerface.domain.entity.Icd;
 import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.metrics.Histogram;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+import ru.gsa.biointerface.service.EdfExporter;
 import ru.gsa.biointerface.service.ExaminationService;
+import ru.gsa.biointerface.service.SampleService;
 import ru.gsa.biointerface.ui.window.AbstractWindow;
 import ru.gsa.biointerface.ui.window.AlertError;
 import ru.gsa.biointerface.ui.window.WindowWithProperty;
 import ru.gsa.biointerface.ui.window.channel.ChannelCheckBox;
 import ru.gsa.biointerface.ui.window.channel.CompositeNode;
 
+import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,7 +38,9 @@ import java.util.Objects;
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 07.11.2019.
  */
 public class ExaminationController extends AbstractWindow implements WindowWithProperty<Examination> {
+    private static final Histogram OPEN = MetricsRegistry.getInstance().histogram("ui.examinationOpen");
     private final ExaminationService examinationService;
+    private final SampleService sampleService;
     private final SimpleDateFormat dateFormatter = new SimpleDateFormat("dd.MM.yyyy");
     private final SimpleDateFormat dateTimeFormatter = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss");
     private final List<CompositeNode<AnchorPane, ChannelController>> channelGUIs = new LinkedList<>();
@@ -38,6 +49,8 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
     private double graphSize = 0;
     private double graphCapacity = 0;
     private double graphStart = 0;
+    private long opened = 0;
+    private volatile EdfExporter exporter;
 
     @FXML
     private AnchorPane anchorPaneControl;
@@ -67,9 +80,12 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
     private VBox channelVBox;
     @FXML
     private ScrollBar timeScrollBar;
+    @FXML
+    private Button exportButton;
 
     public ExaminationController() throws Exception {
         examinationService = ExaminationService.getInstance();
+        sampleService = SampleService.getInstance();
     }
 
     public WindowWithProperty<Examination> setProperty(Examination examination) {
@@ -96,7 +112,24 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
                     "");
         }
 
-        examination = examinationService.loadWithGraphsById(examination.getId());
+        showHeader();
+        timeScrollBar.setMin(0);
+        timeScrollBar.setValue(0);
+        timeScrollBar.setBlockIncrement(1);
+        channelVBox.getChildren().setAll(new Label("loading..."));
+        opened = System.nanoTime();
+        load(examinationService.findWithChannelsByIdAsync(examination.getId()), loaded -> {
+            examination = loaded;
+            showHeader();
+            buildingChannelsGUIs();
+        }, "Error load examination");
+        transitionGUI.show();
+    }
+
+    /**
+     * Shows examination and patient (before channels are loaded).
+     */
+    private void showHeader() {
         idDeviceText.setText(String.valueOf(examination.getDevice().getId()));
         dateTimeText.setText(dateTimeFormatter.format(examination.getStarttime()));
         Patient patient = examination.getPatient();
@@ -112,29 +145,30 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
         } else {
             icdText.setText("-");
         }
-
-        timeScrollBar.setMin(0);
-        timeScrollBar.setValue(0);
-        timeScrollBar.setBlockIncrement(1);
-        buildingChannelsGUIs();
-        transitionGUI.show();
     }
 
+    /**
+     * Shows channels at once, samples of every channel are read in background:
+     * overview of the whole channel first, then the visible window (see {@link ChannelController}).
+     */
     public void buildingChannelsGUIs() {
-        List<Channel> channels = examination.getChannels();
         graphCapacity = allSliderZoom.getValue();
 
-        for (Channel channel : channels) {
+        for (Channel channel : examination.getChannels()) {
             CompositeNode<AnchorPane, ChannelController> node =
                     new CompositeNode<>(new FXMLLoader(resourceSource.getResource("fxml/Channel.fxml")));
             ChannelController channelController = node.getController();
             channelController.setGraph(channel);
             channelController.setStart(0);
             channelController.setCapacity((int) graphCapacity);
-
-            if (graphSize > channelController.getLengthGraphic() || graphSize == 0) {
-                graphSize = channelController.getLengthGraphic();
-            }
+            load(sampleService.openForViewingAsync(channel, channelController.getPixels()), overview -> {
+                if (opened != 0) {
+                    OPEN.record(System.nanoTime() - opened);
+                    opened = 0;
+                }
+                channelController.setOverview(overview);
+                setGraphSize(overview.getLength());
+            }, "Error load samples of channel");
 
             channelGUIs.add(node);
             ChannelCheckBox checkBox = new ChannelCheckBox(channel.getId().getNumber());
@@ -146,20 +180,16 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
             checkBoxesOfChannel.add(checkBox);
         }
 
-        allSliderZoom.setMax(graphSize);
-        timeScrollBar.setMax(graphSize - graphCapacity);
-        timeScrollBar.setVisibleAmount(timeScrollBar.getMax() * graphCapacity / graphSize);
         allSliderZoom.valueProperty().addListener((ov, old_val, new_val) -> {
             graphCapacity = new_val.intValue();
             graphStart = timeScrollBar.getValue();
 
             if (graphStart > graphSize - graphCapacity) {
-                graphStart = graphSize - graphCapacity;
+                graphStart = Math.max(graphSize - graphCapacity, 0);
                 timeScrollBar.setValue(graphStart);
             }
 
-            timeScrollBar.setMax(graphSize - graphCapacity);
-            timeScrollBar.setVisibleAmount(timeScrollBar.getMax() * graphCapacity / graphSize);
+            updateScrollBar();
             channelGUIs.forEach(o -> {
                 o.getController().setStart((int) graphStart);
                 o.getController().setCapacity((int) graphCapacity);
@@ -172,6 +202,28 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
         drawChannelsGUI();
     }
 
+    /**
+     * Scrolling is limited by the shortest channel.
+     *
+     * @param length - amount of samples of the opened channel
+     */
+    private void setGraphSize(int length) {
+        if (graphSize > length || graphSize == 0) {
+            graphSize = length;
+        }
+
+        allSliderZoom.setMax(graphSize);
+        updateScrollBar();
+    }
+
+    private void updateScrollBar() {
+        if (graphSize == 0)
+            return;
+
+        timeScrollBar.setMax(graphSize - graphCapacity);
+        timeScrollBar.setVisibleAmount(timeScrollBar.getMax() * graphCapacity / graphSize);
+    }
+
     public void drawChannelsGUI() {
         channelVBox.getChildren().clear();
         channelGUIs.forEach(n -> {
@@ -185,6 +237,67 @@ public class ExaminationController extends AbstractWindow implements WindowWithP
         resizeWindow(anchorPaneRoot.getHeight(), anchorPaneRoot.getWidth());
     }
 
+    public void onExport() {
+        EdfExporter exporter = this.exporter;
+
+        if (exporter != null) {
+            exporter.cancel();
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export examination to EDF+");
+        fileChooser.setInitialFileName("examination_" + examination.getId() + ".edf");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("EDF+", "*.edf"));
+        File file = fileChooser.showSaveDialog(anchorPaneRoot.getScene().getWindow());
+
+        if (file == null)
+            return;
+
+        try {
+            exporter = new EdfExporter();
+        } catch (Exception e) {
+            new AlertError("Error export examination: " + e.getMessage());
+            return;
+        }
+
+        this.exporter = exporter;
+        exportButton.setText("cancel");
+        EdfExporter finalExporter = exporter;
+        Thread thread = new Thread(() -> {
+            String error = null;
+
+            try {
+                finalExporter.export(examination, file.toPath(), (written, total) ->
+                        Platform.runLater(() -> exportButton.setText(100 * written / total + "%")));
+            } catch (Exception e) {
+                if (!finalExporter.isCancelled())
+                    error = e.getMessage();
+            }
+
+            String finalError = error;
+            Platform.runLater(() -> {
+                this.exporter = null;
+                exportButton.setText("EDF+");
+                if (finalError != null)
+                    new AlertError("Error export examination: " + finalError);
+            });
+        });
+        thread.setDaemon(true);
+        thread.setName("EDF export thread");
+        thread.start();
+    }
+
+    @Override
+    public void closeWindow() {
+        super.closeWindow();
+        channelGUIs.forEach(o -> o.getController().cancel());
+        EdfExporter exporter = this.exporter;
+        if (exporter != null) {
+            exporter.cancel();
+        }
+    }
+
     public void onBack() {
         try {
             //noinspection unchecked
@@ -1,33 +1,32 @@
 package ru.gsa.biointerface.ui.window.metering;
 
-import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
 import javafx.scene.control.ComboBox;
 import javafx.scene.layout.AnchorPane;
 import javafx.util.StringConverter;
 import ru.gsa.biointerface.domain.entity.ChannelName;
 import ru.gsa.biointerface.host.HostHandler;
 import ru.gsa.biointerface.host.cash.DataListener;
+import ru.gsa.biointerface.host.cash.IntRingBuffer;
 import ru.gsa.biointerface.service.ChannelNameService;
 import ru.gsa.biointerface.ui.window.AlertError;
 import ru.gsa.biointerface.ui.window.channel.ChannelCheckBox;
 import ru.gsa.biointerface.ui.window.channel.ContentForWindow;
+import ru.gsa.biointerface.ui.window.channel.WaveformView;
 
 import java.net.URL;
-import java.util.*;
+import java.util.Objects;
+import java.util.ResourceBundle;
 
 /**
  * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 10.09.2021.
  */
 public final class ChannelForMeteringController implements DataListener, ContentForWindow {
     private final ChannelNameService channelNameService;
-    private final ObservableList<XYChart.Data<Integer, Integer>> dataLineGraphic = FXCollections.observableArrayList();
-    private final List<Integer> samples = new ArrayList<>();
+    public static final int HISTORY_CAPACITY = 4096;
+    private final IntRingBuffer samples = new IntRingBuffer(HISTORY_CAPACITY);
     private ChannelName channelName;
     private HostHandler hostHandler;
     private ChannelCheckBox checkBox;
@@ -48,11 +47,7 @@ public final class ChannelForMeteringController implements DataListener, Content
     @FXML
     private ComboBox<ChannelName> nameComboBox;
     @FXML
-    private NumberAxis axisX;
-    @FXML
-    private NumberAxis axisY;
-    @FXML
-    private LineChart<Integer, Integer> graphic;
+    private WaveformView graphic;
 
     public ChannelForMeteringController() throws Exception {
         channelNameService = ChannelNameService.getInstance();
@@ -68,15 +63,8 @@ public final class ChannelForMeteringController implements DataListener, Content
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        int min = -2048,
-                max = 2047,
-                tickUnit = max / 4,
-                tickCount = (max - min) / tickUnit;
-        axisY.setTickUnit(tickUnit);
-        axisY.setMinorTickCount(tickCount);
-        axisY.setUpperBound(max);
-        axisY.setLowerBound(min);
-        graphic.getData().add(new XYChart.Series<>(dataLineGraphic));
+        graphic.setValueRange(-2048, 2047);
+        graphic.setRingBuffer(samples);
         nameComboBox.setConverter(converter);
     }
 
@@ -122,54 +110,18 @@ public final class ChannelForMeteringController implements DataListener, Content
     }
 
     @Override
-    public void addSamples(Deque<Integer> data) {
-        samples.addAll(data);
-        Platform.runLater(this::filling);
+    public void addSamples(int[] buf, int offset, int len) {
+        // the view polls the buffer on every pulse, no need to notify FX thread
+        samples.add(buf, offset, len);
     }
 
     public void setCapacity(int capacity) {
         if (capacity < 128)
             throw new IllegalArgumentException("Capacity must be greater than 127");
+        if (capacity > HISTORY_CAPACITY)
+            throw new IllegalArgumentException("Capacity must be less than " + (HISTORY_CAPACITY + 1));
 
-        if (dataLineGraphic.size() > capacity) {
-            Platform.runLater(() -> {
-                dataLineGraphic.remove(capacity, dataLineGraphic.size());
-                filling();
-            });
-        } else if (dataLineGraphic.size() < capacity) {
-            Platform.runLater(() -> {
-                while (dataLineGraphic.size() < capacity) {
-                    dataLineGraphic.add(new XYChart.Data<>(dataLineGraphic.size(), 0));
-                }
-                filling();
-            });
-        }
-
-        setAxisXSize(capacity);
-    }
-
-    private void filling() {
-        if (samples.size() >= dataLineGraphic.size()) {
-            for (int i = 0; i < dataLineGraphic.size(); i++) {
-                int value = samples.get(samples.size() - dataLineGraphic.size() + i);
-                dataLineGraphic.get(i).setYValue(value);
-            }
-        } else {
-            for (int i = 0, j = 0; i < dataLineGraphic.size(); i++) {
-                if (i < dataLineGraphic.size() - samples.size()) {
-                    dataLineGraphic.get(i).setYValue(0);
-                } else {
-                    int value = samples.get(j++);
-                    dataLineGraphic.get(i).setYValue(value);
-                }
-            }
-        }
-    }
-
-    private void setAxisXSize(int capacity) {
-        axisX.setTickUnit(capacity >> 3);
-        axisX.setLowerBound(0);
-        axisX.setUpperBound(capacity - 1);
+        graphic.setWindow(0, capacity);
     }
 
     public void setEnable(boolean enable) {
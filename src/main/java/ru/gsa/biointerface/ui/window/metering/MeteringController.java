@@ -1,5 +1,7 @@
 package ru.gsa.biointerface.ui.window.metering;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -7,9 +9,11 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +22,8 @@ import ru.gsa.biointerface.domain.entity.Icd;
 import ru.gsa.biointerface.domain.entity.Patient;
 import ru.gsa.biointerface.host.ConnectionToDeviceHandlerFactory;
 import ru.gsa.biointerface.host.HostHandler;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+import ru.gsa.biointerface.metrics.MetricsSnapshot;
 import ru.gsa.biointerface.ui.window.AbstractWindow;
 import ru.gsa.biointerface.ui.window.AlertError;
 import ru.gsa.biointerface.ui.window.WindowWithProperty;
@@ -53,8 +59,11 @@ public class MeteringController extends AbstractWindow implements WindowWithProp
             return null;
         }
     };
+    private final Timeline diagnosticsTimeline = new Timeline(
+            new KeyFrame(Duration.seconds(1), event -> updateDiagnostics()));
     private HostHandler hostHandler;
     private Patient patient;
+    private MetricsSnapshot diagnosticsSnapshot;
     @FXML
     private AnchorPane anchorPaneControl;
     @FXML
@@ -87,6 +96,10 @@ public class MeteringController extends AbstractWindow implements WindowWithProp
     private VBox checkBoxOfChannelVBox;
     @FXML
     private Button recordingButton;
+    @FXML
+    private ToggleButton diagnosticsButton;
+    @FXML
+    private TextArea diagnosticsArea;
 
     public MeteringController() {
     }
@@ -150,6 +163,7 @@ public class MeteringController extends AbstractWindow implements WindowWithProp
     }
 
     public void buttonScanningSerialPortsPush() {
+        connectionToDeviceHandlerFactory.release(hostHandler);
         hostHandler = null;
         clearInterface();
         controlInterface(false);
@@ -289,16 +303,35 @@ public class MeteringController extends AbstractWindow implements WindowWithProp
         controlInterface(true);
     }
 
+    public void onDiagnosticsButtonPush() {
+        boolean show = diagnosticsButton.isSelected();
+
+        diagnosticsArea.setVisible(show);
+        if (show) {
+            diagnosticsSnapshot = null;
+            updateDiagnostics();
+            diagnosticsTimeline.setCycleCount(Timeline.INDEFINITE);
+            diagnosticsTimeline.play();
+        } else {
+            diagnosticsTimeline.stop();
+        }
+    }
+
+    /**
+     * Shows metrics of ingest with rates for the last second.
+     */
+    private void updateDiagnostics() {
+        MetricsSnapshot snapshot = MetricsRegistry.getInstance().snapshot();
+
+        diagnosticsArea.setText(snapshot.format(diagnosticsSnapshot));
+        diagnosticsSnapshot = snapshot;
+    }
+
     public void onBackButtonPush() {
         LOGGER.info("Back button push");
-        if (hostHandler != null && hostHandler.isConnected()) {
-            try {
-                hostHandler.disconnect();
-            } catch (Exception e) {
-                LOGGER.error("Error disconnected host", e);
-                new AlertError("Error disconnect wish device: " + e.getMessage());
-            }
-        }
+        diagnosticsTimeline.stop();
+        connectionToDeviceHandlerFactory.release(hostHandler);
+        hostHandler = null;
         try {
             //noinspection unchecked
             ((WindowWithProperty<Patient>) generateNewWindow("fxml/PatientOpen.fxml"))
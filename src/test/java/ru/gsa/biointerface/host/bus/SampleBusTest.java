@@ -0,0 +1,55 @@
+package ru.gsa.biointerface.host.bus;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class SampleBusTest {
+    private static final int FRAMES = 1000;
+
+    @Test
+    void policies() throws Exception {
+        SampleBus bus = new SampleBus("test");
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong display = new AtomicLong();
+        AtomicLong recording = new AtomicLong();
+        AtomicLong analytics = new AtomicLong();
+        AtomicLong lastDisplayed = new AtomicLong(-1);
+        SampleSubscriber displaySubscriber = (samples, amount) -> {
+            release.await();
+            display.incrementAndGet();
+            lastDisplayed.set(samples[0]);
+        };
+        SampleSubscriber recordingSubscriber = (samples, amount) -> {
+            Assertions.assertEquals(recording.getAndIncrement(), samples[0]);
+            Assertions.assertEquals(2, amount);
+        };
+        SampleSubscriber analyticsSubscriber = (samples, amount) -> analytics.incrementAndGet();
+        bus.subscribe("display", displaySubscriber, SampleBus.Policy.DROP_OLDEST, 16, 1);
+        bus.subscribe("recording", recordingSubscriber, SampleBus.Policy.BLOCK, 16, 1);
+        bus.subscribe("analytics", analyticsSubscriber, SampleBus.Policy.SAMPLE, FRAMES, 10);
+
+        bus.start();
+        int[] frame = new int[2];
+        for (int i = 0; i < FRAMES; i++) {
+            frame[0] = i;
+            frame[1] = -i;
+            bus.publish(frame, 2);
+        }
+        bus.await(recordingSubscriber);
+        Assertions.assertEquals(FRAMES, recording.get());
+        release.countDown();
+        bus.stop();
+
+        Assertions.assertEquals(0, bus.getDroppedCount(recordingSubscriber));
+        Assertions.assertEquals(FRAMES / 10, analytics.get());
+        Assertions.assertTrue(bus.getDroppedCount(displaySubscriber) > 0);
+        Assertions.assertEquals(FRAMES, display.get() + bus.getDroppedCount(displaySubscriber));
+        Assertions.assertEquals(FRAMES - 1, lastDisplayed.get());
+    }
+}
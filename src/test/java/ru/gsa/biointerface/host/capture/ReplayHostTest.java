@@ -0,0 +1,96 @@
+package ru.gsa.biointerface.host.capture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.gsa.biointerface.host.serialport.ControlMessages;
+import ru.gsa.biointerface.host.serialport.DataCollector;
+import ru.gsa.biointerface.host.serialport.SerialPortHandler;
+import ru.gsa.biointerface.host.simulator.SimulatedDevice;
+import ru.gsa.biointerface.host.simulator.SimulatorConfig;
+import ru.gsa.biointerface.host.simulator.SimulatorHost;
+
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class ReplayHostTest {
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline)
+                Assertions.fail("Timeout");
+            //noinspection BusyWait
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void captureAndReplay(@TempDir Path directory) throws Exception {
+        SimulatedDevice device = new SimulatedDevice(
+                SimulatorConfig.parse("serial=42,channels=3,rate=4000,baud=0,junk=0.0005").get(0));
+        SimulatorHost host = new SimulatorHost(device);
+        Collector captured = new Collector();
+        host.handler(new SerialPortHandler<>(captured));
+        CaptureWriter capture = new CaptureWriter(CaptureWriter.file(directory, host.getName()));
+        host.addByteListener(capture);
+
+        host.start();
+        host.sendPackage(ControlMessages.GET_CONFIG);
+        host.sendPackage(ControlMessages.START_TRANSMISSION);
+        await(() -> captured.samples > 3 * 2000);
+        host.sendPackage(ControlMessages.STOP_TRANSMISSION);
+        await(() -> !device.isTransmission());
+        await(() -> host.getReadBufferSize() == 0);
+        host.stop();
+        capture.close();
+
+        ReplayHost replay = new ReplayHost(capture.getPath(), ReplayHost.AS_FAST_AS_POSSIBLE);
+        Collector replayed = new Collector();
+        replay.handler(new SerialPortHandler<>(replayed));
+
+        replay.start();
+        await(replay::isFinished);
+        await(() -> replay.getReadBufferSize() == 0 && replayed.samples == captured.samples);
+        replay.stop();
+
+        Assertions.assertEquals(capture.getBytes(), replay.getBytesReplayed());
+        Assertions.assertEquals(0, replay.getDroppedPackets());
+        Assertions.assertEquals(42, replayed.serialNumber);
+        Assertions.assertEquals(captured.checksum, replayed.checksum);
+        Assertions.assertEquals(host.getDecoder().getResyncCount(), replay.getDecoder().getResyncCount());
+    }
+
+    private static class Collector implements DataCollector {
+        private volatile long samples = 0;
+        private volatile long checksum = 0;
+        private volatile int serialNumber;
+
+        @Override
+        public boolean isAvailableDevice() {
+            return serialNumber > 0;
+        }
+
+        @Override
+        public void setDevice(int serialNumber, int amountChannels) {
+            this.serialNumber = serialNumber;
+        }
+
+        @Override
+        public void setSamples(int[] samples, int amount) {
+            long checksum = this.checksum;
+            for (int i = 0; i < amount; i++) {
+                checksum = 31 * checksum + samples[i];
+            }
+            this.checksum = checksum;
+            this.samples += amount;
+        }
+
+        @Override
+        public void setFlagTransmission() {
+        }
+    }
+}
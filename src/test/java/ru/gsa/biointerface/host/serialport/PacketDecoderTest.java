@@ -0,0 +1,101 @@
+package ru.gsa.biointerface.host.serialport;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.gsa.biointerface.host.serialport.packets.ChannelPacket;
+import ru.gsa.biointerface.host.serialport.packets.PacketType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class PacketDecoderTest {
+    private static final int[] samples = new int[]{-2048, -1, 0, 1, 2047};
+
+    private static byte[] dataFrame() {
+        ChannelPacket packet = new ChannelPacket(samples.length);
+        packet.set(samples, new int[samples.length], samples.length);
+
+        return packet.getBytes();
+    }
+
+    @Test
+    void decodeSplitFrame() {
+        PacketDecoder decoder = new PacketDecoder();
+        Collector collector = new Collector();
+        byte[] frame = dataFrame();
+
+        for (int split = 0; split <= frame.length; split++) {
+            decoder.feed(frame, 0, split);
+            decoder.decode(collector);
+            decoder.feed(frame, split, frame.length - split);
+            decoder.decode(collector);
+        }
+
+        Assertions.assertEquals(frame.length + 1, collector.frames.size());
+        for (int[] values : collector.frames) {
+            Assertions.assertArrayEquals(samples, values);
+        }
+        Assertions.assertEquals(0, decoder.getBufferedCount());
+        Assertions.assertEquals(0, decoder.getResyncCount());
+        Assertions.assertEquals(0, decoder.getDroppedBytes());
+    }
+
+    @Test
+    void resync() {
+        PacketDecoder decoder = new PacketDecoder();
+        Collector collector = new Collector();
+        byte[] frame = dataFrame();
+        byte[] config = new byte[]{-1, -1, PacketType.CONFIG.getId(), 3, 0x34, 0x12, 8};
+
+        decoder.feed(new byte[]{1, 2, 3}, 0, 3);
+        decoder.feed(frame, 0, frame.length);
+        decoder.feed(new byte[]{0x55, -1}, 0, 2);
+        decoder.feed(config, 0, config.length);
+        decoder.decode(collector);
+
+        Assertions.assertEquals(1, collector.frames.size());
+        Assertions.assertEquals(1, collector.configs.size());
+        Assertions.assertArrayEquals(new byte[]{0x34, 0x12, 8}, collector.configs.get(0));
+        Assertions.assertEquals(2, decoder.getResyncCount());
+        Assertions.assertEquals(1, decoder.getTruncatedCount());
+        Assertions.assertEquals(0, decoder.getBufferedCount());
+    }
+
+    @Test
+    void overflow() {
+        PacketDecoder decoder = new PacketDecoder(512);
+        Collector collector = new Collector();
+        byte[] frame = dataFrame();
+
+        for (int i = 0; i < 512 / frame.length + 2; i++) {
+            decoder.feed(frame, 0, frame.length);
+        }
+        decoder.decode(collector);
+
+        Assertions.assertTrue(decoder.getTruncatedCount() > 0);
+        Assertions.assertTrue(decoder.getDroppedBytes() > 0);
+        for (int[] values : collector.frames) {
+            Assertions.assertArrayEquals(samples, values);
+        }
+    }
+
+    private static class Collector implements PacketDecoder.FrameHandler {
+        private final List<int[]> frames = new ArrayList<>();
+        private final List<byte[]> configs = new ArrayList<>();
+
+        @Override
+        public void dataFrame(int[] samples, int[] scales, int amount) {
+            int[] values = new int[amount];
+            System.arraycopy(samples, 0, values, 0, amount);
+            frames.add(values);
+        }
+
+        @Override
+        public void frame(PacketType type, byte[] msg) {
+            configs.add(msg);
+        }
+    }
+}
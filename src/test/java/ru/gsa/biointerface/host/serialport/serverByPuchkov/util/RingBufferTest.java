@@ -0,0 +1,63 @@
+package ru.gsa.biointerface.host.serialport.serverByPuchkov.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class RingBufferTest {
+    @Test
+    void offerAndPoll() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(buffer.offer(i));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+        Assertions.assertEquals(4, buffer.size());
+        Assertions.assertEquals(0, buffer.poll());
+        Assertions.assertTrue(buffer.offer(4));
+
+        List<Integer> batch = new ArrayList<>();
+        Assertions.assertEquals(4, buffer.drainTo(batch, 8));
+        Assertions.assertEquals(List.of(1, 2, 3, 4), batch);
+        Assertions.assertTrue(buffer.isEmpty());
+        Assertions.assertNull(buffer.poll());
+    }
+
+    @Test
+    void producerAndConsumer() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        WaitStrategy waitStrategy = WaitStrategy.blocking();
+        int amount = 200_000;
+        boolean[] running = new boolean[]{true};
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < amount; i++) {
+                while (!buffer.offer(i)) {
+                    Thread.onSpinWait();
+                }
+                waitStrategy.signal();
+            }
+        });
+        producer.start();
+
+        List<Integer> batch = new ArrayList<>();
+        int expected = 0;
+        while (expected < amount) {
+            waitStrategy.waitFor(() -> !buffer.isEmpty(), () -> running[0]);
+            buffer.drainTo(batch, 16);
+            for (Integer value : batch) {
+                Assertions.assertEquals(expected++, value);
+            }
+            batch.clear();
+        }
+        producer.join();
+
+        Assertions.assertTrue(buffer.isEmpty());
+    }
+}
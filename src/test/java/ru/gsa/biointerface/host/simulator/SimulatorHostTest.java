@@ -0,0 +1,200 @@
+package ru.gsa.biointerface.host.simulator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.gsa.biointerface.host.bus.SampleBus;
+import ru.gsa.biointerface.host.bus.SampleSubscriber;
+import ru.gsa.biointerface.host.serialport.ControlMessages;
+import ru.gsa.biointerface.host.serialport.DataCollector;
+import ru.gsa.biointerface.host.serialport.PacketHost;
+import ru.gsa.biointerface.host.serialport.SerialPortHandler;
+import ru.gsa.biointerface.metrics.MetricsRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class SimulatorHostTest {
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline)
+                Assertions.fail("Timeout");
+            //noinspection BusyWait
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void transmission() throws Exception {
+        SimulatorConfig config = SimulatorConfig.builder()
+                .serialNumber(1234)
+                .amountChannels(4)
+                .rate(2000)
+                .baudRate(0)
+                .build();
+        SimulatedDevice device = new SimulatedDevice(config);
+        SimulatorHost host = new SimulatorHost(device);
+        Collector collector = new Collector();
+        host.handler(new SerialPortHandler<>(collector));
+
+        host.start();
+        host.sendPackage(ControlMessages.GET_CONFIG);
+        await(collector::isAvailableDevice);
+        Assertions.assertEquals(1234, collector.serialNumber);
+        Assertions.assertEquals(4, collector.amountChannels);
+
+        host.sendPackage(ControlMessages.START_TRANSMISSION);
+        await(() -> collector.samples.get() >= 4 * 200);
+        host.sendPackage(ControlMessages.STOP_TRANSMISSION);
+        await(() -> !device.isTransmission());
+        // frames sent before the stop may be still in the read buffer of host
+        await(() -> host.getReadBufferSize() == 0);
+        host.stop();
+
+        Assertions.assertFalse(host.portIsOpen());
+        Assertions.assertEquals(0, host.getDecoder().getResyncCount());
+        Assertions.assertEquals(0, collector.outOfRange.get());
+        Assertions.assertEquals(device.getFramesSent() * 4, collector.samples.get() + 4 * host.getDroppedPackets());
+    }
+
+    @Test
+    void corruptedLine() throws Exception {
+        SimulatorConfig config = SimulatorConfig.parse("serial=7,channels=2,rate=4000,baud=0,drop=0.001,junk=0.001").get(0);
+        SimulatedDevice device = new SimulatedDevice(config);
+        SimulatorHost host = new SimulatorHost(device);
+        Collector collector = new Collector();
+        host.handler(new SerialPortHandler<>(collector));
+
+        host.start();
+        host.sendPackage(ControlMessages.GET_CONFIG);
+        await(collector::isAvailableDevice);
+        host.sendPackage(ControlMessages.START_TRANSMISSION);
+        await(() -> device.getBytesCorrupted() > 10);
+        host.stop();
+
+        Assertions.assertTrue(collector.samples.get() > 0);
+        Assertions.assertTrue(host.getDecoder().getResyncCount() > 0);
+    }
+
+    @Test
+    void lineLimit() throws Exception {
+        SimulatorConfig config = SimulatorConfig.parse("channels=8,rate=5000,baud=512000").get(0);
+        SimulatedDevice device = new SimulatedDevice(config);
+        SimulatorHost host = new SimulatorHost(device);
+        host.handler(new SerialPortHandler<>(new Collector()));
+
+        host.start();
+        long start = System.nanoTime();
+        host.sendPackage(ControlMessages.START_TRANSMISSION);
+        await(() -> device.getFramesOverrun() > 0);
+        host.stop();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // 20 bytes per frame, 51200 bytes per second: not more than 2560 frames per second
+        Assertions.assertTrue(device.getFramesSent() > 0);
+        Assertions.assertTrue(device.getFramesSent() <= 2560 * seconds + 4096 / 20);
+    }
+
+    @Test
+    void urgentCommand() throws Exception {
+        SimulatedDevice device = new SimulatedDevice(SimulatorConfig.parse("channels=2,rate=1000,baud=0").get(0));
+        SimulatorHost host = new SimulatorHost(device);
+        host.handler(new SerialPortHandler<>(new Collector()));
+        host.setWriteRate(10, 1);
+
+        host.start();
+        host.sendPackage(ControlMessages.START_TRANSMISSION);
+        await(device::isTransmission);
+        for (int i = 0; i < 20; i++) {
+            host.sendPackage(ControlMessages.GET_CONFIG);
+        }
+        long start = System.nanoTime();
+        host.sendPackage(ControlMessages.STOP_TRANSMISSION);
+        await(() -> !device.isTransmission());
+        long latency = System.nanoTime() - start;
+        int queued = host.getSendBufferSize();
+        host.stop();
+
+        // 20 commands of queue take 2 seconds at 10 packets per second
+        Assertions.assertTrue(latency < TimeUnit.MILLISECONDS.toNanos(500), "latency=" + latency);
+        Assertions.assertTrue(queued > 10, "queued=" + queued);
+        Assertions.assertEquals(1, MetricsRegistry.getInstance()
+                .histogram(PacketHost.METRICS_PREFIX + host.getName() + ".controlLatency").snapshot().getCount());
+    }
+
+    @Test
+    void slowRecording() throws Exception {
+        SimulatedDevice device = new SimulatedDevice(SimulatorConfig.parse("channels=2,rate=4000,baud=0").get(0));
+        SimulatorHost host = new SimulatorHost(device);
+        SampleBus bus = new SampleBus(host.getName());
+        AtomicLong recorded = new AtomicLong();
+        // not more than 1000 frames per second, the device sends 4000
+        SampleSubscriber recording = (samples, amount) -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            recorded.incrementAndGet();
+        };
+        bus.subscribe("recording", recording, SampleBus.Policy.BLOCK, 16, 1);
+        host.handler(new SerialPortHandler<>(new Collector() {
+            @Override
+            public void setSamples(int[] samples, int amount) {
+                try {
+                    bus.publish(samples, amount);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+
+        bus.start();
+        host.start();
+        host.sendPackage(ControlMessages.START_TRANSMISSION);
+        // the bus, the read buffer and the pool of packets are full, the device is slowed down
+        await(() -> host.getReceiveWaits() > 0);
+        host.sendPackage(ControlMessages.STOP_TRANSMISSION);
+        await(() -> !device.isTransmission());
+        await(() -> recorded.get() == device.getFramesSent());
+        host.stop();
+        bus.stop();
+
+        Assertions.assertEquals(0, host.getDroppedPackets());
+        Assertions.assertEquals(0, bus.getDroppedCount(recording));
+        Assertions.assertEquals(device.getFramesSent(), recorded.get());
+    }
+
+    private static class Collector implements DataCollector {
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong outOfRange = new AtomicLong();
+        private volatile int serialNumber;
+        private volatile int amountChannels;
+
+        @Override
+        public boolean isAvailableDevice() {
+            return amountChannels > 0;
+        }
+
+        @Override
+        public void setDevice(int serialNumber, int amountChannels) {
+            this.serialNumber = serialNumber;
+            this.amountChannels = amountChannels;
+        }
+
+        @Override
+        public void setSamples(int[] samples, int amount) {
+            for (int i = 0; i < amount; i++) {
+                if (samples[i] < -2048 || samples[i] > 2047)
+                    outOfRange.incrementAndGet();
+            }
+            this.samples.addAndGet(amount);
+        }
+
+        @Override
+        public void setFlagTransmission() {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.gsa.biointerface.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class MetricsRegistryTest {
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    @Test
+    void histogram() {
+        Histogram histogram = registry.histogram("test.histogram");
+        Assertions.assertSame(histogram, registry.histogram("test.histogram"));
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        Histogram.Snapshot first = histogram.snapshot();
+        Assertions.assertEquals(100, first.getCount());
+        Assertions.assertEquals(50500, first.getMean());
+        long p50 = first.getPercentile(0.5);
+        Assertions.assertTrue(p50 >= 50000 && p50 < 2 * 50000, "p50=" + p50);
+        long max = first.getMax();
+        Assertions.assertTrue(max >= 100000 && max < 2 * 100000, "max=" + max);
+
+        histogram.record(-1);
+        histogram.record(10_000_000L);
+        Histogram.Snapshot interval = histogram.snapshot().since(first);
+        Assertions.assertEquals(2, interval.getCount());
+        Assertions.assertEquals(0, interval.getPercentile(0.5));
+        Assertions.assertTrue(interval.getMax() >= 10_000_000L);
+    }
+
+    @Test
+    void snapshot() {
+        Counter counter = registry.counter("test.counter");
+        registry.gauge("test.gauge", () -> 42);
+        MetricsSnapshot previous = registry.snapshot();
+        counter.add(10);
+        MetricsSnapshot snapshot = registry.snapshot();
+
+        Assertions.assertEquals(10, snapshot.getCounters().get("test.counter") - previous.getCounters().get("test.counter"));
+        Assertions.assertEquals(42, snapshot.getGauges().get("test.gauge"));
+        Assertions.assertTrue(snapshot.format(previous).contains("test.gauge: 42"));
+
+        registry.removeGauges("test.");
+        Assertions.assertFalse(registry.snapshot().getGauges().containsKey("test.gauge"));
+    }
+}
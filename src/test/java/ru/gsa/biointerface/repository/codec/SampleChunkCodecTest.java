@@ -0,0 +1,109 @@
+package ru.gsa.biointerface.repository.codec;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.gsa.biointerface.domain.entity.ChannelID;
+import ru.gsa.biointerface.domain.entity.SampleChunk;
+
+import java.util.Random;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class SampleChunkCodecTest {
+    private static final ChannelID CHANNEL = new ChannelID(1, 0);
+    private static final int[] LENGTHS = new int[]{1, 2, 3, 7, 255, SampleChunk.CAPACITY - 1, SampleChunk.CAPACITY};
+
+    private static SampleChunk roundTrip(int[] values, boolean compress) {
+        SampleChunk chunk = SampleChunkCodec.encode(CHANNEL, 0, values, 0, values.length, compress);
+        int[] decoded = new int[values.length + 2];
+        int amount = SampleChunkCodec.decode(chunk, decoded, 1);
+
+        Assertions.assertEquals(values.length, amount);
+        for (int i = 0; i < values.length; i++) {
+            Assertions.assertEquals(values[i], decoded[i + 1], "sample " + i + " of " + values.length);
+        }
+        Assertions.assertEquals(0, decoded[0]);
+        Assertions.assertEquals(0, decoded[values.length + 1]);
+
+        return chunk;
+    }
+
+    @Test
+    void delta12() {
+        Random random = new Random(12);
+
+        for (boolean compress : new boolean[]{false, true}) {
+            for (int length : LENGTHS) {
+                int[] values = new int[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = random.nextInt(4096) - 2048;
+                }
+
+                SampleChunk chunk = roundTrip(values, compress);
+                Assertions.assertEquals(SampleChunkCodec.DELTA_12, chunk.getEncoding() & ~SampleChunkCodec.DEFLATED);
+                Assertions.assertEquals(length, chunk.getAmount());
+            }
+        }
+    }
+
+    @Test
+    void delta12WrapAround() {
+        for (boolean compress : new boolean[]{false, true}) {
+            for (int length : LENGTHS) {
+                int[] values = new int[length];
+                for (int i = 0; i < length; i++) {
+                    // deltas +4095 and -4095 are stored modulo 2^12
+                    values[i] = i % 2 == 0 ? -2048 : 2047;
+                }
+
+                SampleChunk chunk = roundTrip(values, compress);
+                Assertions.assertEquals(SampleChunkCodec.DELTA_12, chunk.getEncoding() & ~SampleChunkCodec.DEFLATED);
+                Assertions.assertEquals(-2048, chunk.getMinValue());
+                Assertions.assertEquals(length > 1 ? 2047 : -2048, chunk.getMaxValue());
+            }
+        }
+    }
+
+    @Test
+    void delta12Negative() {
+        for (boolean compress : new boolean[]{false, true}) {
+            for (int length : LENGTHS) {
+                int[] values = new int[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = -1 - i % 2048;
+                }
+
+                SampleChunk chunk = roundTrip(values, compress);
+                Assertions.assertEquals(SampleChunkCodec.DELTA_12, chunk.getEncoding() & ~SampleChunkCodec.DEFLATED);
+                Assertions.assertTrue(chunk.getMaxValue() < 0);
+            }
+        }
+    }
+
+    @Test
+    void deflated() {
+        int[] values = new int[SampleChunk.CAPACITY - 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) Math.round(2000 * Math.sin(i / 100.0));
+        }
+
+        SampleChunk plain = roundTrip(values, false);
+        SampleChunk deflated = roundTrip(values, true);
+
+        Assertions.assertEquals(SampleChunkCodec.DELTA_12, plain.getEncoding());
+        Assertions.assertEquals((values.length * 3 + 1) / 2, plain.getData().length);
+        Assertions.assertEquals(SampleChunkCodec.DELTA_12 | SampleChunkCodec.DEFLATED, deflated.getEncoding());
+        Assertions.assertTrue(deflated.getData().length < plain.getData().length);
+    }
+
+    @Test
+    void raw32() {
+        int[] values = new int[]{-2049, 0, 2048, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+        for (boolean compress : new boolean[]{false, true}) {
+            SampleChunk chunk = roundTrip(values, compress);
+            Assertions.assertEquals(SampleChunkCodec.RAW_32, chunk.getEncoding() & ~SampleChunkCodec.DEFLATED);
+        }
+    }
+}
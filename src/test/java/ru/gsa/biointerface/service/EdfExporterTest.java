@@ -0,0 +1,166 @@
+package ru.gsa.biointerface.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.gsa.biointerface.domain.entity.*;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+import ru.gsa.biointerface.repository.impl.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class EdfExporterTest {
+    private static final int AMOUNT_SAMPLES = 250;
+    private static final int FREQUENCY = 100;
+    private static final int SIGNALS = 3;
+    private static final int HEADER_SIZE = 256 * (SIGNALS + 1);
+    private static final int RECORD_SIZE = 2 * (2 * FREQUENCY + 30);
+    private static ExaminationService service;
+    private static Examination examination;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        DatabaseHandler.constructInstanceForTest();
+        service = ExaminationService.getInstance();
+        Patient patient = new Patient(300, "Иванов", "Пётр", "Сидорович",
+                new GregorianCalendar(2021, Calendar.NOVEMBER, 27), null, "edf");
+        PatientRepositoryImpl.getInstance().save(patient);
+        Device device = new Device(300, 2);
+        DeviceRepositoryImpl.getInstance().save(device);
+        ChannelName alpha = ChannelNameRepositoryImpl.getInstance().save(new ChannelName("Альфа ритм", null));
+
+        examination = ExaminationRepositoryImpl.getInstance().save(new Examination(patient, device, "edf"));
+        examination.getChannels().add(ChannelRepositoryImpl.getInstance().save(new Channel(0, examination, alpha)));
+        examination.getChannels().add(ChannelRepositoryImpl.getInstance().save(new Channel(1, examination, null)));
+
+        SampleWriter writer = service.recordingStart(examination);
+        for (int i = 0; i < AMOUNT_SAMPLES; i++) {
+            writer.add(0, i - 1000);
+            // out of 12-bit range of EDF signal
+            writer.add(1, i == 0 ? 5000 : i == 1 ? -5000 : 3 * i);
+        }
+        service.recordingStop(examination);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        service.delete(examination);
+    }
+
+    private static String field(byte[] file, int offset, int length) {
+        return new String(file, offset, length, StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * @param section - offset of section of signal fields from the start of signal header
+     */
+    private static String signalField(byte[] file, int section, int length, int signal) {
+        return field(file, 256 + section + signal * length, length);
+    }
+
+    private static short sample(byte[] file, int record, int channel, int index) {
+        int position = HEADER_SIZE + record * RECORD_SIZE + 2 * (channel * FREQUENCY + index);
+
+        return ByteBuffer.wrap(file, position, 2).order(ByteOrder.LITTLE_ENDIAN).getShort();
+    }
+
+    private static String timeKeeping(byte[] file, int record) {
+        int position = HEADER_SIZE + record * RECORD_SIZE + 2 * 2 * FREQUENCY;
+
+        return new String(file, position, 2 * 30, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void export(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("examination.edf");
+        EdfExporter exporter = new EdfExporter(SampleService.getInstance(), FREQUENCY);
+        List<Long> progress = new ArrayList<>();
+
+        long records = exporter.export(examination, path, (written, total) -> progress.add(written));
+        byte[] file = Files.readAllBytes(path);
+
+        Assertions.assertEquals(3, records);
+        Assertions.assertEquals(List.of(3L), progress);
+        Assertions.assertEquals(HEADER_SIZE + records * RECORD_SIZE, file.length);
+
+        SimpleDateFormat edfDate = new SimpleDateFormat("dd-MMM-yyyy", Locale.ENGLISH);
+        Assertions.assertEquals("0", field(file, 0, 8));
+        Assertions.assertEquals("300 X 27-NOV-2021 Ivanov_Petr_Sidorovich", field(file, 8, 80));
+        Assertions.assertEquals("Startdate " + edfDate.format(examination.getStarttime()).toUpperCase(Locale.ENGLISH)
+                + " " + examination.getId() + " X biointerface_300", field(file, 88, 80));
+        Assertions.assertEquals(new SimpleDateFormat("dd.MM.yy").format(examination.getStarttime()), field(file, 168, 8));
+        Assertions.assertEquals(new SimpleDateFormat("HH.mm.ss").format(examination.getStarttime()), field(file, 176, 8));
+        Assertions.assertEquals(String.valueOf(HEADER_SIZE), field(file, 184, 8));
+        Assertions.assertEquals("EDF+C", field(file, 192, 44));
+        Assertions.assertEquals("3", field(file, 236, 8));
+        Assertions.assertEquals("1", field(file, 244, 8));
+        Assertions.assertEquals(String.valueOf(SIGNALS), field(file, 252, 4));
+
+        Assertions.assertEquals("Alfa_ritm", signalField(file, 0, 16, 0));
+        Assertions.assertEquals("Channel 2", signalField(file, 0, 16, 1));
+        Assertions.assertEquals("EDF Annotations", signalField(file, 0, 16, 2));
+        int physicalMin = SIGNALS * (16 + 80 + 8);
+        int physicalMax = physicalMin + SIGNALS * 8;
+        int digitalMin = physicalMax + SIGNALS * 8;
+        int digitalMax = digitalMin + SIGNALS * 8;
+        int samples = digitalMax + SIGNALS * (8 + 80);
+        for (int signal = 0; signal < 2; signal++) {
+            Assertions.assertEquals("-2048", signalField(file, physicalMin, 8, signal));
+            Assertions.assertEquals("2047", signalField(file, physicalMax, 8, signal));
+            Assertions.assertEquals("-2048", signalField(file, digitalMin, 8, signal));
+            Assertions.assertEquals("2047", signalField(file, digitalMax, 8, signal));
+            Assertions.assertEquals(String.valueOf(FREQUENCY), signalField(file, samples, 8, signal));
+        }
+        Assertions.assertEquals("-32768", signalField(file, digitalMin, 8, 2));
+        Assertions.assertEquals("32767", signalField(file, digitalMax, 8, 2));
+        Assertions.assertEquals("30", signalField(file, samples, 8, 2));
+
+        // the first data record: channels one after another, then time-keeping annotation
+        for (int i = 0; i < FREQUENCY; i++) {
+            Assertions.assertEquals(i - 1000, sample(file, 0, 0, i));
+        }
+        Assertions.assertEquals(2047, sample(file, 0, 1, 0));
+        Assertions.assertEquals(-2048, sample(file, 0, 1, 1));
+        for (int i = 2; i < FREQUENCY; i++) {
+            Assertions.assertEquals(3 * i, sample(file, 0, 1, i));
+        }
+        Assertions.assertEquals("+0\u0014\u0014" + "\0".repeat(56), timeKeeping(file, 0));
+        Assertions.assertEquals("+2\u0014\u0014" + "\0".repeat(56), timeKeeping(file, 2));
+
+        // the last data record is padded with zeros
+        Assertions.assertEquals(AMOUNT_SAMPLES - 1 - 1000, sample(file, 2, 0, AMOUNT_SAMPLES - 2 * FREQUENCY - 1));
+        Assertions.assertEquals(0, sample(file, 2, 0, AMOUNT_SAMPLES - 2 * FREQUENCY));
+        Assertions.assertEquals(0, sample(file, 2, 1, FREQUENCY - 1));
+    }
+
+    @Test
+    void cancel(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("cancelled.edf");
+        // 25 data records, 3 windows
+        EdfExporter exporter = new EdfExporter(SampleService.getInstance(), 10);
+        List<Long> progress = new ArrayList<>();
+
+        Assertions.assertThrows(ServiceException.class, () -> exporter.export(examination, path, (written, total) -> {
+            progress.add(written);
+            exporter.cancel();
+        }));
+        Assertions.assertTrue(exporter.isCancelled());
+        Assertions.assertEquals(List.of((long) EdfExporter.WINDOW_RECORDS), progress);
+        Assertions.assertFalse(Files.exists(path));
+    }
+}
@@ -6,12 +6,17 @@ import org.junit.jupiter.api.Test;
 import ru.gsa.biointerface.domain.entity.*;
 import ru.gsa.biointerface.repository.ChannelRepository;
 import ru.gsa.biointerface.repository.ExaminationRepository;
+import ru.gsa.biointerface.repository.SampleCursor;
 import ru.gsa.biointerface.repository.SampleRepository;
+import ru.gsa.biointerface.repository.SampleTransaction;
 import ru.gsa.biointerface.repository.database.DatabaseHandler;
+import ru.gsa.biointerface.repository.exception.ReadException;
 import ru.gsa.biointerface.repository.exception.TransactionNotOpenException;
 import ru.gsa.biointerface.repository.impl.*;
 
 import javax.persistence.EntityNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -203,10 +208,17 @@ class ExaminationServiceTest {
         entity.getChannels().add(channel);
         service.recordingStart(entity);
         Assertions.assertTrue(service.isRecording());
-        Assertions.assertTrue(sampleRepository.transactionIsOpen());
+        Assertions.assertTrue(service.isRecording(entity));
+        Examination recorded = entity;
+        Assertions.assertThrows(
+                ServiceException.class,
+                () -> service.recordingStart(recorded));
+        service.recordingStop(entity);
+        Assertions.assertFalse(service.isRecording(entity));
         Sample sample = new Sample(0, channel, 10);
-        sampleRepository.insert(sample);
-        sampleRepository.transactionClose();
+        try (SampleTransaction transaction = sampleRepository.openTransaction()) {
+            transaction.insert(sample);
+        }
         Optional<Examination> entityTest = repository.findById(entity.getId());
         Assertions.assertTrue(entityTest.isPresent());
         Assertions.assertEquals(entity, entityTest.get());
@@ -222,6 +234,301 @@ class ExaminationServiceTest {
         Assertions.assertFalse(sampleRepository.existsById(sampleTest.get().getId()));
     }
 
+    /**
+     * Records an examination of two channels: value of sample is its index plus number of channel.
+     */
+    private static Examination record(int amountSamples) throws Exception {
+        Device deviceTest = new Device(2, 2);
+        DeviceRepositoryImpl.getInstance().save(deviceTest);
+        Examination entity = repository.save(new Examination(patient, deviceTest, comment));
+        for (int i = 0; i < deviceTest.getAmountChannels(); i++) {
+            entity.getChannels().add(channelRepository.save(new Channel(i, entity, null)));
+        }
+
+        SampleService sampleService = SampleService.getInstance();
+        service.recordingStart(entity);
+        for (int i = 0; i < amountSamples; i++) {
+            for (Channel channel : entity.getChannels()) {
+                sampleService.setSampleInChannel(channel, i + channel.getId().getNumber());
+            }
+        }
+        SampleWriter writer = sampleService.getWriter(entity);
+        service.recordingStop(entity);
+        Assertions.assertEquals((long) amountSamples * entity.getChannels().size(), writer.getWrittenCount());
+        Assertions.assertTrue(writer.getBatchCount() > 0);
+
+        return entity;
+    }
+
+    @Test
+    void recordingSamples() throws Exception {
+        SampleService sampleService = SampleService.getInstance();
+        Assertions.assertThrows(
+                ServiceException.class,
+                () -> sampleService.setSampleInChannel(channelRepository.findAll().get(0), 10));
+        int amountSamples = SampleWriter.DEFAULT_BATCH_SIZE * 3 + 7;
+        Examination entity = record(amountSamples);
+        Assertions.assertFalse(service.isRecording(entity));
+
+        for (Channel channel : entity.getChannels()) {
+            int number = channel.getId().getNumber();
+            Assertions.assertEquals(amountSamples, sampleService.countByChannel(channel));
+            List<Sample> samples = sampleRepository.findAllByChannel(channel);
+            Assertions.assertEquals(amountSamples, samples.size());
+            Collections.sort(samples);
+            for (int i = 0; i < amountSamples; i++) {
+                Assertions.assertEquals(i, samples.get(i).getId().getId());
+                Assertions.assertEquals(i + number, samples.get(i).getValue());
+            }
+            List<SampleChunk> chunks = sampleService.findChunksByChannel(channel, SampleChunk.CAPACITY, SampleChunk.CAPACITY + 1);
+            Assertions.assertEquals(1, chunks.size());
+            Assertions.assertEquals(SampleChunk.CAPACITY, chunks.get(0).getStart());
+            Assertions.assertEquals(SampleChunk.CAPACITY + number, chunks.get(0).getMinValue());
+        }
+
+        service.delete(entity);
+        Assertions.assertFalse(repository.existsById(entity.getId()));
+    }
+
+    @Test
+    void viewingSamples() throws Exception {
+        SampleService sampleService = SampleService.getInstance();
+        int amountSamples = SampleChunk.CAPACITY + 7;
+        Examination entity = record(amountSamples);
+
+        for (Channel channel : entity.getChannels()) {
+            int number = channel.getId().getNumber();
+            SampleOverview overview = sampleService.openForViewing(channel, 100);
+            Assertions.assertEquals(amountSamples, overview.getLength());
+            Assertions.assertEquals(SampleService.chooseLevel(amountSamples, 100), overview.getRange().getLevel());
+            Assertions.assertTrue(overview.getRange().getAmount() >= 100);
+            Assertions.assertEquals(number, overview.getRange().getMin()[0]);
+            SampleRange range = sampleService.findRange(channel, 0, 100, 110);
+            Assertions.assertEquals(10, range.getAmount());
+            Assertions.assertEquals(100 + number, range.getMin()[0]);
+            range = sampleService.findRange(channel, 1, 0, amountSamples);
+            int points = (amountSamples + SampleSummary.FACTOR - 1) / SampleSummary.FACTOR;
+            Assertions.assertEquals(points, range.getAmount());
+            Assertions.assertEquals(number, range.getMin()[0]);
+            Assertions.assertEquals(SampleSummary.FACTOR - 1 + number, range.getMax()[0]);
+            Assertions.assertEquals(amountSamples - 1 + number, range.getMax()[points - 1]);
+        }
+
+        service.delete(entity);
+    }
+
+    @Test
+    void readingSamples() throws Exception {
+        SampleService sampleService = SampleService.getInstance();
+        int amountSamples = SampleChunk.CAPACITY + 7;
+        Examination entity = record(amountSamples);
+
+        for (Channel channel : entity.getChannels()) {
+            int number = channel.getId().getNumber();
+            // range crosses the border of chunks and the end of recording
+            int[] values = sampleService.findValuesByChannel(channel, SampleChunk.CAPACITY - 5, amountSamples + 100);
+            Assertions.assertEquals(amountSamples - SampleChunk.CAPACITY + 5, values.length);
+            for (int i = 0; i < values.length; i++) {
+                Assertions.assertEquals(SampleChunk.CAPACITY - 5 + i + number, values[i]);
+            }
+        }
+
+        int[][] values = sampleService.findValuesByExamination(entity, 100, 200);
+        Assertions.assertEquals(entity.getChannels().size(), values.length);
+        for (int number = 0; number < values.length; number++) {
+            Assertions.assertEquals(100, values[number].length);
+            Assertions.assertEquals(100 + number, values[number][0]);
+        }
+
+        service.delete(entity);
+    }
+
+    @Test
+    void cursorSamples() throws Exception {
+        SampleService sampleService = SampleService.getInstance();
+        int amountSamples = SampleChunk.CAPACITY * 2 + 7;
+        Examination entity = record(amountSamples);
+        Channel channel = entity.getChannels().get(1);
+
+        try (SampleCursor cursor = sampleService.openCursor(channel, 10, amountSamples)) {
+            int[] buffer = new int[1000];
+            int total = 0;
+            int count;
+            while ((count = cursor.read(buffer, 0, buffer.length)) >= 0) {
+                Assertions.assertEquals(10 + total + 1, buffer[0]);
+                total += count;
+            }
+            Assertions.assertEquals(amountSamples - 10, total);
+            Assertions.assertEquals(amountSamples, cursor.getPosition());
+        }
+
+        // the closed cursor reads the decoded chunk, but not the next one
+        SampleCursor cursor = sampleService.openCursor(channel, 0, amountSamples);
+        int[] buffer = new int[SampleChunk.CAPACITY];
+        Assertions.assertEquals(10, cursor.read(buffer, 0, 10));
+        cursor.close();
+        Assertions.assertThrows(ReadException.class, () -> cursor.read(buffer, 0, buffer.length));
+
+        service.delete(entity);
+    }
+
+    @Test
+    void recoveringJournal() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        System.setProperty(SampleJournal.DIRECTORY_PROPERTY, directory.toString());
+        try {
+            Device deviceTest = new Device(4, 2);
+            DeviceRepositoryImpl.getInstance().save(deviceTest);
+            Examination entity = new Examination(patient, deviceTest, comment);
+            entity = repository.save(entity);
+            for (int i = 0; i < deviceTest.getAmountChannels(); i++) {
+                entity.getChannels().add(channelRepository.save(new Channel(i, entity, null)));
+            }
+
+            // recording which is stopped normally leaves no journal
+            SampleService sampleService = SampleService.getInstance();
+            SampleWriter writer = service.recordingStart(entity);
+            Assertions.assertEquals(1, SampleJournal.find(directory).size());
+            for (int i = 0; i < 100; i++) {
+                writer.add(0, i);
+                writer.add(1, -i);
+            }
+            service.recordingStopAsync(entity).get();
+            Assertions.assertTrue(SampleJournal.find(directory).isEmpty());
+            Assertions.assertEquals(0, sampleService.recoverJournals());
+
+            // journal of crashed recording: all samples, the database has only a part of them
+            int amountSamples = SampleChunk.CAPACITY + 10;
+            SampleJournal journal = SampleJournal.create(directory, entity.getId(), 2);
+            for (int i = 0; i < amountSamples; i++) {
+                journal.append(0, i);
+                journal.append(1, -i);
+            }
+            journal.close();
+
+            Assertions.assertEquals(1, sampleService.recoverJournals());
+            Assertions.assertTrue(SampleJournal.find(directory).isEmpty());
+            for (Channel channel : entity.getChannels()) {
+                int sign = channel.getId().getNumber() == 0 ? 1 : -1;
+                Assertions.assertEquals(amountSamples, sampleService.countByChannel(channel));
+                int[] values = sampleService.findValuesByChannel(channel, 0, amountSamples);
+                for (int i = 0; i < amountSamples; i++) {
+                    Assertions.assertEquals(sign * i, values[i]);
+                }
+            }
+        } finally {
+            System.clearProperty(SampleJournal.DIRECTORY_PROPERTY);
+        }
+    }
+
+    @Test
+    void failedJournal() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        System.setProperty(SampleJournal.DIRECTORY_PROPERTY, directory.toString());
+        try {
+            Device deviceTest = new Device(5, 2);
+            DeviceRepositoryImpl.getInstance().save(deviceTest);
+            List<Examination> entities = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Examination entity = repository.save(new Examination(patient, deviceTest, comment));
+                for (int j = 0; j < deviceTest.getAmountChannels(); j++) {
+                    entity.getChannels().add(channelRepository.save(new Channel(j, entity, null)));
+                }
+                entities.add(entity);
+            }
+            SampleService sampleService = SampleService.getInstance();
+            int amountSamples = 200;
+
+            // journal fails in the middle of recording (IOException of append)
+            SampleWriter writer = service.recordingStart(entities.get(0));
+            for (int i = 0; i < amountSamples; i++) {
+                if (i == amountSamples / 2) {
+                    writer.getJournal().close();
+                }
+                writer.add(0, i);
+                writer.add(1, -i);
+            }
+            Assertions.assertNull(writer.getJournal());
+            Assertions.assertTrue(SampleJournal.find(directory).isEmpty());
+            service.recordingStopAsync(entities.get(0)).get();
+
+            // value out of range of journal
+            writer = service.recordingStart(entities.get(1));
+            writer.add(0, SampleJournal.MAX_VALUE + 1);
+            writer.add(1, SampleJournal.MIN_VALUE - 1);
+            Assertions.assertNull(writer.getJournal());
+            Assertions.assertTrue(SampleJournal.find(directory).isEmpty());
+            service.recordingStopAsync(entities.get(1)).get();
+
+            // the discarded journals are not imported over committed samples
+            Assertions.assertEquals(0, sampleService.recoverJournals());
+            for (Channel channel : entities.get(0).getChannels()) {
+                int sign = channel.getId().getNumber() == 0 ? 1 : -1;
+                Assertions.assertEquals(amountSamples, sampleService.countByChannel(channel));
+                int[] values = sampleService.findValuesByChannel(channel, 0, amountSamples);
+                for (int i = 0; i < amountSamples; i++) {
+                    Assertions.assertEquals(sign * i, values[i]);
+                }
+            }
+            List<Channel> channels = entities.get(1).getChannels();
+            Assertions.assertEquals(SampleJournal.MAX_VALUE + 1, sampleService.findValuesByChannel(channels.get(0), 0, 1)[0]);
+            Assertions.assertEquals(SampleJournal.MIN_VALUE - 1, sampleService.findValuesByChannel(channels.get(1), 0, 1)[0]);
+        } finally {
+            System.clearProperty(SampleJournal.DIRECTORY_PROPERTY);
+        }
+    }
+
+    @Test
+    void recordingInParallel() throws Exception {
+        Device deviceTest = new Device(3, 2);
+        DeviceRepositoryImpl.getInstance().save(deviceTest);
+        List<Examination> entities = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Examination entity = repository.save(new Examination(patient, deviceTest, comment));
+            for (int j = 0; j < deviceTest.getAmountChannels(); j++) {
+                entity.getChannels().add(channelRepository.save(new Channel(j, entity, null)));
+            }
+            entities.add(entity);
+        }
+
+        int amountSamples = SampleWriter.DEFAULT_BATCH_SIZE * 2 + 3;
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (Examination entity : entities) {
+            SampleWriter writer = service.recordingStart(entity);
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < amountSamples; i++) {
+                        for (int j = 0; j < entity.getChannels().size(); j++) {
+                            writer.add(j, entity.getId() + i);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertTrue(failures.isEmpty(), failures.toString());
+        Assertions.assertTrue(service.isRecording());
+
+        SampleService sampleService = SampleService.getInstance();
+        for (Examination entity : entities) {
+            service.recordingStop(entity);
+            for (Channel channel : entity.getChannels()) {
+                int[] values = sampleService.findValuesByChannel(channel, 0, amountSamples);
+                Assertions.assertEquals(amountSamples, values.length);
+                Assertions.assertEquals(entity.getId() + amountSamples - 1, values[amountSamples - 1]);
+            }
+            service.delete(entity);
+        }
+        Assertions.assertFalse(service.isRecording());
+    }
+
     @Test
     void recordingStop() throws Exception {
         Examination entity = new Examination(patient, device, comment);
@@ -229,12 +536,13 @@ class ExaminationServiceTest {
         Channel channel = new Channel(0, entity, null);
         channel = channelRepository.save(channel);
         entity.getChannels().add(channel);
+        Examination finalEntity = entity;
         Assertions.assertThrows(
                 TransactionNotOpenException.class,
-                () -> service.recordingStop());
-        sampleRepository.transactionOpen();
+                () -> service.recordingStop(finalEntity));
+        service.recordingStart(entity);
         Assertions.assertDoesNotThrow(
-                () -> service.recordingStop());
+                () -> service.recordingStop(finalEntity));
         Optional<Examination> entityTest = repository.findById(entity.getId());
         Assertions.assertTrue(entityTest.isPresent());
         Assertions.assertEquals(entity, entityTest.get());
@@ -253,10 +561,10 @@ class ExaminationServiceTest {
         Channel channel = new Channel(0, entity, null);
         channel = channelRepository.save(channel);
         entity.getChannels().add(channel);
-        sampleRepository.transactionOpen();
         Sample sample = new Sample(0, channel, 10);
-        sampleRepository.insert(sample);
-        sampleRepository.transactionClose();
+        try (SampleTransaction transaction = sampleRepository.openTransaction()) {
+            transaction.insert(sample);
+        }
 
         Assertions.assertThrows(
                 NullPointerException.class,
@@ -305,11 +613,11 @@ class ExaminationServiceTest {
         Channel channel = new Channel(0, entity, null);
         channel = channelRepository.save(channel);
         entity.getChannels().add(channel);
-        sampleRepository.transactionOpen();
         Sample sample = new Sample(0, channel, 10);
         channel.getSamples().add(sample);
-        sampleRepository.insert(sample);
-        sampleRepository.transactionClose();
+        try (SampleTransaction transaction = sampleRepository.openTransaction()) {
+            transaction.insert(sample);
+        }
 
         Examination entityTest = service.loadWithGraphsById(entity.getId());
 
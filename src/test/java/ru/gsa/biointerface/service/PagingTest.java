@@ -0,0 +1,87 @@
+package ru.gsa.biointerface.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.gsa.biointerface.domain.entity.Device;
+import ru.gsa.biointerface.domain.entity.Examination;
+import ru.gsa.biointerface.domain.entity.Patient;
+import ru.gsa.biointerface.repository.ExaminationFilter;
+import ru.gsa.biointerface.repository.PageRequest;
+import ru.gsa.biointerface.repository.PatientFilter;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class PagingTest {
+    private static PatientService patientService;
+    private static DeviceService deviceService;
+    private static ExaminationService examinationService;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        DatabaseHandler.constructInstanceForTest();
+        patientService = PatientService.getInstance();
+        deviceService = DeviceService.getInstance();
+        examinationService = ExaminationService.getInstance();
+    }
+
+    @Test
+    void pagesOfPatientsAndExaminations() throws Exception {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Patient patient = new Patient(200 + i, "pagingTest_" + (4 - i), "first", "middle",
+                    new GregorianCalendar(2000, Calendar.JANUARY, 1), null, null);
+            patientService.save(patient);
+            patients.add(patient);
+        }
+        Device device = deviceService.save(new Device(200, 1));
+        for (int i = 0; i < 3; i++) {
+            examinationService.save(new Examination(patients.get(0), device, null));
+        }
+
+        PatientFilter byName = PatientFilter.builder().name("PAGINGtest_").build();
+        Assertions.assertEquals(5, patientService.count(byName));
+        Assertions.assertEquals(0, patientService.count(PatientFilter.builder().name("paging%").build()));
+
+        List<Patient> page = patientService.findPage(byName, PageRequest.builder()
+                .offset(1)
+                .limit(2)
+                .sort("secondName")
+                .ascending(false)
+                .build());
+        Assertions.assertEquals(2, page.size());
+        Assertions.assertEquals("pagingTest_3", page.get(0).getSecondName());
+        Assertions.assertEquals("pagingTest_2", page.get(1).getSecondName());
+
+        List<Patient> found = patientService.search(PatientFilter.builder().name("pagingtets_3").build(), 10);
+        Assertions.assertEquals(1, found.size());
+        Assertions.assertEquals(patients.get(1).getId(), found.get(0).getId());
+
+        ExaminationFilter byPatient = ExaminationFilter.builder().patientId(patients.get(0).getId()).build();
+        Assertions.assertEquals(3, examinationService.count(byPatient));
+        Assertions.assertEquals(3, examinationService.count(ExaminationFilter.builder()
+                .patientName("pagingtest_4")
+                .deviceId(device.getId())
+                .build()));
+        List<Examination> examinations = examinationService.findPage(byPatient, PageRequest.builder()
+                .sort("starttime")
+                .build());
+        Assertions.assertEquals(3, examinations.size());
+        Assertions.assertEquals(device.getId(), examinations.get(0).getDevice().getId());
+
+        for (Examination examination : examinations) {
+            examinationService.delete(examination);
+        }
+        for (Patient patient : patients) {
+            patientService.delete(patient);
+        }
+        deviceService.delete(device);
+    }
+}
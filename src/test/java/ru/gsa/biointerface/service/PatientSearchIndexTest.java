@@ -0,0 +1,75 @@
+package ru.gsa.biointerface.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.gsa.biointerface.repository.PatientFilter;
+import ru.gsa.biointerface.repository.PatientSearchKey;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class PatientSearchIndexTest {
+    private PatientSearchIndex index;
+
+    private static PatientFilter query(String name) {
+        return PatientFilter.builder().name(name).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientSearchIndex();
+        index.put(new PatientSearchKey(1, "Петров", "Иван", "Сергеевич",
+                new GregorianCalendar(1980, Calendar.MARCH, 5), 1));
+        index.put(new PatientSearchKey(2, "Петровский", "Алексей", "Иванович",
+                new GregorianCalendar(1991, Calendar.JULY, 12), null));
+        index.put(new PatientSearchKey(12, "Семёнова", "Анна", "Петровна",
+                new GregorianCalendar(1980, Calendar.DECEMBER, 1), 2));
+    }
+
+    @Test
+    void prefix() {
+        Assertions.assertEquals(List.of(1, 2, 12), index.search(query("пет"), 10));
+        Assertions.assertEquals(List.of(1, 2, 12), index.search(query("петров"), 10).subList(0, 3));
+        Assertions.assertEquals(List.of(1), index.search(query("пет ив серг"), 10));
+        Assertions.assertEquals(List.of(12), index.search(query("семенова"), 10));
+        Assertions.assertEquals(List.of(1), index.search(query("петров"), 1));
+    }
+
+    @Test
+    void idAndBirthday() {
+        Assertions.assertEquals(List.of(1, 2, 12), index.search(query("1"), 10));
+        Assertions.assertEquals(List.of(12, 2), index.search(query("12"), 10));
+        Assertions.assertEquals(List.of(2), index.search(query("12.07"), 10));
+        Assertions.assertEquals(List.of(1, 12), index.search(query("1980"), 10));
+    }
+
+    @Test
+    void typos() {
+        Assertions.assertEquals(List.of(1), index.search(query("петорв"), 10));
+        Assertions.assertEquals(List.of(1), index.search(query("пеnров"), 10));
+        Assertions.assertEquals(List.of(1), index.search(query("петрова"), 10).subList(0, 1));
+        Assertions.assertEquals(List.of(12), index.search(query("семнова"), 10));
+        Assertions.assertTrue(index.search(query("птеорв"), 10).isEmpty());
+    }
+
+    @Test
+    void filterAndUpdates() {
+        Assertions.assertEquals(List.of(12), index.search(PatientFilter.builder()
+                .name("петров")
+                .icdId(2)
+                .build(), 10));
+
+        index.remove(1);
+        Assertions.assertEquals(List.of(2, 12), index.search(query("петров"), 10));
+        index.put(new PatientSearchKey(2, "Иванов", "Алексей", "Иванович",
+                new GregorianCalendar(1991, Calendar.JULY, 12), null));
+        Assertions.assertEquals(List.of(12), index.search(query("петров"), 10));
+        Assertions.assertEquals(List.of(2), index.search(query("иванво"), 10));
+        Assertions.assertEquals(2, index.size());
+    }
+}
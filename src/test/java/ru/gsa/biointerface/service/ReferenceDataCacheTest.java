@@ -0,0 +1,87 @@
+package ru.gsa.biointerface.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.gsa.biointerface.domain.entity.*;
+import ru.gsa.biointerface.repository.database.DatabaseHandler;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * Created by Gavrilov Stepan (itgavrilov@gmail.com) on 18.10.2026.
+ */
+class ReferenceDataCacheTest {
+    private static SessionFactory sessionFactory;
+    private static IcdService icdService;
+    private static PatientService patientService;
+    private static DeviceService deviceService;
+    private static ExaminationService examinationService;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        DatabaseHandler.constructInstanceForTest();
+        sessionFactory = DatabaseHandler.getInstance().getSessionFactory();
+        icdService = IcdService.getInstance();
+        patientService = PatientService.getInstance();
+        deviceService = DeviceService.getInstance();
+        examinationService = ExaminationService.getInstance();
+    }
+
+    private static long browse(Patient patient) throws Exception {
+        Statistics statistics = sessionFactory.getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        icdService.findAll();
+        for (Patient entity : patientService.findAll()) {
+            if (entity.getId() == patient.getId()) {
+                List<Examination> examinations = examinationService.findAllByPatientRecord(entity);
+                Assertions.assertEquals(3, examinations.size());
+                for (Examination examination : examinations) {
+                    Assertions.assertEquals(patient.getIcd().getName(), examination.getPatient().getIcd().getName());
+                }
+            }
+        }
+
+        return statistics.getPrepareStatementCount() - statements;
+    }
+
+    @Test
+    void browsingPatientsAndExaminations() throws Exception {
+        Icd icd = icdService.save(new Icd("cacheTestIcd", 10, null));
+        Patient patient = new Patient(100, "second", "first", "middle",
+                new GregorianCalendar(2000, Calendar.JANUARY, 1), icd, null);
+        patientService.save(patient);
+        Device device = deviceService.save(new Device(100, 1));
+        for (int i = 0; i < 3; i++) {
+            examinationService.save(new Examination(patient, device, null));
+        }
+
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long cold = browse(patient);
+        long warm = browse(patient);
+
+        Assertions.assertTrue(warm < cold, "warm=" + warm + ", cold=" + cold);
+        Assertions.assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+        Assertions.assertTrue(statistics.getQueryCacheHitCount() > 0);
+
+        icd.setName("cacheTestIcd2");
+        icdService.save(icd);
+        Assertions.assertEquals("cacheTestIcd2", icdService.findById(icd.getId()).getName());
+        Assertions.assertTrue(icdService.findAll().stream().anyMatch(o -> "cacheTestIcd2".equals(o.getName())));
+
+        for (Examination examination : examinationService.findAllByPatientRecord(patient)) {
+            examinationService.delete(examination);
+        }
+        patientService.delete(patient);
+        Assertions.assertTrue(patientService.findAll().stream().noneMatch(o -> o.getId() == patient.getId()));
+        deviceService.delete(device);
+        icdService.delete(icd);
+    }
+}